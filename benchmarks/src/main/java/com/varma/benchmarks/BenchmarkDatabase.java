@@ -0,0 +1,70 @@
+package com.varma.benchmarks;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The BenchmarkDatabase class runs a local Postgres for the duration of a benchmark trial. The services use SQL only
+ * Postgres understands (triggers in PL/pgSQL, {@code RETURNING}, {@code generate_series}), so the embedded server is
+ * a real Postgres, started from the binaries shipped with embedded-postgres and deleted when closed.
+ */
+public class BenchmarkDatabase implements AutoCloseable {
+
+    private static final String USER = "postgres";
+
+    private final EmbeddedPostgres postgres;
+
+    private BenchmarkDatabase(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+    }
+
+    /**
+     * Starts a Postgres holding an empty database of every given name.
+     *
+     * @param databases the names of the databases
+     * @return the running database
+     */
+    public static BenchmarkDatabase start(String... databases) {
+        try {
+            BenchmarkDatabase database = new BenchmarkDatabase(EmbeddedPostgres.builder().start());
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database.postgres.getPostgresDatabase());
+            for (String name : databases) {
+                jdbcTemplate.execute("CREATE DATABASE " + name);
+            }
+            return database;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the JDBC URL of a database, with batched inserts rewritten the way the services configure it.
+     *
+     * @param database the name of the database
+     * @return the URL
+     */
+    public String jdbcUrl(String database) {
+        return postgres.getJdbcUrl(USER, database) + "&reWriteBatchedInserts=true";
+    }
+
+    /**
+     * Returns the user the services connect as.
+     *
+     * @return the user
+     */
+    public String user() {
+        return USER;
+    }
+
+    @Override
+    public void close() {
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.varma.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.model.QuestionWrapper;
+import com.varma.model.Response;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JSON bodies exchanged between the services for a quiz of {@code size} questions: question-service
+ * writing the question wrappers that quiz-service reads, and quiz-service writing the responses that question-service
+ * reads to score them. Every side uses its own model classes and an ObjectMapper configured like the one Spring Boot
+ * gives the services.
+ * Run with {@code mvn compile exec:exec -Djmh.args=JsonBenchmark} in the benchmarks module; the results are written to
+ * {@code target/jmh-result.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"10", "50", "200"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private JavaType quizServiceWrappers;
+    private JavaType questionServiceResponses;
+    private List<QuestionWrapper> questionWrappers;
+    private List<com.varma.quizservice.model.Response> responses;
+    private byte[] questionWrappersJson;
+    private byte[] responsesJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        quizServiceWrappers = objectMapper.getTypeFactory().constructCollectionType(List.class, com.varma.quizservice.model.QuestionWrapper.class);
+        questionServiceResponses = objectMapper.getTypeFactory().constructCollectionType(List.class, Response.class);
+
+        questionWrappers = new ArrayList<>(size);
+        responses = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            com.varma.model.Question question = SyntheticQuestions.question(id);
+            questionWrappers.add(new QuestionWrapper(id, question.getQuestion(), question.getOption1(), question.getOption2(),
+                    question.getOption3(), question.getOption4()));
+            responses.add(new com.varma.quizservice.model.Response(id, SyntheticQuestions.correctAnswer(id)));
+        }
+        questionWrappersJson = objectMapper.writeValueAsBytes(questionWrappers);
+        responsesJson = objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] writeQuestionWrappers() throws IOException {
+        return objectMapper.writeValueAsBytes(questionWrappers);
+    }
+
+    @Benchmark
+    public List<com.varma.quizservice.model.QuestionWrapper> readQuestionWrappers() throws IOException {
+        return objectMapper.readValue(questionWrappersJson, quizServiceWrappers);
+    }
+
+    @Benchmark
+    public byte[] writeResponses() throws IOException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public List<Response> readResponses() throws IOException {
+        return objectMapper.readValue(responsesJson, questionServiceResponses);
+    }
+}
@@ -0,0 +1,100 @@
+package com.varma.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * The QuestionBank class prepares the question-service of a benchmark trial: an embedded database holding a bank of
+ * {@link SyntheticQuestions}, and question-service started against it with its indexes built.
+ * <p>
+ * question-service is started once against the empty database to create its schema and change log, then stopped,
+ * the questions are loaded and it is started again, so that it meets the bank the way it meets a production table
+ * after a restart.
+ */
+public class QuestionBank implements AutoCloseable {
+
+    private final BenchmarkDatabase database;
+
+    private final Path directory;
+
+    private final ConfigurableApplicationContext questionService;
+
+    private QuestionBank(BenchmarkDatabase database, Path directory, ConfigurableApplicationContext questionService) {
+        this.database = database;
+        this.directory = directory;
+        this.questionService = questionService;
+    }
+
+    /**
+     * Starts a database holding the given number of questions and question-service on top of it.
+     *
+     * @param questions      the number of questions
+     * @param type           {@link WebApplicationType#SERVLET} to serve question-service over HTTP, or NONE
+     * @param otherDatabases the names of further empty databases to create, for the other services of the trial
+     * @return the running bank
+     */
+    public static QuestionBank start(int questions, WebApplicationType type, String... otherDatabases) {
+        BenchmarkDatabase database = BenchmarkDatabase.start(Stream.concat(Stream.of("questions"), Arrays.stream(otherDatabases)).toArray(String[]::new));
+        try {
+            Path directory = Files.createTempDirectory("question-bank");
+            ServiceContexts.startQuestionService(database, directory.resolve("schema.snapshot"), WebApplicationType.NONE).close();
+            SyntheticQuestions.load(database, questions);
+            return new QuestionBank(database, directory, ServiceContexts.startQuestionService(database, directory.resolve("questions.snapshot"), type));
+        } catch (IOException e) {
+            database.close();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            database.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the database of the trial.
+     *
+     * @return the database
+     */
+    public BenchmarkDatabase database() {
+        return database;
+    }
+
+    /**
+     * Returns the context of question-service.
+     *
+     * @return the context
+     */
+    public ConfigurableApplicationContext questionService() {
+        return questionService;
+    }
+
+    /**
+     * Returns the port question-service serves HTTP on.
+     *
+     * @return the port
+     */
+    public int port() {
+        return questionService.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    @Override
+    public void close() {
+        try {
+            questionService.close();
+        } finally {
+            database.close();
+            try {
+                FileSystemUtils.deleteRecursively(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.varma.benchmarks;
+
+import com.varma.model.QuestionWrapper;
+import com.varma.model.Response;
+import com.varma.question.QuestionUpdate;
+import com.varma.service.QuestionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the QuestionService calls quiz-service makes for every quiz, and a question update, against a bank of
+ * {@code questions} synthetic questions in an embedded Postgres. question-service runs as it does in production, with
+ * its question cache, snapshot and indexes, so the size of the bank decides how often a read misses the cache and goes
+ * to the database. Quizzes are {@code quizSize} questions drawn at random from the whole bank, and submissions answer
+ * half of their questions right.
+ * Run with {@code mvn compile exec:exec -Djmh.args=QuestionServiceBenchmark} in the benchmarks module, adding for
+ * example {@code -p questions=1000} to pick a bank size; the results are written to {@code target/jmh-result.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class QuestionServiceBenchmark {
+
+    private static final int QUIZZES = 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    int questions;
+
+    @Param({"10", "50"})
+    int quizSize;
+
+    private QuestionBank bank;
+    private QuestionService questionService;
+    private List<List<Integer>> quizzes;
+    private List<List<Response>> submissions;
+    private SplittableRandom random;
+    private int next;
+    private long revision;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bank = QuestionBank.start(questions, WebApplicationType.NONE);
+        questionService = bank.questionService().getBean(QuestionService.class);
+
+        random = new SplittableRandom(42);
+        quizzes = new ArrayList<>(QUIZZES);
+        submissions = new ArrayList<>(QUIZZES);
+        for (int i = 0; i < QUIZZES; i++) {
+            List<Integer> quiz = new ArrayList<>(quizSize);
+            List<Response> submission = new ArrayList<>(quizSize);
+            for (int j = 0; j < quizSize; j++) {
+                int id = random.nextInt(1, questions + 1);
+                quiz.add(id);
+                submission.add(new Response(id, j % 2 == 0 ? SyntheticQuestions.correctAnswer(id) : "Option 0"));
+            }
+            quizzes.add(quiz);
+            submissions.add(submission);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        bank.close();
+    }
+
+    @Benchmark
+    public List<QuestionWrapper> getQuestionsFromId() {
+        return questionService.getQuestionsFromId(quizzes.get(next++ % QUIZZES)).getBody();
+    }
+
+    @Benchmark
+    public Integer getScore() {
+        return questionService.getScore(submissions.get(next++ % QUIZZES)).getBody();
+    }
+
+    @Benchmark
+    public long updateQuestion() throws Exception {
+        int id = random.nextInt(1, questions + 1);
+        questionService.updateQuestion(id, new QuestionUpdate("Revised question " + id + ", revision " + ++revision,
+                null, null, null, null, null, null, null));
+        return revision;
+    }
+}
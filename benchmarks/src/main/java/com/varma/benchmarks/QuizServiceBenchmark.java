@@ -0,0 +1,62 @@
+package com.varma.benchmarks;
+
+import com.varma.quizservice.model.QuizDto;
+import com.varma.quizservice.service.QuizService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating a quiz end to end: quiz-service asks question-service over HTTP for {@code quizSize} questions of
+ * one category and for their answers, then stores the quiz. Both services run in the benchmark JVM against their own
+ * databases in one embedded Postgres, question-service holding a bank of {@code questions} synthetic questions. The
+ * synthetic categories are not among the quiz pools of quiz-service, so every quiz is drawn by question-service.
+ * Run with {@code mvn compile exec:exec -Djmh.args=QuizServiceBenchmark} in the benchmarks module; the results are
+ * written to {@code target/jmh-result.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class QuizServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int questions;
+
+    @Param({"10", "50"})
+    int quizSize;
+
+    private QuestionBank bank;
+    private ConfigurableApplicationContext quizServiceContext;
+    private QuizService quizService;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bank = QuestionBank.start(questions, WebApplicationType.SERVLET, "quizs");
+        quizServiceContext = ServiceContexts.startQuizService(bank.database(), bank.port());
+        quizService = quizServiceContext.getBean(QuizService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        try {
+            quizServiceContext.close();
+        } finally {
+            bank.close();
+        }
+    }
+
+    @Benchmark
+    public String createQuiz() {
+        QuizDto quizDto = new QuizDto();
+        quizDto.setCategory(SyntheticQuestions.category(next++));
+        quizDto.setNoOfQuestions(quizSize);
+        quizDto.setTitle("Benchmark quiz " + next);
+        return quizService.createQuiz(quizDto).getBody();
+    }
+}
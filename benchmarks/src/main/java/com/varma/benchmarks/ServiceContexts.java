@@ -0,0 +1,137 @@
+package com.varma.benchmarks;
+
+import com.varma.QuestionServiceApplication;
+import com.varma.index.QuestionIndexMaintainer;
+import com.varma.model.Question;
+import com.varma.questionRepository.QuestionRepository;
+import com.varma.quizservice.QuizServiceApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ServiceContexts class starts question-service and quiz-service in the benchmark JVM, with their own
+ * application.yml and the settings of the benchmark on top: the embedded database, no Eureka, no SQL logging and
+ * the port of question-service handed to quiz-service as its only instance.
+ * <p>
+ * Both services are on one classpath, where the application.yml of only one of them would be found, so each context
+ * is pointed at the file in its own jar. question-service scans {@code com.varma}, which holds quiz-service too, so it
+ * is started from {@link QuestionServiceConfiguration}, which scans the same packages without those of quiz-service.
+ */
+public final class ServiceContexts {
+
+    private ServiceContexts() {
+    }
+
+    /**
+     * Starts question-service and waits until its indexes are built, so that it serves from memory from the start.
+     *
+     * @param database the database holding the {@code questions} database
+     * @param snapshot where question-service keeps its snapshot of the question table
+     * @param type     {@link WebApplicationType#SERVLET} to serve HTTP on a random port, or NONE
+     * @return the running context
+     */
+    public static ConfigurableApplicationContext startQuestionService(BenchmarkDatabase database, Path snapshot, WebApplicationType type) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuestionServiceConfiguration.class)
+                .web(type)
+                .run(arguments(QuestionServiceApplication.class, database, "questions",
+                        "--server.port=0",
+                        "--question.snapshot.path=" + snapshot,
+                        "--spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration,"
+                                + "org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration"));
+        QuestionIndexMaintainer indexes = context.getBean(QuestionIndexMaintainer.class);
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(10);
+        while (!indexes.isReady()) {
+            if (System.nanoTime() > deadline) {
+                context.close();
+                throw new IllegalStateException("The question indexes were not built within 10 minutes");
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                context.close();
+                throw new IllegalStateException("Interrupted while the question indexes were built", e);
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Starts quiz-service without a web server, calling the given question-service and not replicating its questions,
+     * so that every quiz is drawn by question-service.
+     *
+     * @param database            the database holding the {@code quizs} database
+     * @param questionServicePort the port of question-service
+     * @return the running context
+     */
+    public static ConfigurableApplicationContext startQuizService(BenchmarkDatabase database, int questionServicePort) {
+        return new SpringApplicationBuilder(QuizServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments(QuizServiceApplication.class, database, "quizs",
+                        "--spring.cloud.discovery.client.simple.instances.QUESTION-SERVICE[0].uri=http://localhost:" + questionServicePort,
+                        "--question.replica.enabled=false"));
+    }
+
+    private static String[] arguments(Class<?> application, BenchmarkDatabase database, String databaseName, String... extra) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.config.location=" + applicationYaml(application),
+                "--spring.datasource.url=" + database.jdbcUrl(databaseName),
+                "--spring.datasource.username=" + database.user(),
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--eureka.client.enabled=false"));
+        Collections.addAll(arguments, extra);
+        return arguments.toArray(String[]::new);
+    }
+
+    /**
+     * Returns the URL of the application.yml packaged with the given application class.
+     */
+    private static String applicationYaml(Class<?> application) {
+        String codeSource = application.getProtectionDomain().getCodeSource().getLocation().toString();
+        try {
+            for (URL url : Collections.list(application.getClassLoader().getResources("application.yml"))) {
+                if (url.toString().startsWith(codeSource) || url.toString().startsWith("jar:" + codeSource)) {
+                    return url.toString();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        throw new IllegalStateException("No application.yml next to " + application.getName());
+    }
+
+    /**
+     * Starts question-service like {@link QuestionServiceApplication} does, without the classes of quiz-service and of
+     * the benchmarks, which share its base package, and without {@link QuestionServiceApplication}, which would scan
+     * them again.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @ComponentScan(basePackageClasses = QuestionServiceApplication.class, excludeFilters = {
+            @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = QuestionServiceApplication.class),
+            @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.varma\\.quizservice\\..*"),
+            @ComponentScan.Filter(type = FilterType.REGEX, pattern = "com\\.varma\\.benchmarks\\..*")})
+    @EntityScan(basePackageClasses = Question.class)
+    @EnableJpaRepositories(basePackageClasses = QuestionRepository.class)
+    static class QuestionServiceConfiguration {
+    }
+}
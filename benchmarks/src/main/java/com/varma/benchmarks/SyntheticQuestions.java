@@ -0,0 +1,108 @@
+package com.varma.benchmarks;
+
+import com.varma.dedup.ContentHash;
+import com.varma.model.Question;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * The SyntheticQuestions class fills the question table of a benchmark with a bank of generated questions. Question
+ * {@code id} belongs to {@link #category(int)} and is {@code Easy}, {@code Medium} or {@code Hard} in turn; its correct
+ * answer is {@link #correctAnswer(int)}. The rows carry the content hash question-service computes, so they look like
+ * questions it inserted itself.
+ */
+public final class SyntheticQuestions {
+
+    /**
+     * The number of categories the questions are spread over.
+     */
+    public static final int CATEGORIES = 10;
+
+    private static final String[] DIFFICULTY_LEVELS = {"Easy", "Medium", "Hard"};
+
+    private static final int BATCH_SIZE = 5000;
+
+    private SyntheticQuestions() {
+    }
+
+    /**
+     * Inserts questions 1 to {@code count} into the question table, which question-service must have created, and
+     * moves the ID sequence past them. The change log trigger is bypassed while they are inserted, so that the bank
+     * starts without a million pending changes.
+     *
+     * @param database the database holding the {@code questions} database
+     * @param count    the number of questions
+     */
+    public static void load(BenchmarkDatabase database, int count) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(database.jdbcUrl("questions"), database.user(), ""));
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET session_replication_role = replica");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO question (id, question, option1, option2, option3, option4, "
+                    + "difficulty_level, category, correct_ans, content_hash, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)")) {
+                for (int id = 1; id <= count; id++) {
+                    Question question = question(id);
+                    insert.setInt(1, id);
+                    insert.setString(2, question.getQuestion());
+                    insert.setString(3, question.getOption1());
+                    insert.setString(4, question.getOption2());
+                    insert.setString(5, question.getOption3());
+                    insert.setString(6, question.getOption4());
+                    insert.setString(7, question.getDifficultyLevel());
+                    insert.setString(8, question.getCategory());
+                    insert.setString(9, question.getCorrectAns());
+                    insert.setString(10, ContentHash.of(question));
+                    insert.addBatch();
+                    if (id % BATCH_SIZE == 0 || id == count) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT setval('question_id_seq', " + count + ")");
+                statement.execute("SET session_replication_role = DEFAULT");
+            }
+            connection.commit();
+            return null;
+        });
+        jdbcTemplate.execute("VACUUM ANALYZE question");
+    }
+
+    /**
+     * Returns the synthetic question with the given ID.
+     *
+     * @param id the ID of the question
+     * @return the question
+     */
+    public static Question question(int id) {
+        String category = category(id);
+        return new Question(id, "Synthetic " + category + " question " + id + ": which of these options is the right one?",
+                "Option 1", "Option 2", "Option 3", "Option 4", DIFFICULTY_LEVELS[id % DIFFICULTY_LEVELS.length], category, correctAnswer(id));
+    }
+
+    /**
+     * Returns the category of the question with the given ID.
+     *
+     * @param id the ID of the question
+     * @return the category
+     */
+    public static String category(int id) {
+        return "Category " + (id % CATEGORIES + 1);
+    }
+
+    /**
+     * Returns the correct answer of the question with the given ID.
+     *
+     * @param id the ID of the question
+     * @return the correct answer
+     */
+    public static String correctAnswer(int id) {
+        return "Option " + (id % 4 + 1);
+    }
+}
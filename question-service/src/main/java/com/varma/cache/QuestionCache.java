@@ -0,0 +1,147 @@
+package com.varma.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.varma.model.Question;
+import com.varma.model.QuestionWrapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The QuestionCache class keeps recently read questions in a bounded Caffeine cache, whose W-TinyLFU admission keeps
+ * the hot questions of running quizzes resident while one-off listings pass through. Its size and time to live are set
+ * with {@code question.cache.maximum-size} and {@code question.cache.expire-after-write}; hit, miss and eviction counts
+ * are published as the {@code cache.*} metrics of the {@code questions} cache.
+ * <p>
+ * The wrappers handed to quiz-service are kept in a second cache of the same size, the {@code question-wrappers} cache,
+ * and loaded without the correct answer, so serving a quiz never reads more of a question than it returns. A wrapper
+ * that is not cached is taken from a cached question when there is one.
+ * <p>
+ * Writers invalidate a question after their change is committed. A read that loaded from the database before such an
+ * invalidation only stores what it loaded if no invalidation happened in the meantime, so a concurrent update is never
+ * overwritten by the value it replaced.
+ */
+@Component
+public class QuestionCache implements MeterBinder {
+
+    /**
+     * The name under which the cache metrics are published.
+     */
+    public static final String CACHE_NAME = "questions";
+
+    /**
+     * The name under which the metrics of the wrapper cache are published.
+     */
+    public static final String WRAPPER_CACHE_NAME = "question-wrappers";
+
+    private final Cache<Integer, Question> cache;
+
+    private final Cache<Integer, QuestionWrapper> wrappers;
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Constructs a cache.
+     *
+     * @param maximumSize      the maximum number of cached questions
+     * @param expireAfterWrite how long a question stays cached after it was loaded
+     */
+    public QuestionCache(@Value("${question.cache.maximum-size:10000}") long maximumSize,
+                         @Value("${question.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.wrappers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the questions with the given IDs, loading the ones that are not cached.
+     *
+     * @param ids    the IDs of the questions
+     * @param loader loads the questions with the given IDs from the database
+     * @return the questions found, keyed by ID; IDs that do not exist are absent
+     */
+    public Map<Integer, Question> getAll(Collection<Integer> ids, Function<Collection<Integer>, ? extends Iterable<Question>> loader) {
+        return getAll(cache, new HashMap<>(cache.getAllPresent(ids)), ids, Question::getId, loader);
+    }
+
+    /**
+     * Returns the wrappers of the questions with the given IDs, loading the ones that are neither cached as wrappers
+     * nor as questions.
+     *
+     * @param ids    the IDs of the questions
+     * @param loader loads the wrappers of the questions with the given IDs from the database
+     * @return the wrappers found, keyed by ID; IDs that do not exist are absent
+     */
+    public Map<Integer, QuestionWrapper> getAllWrappers(Collection<Integer> ids, Function<Collection<Integer>, ? extends Iterable<QuestionWrapper>> loader) {
+        Map<Integer, QuestionWrapper> found = new HashMap<>(wrappers.getAllPresent(ids));
+        if (found.size() < ids.size()) {
+            cache.getAllPresent(ids).forEach((id, question) -> found.putIfAbsent(id, QuestionWrapper.of(question)));
+        }
+        return getAll(wrappers, found, ids, QuestionWrapper::id, loader);
+    }
+
+    private <V> Map<Integer, V> getAll(Cache<Integer, V> target, Map<Integer, V> found, Collection<Integer> ids,
+                                       Function<V, Integer> idOf, Function<Collection<Integer>, ? extends Iterable<V>> loader) {
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            if (id != null && !found.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+        long epoch = invalidations.get();
+        for (V value : loader.apply(missing)) {
+            found.put(idOf.apply(value), value);
+            target.asMap().compute(idOf.apply(value), (id, cached) -> invalidations.get() == epoch ? value : cached);
+        }
+        return found;
+    }
+
+    /**
+     * Removes a question from the cache. Called after a change to the question has been committed.
+     *
+     * @param id the ID of the question
+     */
+    public void invalidate(int id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+        wrappers.invalidate(id);
+    }
+
+    /**
+     * Removes every question from the cache.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+        wrappers.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        CaffeineCacheMetrics.monitor(registry, wrappers, WRAPPER_CACHE_NAME);
+    }
+}
@@ -1,15 +1,27 @@
 package com.varma.controller;
 
+import com.varma.model.AnswerKeyEntry;
 import com.varma.model.QuestionWrapper;
 import com.varma.model.Response;
+import com.varma.model.ScoreReport;
+import com.varma.question.ChangeFeed;
+import com.varma.question.ImportReport;
 import com.varma.question.QuestionRequest;
 import com.varma.question.QuestionUpdate;
+import com.varma.question.ShortfallPolicy;
+import com.varma.service.QuestionImportService;
 import com.varma.service.QuestionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.varma.model.Question;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -19,39 +31,111 @@ import java.util.List;
 @RequestMapping("api/v1")
 public class QuestionController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     @Autowired
     private QuestionService questionService;
 
+    @Autowired
+    private QuestionImportService questionImportService;
+
     /**
      * Retrieves all questions.
+     * When a cursor or page size is given, only the page of questions following the cursor is returned and the cursor
+     * of the next page is sent in the X-Next-Cursor header.
      *
+     * @param after the ID after which the page starts
+     * @param size  the maximum number of questions in the page
      * @return a ResponseEntity with the list of questions and HTTP status code 200 (OK)
      */
     @GetMapping("/allQuestions")
-    public ResponseEntity<List<Question>> getAllQuestions() {
-        return questionService.getAllQuestions();
+    public ResponseEntity<List<Question>> getAllQuestions(@RequestParam(required = false) Integer after, @RequestParam(required = false) Integer size) {
+        if (after == null && size == null) {
+            return questionService.getAllQuestions();
+        }
+        return questionService.getQuestionsPage(null, null, after, pageSize(size));
+    }
+
+    /**
+     * Streams all questions as newline-delimited JSON.
+     *
+     * @return a ResponseEntity with the streaming body and HTTP status code 200 (OK)
+     */
+    @GetMapping(value = "/allQuestions", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllQuestions() {
+        return questionService.streamQuestions(null, null);
+    }
+
+    /**
+     * Retrieves the inserts, updates and deletes of questions after a sequence number, in sequence order.
+     * Without a sequence number only the current high-water mark is returned, from which a replica that has just copied
+     * the questions follows the feed.
+     *
+     * @param after      the sequence number after which to return changes
+     * @param limit      the maximum number of changes
+     * @param waitMillis how long to wait for a change when there is none yet
+     * @return a ResponseEntity with the page of changes and HTTP status code 200 (OK), or HTTP status code 410 (Gone)
+     * if the changes are no longer logged
+     */
+    @GetMapping("changes")
+    public ResponseEntity<ChangeFeed> getChanges(@RequestParam(required = false) Long after,
+                                                 @RequestParam(defaultValue = "100") int limit,
+                                                 @RequestParam(defaultValue = "0") long waitMillis) {
+        return questionService.getChanges(after, limit, waitMillis);
     }
 
     /**
      * Retrieves questions based on the specified category.
      *
      * @param category the category of the questions
+     * @param after    the ID after which the page starts
+     * @param size     the maximum number of questions in the page
      * @return a ResponseEntity with the list of questions and HTTP status code 200 (OK)
      */
     @GetMapping("category/{category}")
-    public ResponseEntity<List<Question>> getQuestionsBasedOnCategory(@PathVariable String category) {
-        return questionService.getQuestionsBasedOnTheCategory(category);
+    public ResponseEntity<List<Question>> getQuestionsBasedOnCategory(@PathVariable String category, @RequestParam(required = false) Integer after, @RequestParam(required = false) Integer size) {
+        if (after == null && size == null) {
+            return questionService.getQuestionsBasedOnTheCategory(category);
+        }
+        return questionService.getQuestionsPage(category, null, after, pageSize(size));
+    }
+
+    /**
+     * Streams the questions of the specified category as newline-delimited JSON.
+     *
+     * @param category the category of the questions
+     * @return a ResponseEntity with the streaming body and HTTP status code 200 (OK)
+     */
+    @GetMapping(value = "category/{category}", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamQuestionsBasedOnCategory(@PathVariable String category) {
+        return questionService.streamQuestions(category, null);
     }
 
     /**
      * Retrieves questions based on the specified difficulty level.
      *
      * @param difficultyLevel the difficulty level of the questions
+     * @param after           the ID after which the page starts
+     * @param size            the maximum number of questions in the page
      * @return a ResponseEntity with the list of questions and HTTP status code 200 (OK)
      */
     @GetMapping("difficultyLevel/{difficultyLevel}")
-    public ResponseEntity<List<Question>> getQuestionBasedOnTheDifficultyLevel(@PathVariable String difficultyLevel) {
-        return questionService.getQuestionBasedOnTheDifficultyLevel(difficultyLevel);
+    public ResponseEntity<List<Question>> getQuestionBasedOnTheDifficultyLevel(@PathVariable String difficultyLevel, @RequestParam(required = false) Integer after, @RequestParam(required = false) Integer size) {
+        if (after == null && size == null) {
+            return questionService.getQuestionBasedOnTheDifficultyLevel(difficultyLevel);
+        }
+        return questionService.getQuestionsPage(null, difficultyLevel, after, pageSize(size));
+    }
+
+    /**
+     * Streams the questions of the specified difficulty level as newline-delimited JSON.
+     *
+     * @param difficultyLevel the difficulty level of the questions
+     * @return a ResponseEntity with the streaming body and HTTP status code 200 (OK)
+     */
+    @GetMapping(value = "difficultyLevel/{difficultyLevel}", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamQuestionBasedOnTheDifficultyLevel(@PathVariable String difficultyLevel) {
+        return questionService.streamQuestions(null, difficultyLevel);
     }
 
     /**
@@ -59,11 +143,58 @@ public class QuestionController {
      *
      * @param category        the category of the questions
      * @param difficultyLevel the difficulty level of the questions
+     * @param after           the ID after which the page starts
+     * @param size            the maximum number of questions in the page
      * @return a ResponseEntity with the list of questions and HTTP status code 200 (OK)
      */
     @GetMapping("category/{category}/difficultyLevel/{difficultyLevel}")
-    public ResponseEntity<List<Question>> getQuestionsBasedOnTheCategoryAndDifficultyLevel(@PathVariable String category, @PathVariable String difficultyLevel) {
-        return questionService.getQuestionsBasedOnTheCategoryAndDifficultyLevel(category, difficultyLevel);
+    public ResponseEntity<List<Question>> getQuestionsBasedOnTheCategoryAndDifficultyLevel(@PathVariable String category, @PathVariable String difficultyLevel, @RequestParam(required = false) Integer after, @RequestParam(required = false) Integer size) {
+        if (after == null && size == null) {
+            return questionService.getQuestionsBasedOnTheCategoryAndDifficultyLevel(category, difficultyLevel);
+        }
+        return questionService.getQuestionsPage(category, difficultyLevel, after, pageSize(size));
+    }
+
+    /**
+     * Streams the questions of the specified category and difficulty level as newline-delimited JSON.
+     *
+     * @param category        the category of the questions
+     * @param difficultyLevel the difficulty level of the questions
+     * @return a ResponseEntity with the streaming body and HTTP status code 200 (OK)
+     */
+    @GetMapping(value = "category/{category}/difficultyLevel/{difficultyLevel}", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamQuestionsBasedOnTheCategoryAndDifficultyLevel(@PathVariable String category, @PathVariable String difficultyLevel) {
+        return questionService.streamQuestions(category, difficultyLevel);
+    }
+
+    /**
+     * Retrieves the number of questions of every category and difficulty level combination.
+     *
+     * @return a ResponseEntity with the counts keyed by category and then difficulty level and HTTP status code 200 (OK)
+     */
+    @GetMapping("facets")
+    public ResponseEntity<Map<String, Map<String, Integer>>> getFacetCounts() {
+        return questionService.getFacetCounts();
+    }
+
+    /**
+     * Searches the text and options of the questions, best match first.
+     * When more results follow, the cursor of the next page is sent in the X-Next-Cursor header.
+     *
+     * @param query           the words to search for
+     * @param category        the category of the questions
+     * @param difficultyLevel the difficulty level of the questions
+     * @param after           the cursor of the page
+     * @param size            the maximum number of questions in the page
+     * @return a ResponseEntity with the list of question wrappers and HTTP status code 200 (OK)
+     */
+    @GetMapping("search")
+    public ResponseEntity<List<QuestionWrapper>> searchQuestions(@RequestParam("q") String query,
+                                                                 @RequestParam(required = false) String category,
+                                                                 @RequestParam(required = false) String difficultyLevel,
+                                                                 @RequestParam(required = false) String after,
+                                                                 @RequestParam(defaultValue = "20") int size) {
+        return questionService.searchQuestions(query, category, difficultyLevel, after, size);
     }
 
     /**
@@ -76,6 +207,45 @@ public class QuestionController {
         questionService.addQuestion(questionRequest);
     }
 
+    /**
+     * Adds a list of new questions in bulk.
+     *
+     * @param questionRequests the question request objects containing the question details
+     * @param nearDuplicates   whether to flag questions that are probably reworded copies
+     * @return a ResponseEntity with the import report and HTTP status code 200 (OK)
+     */
+    @PostMapping(value = "addNewQuestions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportReport> addQuestionsInBulk(@RequestBody List<QuestionRequest> questionRequests,
+                                                           @RequestParam(defaultValue = "false") boolean nearDuplicates) {
+        return questionImportService.importQuestions(questionRequests, nearDuplicates);
+    }
+
+    /**
+     * Adds new questions in bulk from newline-delimited JSON, one question object per line.
+     *
+     * @param inputStream    the request body
+     * @param nearDuplicates whether to flag questions that are probably reworded copies
+     * @return a ResponseEntity with the import report and HTTP status code 200 (OK)
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "addNewQuestions", consumes = "application/x-ndjson")
+    public ResponseEntity<ImportReport> addQuestionsFromNdjson(InputStream inputStream, @RequestParam(defaultValue = "false") boolean nearDuplicates) throws IOException {
+        return questionImportService.importNdjson(inputStream, nearDuplicates);
+    }
+
+    /**
+     * Adds new questions in bulk from CSV with a header row naming the question fields.
+     *
+     * @param inputStream    the request body
+     * @param nearDuplicates whether to flag questions that are probably reworded copies
+     * @return a ResponseEntity with the import report and HTTP status code 200 (OK)
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "addNewQuestions", consumes = "text/csv")
+    public ResponseEntity<ImportReport> addQuestionsFromCsv(InputStream inputStream, @RequestParam(defaultValue = "false") boolean nearDuplicates) throws IOException {
+        return questionImportService.importCsv(inputStream, nearDuplicates);
+    }
+
     /**
      * Deletes a question by its ID.
      *
@@ -98,9 +268,25 @@ public class QuestionController {
         questionService.updateQuestion(id, questionUpdate);
     }
 
+    /**
+     * Picks random questions of one or more categories for a new quiz.
+     * The seed the questions were drawn with is sent in the X-Sample-Seed header, and the number of missing questions
+     * in the X-Shortfall header when there are not enough matching questions.
+     *
+     * @param categories    the categories of the questions
+     * @param noOfQuestions the number of questions in the quiz
+     * @param difficultyMix the weight of every difficulty level, such as {@code Easy:50,Medium:30,Hard:20}
+     * @param seed          the seed that makes the quiz reproducible
+     * @param shortfall     what to do when a difficulty level holds fewer questions than its share
+     * @return a ResponseEntity with the list of question IDs and HTTP status code 200 (OK)
+     */
     @GetMapping("generate")
-    public ResponseEntity<List<Integer>> getQuestionsForQuiz( String category, Integer noOfQuestions){
-        return questionService.getQuestionsForQuiz(category,noOfQuestions);
+    public ResponseEntity<List<Integer>> getQuestionsForQuiz(@RequestParam(name = "category", required = false) List<String> categories,
+                                                             @RequestParam(required = false) Integer noOfQuestions,
+                                                             @RequestParam(name = "difficulty", required = false) List<String> difficultyMix,
+                                                             @RequestParam(required = false) Long seed,
+                                                             @RequestParam(defaultValue = "REDISTRIBUTE") ShortfallPolicy shortfall){
+        return questionService.getQuestionsForQuiz(categories, noOfQuestions, difficultyMix, seed, shortfall);
     }
 
     @PostMapping("getQuestions")
@@ -108,11 +294,37 @@ public class QuestionController {
         return questionService.getQuestionsFromId(questionsIds);
     }
 
+    /**
+     * Retrieves the correct answers of the questions with the specified IDs, in the order of the IDs.
+     *
+     * @param questionsIds the IDs of the questions
+     * @return a ResponseEntity with the list of answer key entries and HTTP status code 200 (OK)
+     */
+    @PostMapping("answerKey")
+    public ResponseEntity<List<AnswerKeyEntry>> getAnswerKey(@RequestBody List<Integer> questionsIds){
+        return questionService.getAnswerKey(questionsIds);
+    }
+
     @PostMapping("getScore")
     public ResponseEntity<Integer> getScore(@RequestBody List<Response> responses){
         return questionService.getScore(responses);
     }
+
+    /**
+     * Scores the responses and reports unanswered and unknown questions.
+     *
+     * @param responses the list of responses
+     * @return a ResponseEntity with the score report and HTTP status code 200 (OK)
+     */
+    @PostMapping("getScoreReport")
+    public ResponseEntity<ScoreReport> getScoreReport(@RequestBody List<Response> responses){
+        return questionService.getScoreReport(responses);
+    }
     // generate
     // getQuestions (questionId)
     // getScore
+
+    private static int pageSize(Integer size) {
+        return size == null ? DEFAULT_PAGE_SIZE : size;
+    }
 }
\ No newline at end of file
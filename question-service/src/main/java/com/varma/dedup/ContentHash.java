@@ -0,0 +1,105 @@
+package com.varma.dedup;
+
+import com.varma.model.Question;
+import com.varma.question.QuestionRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * The ContentHash class computes the duplicate-detection key of a question.
+ * The question text and the options are Unicode-normalized, lower-cased and whitespace-collapsed, the options are
+ * sorted so that reordering them does not produce a new question, and the result is hashed with SHA-256.
+ * Two questions are duplicates when their content hashes are equal.
+ */
+public final class ContentHash {
+
+    private static final char SEPARATOR = '\u001f';
+
+    private ContentHash() {
+    }
+
+    /**
+     * Computes the content hash of a question.
+     *
+     * @param question the question
+     * @return the hex-encoded content hash, or null if the question has no text
+     */
+    public static String of(Question question) {
+        return of(question.getQuestion(), question.getOption1(), question.getOption2(), question.getOption3(), question.getOption4());
+    }
+
+    /**
+     * Computes the content hash of a question request.
+     *
+     * @param questionRequest the question request
+     * @return the hex-encoded content hash, or null if the request has no question text
+     */
+    public static String of(QuestionRequest questionRequest) {
+        return of(questionRequest.question(), questionRequest.option1(), questionRequest.option2(), questionRequest.option3(), questionRequest.option4());
+    }
+
+    /**
+     * Computes the content hash of a question text and its options.
+     *
+     * @param question the question text
+     * @param options  the options, any of which may be null
+     * @return the hex-encoded content hash, or null if the question text is null
+     */
+    public static String of(String question, String... options) {
+        if (question == null) {
+            return null;
+        }
+        String[] normalizedOptions = new String[options.length];
+        for (int i = 0; i < options.length; i++) {
+            normalizedOptions[i] = normalize(options[i]);
+        }
+        Arrays.sort(normalizedOptions);
+        StringBuilder content = new StringBuilder(normalize(question));
+        for (String option : normalizedOptions) {
+            content.append(SEPARATOR).append(option);
+        }
+        return HexFormat.of().formatHex(sha256().digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Normalizes text for comparison: NFKC, lower case, and runs of whitespace collapsed to a single space.
+     *
+     * @param text the text, may be null
+     * @return the normalized text, empty for null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder collapsed = new StringBuilder(normalized.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = collapsed.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    collapsed.append(' ');
+                    pendingSpace = false;
+                }
+                collapsed.append(c);
+            }
+        }
+        return collapsed.toString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.varma.dedup;
+
+import com.varma.model.Question;
+import com.varma.questionRepository.QuestionJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The ContentHashBackfill class computes the content hash of questions stored before the column existed.
+ * It runs once on startup on a background thread, walking the rows without a hash in ID order. Rows that turn out to be
+ * duplicates of an already hashed question keep a null hash and are logged, since the unique constraint rejects them.
+ */
+@Component
+public class ContentHashBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentHashBackfill.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private QuestionJdbcRepository questionJdbcRepository;
+
+    /**
+     * Starts the backfill once the application is ready to serve requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        Thread thread = new Thread(this::backfill, "content-hash-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Computes and stores the missing content hashes.
+     */
+    public void backfill() {
+        try {
+            int afterId = 0;
+            int updated = 0;
+            List<Question> questions;
+            while (!(questions = questionJdbcRepository.findWithoutContentHash(afterId, BATCH_SIZE)).isEmpty()) {
+                questions.forEach(question -> question.setContentHash(ContentHash.of(question)));
+                try {
+                    questionJdbcRepository.updateContentHashes(questions);
+                    updated += questions.size();
+                } catch (DataIntegrityViolationException e) {
+                    for (Question question : questions) {
+                        try {
+                            questionJdbcRepository.updateContentHash(question.getId(), question.getContentHash());
+                            updated++;
+                        } catch (DataIntegrityViolationException duplicate) {
+                            log.warn("Question {} duplicates an existing question and keeps no content hash", question.getId());
+                        }
+                    }
+                }
+                afterId = questions.get(questions.size() - 1).getId();
+            }
+            if (updated > 0) {
+                log.info("Backfilled the content hash of {} questions", updated);
+            }
+        } catch (RuntimeException e) {
+            log.error("Backfilling content hashes failed", e);
+        }
+    }
+}
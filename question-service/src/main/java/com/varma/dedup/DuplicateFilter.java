@@ -0,0 +1,83 @@
+package com.varma.dedup;
+
+import com.varma.index.QuestionIndex;
+import com.varma.model.Question;
+import com.varma.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HexFormat;
+
+/**
+ * The DuplicateFilter class keeps a Bloom filter of the content hashes of every question, so that the common case of
+ * a question that is not a duplicate is settled without a database query. Only a positive answer needs to be confirmed
+ * against the unique content hash column. Deleted questions stay in the filter until the next rebuild and merely cost
+ * that confirmation.
+ */
+@Component
+public class DuplicateFilter implements QuestionIndex {
+
+    private final long expectedQuestions;
+
+    private final double falsePositiveProbability;
+
+    private volatile BloomFilter filter;
+
+    /**
+     * Constructs a filter.
+     *
+     * @param expectedQuestions        the number of questions the filter is sized for
+     * @param falsePositiveProbability the target false positive probability
+     */
+    public DuplicateFilter(@Value("${question.dedup.expected-questions:1000000}") long expectedQuestions,
+                           @Value("${question.dedup.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.expectedQuestions = expectedQuestions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.filter = new BloomFilter(expectedQuestions, falsePositiveProbability);
+    }
+
+    @Override
+    public void index(Question question) {
+        String contentHash = question.getContentHash() != null ? question.getContentHash() : ContentHash.of(question);
+        if (contentHash != null) {
+            put(contentHash);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        // Bloom filters cannot forget; the stale bit only costs a confirming query.
+    }
+
+    @Override
+    public void clear() {
+        filter = new BloomFilter(expectedQuestions, falsePositiveProbability);
+    }
+
+    /**
+     * Adds a content hash to the filter.
+     *
+     * @param contentHash the hex-encoded content hash
+     */
+    public void put(String contentHash) {
+        filter.put(high(contentHash), low(contentHash));
+    }
+
+    /**
+     * Checks if a question with the content hash may exist.
+     *
+     * @param contentHash the hex-encoded content hash
+     * @return false if no question with the content hash exists, true if one may exist
+     */
+    public boolean mightContain(String contentHash) {
+        return filter.mightContain(high(contentHash), low(contentHash));
+    }
+
+    private static long high(String contentHash) {
+        return HexFormat.fromHexDigitsToLong(contentHash, 0, 16);
+    }
+
+    private static long low(String contentHash) {
+        return HexFormat.fromHexDigitsToLong(contentHash, 16, 32);
+    }
+}
@@ -0,0 +1,155 @@
+package com.varma.dedup;
+
+import com.varma.util.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The MinHashLsh class finds probable near-duplicate texts with MinHash signatures over word shingles and
+ * locality-sensitive hashing. Signatures of {@value #NUM_HASHES} values are split into {@value #BANDS} bands; texts that
+ * agree on a whole band become candidates, and candidates whose estimated Jaccard similarity reaches the threshold are
+ * reported. The class is not thread-safe.
+ */
+public class MinHashLsh {
+
+    static final int NUM_HASHES = 64;
+    static final int BANDS = 16;
+    private static final int ROWS = NUM_HASHES / BANDS;
+    private static final int SHINGLE_WORDS = 3;
+    private static final long[] SEEDS = new long[NUM_HASHES];
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private final Map<Long, List<Integer>> buckets = new HashMap<>();
+    private final IntObjectHashMap<int[]> signatures = new IntObjectHashMap<>(1024);
+
+    /**
+     * Computes the MinHash signature of a text.
+     *
+     * @param text the text
+     * @return the signature
+     */
+    public static int[] signature(String text) {
+        String[] words = ContentHash.normalize(text).split(" ");
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        int shingles = Math.max(1, words.length - SHINGLE_WORDS + 1);
+        for (int start = 0; start < shingles; start++) {
+            long shingle = 0xcbf29ce484222325L;
+            for (int w = start; w < Math.min(words.length, start + SHINGLE_WORDS); w++) {
+                shingle = (shingle ^ words[w].hashCode()) * 0x100000001b3L;
+            }
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int value = (int) (mix(shingle ^ SEEDS[i]) >>> 33);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Adds a text, given by its signature, under an ID.
+     *
+     * @param id        the ID of the text
+     * @param signature the signature of the text
+     */
+    public void add(int id, int[] signature) {
+        remove(id);
+        signatures.put(id, signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bandKey(signature, band), key -> new ArrayList<>(1)).add(id);
+        }
+    }
+
+    /**
+     * Removes the text with the ID, if present.
+     *
+     * @param id the ID of the text
+     */
+    public void remove(int id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(signature, band);
+            List<Integer> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(Integer.valueOf(id));
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every text.
+     */
+    public void clear() {
+        buckets.clear();
+        signatures.clear();
+    }
+
+    /**
+     * Finds the most similar text whose estimated Jaccard similarity reaches the threshold.
+     *
+     * @param signature the signature of the text to look up
+     * @param threshold the minimum estimated similarity, between 0 and 1
+     * @return the ID of the most similar text, or null if there is none
+     */
+    public Integer findSimilar(int[] signature, double threshold) {
+        Integer best = null;
+        int bestMatches = (int) Math.ceil(threshold * NUM_HASHES) - 1;
+        for (int band = 0; band < BANDS; band++) {
+            List<Integer> bucket = buckets.get(bandKey(signature, band));
+            if (bucket == null) {
+                continue;
+            }
+            for (Integer candidate : bucket) {
+                int matches = matches(signature, signatures.get(candidate));
+                if (matches > bestMatches) {
+                    bestMatches = matches;
+                    best = candidate;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static int matches(int[] a, int[] b) {
+        int matches = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            key = key * 0x100000001b3L ^ signature[row];
+        }
+        return mix(key);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
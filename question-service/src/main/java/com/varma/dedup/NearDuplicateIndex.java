@@ -0,0 +1,101 @@
+package com.varma.dedup;
+
+import com.varma.index.QuestionIndex;
+import com.varma.model.Question;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The NearDuplicateIndex class keeps MinHash signatures of every question text so that bulk imports can flag questions
+ * that are probably reworded copies of existing ones. It costs a few hundred bytes per question and is therefore off
+ * unless {@code question.dedup.near-duplicates.enabled} is set; when off, imports only compare rows with each other.
+ */
+@Component
+public class NearDuplicateIndex implements QuestionIndex {
+
+    private final boolean enabled;
+
+    private final double threshold;
+
+    private final MinHashLsh lsh = new MinHashLsh();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructs an index.
+     *
+     * @param enabled   whether the index is maintained
+     * @param threshold the estimated Jaccard similarity from which two questions are probable duplicates
+     */
+    public NearDuplicateIndex(@Value("${question.dedup.near-duplicates.enabled:false}") boolean enabled,
+                              @Value("${question.dedup.near-duplicates.threshold:0.8}") double threshold) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void index(Question question) {
+        if (!enabled || question.getId() == null || question.getQuestion() == null) {
+            return;
+        }
+        int[] signature = MinHashLsh.signature(question.getQuestion());
+        lock.writeLock().lock();
+        try {
+            lsh.add(question.getId(), signature);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            lsh.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            lsh.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the similarity from which two questions are probable duplicates.
+     *
+     * @return the estimated Jaccard similarity threshold
+     */
+    public double threshold() {
+        return threshold;
+    }
+
+    /**
+     * Finds an existing question that is probably a near duplicate.
+     *
+     * @param signature the MinHash signature of the question text
+     * @return the ID of the most similar existing question, or null if there is none or the index is disabled
+     */
+    public Integer findSimilar(int[] signature) {
+        if (!enabled) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return lsh.findSimilar(signature, threshold);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.varma.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The InsufficientQuestionsException class represents an exception that is thrown when there are not enough questions
+ * to assemble a quiz as requested.
+ */
+@ResponseStatus(code = HttpStatus.UNPROCESSABLE_ENTITY)
+public class InsufficientQuestionsException extends RuntimeException {
+
+    /**
+     * Constructs a new InsufficientQuestionsException with the specified error message.
+     *
+     * @param message the error message
+     */
+    public InsufficientQuestionsException(String message) {
+        super(message);
+    }
+}
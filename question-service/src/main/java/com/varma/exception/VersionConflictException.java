@@ -0,0 +1,22 @@
+package com.varma.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The VersionConflictException class represents an exception that is thrown when an update was made against a version
+ * of a resource that is no longer current.
+ */
+@ResponseStatus(code = HttpStatus.CONFLICT)
+public class VersionConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new VersionConflictException with the specified error message.
+     *
+     * @param message the error message
+     */
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,215 @@
+package com.varma.index;
+
+import com.varma.model.Question;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The FacetIndex class is an in-memory secondary index over the category and difficulty level of every question.
+ * Both attributes are dictionary-encoded and each distinct value owns a compressed bitmap of question IDs, so filtering
+ * on both is a bitmap intersection. The number of questions of every category and difficulty level combination is kept
+ * as a counter, which makes facet counts constant time.
+ */
+@Component
+public class FacetIndex implements QuestionIndex {
+
+    private final Dictionary categories = new Dictionary();
+
+    private final Dictionary difficultyLevels = new Dictionary();
+
+    private int[][] counts = new int[0][0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Question question) {
+        if (question.getId() == null || question.getCategory() == null || question.getDifficultyLevel() == null) {
+            return;
+        }
+        int id = question.getId();
+        lock.writeLock().lock();
+        try {
+            int category = categories.encode(question.getCategory());
+            int difficultyLevel = difficultyLevels.encode(question.getDifficultyLevel());
+            if (categories.bitmaps.get(category).contains(id) && difficultyLevels.bitmaps.get(difficultyLevel).contains(id)) {
+                return;
+            }
+            removeLocked(id);
+            categories.bitmaps.get(category).add(id);
+            difficultyLevels.bitmaps.get(difficultyLevel).add(id);
+            growCounts(category, difficultyLevel);
+            counts[category][difficultyLevel]++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            categories.clear();
+            difficultyLevels.clear();
+            counts = new int[0][0];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of the questions matching the filters.
+     *
+     * @param category        the category of the questions, or null for all categories
+     * @param difficultyLevel the difficulty level of the questions, or null for all difficulty levels
+     * @return a new bitmap of the matching question IDs
+     */
+    public RoaringBitmap ids(String category, String difficultyLevel) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap byCategory = category == null ? null : categories.bitmap(category);
+            RoaringBitmap byDifficultyLevel = difficultyLevel == null ? null : difficultyLevels.bitmap(difficultyLevel);
+            if (byCategory != null && byDifficultyLevel != null) {
+                return RoaringBitmap.and(byCategory, byDifficultyLevel);
+            }
+            if (byCategory != null) {
+                return byCategory.clone();
+            }
+            if (byDifficultyLevel != null) {
+                return byDifficultyLevel.clone();
+            }
+            return RoaringBitmap.or(categories.bitmaps.iterator());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of questions matching the filters.
+     *
+     * @param category        the category of the questions, or null for all categories
+     * @param difficultyLevel the difficulty level of the questions, or null for all difficulty levels
+     * @return the number of matching questions
+     */
+    public int count(String category, String difficultyLevel) {
+        lock.readLock().lock();
+        try {
+            if (category != null && difficultyLevel != null) {
+                Integer c = categories.codes.get(category);
+                Integer d = difficultyLevels.codes.get(difficultyLevel);
+                return c == null || d == null || c >= counts.length || d >= counts[c].length ? 0 : counts[c][d];
+            }
+            if (category != null) {
+                return categories.bitmap(category).getCardinality();
+            }
+            if (difficultyLevel != null) {
+                return difficultyLevels.bitmap(difficultyLevel).getCardinality();
+            }
+            int total = 0;
+            for (RoaringBitmap bitmap : categories.bitmaps) {
+                total += bitmap.getCardinality();
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of questions of every category and difficulty level combination that has questions.
+     *
+     * @return the counts keyed by category, then by difficulty level, both in alphabetical order
+     */
+    public Map<String, Map<String, Integer>> facetCounts() {
+        lock.readLock().lock();
+        try {
+            Map<String, Map<String, Integer>> facets = new TreeMap<>();
+            for (int c = 0; c < counts.length; c++) {
+                for (int d = 0; d < counts[c].length; d++) {
+                    if (counts[c][d] > 0) {
+                        facets.computeIfAbsent(categories.values.get(c), key -> new TreeMap<>()).put(difficultyLevels.values.get(d), counts[c][d]);
+                    }
+                }
+            }
+            return facets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        int category = categories.remove(id);
+        int difficultyLevel = difficultyLevels.remove(id);
+        if (category >= 0 && difficultyLevel >= 0) {
+            counts[category][difficultyLevel]--;
+        }
+    }
+
+    private void growCounts(int category, int difficultyLevel) {
+        if (category >= counts.length) {
+            counts = Arrays.copyOf(counts, category + 1);
+            for (int c = 0; c < counts.length; c++) {
+                if (counts[c] == null) {
+                    counts[c] = new int[0];
+                }
+            }
+        }
+        if (difficultyLevel >= counts[category].length) {
+            counts[category] = Arrays.copyOf(counts[category], difficultyLevels.values.size());
+        }
+    }
+
+    /**
+     * Dictionary encoding of one attribute: each distinct value gets a dense code and a bitmap of question IDs.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<RoaringBitmap> bitmaps = new ArrayList<>();
+
+        private int encode(String value) {
+            return codes.computeIfAbsent(value, key -> {
+                values.add(key);
+                bitmaps.add(new RoaringBitmap());
+                return values.size() - 1;
+            });
+        }
+
+        private RoaringBitmap bitmap(String value) {
+            Integer code = codes.get(value);
+            return code == null ? new RoaringBitmap() : bitmaps.get(code);
+        }
+
+        private int remove(int id) {
+            for (int code = 0; code < bitmaps.size(); code++) {
+                if (bitmaps.get(code).checkedRemove(id)) {
+                    return code;
+                }
+            }
+            return -1;
+        }
+
+        private void clear() {
+            codes.clear();
+            values.clear();
+            bitmaps.clear();
+        }
+    }
+}
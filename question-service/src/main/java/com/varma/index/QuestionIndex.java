@@ -0,0 +1,30 @@
+package com.varma.index;
+
+import com.varma.model.Question;
+
+/**
+ * The QuestionIndex interface is implemented by the in-memory structures that mirror the question table.
+ * Implementations are kept current by the {@link QuestionIndexMaintainer}, which feeds them every saved and deleted question
+ * and rebuilds them from the database on startup.
+ */
+public interface QuestionIndex {
+
+    /**
+     * Adds the question to the index, replacing any entry with the same ID.
+     *
+     * @param question the saved question
+     */
+    void index(Question question);
+
+    /**
+     * Removes the question with the specified ID from the index, if present.
+     *
+     * @param id the ID of the deleted question
+     */
+    void remove(int id);
+
+    /**
+     * Removes every entry from the index before it is rebuilt.
+     */
+    void clear();
+}
@@ -0,0 +1,375 @@
+package com.varma.index;
+
+import com.varma.cache.QuestionCache;
+import com.varma.model.Question;
+import com.varma.question.QuestionChange;
+import com.varma.questionRepository.QuestionChangeLog;
+import com.varma.questionRepository.QuestionRepository;
+import com.varma.snapshot.QuestionSnapshot;
+import com.varma.snapshot.QuestionSnapshotWriter;
+import com.varma.snapshot.QuestionSnapshots;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * The QuestionIndexMaintainer class keeps every {@link QuestionIndex} in step with the question table.
+ * The write paths of the question service report each saved and deleted question here, and on startup the indexes are
+ * rebuilt on a background thread, from the local {@link QuestionSnapshot} and the questions changed after it when
+ * there is a usable one, and otherwise from a single streaming scan of the table. Until the rebuild has finished the
+ * indexes are incomplete, so readers must treat a miss as "unknown" and fall back to the database.
+ * <p>
+ * Writes made through other instances reach the indexes through the {@link QuestionChangeLog}: once rebuilt, the same
+ * thread reads the changes logged after the high-water mark of the indexes every {@code question.index.follow-interval},
+ * applies them to every index and drops the changed questions from the {@link QuestionCache}. When the changes it needs
+ * were pruned from the log, the indexes are rebuilt from the database.
+ */
+@Component
+public class QuestionIndexMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionIndexMaintainer.class);
+
+    private static final int CATCH_UP_BATCH_SIZE = 1000;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private List<QuestionIndex> indexes;
+
+    @Autowired
+    private QuestionChangeLog changeLog;
+
+    @Autowired
+    private QuestionSnapshots questionSnapshots;
+
+    @Autowired
+    private QuestionCache questionCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final Set<Integer> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean rebuilding;
+
+    private volatile boolean ready;
+
+    private volatile long appliedUpTo;
+
+    private final Duration followInterval;
+
+    /**
+     * Constructs the maintainer.
+     *
+     * @param followInterval how often the change log is read for the writes of other instances
+     */
+    public QuestionIndexMaintainer(@Value("${question.index.follow-interval:1s}") Duration followInterval) {
+        this.followInterval = followInterval;
+    }
+
+    /**
+     * Starts rebuilding the indexes once the application is ready to serve requests, and then following the change log.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread thread = new Thread(() -> {
+            warmStart();
+            follow();
+        }, "question-index-maintainer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Rebuilds the indexes from the local snapshot when there is a usable one, and from the database otherwise.
+     */
+    void warmStart() {
+        QuestionSnapshot snapshot = null;
+        long highWaterMark = 0;
+        try {
+            changeLog.install();
+            highWaterMark = changeLog.highWaterMark();
+            snapshot = questionSnapshots.open(highWaterMark);
+        } catch (RuntimeException e) {
+            log.error("Reading the question change log failed, rebuilding the indexes from the database", e);
+        }
+        if (snapshot == null || !rebuild(snapshot, highWaterMark)) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds every index from the database and writes a new snapshot of the question table.
+     * Questions written while the scan runs are re-read afterwards, so a concurrent write is never lost to an older row
+     * returned by the scan.
+     */
+    public void rebuild() {
+        rebuildLock.lock();
+        ready = false;
+        rebuilding = true;
+        QuestionSnapshotWriter[] writer = {null};
+        try {
+            long started = System.nanoTime();
+            indexes.forEach(QuestionIndex::clear);
+            long highWaterMark = changeLog.highWaterMark();
+            writer[0] = questionSnapshots.newWriter();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            int count = readOnly.execute(status -> {
+                int[] rows = {0};
+                try (Stream<Question> questions = questionRepository.streamAllByOrderByIdAsc()) {
+                    questions.forEach(question -> {
+                        indexAll(question);
+                        writer[0] = addToSnapshot(writer[0], question);
+                        entityManager.detach(question);
+                        rows[0]++;
+                    });
+                }
+                return rows[0];
+            });
+            replayTouched();
+            appliedUpTo = highWaterMark;
+            ready = true;
+            log.info("Indexed {} questions in {} ms", count, (System.nanoTime() - started) / 1_000_000);
+            if (writer[0] != null) {
+                questionSnapshots.commit(writer[0], highWaterMark);
+                writer[0] = null;
+            }
+        } catch (RuntimeException e) {
+            log.error("Rebuilding the question indexes failed, reads will keep falling back to the database", e);
+        } finally {
+            questionSnapshots.abandon(writer[0]);
+            rebuilding = false;
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds every index from a snapshot, catching up on the questions changed after its high-water mark, and
+     * replaces the snapshot with an up-to-date one if anything changed. Reads are served from the snapshot meanwhile.
+     *
+     * @param snapshot      the snapshot
+     * @param highWaterMark the current high-water mark of the change log
+     * @return true if the indexes were rebuilt, false if they must be rebuilt from the database
+     */
+    boolean rebuild(QuestionSnapshot snapshot, long highWaterMark) {
+        rebuildLock.lock();
+        ready = false;
+        rebuilding = true;
+        try {
+            long started = System.nanoTime();
+            List<Integer> changedIds = changeLog.findChangedSince(snapshot.highWaterMark());
+            questionSnapshots.serve(snapshot, changedIds);
+            indexes.forEach(QuestionIndex::clear);
+            Set<Integer> changed = new HashSet<>(changedIds);
+            for (Question question : snapshot) {
+                if (!changed.contains(question.getId())) {
+                    indexAll(question);
+                }
+            }
+            TreeMap<Integer, Question> current = new TreeMap<>();
+            for (int from = 0; from < changedIds.size(); from += CATCH_UP_BATCH_SIZE) {
+                questionRepository.findAllById(changedIds.subList(from, Math.min(from + CATCH_UP_BATCH_SIZE, changedIds.size())))
+                        .forEach(question -> current.put(question.getId(), question));
+            }
+            current.values().forEach(this::indexAll);
+            replayTouched();
+            appliedUpTo = highWaterMark;
+            ready = true;
+            log.info("Indexed {} questions from the snapshot at high-water mark {} and caught up on {} changed questions in {} ms",
+                    snapshot.size(), snapshot.highWaterMark(), changed.size(), (System.nanoTime() - started) / 1_000_000);
+            if (!changed.isEmpty()) {
+                writeSnapshot(snapshot, changed, current, highWaterMark);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Rebuilding the question indexes from the snapshot failed, falling back to the database", e);
+            return false;
+        } finally {
+            questionSnapshots.stopServing();
+            rebuilding = false;
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the changes logged after the high-water mark of the indexes, which include the writes of every instance.
+     * Every change carries the current state of its question, so applying a change that was already reported locally
+     * is harmless. Does nothing until the indexes are rebuilt or while they are being rebuilt.
+     */
+    void followChanges() {
+        if (!ready || !rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            long highWaterMark = changeLog.highWaterMark();
+            if (highWaterMark <= appliedUpTo) {
+                return;
+            }
+            if (!changeLog.retainsChangesAfter(appliedUpTo, highWaterMark)) {
+                log.warn("The question changes after sequence {} were pruned, rebuilding the indexes", appliedUpTo);
+                rebuild();
+                return;
+            }
+            List<QuestionChange> changes;
+            do {
+                changes = changeLog.findChanges(appliedUpTo, highWaterMark, CATCH_UP_BATCH_SIZE);
+                for (QuestionChange change : changes) {
+                    questionCache.invalidate(change.id());
+                    if (change.question() == null) {
+                        removeAll(change.id());
+                    } else {
+                        indexAll(change.question());
+                    }
+                }
+                if (!changes.isEmpty()) {
+                    appliedUpTo = changes.get(changes.size() - 1).sequence();
+                }
+            } while (changes.size() == CATCH_UP_BATCH_SIZE);
+            appliedUpTo = highWaterMark;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void follow() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(followInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                followChanges();
+            } catch (RuntimeException e) {
+                log.warn("Following the question change log failed, retrying in {} ms: {}", followInterval.toMillis(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reports a question that was inserted or updated.
+     *
+     * @param question the saved question
+     */
+    public void indexed(Question question) {
+        questionSnapshots.invalidate(question.getId());
+        if (rebuilding) {
+            touchedDuringRebuild.add(question.getId());
+        }
+        indexAll(question);
+    }
+
+    /**
+     * Reports a question that was deleted.
+     *
+     * @param id the ID of the deleted question
+     */
+    public void removed(Integer id) {
+        questionSnapshots.invalidate(id);
+        if (rebuilding) {
+            touchedDuringRebuild.add(id);
+        }
+        removeAll(id);
+    }
+
+    /**
+     * Checks if the indexes hold the whole question table.
+     *
+     * @return true once the startup rebuild has completed, false otherwise
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void indexAll(Question question) {
+        for (QuestionIndex index : indexes) {
+            index.index(question);
+        }
+    }
+
+    private void removeAll(int id) {
+        for (QuestionIndex index : indexes) {
+            index.remove(id);
+        }
+    }
+
+    private QuestionSnapshotWriter addToSnapshot(QuestionSnapshotWriter writer, Question question) {
+        if (writer == null) {
+            return null;
+        }
+        try {
+            writer.add(question);
+            return writer;
+        } catch (IOException e) {
+            log.warn("Writing the question snapshot failed, it is left unchanged", e);
+            questionSnapshots.abandon(writer);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a new snapshot from an older one and the current state of the questions changed since.
+     */
+    private void writeSnapshot(QuestionSnapshot snapshot, Set<Integer> changed, TreeMap<Integer, Question> current, long highWaterMark) {
+        QuestionSnapshotWriter writer = questionSnapshots.newWriter();
+        Iterator<Question> updates = current.values().iterator();
+        Question update = updates.hasNext() ? updates.next() : null;
+        for (Question question : snapshot) {
+            while (update != null && update.getId() < question.getId()) {
+                writer = addToSnapshot(writer, update);
+                update = updates.hasNext() ? updates.next() : null;
+            }
+            if (!changed.contains(question.getId())) {
+                writer = addToSnapshot(writer, question);
+            }
+        }
+        while (update != null) {
+            writer = addToSnapshot(writer, update);
+            update = updates.hasNext() ? updates.next() : null;
+        }
+        if (writer != null) {
+            questionSnapshots.commit(writer, highWaterMark);
+        }
+    }
+
+    private void replayTouched() {
+        while (!touchedDuringRebuild.isEmpty()) {
+            List<Integer> ids = new ArrayList<>(touchedDuringRebuild);
+            touchedDuringRebuild.removeAll(ids);
+            Set<Integer> missing = new HashSet<>(ids);
+            for (Question question : questionRepository.findAllById(ids)) {
+                missing.remove(question.getId());
+                indexAll(question);
+            }
+            missing.forEach(this::removeAll);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.varma.index;
+
+import com.varma.exception.InsufficientQuestionsException;
+import com.varma.model.Question;
+import com.varma.question.ShortfallPolicy;
+import com.varma.util.IntObjectHashMap;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * The QuestionSampler class draws random questions without touching the database.
+ * It keeps the IDs of every category and difficulty level combination, and of every category as a whole, in compressed
+ * bitmaps that are updated in place on insert and delete. Questions without a difficulty level have a pool of their own,
+ * so they are drawn from their category but never for a difficulty level. A sample of k distinct IDs is drawn with
+ * Floyd's algorithm in O(k) bitmap selections: a draw from a single category selects from its bitmaps directly, whatever
+ * their size, while a draw across several categories first merges their bitmaps, which is linear in their compressed
+ * size. Because a bitmap orders its IDs, a sample depends only on the questions in the pools and the random generator,
+ * so a seed reproduces the same sample on every instance holding the same questions.
+ * <p>
+ * A stratified sample splits the number of questions between difficulty levels by weight, rounding with the largest
+ * remainder method, and draws each share from the union of the requested categories. When a difficulty level holds fewer
+ * questions than its share the {@link ShortfallPolicy} decides what happens; callers get fewer IDs than they asked for,
+ * never duplicates.
+ * <p>
+ * Setting {@code question.sampler.seed} makes every unseeded sample reproducible, which is meant for tests only since all
+ * requests then share one synchronized generator.
+ */
+@Component
+public class QuestionSampler implements QuestionIndex {
+
+    /**
+     * The questions of every category by difficulty level, those without a difficulty level under the null key.
+     */
+    private final Map<String, Map<String, RoaringBitmap>> pools = new HashMap<>();
+
+    private final Map<String, RoaringBitmap> categoryPools = new HashMap<>();
+
+    private final IntObjectHashMap<Placement> placements = new IntObjectHashMap<>(1024);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Random seededRandom;
+
+    /**
+     * Constructs a sampler.
+     *
+     * @param seed the seed for reproducible samples, or null to sample with {@link ThreadLocalRandom}
+     */
+    public QuestionSampler(@Value("${question.sampler.seed:#{null}}") Long seed) {
+        this.seededRandom = seed == null ? null : new Random(seed);
+    }
+
+    @Override
+    public void index(Question question) {
+        if (question.getId() == null) {
+            return;
+        }
+        if (question.getCategory() == null) {
+            remove(question.getId());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Placement placement = new Placement(question.getCategory(), question.getDifficultyLevel());
+            Placement placed = placements.get(question.getId());
+            if (placement.equals(placed)) {
+                return;
+            }
+            if (placed != null) {
+                detach(question.getId(), placed);
+            }
+            pools.computeIfAbsent(question.getCategory(), key -> new HashMap<>())
+                    .computeIfAbsent(question.getDifficultyLevel(), key -> new RoaringBitmap())
+                    .add(question.getId());
+            categoryPools.computeIfAbsent(question.getCategory(), key -> new RoaringBitmap()).add(question.getId());
+            placements.put(question.getId(), placement);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Placement placed = placements.remove(id);
+            if (placed != null) {
+                detach(id, placed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            pools.clear();
+            categoryPools.clear();
+            placements.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of questions in the category.
+     *
+     * @param category the category
+     * @return the number of questions in the category
+     */
+    public int count(String category) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap pool = categoryPools.get(category);
+            return pool == null ? 0 : pool.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a seed for a sample whose caller did not choose one.
+     *
+     * @return the seed
+     */
+    public long nextSeed() {
+        if (seededRandom == null) {
+            return ThreadLocalRandom.current().nextLong();
+        }
+        synchronized (seededRandom) {
+            return seededRandom.nextLong();
+        }
+    }
+
+    /**
+     * Draws distinct random question IDs of the category.
+     *
+     * @param category      the category of the questions
+     * @param noOfQuestions the number of questions to draw
+     * @return the drawn IDs in random order; all IDs of the category if it holds fewer than requested
+     */
+    public List<Integer> sample(String category, int noOfQuestions) {
+        if (seededRandom == null) {
+            return sample(category, noOfQuestions, ThreadLocalRandom.current());
+        }
+        synchronized (seededRandom) {
+            return sample(category, noOfQuestions, seededRandom);
+        }
+    }
+
+    /**
+     * Draws distinct random question IDs of the category using the given generator.
+     *
+     * @param category      the category of the questions
+     * @param noOfQuestions the number of questions to draw
+     * @param random        the random generator
+     * @return the drawn IDs in random order; all IDs of the category if it holds fewer than requested
+     */
+    public List<Integer> sample(String category, int noOfQuestions, RandomGenerator random) {
+        return sample(List.of(category), null, noOfQuestions, ShortfallPolicy.PARTIAL, random);
+    }
+
+    /**
+     * Draws distinct random question IDs of the categories, split between difficulty levels.
+     *
+     * @param categories    the categories of the questions
+     * @param mix           the weight of every difficulty level, or null or empty to draw from all difficulty levels alike
+     * @param noOfQuestions the number of questions to draw
+     * @param shortfall     what to do when a difficulty level holds fewer questions than its share
+     * @param random        the random generator
+     * @return the drawn IDs in random order
+     * @throws InsufficientQuestionsException if a share cannot be met and the policy is {@link ShortfallPolicy#FAIL}
+     */
+    public List<Integer> sample(Collection<String> categories, Map<String, Double> mix, int noOfQuestions, ShortfallPolicy shortfall, RandomGenerator random) {
+        List<Stratum> strata = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (mix == null || mix.isEmpty()) {
+                strata.add(new Stratum(null, 1, union(categories, categoryPools::get)));
+            } else {
+                mix.forEach((difficultyLevel, weight) -> strata.add(new Stratum(difficultyLevel, weight, union(categories, category -> {
+                    Map<String, RoaringBitmap> byDifficultyLevel = pools.get(category);
+                    return byDifficultyLevel == null ? null : byDifficultyLevel.get(difficultyLevel);
+                }))));
+            }
+            // The strata may be the pools themselves, so they are drawn from before the lock is released.
+            return sample(strata, noOfQuestions, shortfall, random);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of the pools of the categories: the pool itself when only one category has one, so that it is not
+     * copied, otherwise their union.
+     */
+    private static RoaringBitmap union(Collection<String> categories, Function<String, RoaringBitmap> poolOf) {
+        RoaringBitmap found = null;
+        RoaringBitmap union = null;
+        for (String category : new HashSet<>(categories)) {
+            RoaringBitmap pool = poolOf.apply(category);
+            if (pool == null) {
+                continue;
+            }
+            if (found == null) {
+                found = pool;
+            } else {
+                if (union == null) {
+                    union = found.clone();
+                }
+                union.or(pool);
+            }
+        }
+        return union != null ? union : found != null ? found : new RoaringBitmap();
+    }
+
+    /**
+     * Draws distinct random question IDs from strata, each receiving a share of the questions proportional to its weight.
+     *
+     * @param strata        the strata, in the order that breaks rounding ties
+     * @param noOfQuestions the number of questions to draw
+     * @param shortfall     what to do when a stratum holds fewer questions than its share
+     * @param random        the random generator
+     * @return the drawn IDs in random order
+     * @throws InsufficientQuestionsException if a share cannot be met and the policy is {@link ShortfallPolicy#FAIL}
+     */
+    public static List<Integer> sample(List<Stratum> strata, int noOfQuestions, ShortfallPolicy shortfall, RandomGenerator random) {
+        if (noOfQuestions <= 0 || strata.isEmpty()) {
+            return new ArrayList<>();
+        }
+        double[] weights = new double[strata.size()];
+        int[] available = new int[strata.size()];
+        for (int i = 0; i < strata.size(); i++) {
+            weights[i] = strata.get(i).weight();
+            available[i] = strata.get(i).ids().getCardinality();
+        }
+        int[] shares = shares(noOfQuestions, weights, available, shortfall);
+        for (int i = 0; i < shares.length; i++) {
+            if (shares[i] > available[i]) {
+                throw new InsufficientQuestionsException("Only %d %s questions for %d requested".formatted(available[i],
+                        strata.get(i).difficultyLevel() == null ? "matching" : strata.get(i).difficultyLevel(), shares[i]));
+            }
+        }
+        int total = 0;
+        for (int share : shares) {
+            total += share;
+        }
+        int[] drawn = new int[total];
+        int count = 0;
+        for (int i = 0; i < shares.length; i++) {
+            count = draw(strata.get(i).ids(), shares[i], random, drawn, count);
+        }
+        for (int i = drawn.length - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            int id = drawn[i];
+            drawn[i] = drawn[swap];
+            drawn[swap] = id;
+        }
+        List<Integer> ids = new ArrayList<>(drawn.length);
+        for (int id : drawn) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Splits the questions between strata. Under {@link ShortfallPolicy#FAIL} a share may exceed what its stratum holds;
+     * the other policies cap every share, and {@link ShortfallPolicy#REDISTRIBUTE} hands the missing questions to the
+     * strata with questions to spare, again by weight, until the total is met or every stratum is exhausted.
+     */
+    static int[] shares(int noOfQuestions, double[] weights, int[] available, ShortfallPolicy shortfall) {
+        boolean[] eligible = new boolean[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            eligible[i] = weights[i] > 0;
+        }
+        int[] shares = apportion(noOfQuestions, weights, eligible);
+        if (shortfall == ShortfallPolicy.FAIL) {
+            return shares;
+        }
+        int missing = 0;
+        for (int i = 0; i < shares.length; i++) {
+            missing += Math.max(0, shares[i] - available[i]);
+            shares[i] = Math.min(shares[i], available[i]);
+        }
+        while (shortfall == ShortfallPolicy.REDISTRIBUTE && missing > 0) {
+            boolean spare = false;
+            for (int i = 0; i < shares.length; i++) {
+                eligible[i] = weights[i] > 0 && shares[i] < available[i];
+                spare |= eligible[i];
+            }
+            if (!spare) {
+                break;
+            }
+            int[] extra = apportion(missing, weights, eligible);
+            for (int i = 0; i < shares.length; i++) {
+                int added = Math.min(extra[i], available[i] - shares[i]);
+                shares[i] += added;
+                missing -= added;
+            }
+        }
+        return shares;
+    }
+
+    /**
+     * Splits a number between the eligible entries in proportion to their weights, giving the units left over after
+     * rounding down to the largest remainders, and to the first entries among equal remainders.
+     */
+    private static int[] apportion(int total, double[] weights, boolean[] eligible) {
+        int[] shares = new int[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (eligible[i]) {
+                sum += weights[i];
+            }
+        }
+        if (sum <= 0) {
+            return shares;
+        }
+        double[] remainders = new double[weights.length];
+        int assigned = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (eligible[i]) {
+                double exact = total * weights[i] / sum;
+                shares[i] = (int) Math.floor(exact);
+                remainders[i] = exact - shares[i];
+                assigned += shares[i];
+            }
+        }
+        for (; assigned < total; assigned++) {
+            int largest = -1;
+            for (int i = 0; i < weights.length; i++) {
+                if (eligible[i] && (largest < 0 || remainders[i] > remainders[largest])) {
+                    largest = i;
+                }
+            }
+            shares[largest]++;
+            remainders[largest] = -1;
+        }
+        return shares;
+    }
+
+    /**
+     * Draws k distinct IDs of the bitmap into the array from the given index on and returns the index after them.
+     */
+    private static int draw(RoaringBitmap ids, int k, RandomGenerator random, int[] drawn, int from) {
+        int size = ids.getCardinality();
+        if (k >= size) {
+            int count = from;
+            for (PeekableIntIterator iterator = ids.getIntIterator(); iterator.hasNext(); ) {
+                drawn[count++] = iterator.next();
+            }
+            return count;
+        }
+        // Floyd's algorithm: k distinct positions out of [0, size) in k iterations.
+        IntObjectHashMap<Boolean> chosen = new IntObjectHashMap<>(k);
+        int count = from;
+        for (int j = size - k; j < size; j++) {
+            int position = random.nextInt(j + 1);
+            if (chosen.put(position, Boolean.TRUE) != null) {
+                position = j;
+                chosen.put(j, Boolean.TRUE);
+            }
+            drawn[count++] = ids.select(position);
+        }
+        return count;
+    }
+
+    private void detach(int id, Placement placed) {
+        RoaringBitmap categoryPool = categoryPools.get(placed.category());
+        categoryPool.remove(id);
+        if (categoryPool.isEmpty()) {
+            categoryPools.remove(placed.category());
+        }
+        Map<String, RoaringBitmap> byDifficultyLevel = pools.get(placed.category());
+        RoaringBitmap pool = byDifficultyLevel.get(placed.difficultyLevel());
+        pool.remove(id);
+        if (pool.isEmpty()) {
+            byDifficultyLevel.remove(placed.difficultyLevel());
+            if (byDifficultyLevel.isEmpty()) {
+                pools.remove(placed.category());
+            }
+        }
+    }
+
+    private record Placement(String category, String difficultyLevel) {
+    }
+
+    /**
+     * A pool of questions to draw a share of a sample from.
+     *
+     * @param difficultyLevel the difficulty level of the questions, or null if they are of any difficulty level
+     * @param weight          the weight of the stratum
+     * @param ids             the IDs of the questions
+     */
+    public record Stratum(String difficultyLevel, double weight, RoaringBitmap ids) {
+    }
+}
@@ -0,0 +1,406 @@
+package com.varma.index;
+
+import com.varma.dedup.ContentHash;
+import com.varma.model.Question;
+import com.varma.util.IntObjectHashMap;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * The SearchIndex class is an in-memory inverted index over the text and options of every question.
+ * Text is normalized like the content hash and split into word tokens. Every token owns a compressed bitmap of the
+ * questions containing it and a second bitmap of those containing it in the question text; every trigram of every token
+ * owns a bitmap as well, so that a query word that is not in the index still matches the longer words and misspellings
+ * sharing all of its trigrams.
+ * <p>
+ * A question scores, for each query word, its inverse document frequency if the word is in the question text and half of
+ * it if the word is only in an option; a word matched through its trigrams scores a quarter of their joint frequency. Results are ordered
+ * by score and then by ID. Because each query word contributes one of a few discrete values, the index never scores
+ * questions one by one: it lists the combinations of contributions the query words can make, best score first, and reads
+ * each combination lazily from the smallest bitmap it requires, checking the others by lookup. A query stops as soon as
+ * the page is full, so its cost depends on the page size rather than on the number of matching questions.
+ */
+@Component
+public class SearchIndex implements QuestionIndex {
+
+    /**
+     * The number of query words used for ranking; the rarest ones are kept.
+     */
+    static final int MAX_QUERY_TERMS = 5;
+
+    private static final double OPTION_WEIGHT = 0.5;
+
+    private static final double PARTIAL_WEIGHT = 0.25;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+
+    private final List<String> terms = new ArrayList<>();
+
+    private final List<RoaringBitmap> postings = new ArrayList<>();
+
+    private final List<RoaringBitmap> textPostings = new ArrayList<>();
+
+    private final Map<String, RoaringBitmap> trigramPostings = new HashMap<>();
+
+    private final IntObjectHashMap<int[]> termsById = new IntObjectHashMap<>(1024);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(Question question) {
+        if (question.getId() == null) {
+            return;
+        }
+        int id = question.getId();
+        Set<String> textTokens = new LinkedHashSet<>(tokens(question.getQuestion()));
+        Set<String> allTokens = new LinkedHashSet<>(textTokens);
+        for (String option : new String[]{question.getOption1(), question.getOption2(), question.getOption3(), question.getOption4()}) {
+            allTokens.addAll(tokens(option));
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int[] ids = new int[allTokens.size()];
+            int i = 0;
+            for (String token : allTokens) {
+                int termId = termIds.computeIfAbsent(token, key -> {
+                    terms.add(key);
+                    postings.add(new RoaringBitmap());
+                    textPostings.add(new RoaringBitmap());
+                    return terms.size() - 1;
+                });
+                postings.get(termId).add(id);
+                if (textTokens.contains(token)) {
+                    textPostings.get(termId).add(id);
+                }
+                for (String trigram : trigrams(token)) {
+                    trigramPostings.computeIfAbsent(trigram, key -> new RoaringBitmap()).add(id);
+                }
+                ids[i++] = termId;
+            }
+            termsById.put(id, ids);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            termIds.clear();
+            terms.clear();
+            postings.clear();
+            textPostings.clear();
+            trigramPostings.clear();
+            termsById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the page of questions matching a query that follows the given cursor.
+     *
+     * @param query  the words to search for
+     * @param filter the IDs of the questions to search among, or null for all questions
+     * @param after  the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of questions in the page
+     * @return the page of question IDs, best match first, with the cursor of the next page if there is one
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page search(String query, RoaringBitmap filter, String after, int size) {
+        Cursor cursor = after == null ? null : Cursor.parse(after);
+        List<String> queryTokens = new ArrayList<>(new LinkedHashSet<>(tokens(query)));
+        lock.readLock().lock();
+        try {
+            List<Feature> features = new ArrayList<>(queryTokens.size());
+            for (String token : queryTokens) {
+                Feature feature = feature(token);
+                if (feature != null) {
+                    features.add(feature);
+                }
+            }
+            features.sort(Comparator.comparingDouble(Feature::maxWeight).reversed());
+            if (features.size() > MAX_QUERY_TERMS) {
+                features = features.subList(0, MAX_QUERY_TERMS);
+            }
+            List<Combination> combinations = new ArrayList<>();
+            combine(features, 0, new State[features.size()], 0, combinations);
+            combinations.sort(Comparator.comparingDouble(Combination::score).reversed());
+            return page(features, combinations, filter, cursor, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of indexed questions.
+     *
+     * @return the number of indexed questions
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits normalized text into word tokens.
+     *
+     * @param text the text, may be null
+     * @return the tokens in order of appearance
+     */
+    static List<String> tokens(String text) {
+        String normalized = ContentHash.normalize(text);
+        if (normalized == null || normalized.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> trigrams(String token) {
+        if (token.length() < 3) {
+            return List.of();
+        }
+        List<String> trigrams = new ArrayList<>(token.length() - 2);
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            trigrams.add(token.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private Feature feature(String token) {
+        double total = termsById.size();
+        Integer termId = termIds.get(token);
+        if (termId != null && !postings.get(termId).isEmpty()) {
+            RoaringBitmap any = postings.get(termId);
+            RoaringBitmap text = textPostings.get(termId);
+            double idf = Math.log(1 + total / any.getCardinality());
+            List<State> states = new ArrayList<>(2);
+            if (!text.isEmpty()) {
+                states.add(new State(text, null, idf));
+            }
+            if (text.getCardinality() < any.getCardinality()) {
+                states.add(new State(any, text, idf * OPTION_WEIGHT));
+            }
+            return new Feature(states, any);
+        }
+        List<String> trigrams = trigrams(token);
+        if (trigrams.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap partial = null;
+        for (String trigram : trigrams) {
+            RoaringBitmap bitmap = trigramPostings.get(trigram);
+            if (bitmap == null) {
+                return null;
+            }
+            partial = partial == null ? bitmap : RoaringBitmap.and(partial, bitmap);
+            if (partial.isEmpty()) {
+                return null;
+            }
+        }
+        double idf = Math.log(1 + total / partial.getCardinality());
+        return new Feature(List.of(new State(partial, null, idf * PARTIAL_WEIGHT)), partial);
+    }
+
+    /**
+     * Lists every way the query words can contribute to a score, leaving out the one where no word matches. The states
+     * of a word are disjoint, so every question falls in exactly one combination.
+     */
+    private static void combine(List<Feature> features, int index, State[] chosen, double score, List<Combination> combinations) {
+        if (index == features.size()) {
+            if (score > 0) {
+                combinations.add(new Combination(score, chosen.clone()));
+            }
+            return;
+        }
+        for (State state : features.get(index).states()) {
+            chosen[index] = state;
+            combine(features, index + 1, chosen, score + state.weight(), combinations);
+        }
+        chosen[index] = null;
+        combine(features, index + 1, chosen, score, combinations);
+    }
+
+    /**
+     * Walks the combinations best score first. The combinations of one score are read in ID order, each from the smallest
+     * bitmap it requires, until one question more than the page holds has been found.
+     */
+    private static Page page(List<Feature> features, List<Combination> combinations, RoaringBitmap filter, Cursor cursor, int size) {
+        List<Integer> ids = new ArrayList<>(size);
+        double lastScore = 0;
+        int from = 0;
+        while (from < combinations.size()) {
+            double score = combinations.get(from).score();
+            int to = from;
+            while (to < combinations.size() && combinations.get(to).score() == score) {
+                to++;
+            }
+            if (cursor == null || score <= cursor.score()) {
+                int start = cursor != null && score == cursor.score() ? cursor.id() + 1 : 0;
+                int wanted = size + 1 - ids.size();
+                int[] found = new int[0];
+                for (Combination combination : combinations.subList(from, to)) {
+                    int[] matches = combination.matches(features, filter, start, wanted);
+                    int[] merged = Arrays.copyOf(found, found.length + matches.length);
+                    System.arraycopy(matches, 0, merged, found.length, matches.length);
+                    found = merged;
+                }
+                Arrays.sort(found);
+                for (int i = 0; i < found.length && i < wanted; i++) {
+                    if (ids.size() == size) {
+                        return new Page(ids, new Cursor(lastScore, ids.get(size - 1)).toString());
+                    }
+                    ids.add(found[i]);
+                    lastScore = score;
+                }
+            }
+            from = to;
+        }
+        return new Page(ids, null);
+    }
+
+    private void removeLocked(int id) {
+        int[] ids = termsById.remove(id);
+        if (ids == null) {
+            return;
+        }
+        for (int termId : ids) {
+            postings.get(termId).remove(id);
+            textPostings.get(termId).remove(id);
+            for (String trigram : trigrams(terms.get(termId))) {
+                RoaringBitmap bitmap = trigramPostings.get(trigram);
+                if (bitmap != null) {
+                    bitmap.remove(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * One contribution a query word can make: the questions in the include bitmap but not in the exclude bitmap add the
+     * weight to their score.
+     */
+    private record State(RoaringBitmap include, RoaringBitmap exclude, double weight) {
+        private boolean contains(int id) {
+            return include.contains(id) && (exclude == null || !exclude.contains(id));
+        }
+    }
+
+    /**
+     * The contributions one query word can make, best first, and the bitmap of all the questions matching the word.
+     */
+    private record Feature(List<State> states, RoaringBitmap any) {
+        private double maxWeight() {
+            return states.get(0).weight();
+        }
+    }
+
+    /**
+     * One contribution per query word, null where the word does not match, and the score of the questions receiving them.
+     */
+    private record Combination(double score, State[] states) {
+
+        /**
+         * Returns, in ID order, at most limit questions of this combination from the start ID on.
+         */
+        private int[] matches(List<Feature> features, RoaringBitmap filter, int start, int limit) {
+            RoaringBitmap driver = filter;
+            for (State state : states) {
+                if (state != null && (driver == null || state.include().getCardinality() < driver.getCardinality())) {
+                    driver = state.include();
+                }
+            }
+            int[] matches = new int[limit];
+            int count = 0;
+            PeekableIntIterator iterator = driver.getIntIterator();
+            iterator.advanceIfNeeded(start);
+            while (count < limit && iterator.hasNext()) {
+                int id = iterator.next();
+                if (accepts(features, filter, id)) {
+                    matches[count++] = id;
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        }
+
+        private boolean accepts(List<Feature> features, RoaringBitmap filter, int id) {
+            if (filter != null && !filter.contains(id)) {
+                return false;
+            }
+            for (int i = 0; i < states.length; i++) {
+                if (states[i] == null ? features.get(i).any().contains(id) : !states[i].contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A position in the ranked results: the score and ID of the last question of a page.
+     */
+    record Cursor(double score, int id) {
+
+        static Cursor parse(String value) {
+            int separator = value.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor: " + value);
+            }
+            try {
+                return new Cursor(Double.parseDouble(value.substring(0, separator)), Integer.parseInt(value.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed cursor: " + value, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return score + ":" + id;
+        }
+    }
+
+    /**
+     * A page of search results.
+     *
+     * @param ids        the IDs of the matching questions, best match first
+     * @param nextCursor the cursor of the next page, or null if this is the last page
+     */
+    public record Page(List<Integer> ids, String nextCursor) {
+    }
+}
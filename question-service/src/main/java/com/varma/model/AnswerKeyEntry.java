@@ -0,0 +1,7 @@
+package com.varma.model;
+
+/**
+ * The AnswerKeyEntry record represents the correct answer of a single question.
+ */
+public record AnswerKeyEntry(Integer id, String correctAns) {
+}
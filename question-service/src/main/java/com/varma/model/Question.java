@@ -1,11 +1,12 @@
 package com.varma.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.varma.dedup.ContentHash;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
 @Data
-@AllArgsConstructor
 @RequiredArgsConstructor
 @Setter
 @Getter
@@ -26,6 +27,24 @@ public class Question {
     String category;
     @Column(nullable = false)
     String correctAns;
+    /**
+     * The normalized content hash of the question text and options, used to reject duplicates. See {@link ContentHash}.
+     */
+    @JsonIgnore
+    @Column(length = 64, unique = true)
+    String contentHash;
+    /**
+     * The optimistic lock version, incremented by every update. Clients may send it back with an update to have the
+     * update rejected if someone else changed the question in the meantime.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    Long version;
+
+    public Question(Integer id, String question, String option1, String option2, String option3, String option4, String difficultyLevel, String category, String correctAns) {
+        this(question, option1, option2, option3, option4, difficultyLevel, category, correctAns);
+        this.id = id;
+    }
 
     public Question(String question, String option1, String option2, String option3, String option4, String difficultyLevel, String category, String correctAns) {
         this.question = question;
@@ -113,4 +132,26 @@ public class Question {
     public void setCorrectAns(String correctAns) {
         this.correctAns = correctAns;
     }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void computeContentHash() {
+        this.contentHash = ContentHash.of(this);
+    }
 }
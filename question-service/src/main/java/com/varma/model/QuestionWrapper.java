@@ -8,4 +8,14 @@ import lombok.NoArgsConstructor;
 
 public record QuestionWrapper(Integer id, String question, String option1, String option2, String option3, String option4) {
 
+    /**
+     * Wraps a question, leaving out its correct answer.
+     *
+     * @param question the question
+     * @return the wrapper of the question
+     */
+    public static QuestionWrapper of(Question question) {
+        return new QuestionWrapper(question.getId(), question.getQuestion(), question.getOption1(),
+                question.getOption2(), question.getOption3(), question.getOption4());
+    }
 }
\ No newline at end of file
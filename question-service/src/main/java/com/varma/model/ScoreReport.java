@@ -0,0 +1,11 @@
+package com.varma.model;
+
+import java.util.List;
+
+/**
+ * The ScoreReport record represents the outcome of scoring a list of responses.
+ * Responses without a response status count as unanswered, and responses for question IDs that do not exist are listed
+ * as unknown; neither counts towards the score.
+ */
+public record ScoreReport(int score, List<Integer> unansweredIds, List<Integer> unknownIds) {
+}
@@ -0,0 +1,11 @@
+package com.varma.question;
+
+import java.util.List;
+
+/**
+ * The ChangeFeed record represents a page of the question change feed: the changes in sequence order, the sequence
+ * number to ask for the changes after next and the high-water mark of the log, which the next sequence number has
+ * reached once the reader is caught up.
+ */
+public record ChangeFeed(List<QuestionChange> changes, long nextSequence, long highWaterMark) {
+}
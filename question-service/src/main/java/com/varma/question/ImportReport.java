@@ -0,0 +1,9 @@
+package com.varma.question;
+
+import java.util.List;
+
+/**
+ * The ImportReport record represents the outcome of a bulk question import, with one result per input row.
+ */
+public record ImportReport(int created, int duplicates, int invalid, List<ImportRowResult> rows) {
+}
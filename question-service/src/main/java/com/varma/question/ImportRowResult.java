@@ -0,0 +1,9 @@
+package com.varma.question;
+
+/**
+ * The ImportRowResult record represents the outcome of importing the question at a 1-based row of an import.
+ * The ID is set only for created questions. The message explains why a row was rejected, or names the probable near
+ * duplicate of a created question when near duplicates were requested.
+ */
+public record ImportRowResult(int row, ImportStatus status, Integer id, String message) {
+}
@@ -0,0 +1,10 @@
+package com.varma.question;
+
+/**
+ * The ImportStatus enum represents the outcome of importing a single question.
+ */
+public enum ImportStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID
+}
@@ -0,0 +1,10 @@
+package com.varma.question;
+
+import com.varma.model.Question;
+
+/**
+ * The QuestionChange record represents an insert, update or delete of a question in the change feed, under its
+ * sequence number. The question is its current state, or null if it no longer exists.
+ */
+public record QuestionChange(long sequence, int id, Question question) {
+}
@@ -1,6 +1,23 @@
 package com.varma.question;
 /**
  * The QuestionUpdate record represents the updated details of a question.
+ * Null fields are left unchanged. When the version is set, the update only applies to that version of the question.
  */
-public record QuestionUpdate(String question, String option1, String option2, String option3, String option4, String difficultyLevel, String category, String correctAns) {
+public record QuestionUpdate(String question, String option1, String option2, String option3, String option4, String difficultyLevel, String category, String correctAns, Long version) {
+
+    /**
+     * Constructs an update that applies to whatever version of the question is current.
+     */
+    public QuestionUpdate(String question, String option1, String option2, String option3, String option4, String difficultyLevel, String category, String correctAns) {
+        this(question, option1, option2, option3, option4, difficultyLevel, category, correctAns, null);
+    }
+
+    /**
+     * Checks if the update changes the text or an option of the question, and therefore its content hash.
+     *
+     * @return true if the text or any option is set
+     */
+    public boolean changesContent() {
+        return question != null || option1 != null || option2 != null || option3 != null || option4 != null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.varma.question;
+
+/**
+ * The ShortfallPolicy enum represents what a quiz sample does when a difficulty level holds fewer questions than its
+ * share of the quiz.
+ */
+public enum ShortfallPolicy {
+    /**
+     * The missing questions are drawn from the other requested difficulty levels, in proportion to their weights; the
+     * quiz is only short when the requested categories and difficulty levels hold fewer questions than requested.
+     */
+    REDISTRIBUTE,
+    /**
+     * Every difficulty level contributes what it holds up to its share, and the quiz is short by the difference.
+     */
+    PARTIAL,
+    /**
+     * The sample is rejected.
+     */
+    FAIL
+}
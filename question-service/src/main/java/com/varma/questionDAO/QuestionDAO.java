@@ -1,13 +1,19 @@
 package com.varma.questionDAO;
 
+import com.varma.model.AnswerKeyEntry;
 import com.varma.model.Question;
 import com.varma.model.QuestionWrapper;
 import com.varma.model.Response;
+import com.varma.model.ScoreReport;
+import com.varma.question.ChangeFeed;
 import com.varma.question.QuestionRequest;
 import com.varma.question.QuestionUpdate;
+import com.varma.question.ShortfallPolicy;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * The QuestionDAO interface provides methods for managing questions in the quiz application.
@@ -21,6 +27,37 @@ public interface QuestionDAO {
      */
     ResponseEntity<List<Question>> getAllQuestions();
 
+    /**
+     * Retrieves the page of questions that follows the given cursor, optionally filtered by category and difficulty level.
+     *
+     * @param category        the category of the questions, or null for all categories
+     * @param difficultyLevel the difficulty level of the questions, or null for all difficulty levels
+     * @param after           the ID after which the page starts, or null for the first page
+     * @param size            the maximum number of questions in the page
+     * @return a ResponseEntity with the page of questions and HTTP status code 200 (OK)
+     */
+    ResponseEntity<List<Question>> getQuestionsPage(String category, String difficultyLevel, Integer after, int size);
+
+    /**
+     * Streams questions as newline-delimited JSON, optionally filtered by category and difficulty level.
+     *
+     * @param category        the category of the questions, or null for all categories
+     * @param difficultyLevel the difficulty level of the questions, or null for all difficulty levels
+     * @return a ResponseEntity with the streaming body and HTTP status code 200 (OK)
+     */
+    ResponseEntity<StreamingResponseBody> streamQuestions(String category, String difficultyLevel);
+
+    /**
+     * Retrieves the changes of the question table after a sequence number, waiting for one if there is none yet.
+     *
+     * @param after      the sequence number after which to return changes, or null for the high-water mark only
+     * @param limit      the maximum number of changes
+     * @param waitMillis how long to wait for a change
+     * @return a ResponseEntity with the page of changes and HTTP status code 200 (OK), or HTTP status code 410 (Gone)
+     * if the changes after the sequence number are no longer logged
+     */
+    ResponseEntity<ChangeFeed> getChanges(Long after, int limit, long waitMillis);
+
     /**
      * Retrieves questions based on the specified category.
      *
@@ -53,6 +90,25 @@ public interface QuestionDAO {
      */
     ResponseEntity<List<Question>> getQuestionsBasedOnTheCategoryAndDifficultyLevel(String category, String difficultyLevel);
 
+    /**
+     * Retrieves the number of questions of every category and difficulty level combination.
+     *
+     * @return a ResponseEntity with the counts keyed by category and then difficulty level and HTTP status code 200 (OK)
+     */
+    ResponseEntity<Map<String, Map<String, Integer>>> getFacetCounts();
+
+    /**
+     * Searches the text and options of the questions.
+     *
+     * @param query           the words to search for
+     * @param category        the category of the questions, or null for all categories
+     * @param difficultyLevel the difficulty level of the questions, or null for all difficulty levels
+     * @param after           the cursor of the page, or null for the first page
+     * @param size            the maximum number of questions in the page
+     * @return a ResponseEntity with the page of question wrappers, best match first, and HTTP status code 200 (OK)
+     */
+    ResponseEntity<List<QuestionWrapper>> searchQuestions(String query, String category, String difficultyLevel, String after, int size);
+
     /**
      * Deletes a question by its ID.
      *
@@ -78,9 +134,49 @@ public interface QuestionDAO {
      */
 
     ResponseEntity<List<Integer>> getQuestionsForQuiz(String categoryName, Integer noOfQuestions);
+
+    /**
+     * Finds random questions of one or more categories, split between difficulty levels by weight.
+     *
+     * @param categories    the categories of the questions
+     * @param noOfQuestions the number of random questions to retrieve
+     * @param difficultyMix the weight of every difficulty level as "level:weight" entries, or null to ignore difficulty
+     * @param seed          the seed of the sample, or null for a random one
+     * @param shortfall     what to do when a difficulty level holds fewer questions than its share
+     * @return a list of random question IDs
+     */
+    ResponseEntity<List<Integer>> getQuestionsForQuiz(List<String> categories, Integer noOfQuestions, List<String> difficultyMix, Long seed, ShortfallPolicy shortfall);
     List<Integer> findRandomQuestionsByCategory(String category, Integer noOfQuestions);
 
+    /**
+     * Retrieves the wrappers of the questions with the specified IDs, in the order of the IDs.
+     *
+     * @param questionsIds the IDs of the questions
+     * @return a ResponseEntity with the list of question wrappers and HTTP status code 200 (OK)
+     */
     ResponseEntity<List<QuestionWrapper>> getQuestionsFromId(List<Integer> questionsIds);
 
+    /**
+     * Retrieves the correct answers of the questions with the specified IDs, in the order of the IDs.
+     *
+     * @param questionsIds the IDs of the questions
+     * @return a ResponseEntity with the list of answer key entries and HTTP status code 200 (OK)
+     */
+    ResponseEntity<List<AnswerKeyEntry>> getAnswerKey(List<Integer> questionsIds);
+
+    /**
+     * Calculates the number of correct responses.
+     *
+     * @param responses the list of responses
+     * @return a ResponseEntity with the number of correct responses and HTTP status code 200 (OK)
+     */
     ResponseEntity<Integer> getScore(List<Response> responses);
+
+    /**
+     * Calculates the number of correct responses and reports unanswered and unknown questions.
+     *
+     * @param responses the list of responses
+     * @return a ResponseEntity with the score report and HTTP status code 200 (OK)
+     */
+    ResponseEntity<ScoreReport> getScoreReport(List<Response> responses);
 }
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.varma.questionRepository;
+
+import com.varma.model.Question;
+import com.varma.question.QuestionChange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The QuestionChangeLog class reads the question_change table, to which a trigger on the question table appends the ID
+ * of every inserted, updated and deleted question under an increasing sequence number. Because the trigger runs in the
+ * writing transaction, every change is logged, whichever path made it, and the sequence number of the last entry is a
+ * high-water mark: replaying the entries after it brings a copy of the table taken at that mark up to date.
+ */
+@Repository
+public class QuestionChangeLog {
+
+    private static final List<String> SCHEMA = List.of(
+            "CREATE TABLE IF NOT EXISTS question_change (seq bigserial PRIMARY KEY, question_id integer NOT NULL, "
+                    + "deleted boolean NOT NULL, changed_at timestamptz NOT NULL DEFAULT now())",
+            """
+                    CREATE OR REPLACE FUNCTION log_question_change() RETURNS trigger AS $$
+                    BEGIN
+                        IF TG_OP = 'DELETE' THEN
+                            INSERT INTO question_change (question_id, deleted) VALUES (OLD.id, true);
+                            RETURN OLD;
+                        END IF;
+                        INSERT INTO question_change (question_id, deleted) VALUES (NEW.id, false);
+                        RETURN NEW;
+                    END
+                    $$ LANGUAGE plpgsql""");
+
+    private static final String INSTALL_LOCK = "SELECT pg_advisory_xact_lock(hashtext('question_change'))";
+
+    private static final String INDEX_EXISTS = "SELECT to_regclass('question_change_changed_at_idx') IS NOT NULL";
+
+    private static final String CREATE_INDEX = "CREATE INDEX question_change_changed_at_idx ON question_change (changed_at)";
+
+    private static final String TRIGGER_EXISTS = "SELECT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'question_change_trigger' "
+            + "AND tgrelid = 'question'::regclass AND NOT tgisinternal)";
+
+    private static final String CREATE_TRIGGER = "CREATE TRIGGER question_change_trigger AFTER INSERT OR UPDATE OR DELETE ON question "
+            + "FOR EACH ROW EXECUTE FUNCTION log_question_change()";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicLong settled = new AtomicLong(-1);
+
+    /**
+     * Creates the change table and the trigger filling it, if they do not exist yet. The index and the trigger are only
+     * created when they are missing, since even a no-op CREATE INDEX IF NOT EXISTS or a replaced trigger locks the table
+     * against its writers, which would stall them on every startup. Instances starting together install one after the
+     * other, under a transaction-scoped advisory lock.
+     */
+    public void install() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForList(INSTALL_LOCK);
+            SCHEMA.forEach(jdbcTemplate::execute);
+            if (!jdbcTemplate.queryForObject(INDEX_EXISTS, Boolean.class)) {
+                jdbcTemplate.execute(CREATE_INDEX);
+            }
+            if (!jdbcTemplate.queryForObject(TRIGGER_EXISTS, Boolean.class)) {
+                jdbcTemplate.execute(CREATE_TRIGGER);
+            }
+        });
+    }
+
+    private static final String LAST_SEQUENCE = "SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM question_change_seq_seq";
+
+    private static final String WRITERS_IN_FLIGHT = "SELECT EXISTS (SELECT 1 FROM pg_locks WHERE locktype = 'relation' "
+            + "AND relation = 'question_change'::regclass AND mode = 'RowExclusiveLock' AND granted AND pid <> pg_backend_pid())";
+
+    private static final String FIND_CHANGES = "SELECT c.seq, c.question_id, q.id, q.question, q.option1, q.option2, q.option3, q.option4, "
+            + "q.difficulty_level, q.category, q.correct_ans, q.content_hash, q.version "
+            + "FROM question_change c LEFT JOIN question q ON q.id = c.question_id "
+            + "WHERE c.seq > ? AND c.seq <= ? ORDER BY c.seq LIMIT ?";
+
+    /**
+     * Returns the sequence number of the last logged change, such that every change numbered up to it is committed and
+     * visible: sequence numbers are handed out in order but transactions may commit out of order. The mark is read from
+     * the sequence rather than the table, so it does not go back when the log is pruned.
+     * <p>
+     * If no sequence number was handed out since the last mark, that mark is returned as it is. Otherwise the mark is
+     * the last sequence number once no other transaction holds a write lock on the table, since a transaction takes
+     * that lock before it numbers a change and keeps it until it has committed. Only while writers are in flight is the
+     * table briefly locked against them, to wait for them to finish.
+     *
+     * @return the high-water mark, or 0 if nothing was logged yet
+     */
+    public long highWaterMark() {
+        long last = lastSequence();
+        if (last == settled.get()) {
+            return last;
+        }
+        if (!jdbcTemplate.queryForObject(WRITERS_IN_FLIGHT, Boolean.class)) {
+            return settle(last);
+        }
+        return settle(new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.execute("LOCK TABLE question_change IN SHARE MODE");
+            return jdbcTemplate.queryForObject(LAST_SEQUENCE, Long.class);
+        }));
+    }
+
+    private long settle(long highWaterMark) {
+        settled.accumulateAndGet(highWaterMark, Math::max);
+        return highWaterMark;
+    }
+
+    /**
+     * Returns the last sequence number handed out, without waiting for the changes numbered up to it to be committed.
+     * It is only a cheap hint that something may have changed since a high-water mark.
+     *
+     * @return the last sequence number, or 0 if nothing was logged yet
+     */
+    public long lastSequence() {
+        return jdbcTemplate.queryForObject(LAST_SEQUENCE, Long.class);
+    }
+
+    /**
+     * Returns the sequence number of the oldest change still logged.
+     *
+     * @return the oldest sequence number, or null if the log is empty
+     */
+    public Long lowWaterMark() {
+        return jdbcTemplate.queryForObject("SELECT min(seq) FROM question_change", Long.class);
+    }
+
+    /**
+     * Tells whether every change after a high-water mark is still logged.
+     *
+     * @param sequence      the sequence number after which the changes are needed
+     * @param highWaterMark the current high-water mark
+     * @return false if some of the changes were pruned
+     */
+    public boolean retainsChangesAfter(long sequence, long highWaterMark) {
+        Long lowWaterMark = lowWaterMark();
+        long firstRetained = lowWaterMark == null ? highWaterMark + 1 : lowWaterMark;
+        return firstRetained <= sequence + 1;
+    }
+
+    /**
+     * Finds the changes logged in a range of sequence numbers, in order, with the current state of every changed
+     * question. A question changed several times appears once per change, each time in its current state, so replaying
+     * the changes in order converges on the current table whatever happened in between.
+     *
+     * @param after the sequence number after which to look
+     * @param upTo  the last sequence number to return, a high-water mark
+     * @param limit the maximum number of changes
+     * @return the changes, with a null question for the questions that no longer exist
+     */
+    public List<QuestionChange> findChanges(long after, long upTo, int limit) {
+        return jdbcTemplate.query(FIND_CHANGES, (resultSet, rowNum) -> {
+            resultSet.getInt("id");
+            Question question = resultSet.wasNull() ? null : QuestionJdbcRepository.QUESTION_ROW_MAPPER.mapRow(resultSet, rowNum);
+            return new QuestionChange(resultSet.getLong("seq"), resultSet.getInt("question_id"), question);
+        }, after, upTo, limit);
+    }
+
+    /**
+     * Finds the questions changed after a high-water mark.
+     *
+     * @param highWaterMark the sequence number after which to look
+     * @return the IDs of the inserted, updated and deleted questions, each once
+     */
+    public List<Integer> findChangedSince(long highWaterMark) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT question_id FROM question_change WHERE seq > ?", Integer.class, highWaterMark);
+    }
+
+    /**
+     * Deletes the changes logged longer ago than the retention.
+     *
+     * @param retention how long changes are kept
+     * @return the number of deleted entries
+     */
+    public int prune(Duration retention) {
+        return jdbcTemplate.update("DELETE FROM question_change WHERE changed_at < now() - make_interval(secs => ?)", (double) retention.toSeconds());
+    }
+}
@@ -0,0 +1,171 @@
+package com.varma.questionRepository;
+
+import com.varma.model.Question;
+import com.varma.question.QuestionUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * The QuestionJdbcRepository class provides set-based and partial write operations on the question table that bypass
+ * the persistence context, for bulk loads and updates where per-entity bookkeeping would dominate the cost.
+ */
+@Repository
+public class QuestionJdbcRepository {
+
+    private static final String INSERT_QUESTION = "INSERT INTO question (id, question, option1, option2, option3, option4, difficulty_level, category, correct_ans, content_hash, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String QUESTION_COLUMNS = "id, question, option1, option2, option3, option4, difficulty_level, category, correct_ans, content_hash, version";
+
+    static final RowMapper<Question> QUESTION_ROW_MAPPER = (resultSet, rowNum) -> {
+        Question question = new Question(resultSet.getInt("id"), resultSet.getString("question"), resultSet.getString("option1"),
+                resultSet.getString("option2"), resultSet.getString("option3"), resultSet.getString("option4"),
+                resultSet.getString("difficulty_level"), resultSet.getString("category"), resultSet.getString("correct_ans"));
+        question.setContentHash(resultSet.getString("content_hash"));
+        question.setVersion(resultSet.getLong("version"));
+        return question;
+    };
+
+    /**
+     * The number of rows sent to the database in one JDBC batch.
+     */
+    public static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Allocates the given number of IDs from the question sequence in a single round trip.
+     *
+     * @param count the number of IDs to allocate
+     * @return the allocated IDs
+     */
+    public List<Integer> nextIds(int count) {
+        return jdbcTemplate.queryForList("SELECT nextval('question_id_seq') FROM generate_series(1, ?)", Integer.class, count);
+    }
+
+    /**
+     * Inserts the questions, which must already carry their IDs, using JDBC batch statements.
+     *
+     * @param questions the questions to insert
+     */
+    public void insertAll(List<Question> questions) {
+        jdbcTemplate.batchUpdate(INSERT_QUESTION, questions, BATCH_SIZE, (statement, question) -> {
+            statement.setInt(1, question.getId());
+            statement.setString(2, question.getQuestion());
+            statement.setString(3, question.getOption1());
+            statement.setString(4, question.getOption2());
+            statement.setString(5, question.getOption3());
+            statement.setString(6, question.getOption4());
+            statement.setString(7, question.getDifficultyLevel());
+            statement.setString(8, question.getCategory());
+            statement.setString(9, question.getCorrectAns());
+            statement.setString(10, question.getContentHash());
+        });
+        questions.forEach(question -> question.setVersion(0L));
+    }
+
+    /**
+     * Updates the non-null fields of a question in a single statement, if any of them differs from the stored value.
+     * The version is incremented on every change. When an expected version is given, the update only applies if the
+     * stored version still equals it.
+     *
+     * @param id             the ID of the question
+     * @param questionUpdate the fields to set; null fields are left unchanged
+     * @return the question as updated, or null if no row was changed because the question does not exist, no field
+     * differs or the version did not match
+     */
+    public Question updateChangedFields(int id, QuestionUpdate questionUpdate) {
+        List<String> columns = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        addIfSet(columns, values, "question", questionUpdate.question());
+        addIfSet(columns, values, "option1", questionUpdate.option1());
+        addIfSet(columns, values, "option2", questionUpdate.option2());
+        addIfSet(columns, values, "option3", questionUpdate.option3());
+        addIfSet(columns, values, "option4", questionUpdate.option4());
+        addIfSet(columns, values, "difficulty_level", questionUpdate.difficultyLevel());
+        addIfSet(columns, values, "category", questionUpdate.category());
+        addIfSet(columns, values, "correct_ans", questionUpdate.correctAns());
+        if (columns.isEmpty()) {
+            return null;
+        }
+
+        StringJoiner set = new StringJoiner(", ", "UPDATE question SET ", ", version = version + 1");
+        StringJoiner changed = new StringJoiner(" OR ", " AND (", ")");
+        columns.forEach(column -> {
+            set.add(column + " = ?");
+            changed.add(column + " IS DISTINCT FROM ?");
+        });
+        List<Object> arguments = new ArrayList<>(values);
+        arguments.add(id);
+        StringBuilder sql = new StringBuilder(set.toString()).append(" WHERE id = ?");
+        if (questionUpdate.version() != null) {
+            sql.append(" AND version = ?");
+            arguments.add(questionUpdate.version());
+        }
+        sql.append(changed).append(" RETURNING ").append(QUESTION_COLUMNS);
+        arguments.addAll(values);
+
+        List<Question> updated = jdbcTemplate.query(sql.toString(), QUESTION_ROW_MAPPER, arguments.toArray());
+        return updated.isEmpty() ? null : updated.get(0);
+    }
+
+    /**
+     * Finds the current version of a question.
+     *
+     * @param id the ID of the question
+     * @return the version, or null if the question does not exist
+     */
+    public Long findVersion(int id) {
+        List<Long> versions = jdbcTemplate.queryForList("SELECT version FROM question WHERE id = ?", Long.class, id);
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    private static void addIfSet(List<String> columns, List<Object> values, String column, String value) {
+        if (value != null) {
+            columns.add(column);
+            values.add(value);
+        }
+    }
+
+    /**
+     * Finds the next questions, in ID order, that have no content hash yet.
+     *
+     * @param afterId the ID after which to look
+     * @param limit   the maximum number of questions
+     * @return the questions, with only their ID, text and options loaded
+     */
+    public List<Question> findWithoutContentHash(int afterId, int limit) {
+        return jdbcTemplate.query("SELECT id, question, option1, option2, option3, option4 FROM question WHERE content_hash IS NULL AND id > ? ORDER BY id LIMIT ?",
+                (resultSet, rowNum) -> new Question(resultSet.getInt("id"), resultSet.getString("question"), resultSet.getString("option1"),
+                        resultSet.getString("option2"), resultSet.getString("option3"), resultSet.getString("option4"), null, null, null),
+                afterId, limit);
+    }
+
+    /**
+     * Stores the content hash of a question.
+     *
+     * @param id          the ID of the question
+     * @param contentHash the content hash
+     */
+    public void updateContentHash(int id, String contentHash) {
+        jdbcTemplate.update("UPDATE question SET content_hash = ? WHERE id = ?", contentHash, id);
+    }
+
+    /**
+     * Stores the content hashes of the questions using JDBC batch statements.
+     *
+     * @param questions the questions carrying their IDs and content hashes
+     */
+    public void updateContentHashes(List<Question> questions) {
+        jdbcTemplate.batchUpdate("UPDATE question SET content_hash = ? WHERE id = ?", questions, BATCH_SIZE, (statement, question) -> {
+            statement.setString(1, question.getContentHash());
+            statement.setInt(2, question.getId());
+        });
+    }
+}
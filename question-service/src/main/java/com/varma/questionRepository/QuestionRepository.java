@@ -1,10 +1,19 @@
 package com.varma.questionRepository;
 
 import com.varma.model.Question;
+import com.varma.model.QuestionWrapper;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * The QuestionRepository interface provides methods for querying the question entities in the database.
@@ -54,13 +63,130 @@ public interface QuestionRepository extends JpaRepository<Question, Integer> {
      */
 
 
+    @Query(value = "SELECT q.id FROM question q WHERE q.category = :category ORDER BY RANDOM() LIMIT :noOfQuestions", nativeQuery = true)
+    List<Integer> findRandomQuestionsByCategory(String category, Integer noOfQuestions);
+
+    /**
+     * Finds the IDs of the questions of any of the categories.
+     *
+     * @param categories the categories of the questions
+     * @return the IDs of the matching questions
+     */
+    @Query("SELECT q.id FROM Question q WHERE q.category IN :categories")
+    List<Integer> findIdsByCategoryIn(Collection<String> categories);
+
+    /**
+     * Finds the IDs of the questions of any of the categories and of the specified difficulty level.
+     *
+     * @param categories      the categories of the questions
+     * @param difficultyLevel the difficulty level of the questions
+     * @return the IDs of the matching questions
+     */
+    @Query("SELECT q.id FROM Question q WHERE q.category IN :categories AND q.difficultyLevel = :difficultyLevel")
+    List<Integer> findIdsByCategoryInAndDifficultyLevel(Collection<String> categories, String difficultyLevel);
+
+    /**
+     * Streams every question in ID order, fetching rows from the database in bounded batches.
+     * Must be called inside a transaction, and the returned stream must be closed.
+     *
+     * @return a stream of all questions
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Question> streamAllByOrderByIdAsc();
+
+    /**
+     * Finds the page of questions that follows the given ID, in ID order.
+     *
+     * @param id       the ID after which the page starts
+     * @param pageable the size of the page
+     * @return a list of at most the page size questions
+     */
+    List<Question> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    /**
+     * Finds the page of questions of a category that follows the given ID, in ID order.
+     *
+     * @param category the category of the questions
+     * @param id       the ID after which the page starts
+     * @param pageable the size of the page
+     * @return a list of at most the page size questions
+     */
+    List<Question> findByCategoryAndIdGreaterThanOrderByIdAsc(String category, Integer id, Pageable pageable);
+
+    /**
+     * Finds the page of questions of a difficulty level that follows the given ID, in ID order.
+     *
+     * @param difficultyLevel the difficulty level of the questions
+     * @param id              the ID after which the page starts
+     * @param pageable        the size of the page
+     * @return a list of at most the page size questions
+     */
+    List<Question> findByDifficultyLevelAndIdGreaterThanOrderByIdAsc(String difficultyLevel, Integer id, Pageable pageable);
+
     /**
-     * Checks if a question exists by its text.
+     * Finds the page of questions of a category and difficulty level that follows the given ID, in ID order.
      *
-     * @param question the text of the question
+     * @param category        the category of the questions
+     * @param difficultyLevel the difficulty level of the questions
+     * @param id              the ID after which the page starts
+     * @param pageable        the size of the page
+     * @return a list of at most the page size questions
+     */
+    List<Question> findByCategoryAndDifficultyLevelAndIdGreaterThanOrderByIdAsc(String category, String difficultyLevel, Integer id, Pageable pageable);
+
+    /**
+     * Streams the questions of a category in ID order. Must be called inside a transaction, and the returned stream must be closed.
+     *
+     * @param category the category of the questions
+     * @return a stream of the questions of the category
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Question> streamByCategoryOrderByIdAsc(String category);
+
+    /**
+     * Streams the questions of a difficulty level in ID order. Must be called inside a transaction, and the returned stream must be closed.
+     *
+     * @param difficultyLevel the difficulty level of the questions
+     * @return a stream of the questions of the difficulty level
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Question> streamByDifficultyLevelOrderByIdAsc(String difficultyLevel);
+
+    /**
+     * Streams the questions of a category and difficulty level in ID order. Must be called inside a transaction, and the returned stream must be closed.
+     *
+     * @param category        the category of the questions
+     * @param difficultyLevel the difficulty level of the questions
+     * @return a stream of the matching questions
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Question> streamByCategoryAndDifficultyLevelOrderByIdAsc(String category, String difficultyLevel);
+
+    /**
+     * Checks if a question exists by its content hash.
+     *
+     * @param contentHash the content hash of the question
      * @return true if the question exists, false otherwise
      */
-    boolean existsByQuestion(String question);
-    @Query(value = "SELECT q.id FROM question q WHERE q.category = :category ORDER BY RANDOM() LIMIT :noOfQuestions", nativeQuery = true)
-    List<Integer> findRandomQuestionsByCategory(String category, Integer noOfQuestions);
+    boolean existsByContentHash(String contentHash);
+
+    /**
+     * Finds which of the given content hashes already exist.
+     *
+     * @param contentHashes the content hashes
+     * @return the content hashes that exist
+     */
+    @Query("SELECT q.contentHash FROM Question q WHERE q.contentHash IN :contentHashes")
+    List<String> findExistingContentHashes(Collection<String> contentHashes);
+
+    /**
+     * Finds the wrapper projections of the questions with the given IDs in a single query.
+     * The correct answer is never selected. Rows come back in no particular order and
+     * IDs that do not exist are simply absent from the result.
+     *
+     * @param ids the IDs of the questions
+     * @return a list of question wrappers for the IDs that exist
+     */
+    @Query("SELECT new com.varma.model.QuestionWrapper(q.id, q.question, q.option1, q.option2, q.option3, q.option4) FROM Question q WHERE q.id IN :ids")
+    List<QuestionWrapper> findQuestionWrappersByIdIn(Collection<Integer> ids);
 }
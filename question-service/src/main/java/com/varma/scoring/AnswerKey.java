@@ -0,0 +1,154 @@
+package com.varma.scoring;
+
+import com.varma.index.QuestionIndex;
+import com.varma.model.AnswerKeyEntry;
+import com.varma.model.Question;
+import com.varma.model.Response;
+import com.varma.model.ScoreReport;
+import com.varma.util.IntObjectHashMap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * The AnswerKey class holds the correct answer of every question in memory, keyed by the primitive question ID.
+ * Scoring a submission walks the responses once under a read lock and performs no allocation per response; only
+ * responses for questions the key does not know yet are resolved through the supplied loader, in a single call.
+ * The answers loaded that way are added to the key only if no question was removed and the key was not cleared while
+ * they were loaded, since they may have been read before the removal and would bring the question back.
+ */
+@Component
+public class AnswerKey implements QuestionIndex {
+
+    private final IntObjectHashMap<String> answers = new IntObjectHashMap<>(1024);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long removals;
+
+    @Override
+    public void index(Question question) {
+        if (question.getId() == null || question.getCorrectAns() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            answers.put(question.getId(), question.getCorrectAns());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            answers.remove(id);
+            removals++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            answers.clear();
+            removals++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of questions in the key.
+     *
+     * @return the number of questions in the key
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return answers.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores the responses against the key.
+     *
+     * @param responses the responses to score
+     * @param loader    loads the answers of questions missing from the key; IDs it does not return are reported as unknown
+     * @return the score report
+     */
+    public ScoreReport score(List<Response> responses, Function<Collection<Integer>, List<AnswerKeyEntry>> loader) {
+        int score = 0;
+        List<Integer> unanswered = null;
+        List<Response> misses = null;
+        long removalsBefore;
+        lock.readLock().lock();
+        try {
+            removalsBefore = removals;
+            for (int i = 0, n = responses.size(); i < n; i++) {
+                Response response = responses.get(i);
+                String correctAns = response.id() == null ? null : answers.get(response.id());
+                if (correctAns == null) {
+                    misses = add(misses, response);
+                } else if (response.responseStatus() == null) {
+                    unanswered = add(unanswered, response.id());
+                } else if (response.responseStatus().equals(correctAns)) {
+                    score++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (misses == null) {
+            return new ScoreReport(score, unanswered == null ? List.of() : unanswered, List.of());
+        }
+
+        List<Integer> missingIds = new ArrayList<>(misses.size());
+        for (Response miss : misses) {
+            if (miss.id() != null) {
+                missingIds.add(miss.id());
+            }
+        }
+        IntObjectHashMap<String> loaded = new IntObjectHashMap<>(missingIds.size());
+        if (!missingIds.isEmpty()) {
+            for (AnswerKeyEntry entry : loader.apply(missingIds)) {
+                loaded.put(entry.id(), entry.correctAns());
+            }
+        }
+        List<Integer> unknown = new ArrayList<>();
+        for (Response miss : misses) {
+            String correctAns = miss.id() == null ? null : loaded.get(miss.id());
+            if (correctAns == null) {
+                unknown.add(miss.id());
+            } else if (miss.responseStatus() == null) {
+                unanswered = add(unanswered, miss.id());
+            } else if (miss.responseStatus().equals(correctAns)) {
+                score++;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            if (removals == removalsBefore) {
+                loaded.forEach((id, correctAns) -> answers.computeIfAbsent(id, key -> correctAns));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new ScoreReport(score, unanswered == null ? List.of() : unanswered, unknown);
+    }
+
+    private static <T> List<T> add(List<T> list, T element) {
+        List<T> target = list == null ? new ArrayList<>() : list;
+        target.add(element);
+        return target;
+    }
+}
@@ -0,0 +1,326 @@
+package com.varma.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.varma.dedup.ContentHash;
+import com.varma.dedup.DuplicateFilter;
+import com.varma.dedup.MinHashLsh;
+import com.varma.dedup.NearDuplicateIndex;
+import com.varma.index.QuestionIndexMaintainer;
+import com.varma.model.Question;
+import com.varma.question.ImportReport;
+import com.varma.question.ImportRowResult;
+import com.varma.question.ImportStatus;
+import com.varma.question.QuestionRequest;
+import com.varma.questionRepository.QuestionJdbcRepository;
+import com.varma.questionRepository.QuestionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The QuestionImportService class loads question banks in bulk.
+ * Rows are processed in chunks of {@value #CHUNK_SIZE}: each chunk is validated, deduplicated by content hash against
+ * earlier rows of the same import and against the database with one set-based query, given IDs from a single sequence
+ * round trip and inserted with JDBC batch statements in one transaction. {@code ImportBenchmark} compares this path with
+ * repeated calls to addNewQuestion. The database query is skipped when the duplicate filter rules out every hash of the
+ * chunk. Rows whose content is stored by another writer between that check and the insert are reported as duplicates
+ * too, and the rest of their chunk is inserted again.
+ * <p>
+ * On request, rows are also compared by MinHash with earlier rows and, if the near duplicate index is enabled, with
+ * existing questions. Probable near duplicates are still created; their result carries a message naming the match.
+ * <p>
+ * Rows with a missing required field or whose fields have the wrong type are reported as invalid and skipped. A row that
+ * cannot be parsed at all ends the import; the rows before it stay imported.
+ */
+@Service
+public class QuestionImportService {
+
+    /**
+     * The number of rows validated, deduplicated and inserted together.
+     */
+    static final int CHUNK_SIZE = 1000;
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder().enable(CsvParser.Feature.EMPTY_STRING_AS_NULL).build();
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuestionJdbcRepository questionJdbcRepository;
+
+    @Autowired
+    private QuestionIndexMaintainer questionIndexes;
+
+    @Autowired
+    private DuplicateFilter duplicateFilter;
+
+    @Autowired
+    private NearDuplicateIndex nearDuplicateIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Imports a list of questions.
+     *
+     * @param questionRequests the questions to import
+     * @param nearDuplicates   whether to flag probable near duplicates
+     * @return a ResponseEntity with the import report and HTTP status code 200 (OK)
+     */
+    public ResponseEntity<ImportReport> importQuestions(List<QuestionRequest> questionRequests, boolean nearDuplicates) {
+        Import anImport = new Import(nearDuplicates);
+        if (questionRequests != null) {
+            questionRequests.forEach(anImport::add);
+        }
+        return new ResponseEntity<>(anImport.finish(), HttpStatus.OK);
+    }
+
+    /**
+     * Imports questions from newline-delimited JSON, one question object per line, reading the input as it arrives.
+     *
+     * @param inputStream    the newline-delimited JSON input
+     * @param nearDuplicates whether to flag probable near duplicates
+     * @return a ResponseEntity with the import report and HTTP status code 200 (OK)
+     * @throws IOException if the input cannot be read
+     */
+    public ResponseEntity<ImportReport> importNdjson(InputStream inputStream, boolean nearDuplicates) throws IOException {
+        return importAll(objectMapper.readerFor(QuestionRequest.class).readValues(inputStream), nearDuplicates);
+    }
+
+    /**
+     * Imports questions from CSV with a header row naming the question fields, reading the input as it arrives.
+     *
+     * @param inputStream    the CSV input
+     * @param nearDuplicates whether to flag probable near duplicates
+     * @return a ResponseEntity with the import report and HTTP status code 200 (OK)
+     * @throws IOException if the input cannot be read
+     */
+    public ResponseEntity<ImportReport> importCsv(InputStream inputStream, boolean nearDuplicates) throws IOException {
+        return importAll(CSV_MAPPER.readerFor(QuestionRequest.class).with(CsvSchema.emptySchema().withHeader()).readValues(inputStream), nearDuplicates);
+    }
+
+    private ResponseEntity<ImportReport> importAll(MappingIterator<QuestionRequest> rows, boolean nearDuplicates) throws IOException {
+        Import anImport = new Import(nearDuplicates);
+        try (rows) {
+            while (true) {
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    anImport.add(rows.nextValue());
+                } catch (JsonParseException e) {
+                    anImport.reject(ImportStatus.INVALID, "Malformed row, import stopped: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    anImport.reject(ImportStatus.INVALID, e.getOriginalMessage());
+                }
+            }
+        }
+        return new ResponseEntity<>(anImport.finish(), HttpStatus.OK);
+    }
+
+    private static String validate(QuestionRequest request) {
+        if (request == null) {
+            return "Empty row";
+        }
+        List<String> missing = new ArrayList<>();
+        if (isBlank(request.question())) {
+            missing.add("question");
+        }
+        if (isBlank(request.difficultyLevel())) {
+            missing.add("difficultyLevel");
+        }
+        if (isBlank(request.category())) {
+            missing.add("category");
+        }
+        if (isBlank(request.correctAns())) {
+            missing.add("correctAns");
+        }
+        return missing.isEmpty() ? null : "Missing required fields: " + String.join(", ", missing);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * The state of one import: the pending chunk, the rows seen so far and the results.
+     */
+    private final class Import {
+        private final List<QuestionRequest> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final Map<String, Integer> rowByContentHash = new HashMap<>();
+        private final MinHashLsh importedSignatures;
+        private final List<ImportRowResult> results = new ArrayList<>();
+        private int rows;
+        private int created;
+        private int duplicates;
+        private int invalid;
+
+        private Import(boolean nearDuplicates) {
+            this.importedSignatures = nearDuplicates ? new MinHashLsh() : null;
+        }
+
+        private void add(QuestionRequest request) {
+            chunk.add(request);
+            rows++;
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private void reject(ImportStatus status, String message) {
+            flush();
+            record(new ImportRowResult(++rows, status, null, message));
+        }
+
+        private ImportReport finish() {
+            flush();
+            return new ImportReport(created, duplicates, invalid, results);
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            int firstRow = rows - chunk.size() + 1;
+            ImportRowResult[] chunkResults = new ImportRowResult[chunk.size()];
+            String[] contentHashes = new String[chunk.size()];
+            List<Integer> candidates = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                QuestionRequest request = chunk.get(i);
+                int row = firstRow + i;
+                String problem = validate(request);
+                if (problem != null) {
+                    chunkResults[i] = new ImportRowResult(row, ImportStatus.INVALID, null, problem);
+                    continue;
+                }
+                contentHashes[i] = ContentHash.of(request);
+                Integer firstSeen = rowByContentHash.putIfAbsent(contentHashes[i], row);
+                if (firstSeen != null) {
+                    chunkResults[i] = new ImportRowResult(row, ImportStatus.DUPLICATE, null, "Duplicate of row " + firstSeen);
+                } else {
+                    candidates.add(i);
+                }
+            }
+
+            if (!candidates.isEmpty()) {
+                Set<String> existing = findExisting(candidates.stream().map(i -> contentHashes[i]).toList());
+                List<Question> questions = new ArrayList<>(candidates.size());
+                List<Integer> questionPositions = new ArrayList<>(candidates.size());
+                for (int i : candidates) {
+                    QuestionRequest request = chunk.get(i);
+                    if (existing.contains(contentHashes[i])) {
+                        chunkResults[i] = new ImportRowResult(firstRow + i, ImportStatus.DUPLICATE, null, "Question already exists");
+                    } else {
+                        Question question = new Question(request.question(), request.option1(), request.option2(), request.option3(),
+                                request.option4(), request.difficultyLevel(), request.category(), request.correctAns());
+                        question.setContentHash(contentHashes[i]);
+                        questions.add(question);
+                        questionPositions.add(i);
+                    }
+                }
+                insertUnlessTaken(questions, questionPositions, chunkResults, firstRow);
+                if (!questions.isEmpty()) {
+                    for (int q = 0; q < questions.size(); q++) {
+                        Question question = questions.get(q);
+                        int i = questionPositions.get(q);
+                        chunkResults[i] = new ImportRowResult(firstRow + i, ImportStatus.CREATED, question.getId(), nearDuplicateOf(question, firstRow + i));
+                        questionIndexes.indexed(question);
+                    }
+                }
+            }
+            Arrays.stream(chunkResults).forEach(this::record);
+            chunk.clear();
+        }
+
+        private Set<String> findExisting(List<String> contentHashes) {
+            if (questionIndexes.isReady() && contentHashes.stream().noneMatch(duplicateFilter::mightContain)) {
+                return Set.of();
+            }
+            return new HashSet<>(questionRepository.findExistingContentHashes(contentHashes));
+        }
+
+        private String nearDuplicateOf(Question question, int row) {
+            if (importedSignatures == null) {
+                return null;
+            }
+            int[] signature = MinHashLsh.signature(question.getQuestion());
+            Integer existingId = nearDuplicateIndex.findSimilar(signature);
+            Integer earlierRow = existingId == null ? importedSignatures.findSimilar(signature, nearDuplicateIndex.threshold()) : null;
+            importedSignatures.add(row, signature);
+            if (existingId != null) {
+                return "Probable duplicate of question " + existingId;
+            }
+            return earlierRow != null ? "Probable duplicate of row " + earlierRow : null;
+        }
+
+        /**
+         * Inserts the questions of a chunk. When another import or addNewQuestion stored the same content after the chunk
+         * was deduplicated, the chunk is rolled back by the unique content hash; the questions stored meanwhile are then
+         * reported as duplicates and removed from the lists, and the others are inserted again.
+         */
+        private void insertUnlessTaken(List<Question> questions, List<Integer> questionPositions, ImportRowResult[] chunkResults, int firstRow) {
+            while (!questions.isEmpty()) {
+                try {
+                    insert(questions);
+                    return;
+                } catch (DuplicateKeyException e) {
+                    Set<String> taken = new HashSet<>(questionRepository.findExistingContentHashes(
+                            questions.stream().map(Question::getContentHash).toList()));
+                    if (taken.isEmpty()) {
+                        throw e;
+                    }
+                    for (int q = questions.size() - 1; q >= 0; q--) {
+                        if (taken.contains(questions.get(q).getContentHash())) {
+                            int i = questionPositions.remove(q);
+                            questions.remove(q);
+                            chunkResults[i] = new ImportRowResult(firstRow + i, ImportStatus.DUPLICATE, null, "Question already exists");
+                        }
+                    }
+                }
+            }
+        }
+
+        private void insert(List<Question> questions) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                List<Integer> ids = questionJdbcRepository.nextIds(questions.size());
+                for (int q = 0; q < questions.size(); q++) {
+                    questions.get(q).setId(ids.get(q));
+                }
+                questionJdbcRepository.insertAll(questions);
+            });
+        }
+
+        private void record(ImportRowResult result) {
+            results.add(result);
+            switch (result.status()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+            }
+        }
+    }
+}
@@ -1,23 +1,71 @@
 package com.varma.service;
 
 
+import com.varma.cache.QuestionCache;
+import com.varma.dedup.ContentHash;
+import com.varma.dedup.DuplicateFilter;
 import com.varma.exception.DuplicateException;
+import com.varma.exception.InsufficientQuestionsException;
 import com.varma.exception.ResourceNotFoundException;
+import com.varma.exception.VersionConflictException;
+import com.varma.index.FacetIndex;
+import com.varma.index.QuestionIndexMaintainer;
+import com.varma.index.QuestionSampler;
+import com.varma.index.SearchIndex;
+import com.varma.model.AnswerKeyEntry;
 import com.varma.model.Question;
 import com.varma.model.QuestionWrapper;
 import com.varma.model.Response;
+import com.varma.model.ScoreReport;
+import com.varma.question.ChangeFeed;
+import com.varma.question.QuestionChange;
 import com.varma.question.QuestionRequest;
 import com.varma.question.QuestionUpdate;
+import com.varma.question.ShortfallPolicy;
 import com.varma.questionDAO.QuestionDAO;
+import com.varma.questionRepository.QuestionChangeLog;
+import com.varma.questionRepository.QuestionJdbcRepository;
 import com.varma.questionRepository.QuestionRepository;
+import com.varma.scoring.AnswerKey;
+import com.varma.snapshot.QuestionSnapshots;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
 
 /**
  * The QuestionService class provides methods for managing questions in the quiz application.
@@ -25,9 +73,95 @@ import java.util.Optional;
 @Service
 public class QuestionService implements QuestionDAO {
 
+    /**
+     * The maximum number of IDs bound into a single IN query.
+     */
+    static final int ID_BATCH_SIZE = 1000;
+
+    /**
+     * The largest page a keyset-paginated listing returns.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * The largest page a search returns.
+     */
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    /**
+     * The longest a change feed request waits for a change.
+     */
+    static final long MAX_CHANGE_WAIT_MILLIS = 30_000;
+
+    /**
+     * How often a waiting change feed request looks for a change.
+     */
+    static final long CHANGE_POLL_INTERVAL_MILLIS = 200;
+
+    /**
+     * The response header carrying the cursor of the next page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * The response header carrying the seed a quiz sample was drawn with.
+     */
+    public static final String SAMPLE_SEED_HEADER = "X-Sample-Seed";
+
+    /**
+     * The response header carrying the number of questions a quiz sample is short of.
+     */
+    public static final String SHORTFALL_HEADER = "X-Shortfall";
+
+    /**
+     * The media type of newline-delimited JSON.
+     */
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    static final int STREAM_FLUSH_INTERVAL = 500;
+
     @Autowired
     private QuestionRepository questionRepository;
 
+    @Autowired
+    private QuestionJdbcRepository questionJdbcRepository;
+
+    @Autowired
+    private QuestionIndexMaintainer questionIndexes;
+
+    @Autowired
+    private QuestionCache questionCache;
+
+    @Autowired
+    private QuestionSnapshots questionSnapshots;
+
+    @Autowired
+    private QuestionChangeLog questionChangeLog;
+
+    @Autowired
+    private DuplicateFilter duplicateFilter;
+
+    @Autowired
+    private AnswerKey answerKey;
+
+    @Autowired
+    private QuestionSampler questionSampler;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
 //    public QuestionService(QuestionDAO questionDAO, QuestionRepository questionRepository) {
 //    }
 
@@ -46,6 +180,126 @@ public class QuestionService implements QuestionDAO {
         return new ResponseEntity<>(new ArrayList<>(), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Retrieves the page of questions that follows the given cursor, optionally filtered by category and difficulty level.
+     * Pages are ordered by ID and addressed by the last ID of the previous page, so every page costs one index range scan
+     * however deep into the table it is. When the page is full its last ID is returned in the {@value #NEXT_CURSOR_HEADER}
+     * header, to be passed as the cursor of the next request.
+     *
+     * @param category        the category of the questions, or null for all categories
+     * @param difficultyLevel the difficulty level of the questions, or null for all difficulty levels
+     * @param after           the ID after which the page starts, or null for the first page
+     * @param size            the maximum number of questions in the page, capped at {@value #MAX_PAGE_SIZE}
+     * @return a ResponseEntity with the page of questions and HTTP status code 200 (OK)
+     */
+    @Override
+    public ResponseEntity<List<Question>> getQuestionsPage(String category, String difficultyLevel, Integer after, int size) {
+        int cursor = after == null ? 0 : after;
+        Pageable page = PageRequest.ofSize(Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        List<Question> questions;
+        if (category != null && difficultyLevel != null) {
+            questions = questionRepository.findByCategoryAndDifficultyLevelAndIdGreaterThanOrderByIdAsc(category, difficultyLevel, cursor, page);
+        } else if (category != null) {
+            questions = questionRepository.findByCategoryAndIdGreaterThanOrderByIdAsc(category, cursor, page);
+        } else if (difficultyLevel != null) {
+            questions = questionRepository.findByDifficultyLevelAndIdGreaterThanOrderByIdAsc(difficultyLevel, cursor, page);
+        } else {
+            questions = questionRepository.findByIdGreaterThanOrderByIdAsc(cursor, page);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (questions.size() == page.getPageSize()) {
+            headers.set(NEXT_CURSOR_HEADER, String.valueOf(questions.get(questions.size() - 1).getId()));
+        }
+        return new ResponseEntity<>(questions, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Streams questions as newline-delimited JSON, optionally filtered by category and difficulty level.
+     * Rows are read through a fetch-size bounded cursor inside a read-only transaction and written as they arrive, and
+     * each entity is detached once written, so memory use does not grow with the size of the table. The output is flushed
+     * every {@value #STREAM_FLUSH_INTERVAL} rows rather than after every row.
+     *
+     * @param category        the category of the questions, or null for all categories
+     * @param difficultyLevel the difficulty level of the questions, or null for all difficulty levels
+     * @return a ResponseEntity with the streaming body and HTTP status code 200 (OK)
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> streamQuestions(String category, String difficultyLevel) {
+        ObjectWriter questionWriter = objectMapper.writerFor(Question.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<Question> questions = streamQuestionsFromRepository(category, difficultyLevel);
+                     JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    int written = 0;
+                    for (Iterator<Question> iterator = questions.iterator(); iterator.hasNext(); ) {
+                        Question question = iterator.next();
+                        questionWriter.writeValue(generator, question);
+                        generator.writeRaw('\n');
+                        entityManager.detach(question);
+                        if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    }
+                    // closing the generator flushes the rest
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private Stream<Question> streamQuestionsFromRepository(String category, String difficultyLevel) {
+        if (category != null && difficultyLevel != null) {
+            return questionRepository.streamByCategoryAndDifficultyLevelOrderByIdAsc(category, difficultyLevel);
+        } else if (category != null) {
+            return questionRepository.streamByCategoryOrderByIdAsc(category);
+        } else if (difficultyLevel != null) {
+            return questionRepository.streamByDifficultyLevelOrderByIdAsc(difficultyLevel);
+        }
+        return questionRepository.streamAllByOrderByIdAsc();
+    }
+
+    /**
+     * Retrieves the changes of the question table after a sequence number, for replicas of the question bank.
+     * Without a sequence number no changes are returned, only the current high-water mark: a replica reads it first,
+     * then copies the table and follows the feed from the mark. When there is no change yet the request waits up to the
+     * given time, capped at {@value #MAX_CHANGE_WAIT_MILLIS} ms, for one to be committed.
+     *
+     * @param after      the sequence number after which to return changes, or null for the high-water mark only
+     * @param limit      the maximum number of changes, capped at {@value #MAX_PAGE_SIZE}
+     * @param waitMillis how long to wait for a change
+     * @return a ResponseEntity with the page of changes and HTTP status code 200 (OK), or HTTP status code 410 (Gone)
+     * if changes after the sequence number were pruned from the log and the replica must be copied again
+     */
+    @Override
+    public ResponseEntity<ChangeFeed> getChanges(Long after, int limit, long waitMillis) {
+        if (after == null) {
+            long highWaterMark = questionChangeLog.highWaterMark();
+            return new ResponseEntity<>(new ChangeFeed(List.of(), highWaterMark, highWaterMark), HttpStatus.OK);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(waitMillis, MAX_CHANGE_WAIT_MILLIS)));
+        while (questionChangeLog.lastSequence() <= after && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(CHANGE_POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        long highWaterMark = questionChangeLog.highWaterMark();
+        if (after > highWaterMark || !questionChangeLog.retainsChangesAfter(after, highWaterMark)) {
+            return new ResponseEntity<>(HttpStatus.GONE);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<QuestionChange> changes = after == highWaterMark ? List.of() : questionChangeLog.findChanges(after, highWaterMark, pageSize);
+        long nextSequence = changes.size() == pageSize ? changes.get(pageSize - 1).sequence() : highWaterMark;
+        return new ResponseEntity<>(new ChangeFeed(changes, nextSequence, highWaterMark), HttpStatus.OK);
+    }
+
     /**
      * Retrieves questions based on the specified category.
      *
@@ -55,6 +309,9 @@ public class QuestionService implements QuestionDAO {
     @Override
     public ResponseEntity<List<Question>> getQuestionsBasedOnTheCategory(String category) {
         try {
+            if (questionIndexes.isReady()) {
+                return new ResponseEntity<>(findAllByIdInOrder(facetIndex.ids(category, null)), HttpStatus.OK);
+            }
             return new ResponseEntity<>(questionRepository.findQuestionByCategory(category), HttpStatus.OK);
         } catch (Exception e) {
             e.printStackTrace();
@@ -62,15 +319,105 @@ public class QuestionService implements QuestionDAO {
         return new ResponseEntity<>(new ArrayList<>(), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Retrieves the number of questions of every category and difficulty level combination.
+     * The counts come from the in-memory facet index and never touch the database.
+     *
+     * @return a ResponseEntity with the counts keyed by category and then difficulty level and HTTP status code 200 (OK),
+     * or HTTP status code 503 (Service Unavailable) while the index is still being built
+     */
+    @Override
+    public ResponseEntity<Map<String, Map<String, Integer>>> getFacetCounts() {
+        if (!questionIndexes.isReady()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return new ResponseEntity<>(facetIndex.facetCounts(), HttpStatus.OK);
+    }
+
+    /**
+     * Searches the text and options of the questions in the in-memory {@link SearchIndex}, best match first.
+     * Only the wrappers of the page are read, through the question cache. When more results follow, the cursor of the
+     * next page is returned in the {@value #NEXT_CURSOR_HEADER} header.
+     *
+     * @param query           the words to search for
+     * @param category        the category of the questions, or null for all categories
+     * @param difficultyLevel the difficulty level of the questions, or null for all difficulty levels
+     * @param after           the cursor of the page, or null for the first page
+     * @param size            the maximum number of questions in the page, capped at {@value #MAX_SEARCH_PAGE_SIZE}
+     * @return a ResponseEntity with the page of question wrappers and HTTP status code 200 (OK), HTTP status code
+     * 400 (Bad Request) if the cursor is malformed, or 503 (Service Unavailable) while the index is still being built
+     */
+    @Override
+    public ResponseEntity<List<QuestionWrapper>> searchQuestions(String query, String category, String difficultyLevel, String after, int size) {
+        if (!questionIndexes.isReady()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        RoaringBitmap filter = category == null && difficultyLevel == null ? null : facetIndex.ids(category, difficultyLevel);
+        SearchIndex.Page page;
+        try {
+            page = searchIndex.search(query, filter, after, Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(new ArrayList<>(), HttpStatus.BAD_REQUEST);
+        }
+        Map<Integer, QuestionWrapper> wrappersById = findWrappersById(page.ids());
+        List<QuestionWrapper> questionWrappers = new ArrayList<>(page.ids().size());
+        for (Integer id : page.ids()) {
+            QuestionWrapper questionWrapper = wrappersById.get(id);
+            if (questionWrapper != null) {
+                questionWrappers.add(questionWrapper);
+            }
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (page.nextCursor() != null) {
+            headers.set(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return new ResponseEntity<>(questionWrappers, headers, HttpStatus.OK);
+    }
+
+    private List<Question> findAllByIdInOrder(RoaringBitmap ids) {
+        List<Integer> idList = new ArrayList<>(ids.getCardinality());
+        for (PeekableIntIterator iterator = ids.getIntIterator(); iterator.hasNext(); ) {
+            idList.add(iterator.next());
+        }
+        List<Question> questions = new ArrayList<>(findAllById(idList).values());
+        questions.sort(Comparator.comparing(Question::getId));
+        return questions;
+    }
+
+    private Map<Integer, Question> findAllById(List<Integer> ids) {
+        Map<Integer, Question> questions = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            questions.putAll(questionCache.getAll(ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size())),
+                    chunk -> questionSnapshots.findAllById(chunk, questionRepository::findAllById)));
+        }
+        return questions;
+    }
+
+    private Map<Integer, QuestionWrapper> findWrappersById(List<Integer> ids) {
+        Map<Integer, QuestionWrapper> wrappers = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            wrappers.putAll(questionCache.getAllWrappers(ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size())),
+                    chunk -> questionSnapshots.findAllById(chunk, QuestionWrapper::of, questionRepository::findQuestionWrappersByIdIn)));
+        }
+        return wrappers;
+    }
+
     /**
      * Adds a new question.
+     * Questions are duplicates when their text and options are equal after normalizing case, whitespace and Unicode
+     * forms, whatever the order of the options. The duplicate filter settles most checks without a query; the unique
+     * content hash column catches concurrent inserts of the same question.
      *
      * @param questionRequest the question request object containing the question details
      * @throws DuplicateException if the question already exists
      */
     public void addQuestion(QuestionRequest questionRequest) {
         String question1 = questionRequest.question();
-        if (question1 == null || questionRepository.existsByQuestion(question1)) {
+        if (question1 == null) {
+            throw new DuplicateException("Question already exists");
+        }
+        String contentHash = ContentHash.of(questionRequest);
+        if ((!questionIndexes.isReady() || duplicateFilter.mightContain(contentHash)) && questionRepository.existsByContentHash(contentHash)) {
             throw new DuplicateException("Question already exists");
         }
         Question question = new Question(
@@ -83,7 +430,11 @@ public class QuestionService implements QuestionDAO {
                 questionRequest.category(),
                 questionRequest.correctAns()
         );
-        questionRepository.save(question);
+        try {
+            questionIndexes.indexed(questionRepository.save(question));
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateException("Question already exists");
+        }
     }
 
     /**
@@ -95,6 +446,9 @@ public class QuestionService implements QuestionDAO {
     @Override
     public ResponseEntity<List<Question>> getQuestionBasedOnTheDifficultyLevel(String difficultyLevel) {
         try {
+            if (questionIndexes.isReady()) {
+                return new ResponseEntity<>(findAllByIdInOrder(facetIndex.ids(null, difficultyLevel)), HttpStatus.OK);
+            }
             return new ResponseEntity<>(questionRepository.findQuestionByDifficultyLevel(difficultyLevel), HttpStatus.OK);
         } catch (Exception e) {
             e.printStackTrace();
@@ -112,6 +466,9 @@ public class QuestionService implements QuestionDAO {
     @Override
     public ResponseEntity<List<Question>> getQuestionsBasedOnTheCategoryAndDifficultyLevel(String category, String difficultyLevel) {
         try {
+            if (questionIndexes.isReady()) {
+                return new ResponseEntity<>(findAllByIdInOrder(facetIndex.ids(category, difficultyLevel)), HttpStatus.OK);
+            }
             return new ResponseEntity<>(questionRepository.findQuestionByCategoryAndDifficultyLevel(category, difficultyLevel), HttpStatus.OK);
         } catch (Exception e) {
             e.printStackTrace();
@@ -131,161 +488,280 @@ public class QuestionService implements QuestionDAO {
             throw new ResourceNotFoundException("Question not found with ID: " + id);
         }
         questionRepository.deleteById(id);
+        questionCache.invalidate(id);
+        questionIndexes.removed(id);
     }
 
     /**
      * Updates a question with the specified ID.
+     * Only the non-null fields are written, by a single UPDATE that changes the row only if one of them differs from the
+     * stored value and that increments the version. When the update carries a version it applies only to that version,
+     * so concurrent editors are detected without holding row locks. A change to the text or options is followed by the
+     * new content hash in the same transaction.
      *
      * @param id             the ID of the question to be updated
      * @param questionUpdate the updated question object
-     * @throws Exception if no changes are found or if the question with the specified ID is not found
+     * @throws Exception if no changes are found, if the question with the specified ID is not found, if the update
+     *                   makes it a duplicate of another question or if its version is no longer current
      */
     @Override
     public void updateQuestion(Integer id, QuestionUpdate questionUpdate) throws Exception {
-        Optional<Question> question = Optional.of(questionRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Question not found with ID: " + id)));
-        boolean change = false;
-        if (questionUpdate.question() != null && !question.get().getQuestion().equals(questionUpdate.question())) {
-            question.get().setQuestion(questionUpdate.question());
-            change = true;
-        }
-        if (questionUpdate.option1() != null && !question.get().getOption1().equals(questionUpdate.option1())) {
-            question.get().setOption1(questionUpdate.option1());
-            change = true;
-        }
-        if (questionUpdate.option2() != null && !question.get().getOption2().equals(questionUpdate.option2())) {
-            question.get().setOption2(questionUpdate.option2());
-            change = true;
-        }
-        if (questionUpdate.option3() != null && !question.get().getOption3().equals(questionUpdate.option3())) {
-            question.get().setOption3(questionUpdate.option3());
-            change = true;
-        }
-        if (questionUpdate.option4() != null && !question.get().getOption4().equals(questionUpdate.option4())) {
-            question.get().setOption4(questionUpdate.option4());
-            change = true;
-        }
-        if (questionUpdate.category() != null && !question.get().getCategory().equals(questionUpdate.category())) {
-            question.get().setCategory(questionUpdate.category());
-            change = true;
-        }
-        if (questionUpdate.difficultyLevel() != null && !question.get().getDifficultyLevel().equals(questionUpdate.difficultyLevel())) {
-            question.get().setDifficultyLevel(questionUpdate.difficultyLevel());
-            change = true;
-        }
-        if (questionUpdate.correctAns() != null && !question.get().getCorrectAns().equals(questionUpdate.correctAns())) {
-            question.get().setCorrectAns(questionUpdate.correctAns());
-            change = true;
+        Question updatedQuestion;
+        try {
+            updatedQuestion = new TransactionTemplate(transactionManager).execute(status -> {
+                Question question = questionJdbcRepository.updateChangedFields(id, questionUpdate);
+                if (question != null && questionUpdate.changesContent()) {
+                    String contentHash = ContentHash.of(question);
+                    if (!contentHash.equals(question.getContentHash())) {
+                        questionJdbcRepository.updateContentHash(id, contentHash);
+                        question.setContentHash(contentHash);
+                    }
+                }
+                return question;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateException("Question already exists");
         }
 
-        if (!change) {
+        if (updatedQuestion == null) {
+            Long version = questionJdbcRepository.findVersion(id);
+            if (version == null) {
+                throw new ResourceNotFoundException("Question not found with ID: " + id);
+            }
+            if (questionUpdate.version() != null && !questionUpdate.version().equals(version)) {
+                throw new VersionConflictException("Question " + id + " is at version " + version + ", not " + questionUpdate.version());
+            }
             throw new Exception("No changes found");
         }
-        Question updatedQuestion = question.get();
-        questionRepository.save(updatedQuestion);
+        questionCache.invalidate(id);
+        questionIndexes.indexed(updatedQuestion);
     }
 
     /**
      * Finds random questions based on the specified category and number of questions.
+     * Once the question indexes are built the IDs are drawn in memory by the {@link QuestionSampler}; until then the
+     * database picks them. A category with fewer questions than requested yields all of its questions.
      *
      * @param category      the category of the questions
      * @param noOfQuestions the number of random questions to be retrieved
-     * @return a list of random questions
+     * @return a list of distinct random question IDs, empty if the number of questions is not positive
      */
     @Override
     public List<Integer> findRandomQuestionsByCategory(String category, Integer noOfQuestions) {
+        if (category == null || noOfQuestions == null || noOfQuestions <= 0) {
+            return new ArrayList<>();
+        }
+        if (questionIndexes.isReady()) {
+            return questionSampler.sample(category, noOfQuestions);
+        }
         return questionRepository.findRandomQuestionsByCategory(category, noOfQuestions);
     }
 
-
+    /**
+     * Picks random questions of the specified category for a new quiz.
+     *
+     * @param categoryName  the category of the questions
+     * @param noOfQuestions the number of questions in the quiz
+     * @return a ResponseEntity with the list of question IDs and HTTP status code 200 (OK)
+     */
+    @Override
     public ResponseEntity<List<Integer>> getQuestionsForQuiz(String categoryName, Integer noOfQuestions) {
-
-        List<Integer> questions = questionRepository.findRandomQuestionsByCategory(categoryName, noOfQuestions);
-        return new ResponseEntity<>(questions, HttpStatus.OK);
+        return new ResponseEntity<>(findRandomQuestionsByCategory(categoryName, noOfQuestions), HttpStatus.OK);
     }
 
+    /**
+     * Picks random questions of one or more categories for a new quiz, split between difficulty levels.
+     * Each difficulty level receives a share of the questions proportional to its weight, drawn in memory by the
+     * {@link QuestionSampler} once the question indexes are built, and from the IDs of the matching questions read from the
+     * database until then. The same seed yields the same quiz as long as the matching questions are the same; the seed
+     * used is sent in the X-Sample-Seed header, and the number of missing questions in the X-Shortfall header when
+     * the quiz is short.
+     *
+     * @param categories    the categories of the questions
+     * @param noOfQuestions the number of questions in the quiz
+     * @param difficultyMix the weight of every difficulty level as "level:weight" entries, or null to ignore difficulty
+     * @param seed          the seed of the sample, or null for a random one
+     * @param shortfall     what to do when a difficulty level holds fewer questions than its share, or null to
+     *                      redistribute them
+     * @return a ResponseEntity with the list of question IDs in random order and HTTP status code 200 (OK), or HTTP
+     * status code 400 (Bad Request) if the difficulty mix is malformed
+     * @throws InsufficientQuestionsException if a share cannot be met and the policy is {@link ShortfallPolicy#FAIL}
+     */
     @Override
-    public ResponseEntity<List<QuestionWrapper>> getQuestionsFromId(List<Integer> questionsIds) {
-        List<QuestionWrapper> questionWrappers = new ArrayList<>();
-        List<Question> questions = new ArrayList<>();
-        for (Integer id : questionsIds) {
-            questions.add(questionRepository.findById(id).get());
+    public ResponseEntity<List<Integer>> getQuestionsForQuiz(List<String> categories, Integer noOfQuestions, List<String> difficultyMix, Long seed, ShortfallPolicy shortfall) {
+        List<String> distinctCategories = categories == null ? List.of() : categories.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctCategories.isEmpty() || noOfQuestions == null || noOfQuestions <= 0) {
+            return new ResponseEntity<>(new ArrayList<>(), HttpStatus.OK);
         }
+        Map<String, Double> mix;
+        try {
+            mix = parseDifficultyMix(difficultyMix);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(new ArrayList<>(), HttpStatus.BAD_REQUEST);
+        }
+        long sampleSeed = seed == null ? questionSampler.nextSeed() : seed;
+        RandomGenerator random = new SplittableRandom(sampleSeed);
+        ShortfallPolicy policy = shortfall == null ? ShortfallPolicy.REDISTRIBUTE : shortfall;
+        List<Integer> ids;
+        if (questionIndexes.isReady()) {
+            ids = questionSampler.sample(distinctCategories, mix, noOfQuestions, policy, random);
+        } else {
+            ids = QuestionSampler.sample(strataFromRepository(distinctCategories, mix), noOfQuestions, policy, random);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(SAMPLE_SEED_HEADER, Long.toString(sampleSeed));
+        if (ids.size() < noOfQuestions) {
+            headers.set(SHORTFALL_HEADER, Integer.toString(noOfQuestions - ids.size()));
+        }
+        return new ResponseEntity<>(ids, headers, HttpStatus.OK);
+    }
 
-        for (Question question : questions) {
-            QuestionWrapper wrapper = new QuestionWrapper(question.getId(), question.getQuestion(), question.getOption1(), question.getOption2(), question.getOption3(), question.getOption4());
-            wrapper.id();
-            wrapper.question();
-            wrapper.option1();
-            wrapper.option2();
-            wrapper.option3();
-            wrapper.option4();
-            questionWrappers.add(wrapper);
+    /**
+     * Parses "level:weight" entries into the weight of every difficulty level, in the given order.
+     */
+    static Map<String, Double> parseDifficultyMix(List<String> entries) {
+        Map<String, Double> mix = new LinkedHashMap<>();
+        if (entries == null) {
+            return mix;
         }
+        double total = 0;
+        for (String entry : entries) {
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Malformed difficulty weight: " + entry);
+            }
+            double weight = Double.parseDouble(entry.substring(separator + 1).trim());
+            if (!Double.isFinite(weight) || weight < 0 || mix.put(entry.substring(0, separator).trim(), weight) != null) {
+                throw new IllegalArgumentException("Invalid difficulty weight: " + entry);
+            }
+            total += weight;
+        }
+        if (!mix.isEmpty() && total <= 0) {
+            throw new IllegalArgumentException("At least one difficulty weight must be positive");
+        }
+        return mix;
+    }
 
+    private List<QuestionSampler.Stratum> strataFromRepository(List<String> categories, Map<String, Double> mix) {
+        List<QuestionSampler.Stratum> strata = new ArrayList<>();
+        if (mix.isEmpty()) {
+            strata.add(new QuestionSampler.Stratum(null, 1, bitmapOf(questionRepository.findIdsByCategoryIn(categories))));
+        } else {
+            mix.forEach((difficultyLevel, weight) -> strata.add(new QuestionSampler.Stratum(difficultyLevel, weight,
+                    bitmapOf(questionRepository.findIdsByCategoryInAndDifficultyLevel(categories, difficultyLevel)))));
+        }
+        return strata;
+    }
 
-        return new ResponseEntity<>(questionWrappers, HttpStatus.OK);
+    private static RoaringBitmap bitmapOf(List<Integer> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        ids.forEach(bitmap::add);
+        return bitmap;
     }
 
+    /**
+     * Retrieves the wrappers of the questions with the specified IDs.
+     * Wrappers come from the {@link QuestionCache}; the ones it misses are fetched without their correct answers in
+     * chunks of {@value #ID_BATCH_SIZE}, so the number of queries depends only on the number of distinct uncached IDs and
+     * not on how the quiz was assembled.
+     * The result follows the order of the given IDs and repeats a wrapper for every repeated ID.
+     *
+     * @param questionsIds the IDs of the questions
+     * @return a ResponseEntity with the list of question wrappers and HTTP status code 200 (OK)
+     * @throws ResourceNotFoundException if any of the specified IDs does not exist
+     */
     @Override
-    public ResponseEntity<Integer> getScore(List<Response> responses) {
-        int right = 0;
-        for (Response response : responses) {
-            Question question = questionRepository.findById(response.id()).get();
-            if (response.responseStatus().equals(question.getCorrectAns()))
-                right++;
+    public ResponseEntity<List<QuestionWrapper>> getQuestionsFromId(List<Integer> questionsIds) {
+        if (questionsIds == null || questionsIds.isEmpty()) {
+            return new ResponseEntity<>(new ArrayList<>(), HttpStatus.OK);
         }
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(questionsIds));
+        distinctIds.remove(null);
+        Map<Integer, QuestionWrapper> wrappersById = findWrappersById(distinctIds);
 
-        return new ResponseEntity<>(right, HttpStatus.OK);
+        List<QuestionWrapper> questionWrappers = new ArrayList<>(questionsIds.size());
+        Set<Integer> missingIds = new LinkedHashSet<>();
+        for (Integer id : questionsIds) {
+            QuestionWrapper questionWrapper = wrappersById.get(id);
+            if (questionWrapper == null) {
+                missingIds.add(id);
+            } else {
+                questionWrappers.add(questionWrapper);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            throw new ResourceNotFoundException("Questions not found with IDs: " + missingIds);
+        }
+        return new ResponseEntity<>(questionWrappers, HttpStatus.OK);
     }
 
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
+    /**
+     * Retrieves the correct answers of the questions with the specified IDs, for clients that score responses themselves.
+     * Questions are read the way {@link #getQuestionsFromId(List)} reads them, and the result follows the order of the
+     * given IDs.
+     *
+     * @param questionsIds the IDs of the questions
+     * @return a ResponseEntity with the list of answer key entries and HTTP status code 200 (OK)
+     * @throws ResourceNotFoundException if any of the specified IDs does not exist
+     */
+    @Override
+    public ResponseEntity<List<AnswerKeyEntry>> getAnswerKey(List<Integer> questionsIds) {
+        if (questionsIds == null || questionsIds.isEmpty()) {
+            return new ResponseEntity<>(new ArrayList<>(), HttpStatus.OK);
+        }
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(questionsIds));
+        distinctIds.remove(null);
+        Map<Integer, Question> questionsById = findAllById(distinctIds);
 
+        List<AnswerKeyEntry> entries = new ArrayList<>(questionsIds.size());
+        Set<Integer> missingIds = new LinkedHashSet<>();
+        for (Integer id : questionsIds) {
+            Question question = questionsById.get(id);
+            if (question == null) {
+                missingIds.add(id);
+            } else {
+                entries.add(new AnswerKeyEntry(id, question.getCorrectAns()));
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            throw new ResourceNotFoundException("Questions not found with IDs: " + missingIds);
+        }
+        return new ResponseEntity<>(entries, HttpStatus.OK);
+    }
 
+    /**
+     * Calculates the number of correct responses.
+     *
+     * @param responses the list of responses
+     * @return a ResponseEntity with the number of correct responses and HTTP status code 200 (OK)
+     */
+    @Override
+    public ResponseEntity<Integer> getScore(List<Response> responses) {
+        return new ResponseEntity<>(scoreResponses(responses).score(), HttpStatus.OK);
+    }
 
+    /**
+     * Calculates the number of correct responses and reports unanswered and unknown questions.
+     *
+     * @param responses the list of responses
+     * @return a ResponseEntity with the score report and HTTP status code 200 (OK)
+     */
+    @Override
+    public ResponseEntity<ScoreReport> getScoreReport(List<Response> responses) {
+        return new ResponseEntity<>(scoreResponses(responses), HttpStatus.OK);
+    }
 
+    private ScoreReport scoreResponses(List<Response> responses) {
+        if (responses == null || responses.isEmpty()) {
+            return new ScoreReport(0, List.of(), List.of());
+        }
+        return answerKey.score(responses, this::findAnswerKeyEntries);
+    }
 
+    private List<AnswerKeyEntry> findAnswerKeyEntries(Collection<Integer> ids) {
+        return findAllById(new ArrayList<>(new LinkedHashSet<>(ids))).values().stream()
+                .map(question -> new AnswerKeyEntry(question.getId(), question.getCorrectAns()))
+                .toList();
+    }
 
+}
@@ -0,0 +1,19 @@
+package com.varma.snapshot;
+
+import java.io.IOException;
+
+/**
+ * The InvalidSnapshotException class represents an exception that is thrown when a snapshot file is truncated, corrupt
+ * or of a format version that cannot be read.
+ */
+public class InvalidSnapshotException extends IOException {
+
+    /**
+     * Constructs a new InvalidSnapshotException with the specified error message.
+     *
+     * @param message the error message
+     */
+    public InvalidSnapshotException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,210 @@
+package com.varma.snapshot;
+
+import com.varma.model.Question;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32C;
+
+/**
+ * The QuestionSnapshot class reads a binary snapshot of the question bank through a read-only memory mapping, so
+ * opening it costs one pass to verify the checksum and every later read is served from the page cache.
+ * <p>
+ * The file holds, in big-endian order:
+ * <ul>
+ *     <li>a 64-byte header: magic number, format version, question count, high-water mark of the question change log,
+ *     creation time in epoch milliseconds, string heap length and the CRC-32C checksum of everything after the header;</li>
+ *     <li>the string heap, the UTF-8 bytes of every field of every question back to back;</li>
+ *     <li>the ID table, one int per question in ascending order;</li>
+ *     <li>the record table, one fixed-width record per question in the same order: its version, the heap offset of
+ *     its first field and the byte length of each of its {@value #FIELDS} string fields, -1 for null.</li>
+ * </ul>
+ * Snapshots are written by {@link QuestionSnapshotWriter}.
+ */
+public final class QuestionSnapshot implements Iterable<Question> {
+
+    static final long MAGIC = 0x5153_4e41_5053_4854L;
+
+    static final int FORMAT_VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+
+    static final int FIELDS = 9;
+
+    static final int RECORD_SIZE = Long.BYTES + Long.BYTES + FIELDS * Integer.BYTES;
+
+    private final Path path;
+
+    private final ByteBuffer buffer;
+
+    private final int size;
+
+    private final long highWaterMark;
+
+    private final Instant createdAt;
+
+    private final int idTableOffset;
+
+    private final int recordTableOffset;
+
+    private QuestionSnapshot(Path path, ByteBuffer buffer) throws InvalidSnapshotException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getLong(0) != MAGIC) {
+            throw new InvalidSnapshotException(path + " is not a question snapshot");
+        }
+        if (buffer.getInt(8) != FORMAT_VERSION) {
+            throw new InvalidSnapshotException(path + " has unsupported format version " + buffer.getInt(8));
+        }
+        this.size = buffer.getInt(12);
+        this.highWaterMark = buffer.getLong(16);
+        this.createdAt = Instant.ofEpochMilli(buffer.getLong(24));
+        long heapLength = buffer.getLong(32);
+        long idTableOffset = HEADER_SIZE + heapLength;
+        long recordTableOffset = idTableOffset + (long) Integer.BYTES * size;
+        if (size < 0 || heapLength < 0 || recordTableOffset + (long) RECORD_SIZE * size != buffer.capacity()) {
+            throw new InvalidSnapshotException(path + " is truncated");
+        }
+        this.idTableOffset = (int) idTableOffset;
+        this.recordTableOffset = (int) recordTableOffset;
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        if (checksum.getValue() != buffer.getLong(40)) {
+            throw new InvalidSnapshotException(path + " fails its checksum");
+        }
+    }
+
+    /**
+     * Maps and verifies a snapshot file.
+     *
+     * @param path the snapshot file
+     * @return the snapshot
+     * @throws InvalidSnapshotException if the file is not a complete snapshot of a supported format version
+     * @throws IOException              if the file cannot be read
+     */
+    public static QuestionSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new InvalidSnapshotException(path + " is larger than a single mapping");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new QuestionSnapshot(path, buffer);
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last change of the question table included in this snapshot.
+     *
+     * @return the high-water mark
+     */
+    public long highWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Returns when this snapshot was written.
+     *
+     * @return the creation time
+     */
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    /**
+     * Returns the number of questions in this snapshot.
+     *
+     * @return the number of questions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the snapshot file.
+     *
+     * @return the path of the file
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Finds a question by its ID.
+     *
+     * @param id the ID of the question
+     * @return the question, or null if it is not in this snapshot
+     */
+    public Question find(int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = idAt(middle);
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return questionAt(middle);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an iterator over the questions in ascending ID order.
+     *
+     * @return the iterator
+     */
+    @Override
+    public Iterator<Question> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Question next() {
+                if (next == size) {
+                    throw new NoSuchElementException();
+                }
+                return questionAt(next++);
+            }
+        };
+    }
+
+    private int idAt(int index) {
+        return buffer.getInt(idTableOffset + index * Integer.BYTES);
+    }
+
+    private Question questionAt(int index) {
+        int record = recordTableOffset + index * RECORD_SIZE;
+        long version = buffer.getLong(record);
+        long offset = HEADER_SIZE + buffer.getLong(record + Long.BYTES);
+        String[] fields = new String[FIELDS];
+        for (int field = 0; field < FIELDS; field++) {
+            int length = buffer.getInt(record + 2 * Long.BYTES + field * Integer.BYTES);
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                buffer.get((int) offset, bytes);
+                fields[field] = new String(bytes, StandardCharsets.UTF_8);
+                offset += length;
+            }
+        }
+        Question question = new Question(idAt(index), fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6], fields[7]);
+        question.setContentHash(fields[8]);
+        question.setVersion(version < 0 ? null : version);
+        return question;
+    }
+}
@@ -0,0 +1,149 @@
+package com.varma.snapshot;
+
+import com.varma.model.Question;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The QuestionSnapshotWriter class writes a {@link QuestionSnapshot} from questions added in ascending ID order.
+ * The string heap is streamed to a temporary file next to the target while the records are spilled to a second one;
+ * committing appends the tables, fills in the header and atomically moves the file into place, so readers only ever see
+ * the previous snapshot or the complete new one.
+ */
+public final class QuestionSnapshotWriter implements Closeable {
+
+    private final Path target;
+
+    private final Path file;
+
+    private final Path records;
+
+    private final FileChannel channel;
+
+    private final CRC32C checksum = new CRC32C();
+
+    private final DataOutputStream heap;
+
+    private final DataOutputStream recordOut;
+
+    private int[] ids = new int[1024];
+
+    private int size;
+
+    private long heapLength;
+
+    private boolean committed;
+
+    /**
+     * Starts writing a snapshot.
+     *
+     * @param target the snapshot file to replace on commit
+     * @throws IOException if the temporary files cannot be created
+     */
+    public QuestionSnapshotWriter(Path target) throws IOException {
+        this.target = target;
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        this.file = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        this.records = Files.createTempFile(directory, target.getFileName().toString(), ".records.tmp");
+        this.channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        channel.position(QuestionSnapshot.HEADER_SIZE);
+        this.heap = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(Channels.newOutputStream(channel), checksum), 1 << 16));
+        this.recordOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(records), 1 << 16));
+    }
+
+    /**
+     * Adds a question.
+     *
+     * @param question the question, whose ID must be greater than the ID of the previous question
+     * @throws IOException if the question cannot be written
+     */
+    public void add(Question question) throws IOException {
+        int id = question.getId();
+        if (size > 0 && id <= ids[size - 1]) {
+            throw new IllegalArgumentException("Questions must be added in ascending ID order, got " + id + " after " + ids[size - 1]);
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+        recordOut.writeLong(question.getVersion() == null ? -1 : question.getVersion());
+        recordOut.writeLong(heapLength);
+        for (String field : new String[]{question.getQuestion(), question.getOption1(), question.getOption2(), question.getOption3(),
+                question.getOption4(), question.getDifficultyLevel(), question.getCategory(), question.getCorrectAns(), question.getContentHash()}) {
+            if (field == null) {
+                recordOut.writeInt(-1);
+            } else {
+                byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                heap.write(bytes);
+                heapLength += bytes.length;
+                recordOut.writeInt(bytes.length);
+            }
+        }
+    }
+
+    /**
+     * Completes the snapshot and moves it over the target file.
+     *
+     * @param highWaterMark the sequence number of the last change of the question table included in the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void commit(long highWaterMark) throws IOException {
+        for (int i = 0; i < size; i++) {
+            heap.writeInt(ids[i]);
+        }
+        recordOut.close();
+        try (InputStream in = Files.newInputStream(records)) {
+            in.transferTo(heap);
+        }
+        heap.flush();
+        ByteBuffer header = ByteBuffer.allocate(QuestionSnapshot.HEADER_SIZE)
+                .putLong(QuestionSnapshot.MAGIC)
+                .putInt(QuestionSnapshot.FORMAT_VERSION)
+                .putInt(size)
+                .putLong(highWaterMark)
+                .putLong(System.currentTimeMillis())
+                .putLong(heapLength)
+                .putLong(checksum.getValue());
+        header.clear();
+        channel.write(header, 0);
+        channel.force(true);
+        channel.close();
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+        Files.deleteIfExists(records);
+    }
+
+    /**
+     * Releases the temporary files, discarding the snapshot unless it was committed.
+     *
+     * @throws IOException if a temporary file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            recordOut.close();
+            channel.close();
+        } finally {
+            if (!committed) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(records);
+        }
+    }
+}
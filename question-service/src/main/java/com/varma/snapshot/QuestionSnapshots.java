@@ -0,0 +1,225 @@
+package com.varma.snapshot;
+
+import com.varma.model.Question;
+import com.varma.questionRepository.QuestionChangeLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The QuestionSnapshots class manages the local snapshot of the question bank used for warm starts.
+ * On startup the last snapshot is opened if it is intact and recent enough to be caught up from the question change
+ * log; until the indexes have been rebuilt from it, reads of the questions it holds are served from the mapping instead
+ * of the database, except for the questions changed after its high-water mark or written since. A fresh snapshot is
+ * written after every rebuild.
+ * <p>
+ * The snapshot lives at {@code question.snapshot.path}. It is not used when {@code question.snapshot.enabled} is false
+ * or when it is older than {@code question.snapshot.max-age}; changes are kept in the log for
+ * {@code question.snapshot.change-retention}, which must be longer.
+ */
+@Component
+public class QuestionSnapshots {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionSnapshots.class);
+
+    @Autowired
+    private QuestionChangeLog changeLog;
+
+    private final boolean enabled;
+
+    private final Path path;
+
+    private final Duration maxAge;
+
+    private final Duration changeRetention;
+
+    private final Set<Integer> stale = ConcurrentHashMap.newKeySet();
+
+    private volatile QuestionSnapshot serving;
+
+    /**
+     * Constructs the snapshot manager.
+     *
+     * @param enabled         whether snapshots are read and written
+     * @param path            the snapshot file
+     * @param maxAge          the age after which a snapshot is not used
+     * @param changeRetention how long changes are kept in the change log
+     */
+    public QuestionSnapshots(@Value("${question.snapshot.enabled:true}") boolean enabled,
+                             @Value("${question.snapshot.path:data/questions.snapshot}") Path path,
+                             @Value("${question.snapshot.max-age:1d}") Duration maxAge,
+                             @Value("${question.snapshot.change-retention:7d}") Duration changeRetention) {
+        this.enabled = enabled;
+        this.path = path;
+        this.maxAge = maxAge;
+        this.changeRetention = changeRetention;
+    }
+
+    /**
+     * Opens the last snapshot if it can be caught up to the current state of the question table.
+     *
+     * @param highWaterMark the current high-water mark of the change log
+     * @return the snapshot, or null if there is none or it is corrupt or stale
+     */
+    public QuestionSnapshot open(long highWaterMark) {
+        if (!enabled || !Files.exists(path)) {
+            return null;
+        }
+        QuestionSnapshot snapshot;
+        try {
+            snapshot = QuestionSnapshot.open(path);
+        } catch (IOException e) {
+            log.warn("Ignoring the question snapshot: {}", e.getMessage());
+            return null;
+        }
+        if (snapshot.createdAt().plus(maxAge).isBefore(Instant.now())) {
+            log.info("Ignoring the question snapshot written at {}, it is older than {}", snapshot.createdAt(), maxAge);
+        } else if (snapshot.highWaterMark() > highWaterMark) {
+            log.warn("Ignoring the question snapshot, its high-water mark {} is ahead of the change log at {}", snapshot.highWaterMark(), highWaterMark);
+        } else if (!changeLog.retainsChangesAfter(snapshot.highWaterMark(), highWaterMark)) {
+            log.info("Ignoring the question snapshot, the changes after its high-water mark {} were pruned", snapshot.highWaterMark());
+        } else {
+            return snapshot;
+        }
+        return null;
+    }
+
+    /**
+     * Starts serving reads from a snapshot.
+     *
+     * @param snapshot the snapshot
+     * @param changed  the IDs of the questions changed after its high-water mark, which are read from the database
+     */
+    public void serve(QuestionSnapshot snapshot, Collection<Integer> changed) {
+        stale.clear();
+        stale.addAll(changed);
+        serving = snapshot;
+    }
+
+    /**
+     * Stops serving reads from the snapshot.
+     */
+    public void stopServing() {
+        serving = null;
+        stale.clear();
+    }
+
+    /**
+     * Reports a question that was written, so that it is no longer read from the snapshot.
+     *
+     * @param id the ID of the question
+     */
+    public void invalidate(int id) {
+        if (serving != null) {
+            stale.add(id);
+        }
+    }
+
+    /**
+     * Returns the questions with the given IDs, from the snapshot while it is served and from the database otherwise.
+     *
+     * @param ids      the IDs of the questions
+     * @param database the loader reading questions from the database
+     * @return the questions found
+     */
+    public Iterable<Question> findAllById(Collection<Integer> ids, Function<Collection<Integer>, ? extends Iterable<Question>> database) {
+        return findAllById(ids, Function.identity(), database);
+    }
+
+    /**
+     * Returns a view of the questions with the given IDs, taken from the snapshot while it is served and read from the
+     * database otherwise.
+     *
+     * @param ids      the IDs of the questions
+     * @param view     the view of a question read from the snapshot
+     * @param database the loader reading the views from the database
+     * @param <T>      the type of the view
+     * @return the views of the questions found
+     */
+    public <T> Iterable<T> findAllById(Collection<Integer> ids, Function<Question, T> view, Function<Collection<Integer>, ? extends Iterable<T>> database) {
+        QuestionSnapshot snapshot = serving;
+        if (snapshot == null) {
+            return database.apply(ids);
+        }
+        List<T> questions = new ArrayList<>(ids.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Question question = stale.contains(id) ? null : snapshot.find(id);
+            if (question == null) {
+                missing.add(id);
+            } else {
+                questions.add(view.apply(question));
+            }
+        }
+        if (!missing.isEmpty()) {
+            database.apply(missing).forEach(questions::add);
+        }
+        return questions;
+    }
+
+    /**
+     * Starts writing a new snapshot.
+     *
+     * @return the writer, or null if snapshots are disabled or cannot be written
+     */
+    public QuestionSnapshotWriter newWriter() {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            return new QuestionSnapshotWriter(path);
+        } catch (IOException e) {
+            log.warn("Cannot write a question snapshot to {}", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Completes a new snapshot and prunes the changes older than the retention from the change log.
+     *
+     * @param writer        the writer of the snapshot
+     * @param highWaterMark the high-water mark of the change log when the snapshot was started
+     * @return true if the snapshot was written, false otherwise
+     */
+    public boolean commit(QuestionSnapshotWriter writer, long highWaterMark) {
+        try (writer) {
+            writer.commit(highWaterMark);
+        } catch (IOException e) {
+            log.warn("Cannot write a question snapshot to {}", path, e);
+            return false;
+        }
+        int pruned = changeLog.prune(changeRetention);
+        log.info("Wrote the question snapshot at high-water mark {}, pruned {} logged changes", highWaterMark, pruned);
+        return true;
+    }
+
+    /**
+     * Discards a snapshot that could not be completed.
+     *
+     * @param writer the writer of the snapshot, may be null
+     */
+    public void abandon(QuestionSnapshotWriter writer) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Cannot delete the temporary files of a question snapshot", e);
+        }
+    }
+}
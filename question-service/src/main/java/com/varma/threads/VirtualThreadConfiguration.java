@@ -0,0 +1,46 @@
+package com.varma.threads;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * The VirtualThreadConfiguration class serves requests on virtual threads, one per request, rather than on the pool of
+ * Tomcat platform threads, when {@code spring.threads.virtual.enabled} is set; it is the property Spring Boot reads
+ * from 3.2 on. The streamed listings, which Spring MVC writes on the application task executor, and the change feed
+ * requests, which sleep between polls, then hold a virtual thread each as well, so the number of requests in flight is
+ * bounded by the connection pool rather than by threads. None of the request paths block inside a {@code synchronized}
+ * block, which would pin a virtual thread to its carrier.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    /**
+     * Returns the customizer that makes Tomcat run every request on a virtual thread of its own.
+     *
+     * @return the customizer
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tomcat-handler-", 0).factory()));
+    }
+
+    /**
+     * Returns the application task executor, which Spring MVC runs asynchronous requests such as streamed listings on,
+     * starting a virtual thread per task in place of the bounded pool Spring Boot sets up.
+     *
+     * @return the executor
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-", 0).factory()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.varma.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The BloomFilter class is a thread-safe Bloom filter over values that are already well-distributed 128-bit hashes.
+ * A negative answer is always correct; a positive answer is wrong with roughly the false positive probability the
+ * filter was sized for, as long as no more than the expected number of values have been added.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashes;
+
+    /**
+     * Constructs a filter sized for the expected number of values and false positive probability.
+     *
+     * @param expectedInsertions         the expected number of values
+     * @param falsePositiveProbability   the target false positive probability, between 0 and 1
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.max(1, (bits + 63) >>> 6));
+        this.numBits = (long) words.length() << 6;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+    }
+
+    /**
+     * Adds a value, given as the two halves of its 128-bit hash.
+     *
+     * @param hash1 the high 64 bits of the hash
+     * @param hash2 the low 64 bits of the hash
+     */
+    public void put(long hash1, long hash2) {
+        long combined = hash1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = (combined & Long.MAX_VALUE) % numBits;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            combined += hash2;
+        }
+    }
+
+    /**
+     * Checks if a value, given as the two halves of its 128-bit hash, may have been added.
+     *
+     * @param hash1 the high 64 bits of the hash
+     * @param hash2 the low 64 bits of the hash
+     * @return false if the value was definitely never added, true if it may have been
+     */
+    public boolean mightContain(long hash1, long hash2) {
+        long combined = hash1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = (combined & Long.MAX_VALUE) % numBits;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += hash2;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+package com.varma.benchmark;
+
+import com.varma.model.Question;
+import com.varma.questionRepository.QuestionJdbcRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares importing a question bank through repeated addNewQuestion calls with the bulk import path.
+ * The looping variant issues the statements addNewQuestion issues per question (duplicate lookup, sequence call and
+ * insert, each committed on its own); the bulk variant issues one duplicate query, one sequence call and batched inserts
+ * per chunk, in one transaction. Both run against a real Postgres, since the saving is in round trips:
+ * {@code mvn test-compile exec:java -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.classpathScope=test -Dexec.args="ImportBenchmark -f 0"
+ * -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/questions?reWriteBatchedInserts=true -Dbenchmark.jdbc.username=postgres -Dbenchmark.jdbc.password=...}.
+ * The benchmark runs in the Maven JVM ({@code -f 0}), since a forked JVM would get neither the test classpath nor the
+ * connection settings. The question table must exist; rows are written under a unique category per run, so point it
+ * at a scratch database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportBenchmark {
+
+    private static final AtomicLong RUN = new AtomicLong(System.currentTimeMillis());
+
+    @Param({"10000"})
+    int rows;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private QuestionJdbcRepository questionJdbcRepository;
+    private List<Question> questions;
+
+    @Setup(Level.Trial)
+    public void setUpDatabase() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/questions?reWriteBatchedInserts=true"),
+                System.getProperty("benchmark.jdbc.username", "postgres"),
+                System.getProperty("benchmark.jdbc.password", ""));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        questionJdbcRepository = new QuestionJdbcRepository();
+        ReflectionTestUtils.setField(questionJdbcRepository, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpQuestions() {
+        String category = "benchmark-" + RUN.incrementAndGet();
+        questions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            questions.add(new Question(category + " question " + i, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", category, "Option 1"));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteQuestions() {
+        jdbcTemplate.update("DELETE FROM question WHERE category = ?", questions.get(0).getCategory());
+    }
+
+    @Benchmark
+    public int loopingAddNewQuestion() {
+        for (Question question : questions) {
+            jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM question WHERE question = ?)", Boolean.class, question.getQuestion());
+            question.setId(jdbcTemplate.queryForObject("SELECT nextval('question_id_seq')", Integer.class));
+            jdbcTemplate.update("INSERT INTO question (id, question, option1, option2, option3, option4, difficulty_level, category, correct_ans) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    question.getId(), question.getQuestion(), question.getOption1(), question.getOption2(), question.getOption3(),
+                    question.getOption4(), question.getDifficultyLevel(), question.getCategory(), question.getCorrectAns());
+        }
+        return questions.size();
+    }
+
+    @Benchmark
+    public int bulkImport() {
+        for (int from = 0; from < questions.size(); from += 1000) {
+            List<Question> chunk = questions.subList(from, Math.min(from + 1000, questions.size()));
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.queryForList("SELECT question FROM question WHERE question = ANY (?)", String.class,
+                        (Object) chunk.stream().map(Question::getQuestion).toArray(String[]::new));
+                List<Integer> ids = questionJdbcRepository.nextIds(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunk.get(i).setId(ids.get(i));
+                }
+                questionJdbcRepository.insertAll(chunk);
+            });
+        }
+        return questions.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ImportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
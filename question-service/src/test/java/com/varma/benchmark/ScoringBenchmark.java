@@ -0,0 +1,102 @@
+package com.varma.benchmark;
+
+import com.varma.model.Question;
+import com.varma.model.Response;
+import com.varma.scoring.AnswerKey;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares scoring a submission with the in-memory {@link AnswerKey} against the previous path, which issued one primary
+ * key lookup per response. The lookups run against an in-memory H2 database, so the numbers exclude the network round
+ * trip a real Postgres adds to every statement of the previous path.
+ * Run with {@code mvn test-compile exec:java -Dexec.mainClass=com.varma.benchmark.ScoringBenchmark -Dexec.classpathScope=test}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+
+    @Param({"100000"})
+    int bankSize;
+
+    @Param({"10", "50", "200"})
+    int quizSize;
+
+    private Connection connection;
+    private PreparedStatement findCorrectAns;
+    private AnswerKey answerKey;
+    private List<Response> responses;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:scoring;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS question");
+            statement.execute("CREATE TABLE question (id INT PRIMARY KEY, correct_ans VARCHAR(255) NOT NULL)");
+        }
+        answerKey = new AnswerKey();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO question (id, correct_ans) VALUES (?, ?)")) {
+            for (int id = 1; id <= bankSize; id++) {
+                String correctAns = "Option " + (id % 4 + 1);
+                insert.setInt(1, id);
+                insert.setString(2, correctAns);
+                insert.addBatch();
+                answerKey.index(new Question(id, "Question " + id, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", correctAns));
+            }
+            insert.executeBatch();
+        }
+        findCorrectAns = connection.prepareStatement("SELECT correct_ans FROM question WHERE id = ?");
+
+        SplittableRandom random = new SplittableRandom(42);
+        responses = new ArrayList<>(quizSize);
+        for (int i = 0; i < quizSize; i++) {
+            responses.add(new Response(random.nextInt(1, bankSize + 1), "Option " + random.nextInt(1, 5)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int perResponseLookup() throws SQLException {
+        int right = 0;
+        for (Response response : responses) {
+            findCorrectAns.setInt(1, response.id());
+            try (ResultSet resultSet = findCorrectAns.executeQuery()) {
+                resultSet.next();
+                if (response.responseStatus().equals(resultSet.getString(1))) {
+                    right++;
+                }
+            }
+        }
+        return right;
+    }
+
+    @Benchmark
+    public int answerKey() {
+        return answerKey.score(responses, ids -> List.of()).score();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ScoringBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,121 @@
+package com.varma.benchmark;
+
+import com.varma.index.SearchIndex;
+import com.varma.model.Question;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a top-20 query against the {@link SearchIndex} of a synthetic bank, against a linear scan of the question
+ * texts, which is what a client paging through /allQuestions effectively does. Words are drawn from a Zipf-like
+ * distribution over a 50,000-word vocabulary, so queries mix very common and rare words; the "partial" query matches
+ * through trigrams only and the "filtered" query is restricted to one of ten categories.
+ * Run with {@code mvn test-compile exec:java -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.classpathScope=test -Dexec.args="SearchBenchmark -f 0"}
+ * and a heap of at least 4 GB ({@code MAVEN_OPTS=-Xmx4g}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000000"})
+    int bankSize;
+
+    @Param({"common", "rare", "mixed", "partial", "filtered"})
+    String query;
+
+    private SearchIndex searchIndex;
+    private String[] texts;
+    private String queryText;
+    private RoaringBitmap filter;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        searchIndex = new SearchIndex();
+        texts = new String[bankSize];
+        RoaringBitmap firstCategory = new RoaringBitmap();
+        for (int id = 1; id <= bankSize; id++) {
+            String text = sentence(random, 8 + random.nextInt(8));
+            texts[id - 1] = text;
+            searchIndex.index(new Question(id, text, sentence(random, 2), sentence(random, 2), sentence(random, 2), sentence(random, 2),
+                    "Easy", "Category " + id % 10, "Option 1"));
+            if (id % 10 == 0) {
+                firstCategory.add(id);
+            }
+        }
+        queryText = switch (query) {
+            case "common" -> word(0) + " " + word(1);
+            case "rare" -> word(20_000) + " " + word(30_000);
+            case "mixed" -> word(2) + " " + word(500) + " " + word(15_000);
+            case "partial" -> word(700).substring(0, word(700).length() - 1);
+            default -> word(3) + " " + word(900);
+        };
+        filter = query.equals("filtered") ? firstCategory : null;
+    }
+
+    @Benchmark
+    public SearchIndex.Page searchIndex() {
+        return searchIndex.search(queryText, filter, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Integer> linearScan() {
+        String[] words = queryText.toLowerCase(Locale.ROOT).split(" ");
+        List<Integer> ids = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < texts.length && ids.size() < PAGE_SIZE; i++) {
+            for (String word : words) {
+                if (texts[i].contains(word)) {
+                    ids.add(i + 1);
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(word(zipf(random)));
+        }
+        return sentence.toString();
+    }
+
+    private static int zipf(SplittableRandom random) {
+        return (int) Math.min(VOCABULARY - 1, Math.floor(Math.exp(random.nextDouble() * Math.log(VOCABULARY))) - 1);
+    }
+
+    private static String word(int rank) {
+        StringBuilder word = new StringBuilder();
+        int value = rank * 7919 + 104_729;
+        do {
+            word.append((char) ('a' + value % 26));
+            value /= 26;
+        } while (value > 0);
+        return word.append("ing").toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
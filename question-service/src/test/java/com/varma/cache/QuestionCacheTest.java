@@ -0,0 +1,84 @@
+package com.varma.cache;
+
+import com.varma.model.Question;
+import com.varma.model.QuestionWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionCacheTest {
+
+    private final QuestionCache underTest = new QuestionCache(100, Duration.ofMinutes(10));
+
+    @Test
+    void getAllLoadsOnlyMissingQuestions() {
+        underTest.getAll(List.of(1, 2), ids -> ids.stream().map(QuestionCacheTest::question).toList());
+
+        Map<Integer, Question> questions = underTest.getAll(List.of(1, 2, 3), ids -> {
+            assertEquals(List.of(3), ids);
+            return List.of();
+        });
+
+        assertEquals(Set.of(1, 2), questions.keySet());
+    }
+
+    @Test
+    void getAllWrappersLoadsOnlyWrappersOfQuestionsNotCached() {
+        underTest.getAll(List.of(1), ids -> ids.stream().map(QuestionCacheTest::question).toList());
+        underTest.getAllWrappers(List.of(2), ids -> ids.stream().map(id -> QuestionWrapper.of(question(id))).toList());
+
+        Map<Integer, QuestionWrapper> wrappers = underTest.getAllWrappers(List.of(1, 2, 3), ids -> {
+            assertEquals(List.of(3), ids);
+            return List.of();
+        });
+
+        assertEquals(Map.of(1, QuestionWrapper.of(question(1)), 2, QuestionWrapper.of(question(2))), wrappers);
+        underTest.invalidate(2);
+        assertEquals(Set.of(1), underTest.getAllWrappers(List.of(1, 2), ids -> List.of()).keySet());
+    }
+
+    @Test
+    void readThatRacesAnUpdateDoesNotCacheTheOldValue() throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        CompletableFuture<Map<Integer, Question>> read = CompletableFuture.supplyAsync(() -> underTest.getAll(List.of(1), ids -> {
+            loaded.countDown();
+            await(invalidated);
+            return List.of(question(1, "Old text"));
+        }));
+
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        underTest.invalidate(1);
+        invalidated.countDown();
+
+        assertEquals("Old text", read.get(5, TimeUnit.SECONDS).get(1).getQuestion());
+        Map<Integer, Question> afterUpdate = underTest.getAll(List.of(1), ids -> List.of(question(1, "New text")));
+        assertEquals("New text", afterUpdate.get(1).getQuestion());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Question question(int id) {
+        return question(id, "Question " + id);
+    }
+
+    private static Question question(int id, String text) {
+        return new Question(id, text, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 1");
+    }
+}
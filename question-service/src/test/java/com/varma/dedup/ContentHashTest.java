@@ -0,0 +1,34 @@
+package com.varma.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ContentHashTest {
+
+    @Test
+    void hashIgnoresCaseWhitespaceUnicodeFormAndOptionOrder() {
+        assertEquals(
+                ContentHash.of("What is the capital of France?", "Paris", "London", "Berlin", "Madrid"),
+                ContentHash.of("  WHAT is the\tcapital of France? ", "Madrid", "berlin", "London", "Ｐａｒｉｓ"));
+    }
+
+    @Test
+    void hashDistinguishesDifferentOptions() {
+        assertNotEquals(
+                ContentHash.of("What is the capital of France?", "Paris", "London", "Berlin", "Madrid"),
+                ContentHash.of("What is the capital of France?", "Paris", "London", "Berlin", "Rome"));
+    }
+
+    @Test
+    void minHashFindsRewordedQuestionsOnly() {
+        MinHashLsh lsh = new MinHashLsh();
+        lsh.add(1, MinHashLsh.signature("Explain how the garbage collector decides which objects in the heap are still reachable"));
+        lsh.add(2, MinHashLsh.signature("Which keyword declares a constant field in Java"));
+
+        assertEquals(1, lsh.findSimilar(MinHashLsh.signature("Explain how the garbage collector decides which objects in the heap are still reachable?"), 0.8));
+        assertNull(lsh.findSimilar(MinHashLsh.signature("What is the default value of an int field"), 0.8));
+    }
+}
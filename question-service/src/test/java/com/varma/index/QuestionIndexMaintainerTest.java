@@ -0,0 +1,87 @@
+package com.varma.index;
+
+import com.varma.cache.QuestionCache;
+import com.varma.model.Question;
+import com.varma.model.Response;
+import com.varma.question.QuestionChange;
+import com.varma.questionRepository.QuestionChangeLog;
+import com.varma.scoring.AnswerKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuestionIndexMaintainerTest {
+
+    private final QuestionChangeLog changeLog = mock(QuestionChangeLog.class);
+
+    private final QuestionCache questionCache = mock(QuestionCache.class);
+
+    private final AnswerKey answerKey = new AnswerKey();
+
+    private final QuestionIndexMaintainer underTest = new QuestionIndexMaintainer(Duration.ofSeconds(1));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "changeLog", changeLog);
+        ReflectionTestUtils.setField(underTest, "questionCache", questionCache);
+        ReflectionTestUtils.setField(underTest, "indexes", List.<QuestionIndex>of(answerKey));
+        answerKey.index(question(1, "Option 1"));
+        answerKey.index(question(2, "Option 1"));
+    }
+
+    @Test
+    void followChangesAppliesTheWritesOfOtherInstances() {
+        markReady(5);
+        when(changeLog.highWaterMark()).thenReturn(7L);
+        when(changeLog.retainsChangesAfter(5, 7)).thenReturn(true);
+        when(changeLog.findChanges(5, 7, 1000)).thenReturn(List.of(
+                new QuestionChange(6, 1, question(1, "Option 2")),
+                new QuestionChange(7, 2, null)));
+
+        underTest.followChanges();
+
+        assertEquals(1, answerKey.score(List.of(new Response(1, "Option 2")), ids -> List.of()).score());
+        assertEquals(List.of(2), answerKey.score(List.of(new Response(2, "Option 1")), ids -> List.of()).unknownIds());
+        verify(questionCache).invalidate(1);
+        verify(questionCache).invalidate(2);
+        assertEquals(7L, ReflectionTestUtils.getField(underTest, "appliedUpTo"));
+    }
+
+    @Test
+    void followChangesWaitsForTheRebuild() {
+        underTest.followChanges();
+
+        verify(changeLog, never()).highWaterMark();
+        verify(changeLog, never()).findChanges(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void followChangesSkipsTheLogWhenNothingChanged() {
+        markReady(5);
+        when(changeLog.highWaterMark()).thenReturn(5L);
+
+        underTest.followChanges();
+
+        verify(changeLog, never()).findChanges(anyLong(), anyLong(), anyInt());
+    }
+
+    private void markReady(long highWaterMark) {
+        ReflectionTestUtils.setField(underTest, "appliedUpTo", highWaterMark);
+        ReflectionTestUtils.setField(underTest, "ready", true);
+    }
+
+    private static Question question(int id, String correctAns) {
+        return new Question(id, "Question " + id, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", correctAns);
+    }
+}
@@ -0,0 +1,175 @@
+package com.varma.index;
+
+import com.varma.exception.InsufficientQuestionsException;
+import com.varma.model.Question;
+import com.varma.question.ShortfallPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionSamplerTest {
+
+    private static final List<String> DIFFICULTY_LEVELS = List.of("Easy", "Medium", "Hard");
+
+    private QuestionSampler underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new QuestionSampler(null);
+        for (int id = 1; id <= 100; id++) {
+            underTest.index(question(id, id <= 60 ? "Java" : "Python"));
+        }
+    }
+
+    @Test
+    void sampleReturnsDistinctIdsOfTheCategory() {
+        List<Integer> ids = underTest.sample("Java", 20);
+
+        assertEquals(20, ids.size());
+        assertEquals(20, new HashSet<>(ids).size());
+        assertTrue(ids.stream().allMatch(id -> id <= 60));
+    }
+
+    @Test
+    void sampleIsReproducibleWithTheSameSeed() {
+        assertEquals(underTest.sample("Java", 10, new Random(7)), underTest.sample("Java", 10, new Random(7)));
+    }
+
+    @Test
+    void sampleReturnsTheWholeCategoryWhenItIsTooSmall() {
+        List<Integer> ids = underTest.sample("Python", 50);
+
+        assertEquals(40, ids.size());
+        assertEquals(40, new HashSet<>(ids).size());
+    }
+
+    @Test
+    void sampleOfUnknownCategoryIsEmpty() {
+        assertTrue(underTest.sample("Go", 5).isEmpty());
+    }
+
+    @Test
+    void indexMovesQuestionsBetweenCategoriesAndRemoveDropsThem() {
+        underTest.index(question(1, "Python"));
+        underTest.remove(2);
+
+        Set<Integer> java = new HashSet<>(underTest.sample("Java", 100));
+        Set<Integer> python = new HashSet<>(underTest.sample("Python", 100));
+
+        assertEquals(58, java.size());
+        assertEquals(41, python.size());
+        assertTrue(python.contains(1));
+        assertFalse(java.contains(1) || java.contains(2));
+    }
+
+    @Test
+    void questionsWithoutDifficultyLevelAreDrawnFromTheirCategoryOnly() {
+        QuestionSampler sampler = new QuestionSampler(null);
+        Question question = question(1, "Go");
+        question.setDifficultyLevel(null);
+        sampler.index(question);
+
+        assertEquals(1, sampler.count("Go"));
+        assertEquals(List.of(1), sampler.sample("Go", 5));
+        assertEquals(List.of(1), sampler.sample(List.of("Go", "Java"), null, 5, ShortfallPolicy.PARTIAL, new Random(1)));
+        assertTrue(sampler.sample(List.of("Go"), mix(1, 1, 1), 5, ShortfallPolicy.PARTIAL, new Random(1)).isEmpty());
+    }
+
+    @Test
+    void indexRemovesTheDifficultyLevelAQuestionNoLongerHas() {
+        Question question = question(1, "Java");
+        question.setDifficultyLevel(null);
+        underTest.index(question);
+
+        assertEquals(60, underTest.count("Java"));
+        assertFalse(underTest.sample(List.of("Java"), mix(1, 0, 0), 100, ShortfallPolicy.PARTIAL, new Random(1)).contains(1));
+        assertTrue(underTest.sample("Java", 100).contains(1));
+    }
+
+    @Test
+    void sampleOfOneCategoryLeavesItsPoolsIntact() {
+        underTest.sample("Java", 20);
+        underTest.sample(List.of("Java"), mix(1, 0, 0), 20, ShortfallPolicy.PARTIAL, new Random(1));
+        underTest.sample(List.of("Java", "Python"), null, 20, ShortfallPolicy.PARTIAL, new Random(1));
+
+        assertEquals(60, underTest.count("Java"));
+        assertEquals(40, underTest.count("Python"));
+        assertEquals(60, underTest.sample("Java", 100).size());
+    }
+
+    @Test
+    void stratifiedSampleSplitsTheQuestionsByWeight() {
+        QuestionSampler sampler = stratifiedSampler(40, 40, 40);
+
+        List<Integer> ids = sampler.sample(List.of("Java", "Python"), mix(50, 30, 20), 10, ShortfallPolicy.FAIL, new Random(1));
+
+        assertEquals(10, new HashSet<>(ids).size());
+        assertEquals(List.of(5L, 3L, 2L), countsByDifficulty(ids));
+    }
+
+    @Test
+    void stratifiedSampleRedistributesTheShortfall() {
+        QuestionSampler sampler = stratifiedSampler(40, 40, 1);
+
+        List<Integer> ids = sampler.sample(List.of("Java", "Python"), mix(50, 30, 20), 10, ShortfallPolicy.REDISTRIBUTE, new Random(1));
+
+        assertEquals(List.of(6L, 3L, 1L), countsByDifficulty(ids));
+        assertEquals(List.of(5L, 3L, 1L), countsByDifficulty(sampler.sample(List.of("Java", "Python"), mix(50, 30, 20), 10, ShortfallPolicy.PARTIAL, new Random(1))));
+        assertThrows(InsufficientQuestionsException.class,
+                () -> sampler.sample(List.of("Java", "Python"), mix(50, 30, 20), 10, ShortfallPolicy.FAIL, new Random(1)));
+    }
+
+    @Test
+    void stratifiedSampleDependsOnlyOnTheQuestionsAndTheSeed() {
+        QuestionSampler reversed = new QuestionSampler(null);
+        for (int id = 100; id >= 1; id--) {
+            reversed.index(question(id, id <= 60 ? "Java" : "Python"));
+        }
+
+        assertEquals(underTest.sample(List.of("Java", "Python"), null, 15, ShortfallPolicy.FAIL, new SplittableRandom(7)),
+                reversed.sample(List.of("Python", "Java"), null, 15, ShortfallPolicy.FAIL, new SplittableRandom(7)));
+    }
+
+    private static QuestionSampler stratifiedSampler(int easy, int medium, int hard) {
+        QuestionSampler sampler = new QuestionSampler(null);
+        int id = 0;
+        for (int[] level : new int[][]{{0, easy}, {1, medium}, {2, hard}}) {
+            for (int i = 0; i < level[1]; i++) {
+                id++;
+                Question question = question(level[0] * 1000 + id, id % 2 == 0 ? "Java" : "Python");
+                question.setDifficultyLevel(DIFFICULTY_LEVELS.get(level[0]));
+                sampler.index(question);
+            }
+        }
+        return sampler;
+    }
+
+    private static Map<String, Double> mix(double easy, double medium, double hard) {
+        Map<String, Double> mix = new LinkedHashMap<>();
+        mix.put("Easy", easy);
+        mix.put("Medium", medium);
+        mix.put("Hard", hard);
+        return mix;
+    }
+
+    private static List<Long> countsByDifficulty(List<Integer> ids) {
+        return IntStream.range(0, 3).mapToObj(level -> ids.stream().filter(id -> id / 1000 == level).count()).toList();
+    }
+
+    private static Question question(int id, String category) {
+        return new Question(id, "Question " + id, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", category, "Option 1");
+    }
+}
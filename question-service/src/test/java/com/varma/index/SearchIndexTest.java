@@ -0,0 +1,82 @@
+package com.varma.index;
+
+import com.varma.model.Question;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SearchIndexTest {
+
+    private SearchIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new SearchIndex();
+        underTest.index(question(1, "What is a Java interface?", "A class", "A contract", "A package", "A thread"));
+        underTest.index(question(2, "Which keyword creates an interface in Java?", "class", "interface", "enum", "record"));
+        underTest.index(question(3, "What does the JVM garbage collector do?", "Frees memory", "Compiles code", "Loads classes", "Nothing"));
+        underTest.index(question(4, "Which of these is a functional interface?", "Runnable", "Object", "String", "Thread"));
+        underTest.index(question(5, "What is polymorphism?", "Many forms", "An interface", "A loop", "A variable"));
+    }
+
+    @Test
+    void searchRanksQuestionTextAboveOptionsAndMoreWordsAboveFewer() {
+        SearchIndex.Page page = underTest.search("java interface", null, null, 10);
+
+        assertEquals(List.of(1, 2, 4, 5), page.ids());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void searchMatchesLongerWordsThroughTrigrams() {
+        assertEquals(List.of(3), underTest.search("collect", null, null, 10).ids());
+        assertEquals(List.of(5), underTest.search("POLYMORPH", null, null, 10).ids());
+    }
+
+    @Test
+    void searchAppliesTheFilter() {
+        RoaringBitmap filter = RoaringBitmap.bitmapOf(2, 5);
+
+        assertEquals(List.of(2, 5), underTest.search("interface", filter, null, 10).ids());
+    }
+
+    @Test
+    void searchPagesThroughEveryResultOnce() {
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            SearchIndex.Page page = underTest.search("java interface", null, cursor, 1);
+            seen.addAll(page.ids());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(1, 2, 4, 5), seen);
+    }
+
+    @Test
+    void searchReflectsUpdatesAndRemovals() {
+        underTest.index(question(3, "What is a Java record?", "A class", "A method", "A field", "A loop"));
+        underTest.remove(1);
+
+        assertEquals(List.of(3), underTest.search("record java", null, null, 1).ids());
+        assertEquals(List.of(), underTest.search("garbage", null, null, 10).ids());
+        assertEquals(List.of(2, 4, 5), underTest.search("interface", null, null, 10).ids());
+        assertEquals(4, underTest.size());
+    }
+
+    @Test
+    void searchRejectsAMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> underTest.search("java", null, "not-a-cursor", 10));
+    }
+
+    private static Question question(int id, String text, String... options) {
+        return new Question(id, text, options[0], options[1], options[2], options[3], "Easy", "Java", options[0]);
+    }
+}
@@ -0,0 +1,126 @@
+package com.varma.questionRepository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks against a real Postgres that the high-water mark of the change log never passes a change that is not committed
+ * yet, that it is read without locking the table when nothing was numbered since the last mark, and that installing the
+ * log again leaves the trigger in place without waiting for writers. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QuestionChangeLogTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private QuestionChangeLog underTest;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(POSTGRES.getJdbcUrl());
+        dataSource.setUsername(POSTGRES.getUsername());
+        dataSource.setPassword(POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS question, question_change");
+        jdbcTemplate.execute("""
+                CREATE TABLE question (
+                    id integer PRIMARY KEY,
+                    question varchar(255) NOT NULL,
+                    option1 varchar(255),
+                    option2 varchar(255),
+                    option3 varchar(255),
+                    option4 varchar(255),
+                    difficulty_level varchar(255) NOT NULL,
+                    category varchar(255) NOT NULL,
+                    correct_ans varchar(255) NOT NULL,
+                    content_hash varchar(64) UNIQUE,
+                    version bigint NOT NULL DEFAULT 0
+                )""");
+        underTest = new QuestionChangeLog();
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(underTest, "transactionManager", new DataSourceTransactionManager(dataSource));
+        underTest.install();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        dataSource.close();
+    }
+
+    @Test
+    void highWaterMarkWaitsForChangesNumberedBeforeIt() throws Exception {
+        try (Connection writer = dataSource.getConnection(); Statement statement = writer.createStatement()) {
+            writer.setAutoCommit(false);
+            statement.execute(insert(1));
+            jdbcTemplate.execute(insert(2));
+
+            Future<Long> highWaterMark = executor.submit(underTest::highWaterMark);
+            assertThrows(TimeoutException.class, () -> highWaterMark.get(300, TimeUnit.MILLISECONDS));
+            writer.commit();
+
+            assertEquals(2, highWaterMark.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(2, underTest.findChanges(0, 2, 10).size());
+    }
+
+    @Test
+    void highWaterMarkIsReadWithoutLockingWhenNothingWasNumbered() throws Exception {
+        jdbcTemplate.execute(insert(1));
+        assertEquals(1, underTest.highWaterMark());
+
+        try (Connection writer = dataSource.getConnection(); Statement statement = writer.createStatement()) {
+            writer.setAutoCommit(false);
+            statement.execute("LOCK TABLE question_change IN ROW EXCLUSIVE MODE");
+
+            assertEquals(1, executor.submit(underTest::highWaterMark).get(10, TimeUnit.SECONDS));
+            writer.rollback();
+        }
+    }
+
+    @Test
+    void installAgainNeitherWaitsForWritersNorLosesTheTrigger() throws Exception {
+        try (Connection writer = dataSource.getConnection(); Statement statement = writer.createStatement()) {
+            writer.setAutoCommit(false);
+            statement.execute(insert(1));
+
+            executor.submit(underTest::install).get(10, TimeUnit.SECONDS);
+            writer.commit();
+        }
+        jdbcTemplate.execute(insert(2));
+
+        assertEquals(2, underTest.findChanges(0, underTest.highWaterMark(), 10).size());
+    }
+
+    private static String insert(int id) {
+        return "INSERT INTO question (id, question, option1, option2, option3, option4, difficulty_level, category, correct_ans) "
+                + "VALUES (" + id + ", 'Question " + id + "', 'A', 'B', 'C', 'D', 'Easy', 'Java', 'A')";
+    }
+}
@@ -0,0 +1,160 @@
+package com.varma.questionRepository;
+
+import com.varma.model.Question;
+import com.varma.question.QuestionUpdate;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs many concurrent updaters against a real Postgres to check that the partial update detects and never loses
+ * concurrent edits. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QuestionJdbcRepositoryConcurrencyTest {
+
+    private static final int UPDATERS = 16;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private QuestionJdbcRepository underTest;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(POSTGRES.getJdbcUrl());
+        dataSource.setUsername(POSTGRES.getUsername());
+        dataSource.setPassword(POSTGRES.getPassword());
+        dataSource.setMaximumPoolSize(UPDATERS + 1);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS question");
+        jdbcTemplate.execute("""
+                CREATE TABLE question (
+                    id integer PRIMARY KEY,
+                    question varchar(255) NOT NULL,
+                    option1 varchar(255),
+                    option2 varchar(255),
+                    option3 varchar(255),
+                    option4 varchar(255),
+                    difficulty_level varchar(255) NOT NULL,
+                    category varchar(255) NOT NULL,
+                    correct_ans varchar(255) NOT NULL,
+                    content_hash varchar(64) UNIQUE,
+                    version bigint NOT NULL DEFAULT 0
+                )""");
+        jdbcTemplate.update("INSERT INTO question (id, question, option1, option2, option3, option4, difficulty_level, category, correct_ans) VALUES (1, '0', 'A', 'B', 'C', 'D', 'Easy', 'Java', 'A')");
+        underTest = new QuestionJdbcRepository();
+        ReflectionTestUtils.setField(underTest, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void versionedUpdatersRetryingOnConflictNeverLoseAnIncrement() throws Exception {
+        int incrementsEach = 10;
+        runConcurrently(updater -> () -> {
+            for (int i = 0; i < incrementsEach; i++) {
+                while (true) {
+                    Map<String, Object> current = jdbcTemplate.queryForMap("SELECT question, version FROM question WHERE id = 1");
+                    String next = String.valueOf(Integer.parseInt((String) current.get("question")) + 1);
+                    QuestionUpdate increment = new QuestionUpdate(next, null, null, null, null, null, null, null, (Long) current.get("version"));
+                    if (underTest.updateChangedFields(1, increment) != null) {
+                        break;
+                    }
+                }
+            }
+            return null;
+        });
+
+        Map<String, Object> result = jdbcTemplate.queryForMap("SELECT question, version FROM question WHERE id = 1");
+        assertEquals(String.valueOf(UPDATERS * incrementsEach), result.get("question"));
+        assertEquals((long) UPDATERS * incrementsEach, result.get("version"));
+    }
+
+    @Test
+    void onlyOneEditorOfTheSameVersionWins() throws Exception {
+        List<Question> results = runConcurrently(updater ->
+                () -> underTest.updateChangedFields(1, new QuestionUpdate(null, null, null, null, null, null, "Category " + updater, null, 0L)));
+
+        assertEquals(1, results.stream().filter(result -> result != null).count());
+        assertEquals(1L, underTest.findVersion(1));
+    }
+
+    @Test
+    void unversionedUpdatesOfDifferentFieldsAreAllKept() throws Exception {
+        int rounds = 20;
+        runConcurrently(updater -> () -> {
+            for (int round = 1; round <= rounds; round++) {
+                String value = updater + "-" + round;
+                QuestionUpdate update = switch (updater % 4) {
+                    case 0 -> new QuestionUpdate(null, value, null, null, null, null, null, null);
+                    case 1 -> new QuestionUpdate(null, null, value, null, null, null, null, null);
+                    case 2 -> new QuestionUpdate(null, null, null, value, null, null, null, null);
+                    default -> new QuestionUpdate(null, null, null, null, value, null, null, null);
+                };
+                assertTrue(underTest.updateChangedFields(1, update) != null);
+            }
+            return null;
+        });
+
+        assertEquals((long) UPDATERS * rounds, underTest.findVersion(1));
+        Map<String, Object> result = jdbcTemplate.queryForMap("SELECT option1, option2, option3, option4 FROM question WHERE id = 1");
+        for (int option = 1; option <= 4; option++) {
+            assertTrue(((String) result.get("option" + option)).endsWith("-" + rounds));
+        }
+    }
+
+    private <T> List<T> runConcurrently(UpdaterFactory<T> updaters) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(UPDATERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int updater = 0; updater < UPDATERS; updater++) {
+                Callable<T> task = updaters.create(updater);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface UpdaterFactory<T> {
+        Callable<T> create(int updater);
+    }
+}
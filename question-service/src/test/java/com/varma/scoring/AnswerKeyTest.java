@@ -0,0 +1,43 @@
+package com.varma.scoring;
+
+import com.varma.model.AnswerKeyEntry;
+import com.varma.model.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnswerKeyTest {
+
+    private final AnswerKey underTest = new AnswerKey();
+
+    @Test
+    void answersLoadedOnAMissAreKept() {
+        assertEquals(1, underTest.score(List.of(new Response(1, "A")), ids -> List.of(new AnswerKeyEntry(1, "A"))).score());
+
+        assertEquals(1, underTest.size());
+        assertEquals(1, underTest.score(List.of(new Response(1, "A")), ids -> List.of()).score());
+    }
+
+    @Test
+    void answersLoadedWhileAQuestionIsRemovedAreNotKept() {
+        underTest.score(List.of(new Response(1, "A")), ids -> {
+            underTest.remove(1);
+            return List.of(new AnswerKeyEntry(1, "A"));
+        });
+
+        assertEquals(0, underTest.size());
+        assertEquals(List.of(1), underTest.score(List.of(new Response(1, "A")), ids -> List.of()).unknownIds());
+    }
+
+    @Test
+    void answersLoadedWhileTheKeyIsClearedAreNotKept() {
+        underTest.score(List.of(new Response(1, "A")), ids -> {
+            underTest.clear();
+            return List.of(new AnswerKeyEntry(1, "A"));
+        });
+
+        assertEquals(0, underTest.size());
+    }
+}
@@ -0,0 +1,187 @@
+package com.varma.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.dedup.ContentHash;
+import com.varma.dedup.DuplicateFilter;
+import com.varma.dedup.NearDuplicateIndex;
+import com.varma.index.QuestionIndexMaintainer;
+import com.varma.model.Question;
+import com.varma.question.ImportReport;
+import com.varma.question.ImportRowResult;
+import com.varma.question.ImportStatus;
+import com.varma.question.QuestionRequest;
+import com.varma.questionRepository.QuestionJdbcRepository;
+import com.varma.questionRepository.QuestionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionImportServiceTest {
+
+    @InjectMocks
+    private QuestionImportService underTest;
+    @Mock
+    private QuestionRepository questionRepository;
+    @Mock
+    private QuestionJdbcRepository questionJdbcRepository;
+    @Mock
+    private QuestionIndexMaintainer questionIndexes;
+    @Spy
+    private DuplicateFilter duplicateFilter = new DuplicateFilter(10_000, 0.01);
+    @Spy
+    private NearDuplicateIndex nearDuplicateIndex = new NearDuplicateIndex(true, 0.8);
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void importQuestionsReportsEveryRow() {
+        //given
+        when(questionRepository.findExistingContentHashes(anyCollection())).thenReturn(List.of(ContentHash.of(request("Question 3"))));
+        when(questionJdbcRepository.nextIds(anyInt())).thenAnswer(invocation -> IntStream.rangeClosed(101, 100 + (int) invocation.getArgument(0)).boxed().toList());
+        //when
+        ImportReport report = underTest.importQuestions(List.of(
+                request("Question 1"),
+                request("Question 2"),
+                request(" QUESTION  1"),
+                request("Question 3"),
+                new QuestionRequest("Question 4", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", null, null)), false).getBody();
+        //then
+        assertEquals(List.of(
+                new ImportRowResult(1, ImportStatus.CREATED, 101, null),
+                new ImportRowResult(2, ImportStatus.CREATED, 102, null),
+                new ImportRowResult(3, ImportStatus.DUPLICATE, null, "Duplicate of row 1"),
+                new ImportRowResult(4, ImportStatus.DUPLICATE, null, "Question already exists"),
+                new ImportRowResult(5, ImportStatus.INVALID, null, "Missing required fields: category, correctAns")), report.rows());
+        assertEquals(2, report.created());
+        assertEquals(2, report.duplicates());
+        assertEquals(1, report.invalid());
+        verify(questionJdbcRepository, times(1)).nextIds(2);
+        verify(questionJdbcRepository, times(1)).insertAll(anyList());
+        verify(questionIndexes, times(2)).indexed(any(Question.class));
+    }
+
+    @Test
+    void importQuestionsReportsRowsStoredConcurrentlyAsDuplicates() {
+        //given
+        when(questionRepository.findExistingContentHashes(anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(ContentHash.of(request("Question 2"))));
+        when(questionJdbcRepository.nextIds(anyInt())).thenAnswer(invocation -> IntStream.rangeClosed(101, 100 + (int) invocation.getArgument(0)).boxed().toList());
+        doThrow(new DuplicateKeyException("question_content_hash_key")).doNothing().when(questionJdbcRepository).insertAll(anyList());
+        //when
+        ImportReport report = underTest.importQuestions(List.of(request("Question 1"), request("Question 2"), request("Question 3")), false).getBody();
+        //then
+        assertEquals(List.of(
+                new ImportRowResult(1, ImportStatus.CREATED, 101, null),
+                new ImportRowResult(2, ImportStatus.DUPLICATE, null, "Question already exists"),
+                new ImportRowResult(3, ImportStatus.CREATED, 102, null)), report.rows());
+        assertEquals(2, report.created());
+        assertEquals(1, report.duplicates());
+        verify(questionJdbcRepository, times(2)).insertAll(anyList());
+        verify(questionIndexes, times(2)).indexed(any(Question.class));
+    }
+
+    @Test
+    void importQuestionsUsesOneQueryPerChunk() {
+        //given
+        List<QuestionRequest> requests = IntStream.range(0, QuestionImportService.CHUNK_SIZE * 2 + 1).mapToObj(i -> request("Question " + i)).toList();
+        when(questionJdbcRepository.nextIds(anyInt())).thenAnswer(invocation -> IntStream.range(0, invocation.getArgument(0)).boxed().toList());
+        //when
+        ImportReport report = underTest.importQuestions(requests, false).getBody();
+        //then
+        assertEquals(requests.size(), report.created());
+        verify(questionRepository, times(3)).findExistingContentHashes(anyCollection());
+        verify(questionJdbcRepository, times(3)).insertAll(anyList());
+    }
+
+    @Test
+    void importQuestionsSkipsTheQueryWhenTheFilterRulesOutEveryRow() {
+        //given
+        when(questionIndexes.isReady()).thenReturn(true);
+        when(questionJdbcRepository.nextIds(anyInt())).thenAnswer(invocation -> IntStream.rangeClosed(1, invocation.getArgument(0)).boxed().toList());
+        //when
+        ImportReport report = underTest.importQuestions(List.of(request("Question 1"), request("Question 2")), false).getBody();
+        //then
+        assertEquals(2, report.created());
+        verify(questionRepository, never()).findExistingContentHashes(anyCollection());
+        verify(questionJdbcRepository).insertAll(argThat(questions -> questions.stream().allMatch(question -> question.getContentHash() != null)));
+    }
+
+    @Test
+    void importQuestionsFlagsProbableNearDuplicates() {
+        //given
+        nearDuplicateIndex.index(new Question(42, "Which keyword declares a constant field in the Java programming language today?",
+                "final", "const", "static", "var", "Easy", "Java", "final"));
+        when(questionJdbcRepository.nextIds(anyInt())).thenAnswer(invocation -> IntStream.rangeClosed(101, 100 + (int) invocation.getArgument(0)).boxed().toList());
+        //when
+        ImportReport report = underTest.importQuestions(List.of(
+                request("Which keyword declares a constant field in the Java programming language today?"),
+                request("Explain how the garbage collector decides which objects in the heap are still reachable"),
+                request("Explain how the garbage collector decides which objects in the heap are still reachable?"),
+                request("What is the default value of an int field")), true).getBody();
+        //then
+        assertEquals(List.of(
+                new ImportRowResult(1, ImportStatus.CREATED, 101, "Probable duplicate of question 42"),
+                new ImportRowResult(2, ImportStatus.CREATED, 102, null),
+                new ImportRowResult(3, ImportStatus.CREATED, 103, "Probable duplicate of row 2"),
+                new ImportRowResult(4, ImportStatus.CREATED, 104, null)), report.rows());
+    }
+
+    @Test
+    void importNdjsonSkipsRowsOfTheWrongShape() throws Exception {
+        //given
+        String ndjson = """
+                {"question":"Question 1","option1":"A","option2":"B","option3":"C","option4":"D","difficultyLevel":"Easy","category":"Java","correctAns":"A"}
+                {"question":["not","text"]}
+                {"question":"Question 2","option1":"A","option2":"B","option3":"C","option4":"D","difficultyLevel":"Easy","category":"Java","correctAns":"B"}
+                """;
+        when(questionJdbcRepository.nextIds(anyInt())).thenAnswer(invocation -> IntStream.rangeClosed(1, invocation.getArgument(0)).boxed().toList());
+        //when
+        ImportReport report = underTest.importNdjson(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), false).getBody();
+        //then
+        assertEquals(2, report.created());
+        assertEquals(1, report.invalid());
+        assertEquals(List.of(ImportStatus.CREATED, ImportStatus.INVALID, ImportStatus.CREATED), report.rows().stream().map(ImportRowResult::status).toList());
+    }
+
+    @Test
+    void importCsvReadsHeaderNamedColumns() throws Exception {
+        //given
+        String csv = """
+                question,option1,option2,option3,option4,difficultyLevel,category,correctAns
+                "What is 2 + 2, in decimal?",3,4,5,6,Easy,Maths,4
+                Which planet is red?,Venus,Mars,,,Easy,Science,
+                """;
+        when(questionJdbcRepository.nextIds(anyInt())).thenReturn(List.of(7));
+        //when
+        ImportReport report = underTest.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), false).getBody();
+        //then
+        assertEquals(List.of(
+                new ImportRowResult(1, ImportStatus.CREATED, 7, null),
+                new ImportRowResult(2, ImportStatus.INVALID, null, "Missing required fields: correctAns")), report.rows());
+        verify(questionJdbcRepository).insertAll(argThat(questions -> questions.get(0).getQuestion().equals("What is 2 + 2, in decimal?")));
+    }
+
+    private static QuestionRequest request(String question) {
+        return new QuestionRequest(question, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 1");
+    }
+}
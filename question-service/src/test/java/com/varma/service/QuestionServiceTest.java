@@ -1,21 +1,61 @@
 package com.varma.service;
 
+import com.varma.cache.QuestionCache;
+import com.varma.dedup.ContentHash;
+import com.varma.dedup.DuplicateFilter;
+import com.varma.exception.DuplicateException;
+import com.varma.exception.ResourceNotFoundException;
+import com.varma.exception.VersionConflictException;
+import com.varma.index.FacetIndex;
+import com.varma.index.QuestionIndexMaintainer;
+import com.varma.index.QuestionSampler;
+import com.varma.index.SearchIndex;
+import com.varma.model.AnswerKeyEntry;
 import com.varma.model.Question;
+import com.varma.model.QuestionWrapper;
+import com.varma.model.Response;
+import com.varma.model.ScoreReport;
+import com.varma.question.ChangeFeed;
+import com.varma.question.QuestionChange;
 import com.varma.question.QuestionRequest;
+import com.varma.question.QuestionUpdate;
+import com.varma.question.ShortfallPolicy;
 import com.varma.questionDAO.QuestionDAO;
+import com.varma.questionRepository.QuestionChangeLog;
+import com.varma.questionRepository.QuestionJdbcRepository;
 import com.varma.questionRepository.QuestionRepository;
+import com.varma.scoring.AnswerKey;
+import com.varma.snapshot.QuestionSnapshots;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 
@@ -27,7 +67,33 @@ class QuestionServiceTest {
         @Mock
         private QuestionRepository questionRepository;
         @Mock
+        private QuestionJdbcRepository questionJdbcRepository;
+        @Mock
         private QuestionDAO questionDAO;
+        @Mock
+        private QuestionIndexMaintainer questionIndexes;
+        @Spy
+        private QuestionCache questionCache = new QuestionCache(1000, Duration.ofMinutes(10));
+        @Spy
+        private QuestionSnapshots questionSnapshots = new QuestionSnapshots(false, Path.of("questions.snapshot"), Duration.ofDays(1), Duration.ofDays(7));
+        @Mock
+        private QuestionChangeLog questionChangeLog;
+        @Spy
+        private DuplicateFilter duplicateFilter = new DuplicateFilter(1000, 0.01);
+        @Spy
+        private AnswerKey answerKey = new AnswerKey();
+        @Spy
+        private QuestionSampler questionSampler = new QuestionSampler(42L);
+        @Spy
+        private FacetIndex facetIndex = new FacetIndex();
+        @Spy
+        private SearchIndex searchIndex = new SearchIndex();
+        @Mock
+        private PlatformTransactionManager transactionManager;
+        @Spy
+        private ObjectMapper objectMapper = new ObjectMapper();
+        @Mock
+        private EntityManager entityManager;
         private  AutoCloseable autoCloseable;
 
         @Mock
@@ -64,6 +130,55 @@ class QuestionServiceTest {
                assertEquals(questions,response.getBody());
         }
 
+        @Test
+        void getQuestionsPageReturnsTheCursorOfTheNextPage() {
+            //given
+            List<Question> page = List.of(
+                    new Question(11, "Question 11", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 1"),
+                    new Question(14, "Question 14", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 1"));
+            when(questionRepository.findByCategoryAndIdGreaterThanOrderByIdAsc("Java", 10, PageRequest.ofSize(2))).thenReturn(page);
+            //when
+            ResponseEntity<List<Question>> response = underTest.getQuestionsPage("Java", null, 10, 2);
+            //then
+            assertEquals(page, response.getBody());
+            assertEquals("14", response.getHeaders().getFirst(QuestionService.NEXT_CURSOR_HEADER));
+        }
+
+        @Test
+        void streamQuestionsWritesOneJsonObjectPerLine() throws Exception {
+            //given
+            when(questionRepository.streamByDifficultyLevelOrderByIdAsc("Easy")).thenReturn(Stream.of(
+                    new Question(1, "Question 1", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 1"),
+                    new Question(2, "Question 2", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 2")));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            //when
+            underTest.streamQuestions(null, "Easy").getBody().writeTo(out);
+            //then
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertEquals(2, lines.length);
+            assertEquals(2, objectMapper.readValue(lines[1], Question.class).getId());
+            verify(entityManager, times(2)).detach(any(Question.class));
+        }
+
+        @Test
+        void streamQuestionsFlushesEveryFlushIntervalRowsOnly() throws Exception {
+            //given
+            int rows = 2 * QuestionService.STREAM_FLUSH_INTERVAL + 200;
+            when(questionRepository.streamAllByOrderByIdAsc()).thenReturn(IntStream.rangeClosed(1, rows).mapToObj(id ->
+                    new Question(id, "Question " + id, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 1")));
+            List<Long> rowsAtFlush = new ArrayList<>();
+            ByteArrayOutputStream out = new ByteArrayOutputStream() {
+                @Override
+                public void flush() {
+                    rowsAtFlush.add(toString(StandardCharsets.UTF_8).chars().filter(c -> c == '\n').count());
+                }
+            };
+            //when
+            underTest.streamQuestions(null, null).getBody().writeTo(out);
+            //then
+            assertEquals(List.of((long) QuestionService.STREAM_FLUSH_INTERVAL, 2L * QuestionService.STREAM_FLUSH_INTERVAL, (long) rows), rowsAtFlush);
+        }
+
         @Test
         void getQuestionsBasedOnTheCategory() {
                //given
@@ -92,7 +207,7 @@ class QuestionServiceTest {
                     "Paris"
             );
                 //when
-                when(questionRepository.existsByQuestion(questionRequest.question())).thenReturn(false);
+                when(questionRepository.existsByContentHash(ContentHash.of(questionRequest))).thenReturn(false);
                 underTest.addQuestion(questionRequest);
                 //then
                 verify(questionRepository, times(1)).save(argThat(question ->
@@ -106,6 +221,31 @@ class QuestionServiceTest {
                 ));
         }
 
+        @Test
+        void addQuestionRejectsAReformattedCopy() {
+                //given
+                when(questionIndexes.isReady()).thenReturn(true);
+                duplicateFilter.put(ContentHash.of("What is the capital of France?", "Paris", "London", "Berlin", "Madrid"));
+                QuestionRequest questionRequest = new QuestionRequest("what is the  capital of FRANCE? ", "Madrid", "Berlin", "London", "Paris", "Easy", "Geography", "Paris");
+                when(questionRepository.existsByContentHash(ContentHash.of(questionRequest))).thenReturn(true);
+                //when
+                //then
+                assertThrows(DuplicateException.class, () -> underTest.addQuestion(questionRequest));
+                verify(questionRepository, never()).save(any());
+        }
+
+        @Test
+        void addQuestionSkipsTheQueryWhenTheFilterRulesItOut() {
+                //given
+                when(questionIndexes.isReady()).thenReturn(true);
+                QuestionRequest questionRequest = new QuestionRequest("What is 2 + 2?", "3", "4", "5", "6", "Easy", "Maths", "4");
+                //when
+                underTest.addQuestion(questionRequest);
+                //then
+                verify(questionRepository, never()).existsByContentHash(anyString());
+                verify(questionRepository).save(any(Question.class));
+        }
+
         @Test
         void getQuestionBasedOnTheDifficultyLevel() {
             // Arrange
@@ -127,6 +267,37 @@ class QuestionServiceTest {
 
         @Test
         void getQuestionsBasedOnTheCategoryAndDifficultyLevel() {
+            //given
+            List<Question> questions = List.of(
+                    new Question(1, "Question 1", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 1"),
+                    new Question(2, "Question 2", "Option 1", "Option 2", "Option 3", "Option 4", "Hard", "Java", "Option 1"),
+                    new Question(3, "Question 3", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Python", "Option 1"),
+                    new Question(4, "Question 4", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 1"));
+            questions.forEach(facetIndex::index);
+            when(questionIndexes.isReady()).thenReturn(true);
+            when(questionRepository.findAllById(List.of(1, 4))).thenReturn(List.of(questions.get(3), questions.get(0)));
+            //when
+            ResponseEntity<List<Question>> response = underTest.getQuestionsBasedOnTheCategoryAndDifficultyLevel("Java", "Easy");
+            //then
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(List.of(questions.get(0), questions.get(3)), response.getBody());
+            verify(questionRepository, never()).findQuestionByCategoryAndDifficultyLevel(any(), any());
+        }
+
+        @Test
+        void getFacetCounts() {
+            //given
+            facetIndex.index(new Question(1, "Question 1", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 1"));
+            facetIndex.index(new Question(2, "Question 2", "Option 1", "Option 2", "Option 3", "Option 4", "Hard", "Java", "Option 1"));
+            facetIndex.index(new Question(3, "Question 3", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 1"));
+            facetIndex.index(new Question(3, "Question 3", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Python", "Option 1"));
+            facetIndex.remove(2);
+            when(questionIndexes.isReady()).thenReturn(true);
+            //when
+            ResponseEntity<Map<String, Map<String, Integer>>> response = underTest.getFacetCounts();
+            //then
+            assertEquals(Map.of("Java", Map.of("Easy", 1), "Python", Map.of("Easy", 1)), response.getBody());
+            verifyNoInteractions(questionRepository);
         }
 
         @Test
@@ -134,22 +305,321 @@ class QuestionServiceTest {
         }
 
         @Test
-        void updateQuestion() {
+        void updateQuestion() throws Exception {
+            //given
+            QuestionUpdate questionUpdate = new QuestionUpdate(null, null, null, null, null, "Hard", null, null, 4L);
+            Question updated = question(1);
+            updated.setDifficultyLevel("Hard");
+            updated.setVersion(5L);
+            when(questionJdbcRepository.updateChangedFields(1, questionUpdate)).thenReturn(updated);
+            //when
+            underTest.updateQuestion(1, questionUpdate);
+            //then
+            verify(questionJdbcRepository, never()).updateContentHash(anyInt(), anyString());
+            verify(questionIndexes).indexed(updated);
+        }
+
+        @Test
+        void updateQuestionStoresTheNewContentHash() throws Exception {
+            //given
+            QuestionUpdate questionUpdate = new QuestionUpdate("Question 1, reworded", null, null, null, null, null, null, null);
+            Question updated = question(1);
+            updated.setQuestion("Question 1, reworded");
+            updated.setContentHash(ContentHash.of(question(1)));
+            when(questionJdbcRepository.updateChangedFields(1, questionUpdate)).thenReturn(updated);
+            //when
+            underTest.updateQuestion(1, questionUpdate);
+            //then
+            verify(questionJdbcRepository).updateContentHash(1, ContentHash.of(updated));
+            assertEquals(ContentHash.of(updated), updated.getContentHash());
+        }
+
+        @Test
+        void updateQuestionWithoutChanges() {
+            //given
+            QuestionUpdate questionUpdate = new QuestionUpdate("Question 1", null, null, null, null, null, null, null);
+            when(questionJdbcRepository.findVersion(1)).thenReturn(2L);
+            //when
+            Exception exception = assertThrows(Exception.class, () -> underTest.updateQuestion(1, questionUpdate));
+            //then
+            assertEquals("No changes found", exception.getMessage());
+            verifyNoInteractions(questionIndexes);
+        }
+
+        @Test
+        void updateQuestionWhenQuestionIsMissing() {
+            //given
+            QuestionUpdate questionUpdate = new QuestionUpdate("Question 1", null, null, null, null, null, null, null);
+            when(questionJdbcRepository.findVersion(1)).thenReturn(null);
+            //when
+            //then
+            assertThrows(ResourceNotFoundException.class, () -> underTest.updateQuestion(1, questionUpdate));
+        }
+
+        @Test
+        void updateQuestionWhenVersionIsStale() {
+            //given
+            QuestionUpdate questionUpdate = new QuestionUpdate(null, null, null, null, null, "Hard", null, null, 1L);
+            when(questionJdbcRepository.findVersion(1)).thenReturn(2L);
+            //when
+            //then
+            assertThrows(VersionConflictException.class, () -> underTest.updateQuestion(1, questionUpdate));
         }
 
         @Test
         void findRandomQuestionsByCategory() {
+            //given
+            when(questionIndexes.isReady()).thenReturn(false);
+            when(questionRepository.findRandomQuestionsByCategory("Java", 2)).thenReturn(List.of(4, 2));
+            //when
+            List<Integer> ids = underTest.findRandomQuestionsByCategory("Java", 2);
+            //then
+            assertEquals(List.of(4, 2), ids);
+            verifyNoInteractions(questionSampler);
         }
 
         @Test
         void getQuestionsForQuiz() {
+            //given
+            when(questionIndexes.isReady()).thenReturn(true);
+            for (int id = 1; id <= 5; id++) {
+                questionSampler.index(new Question(id, "Question " + id, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", id % 2 == 0 ? "Java" : "Python", "Option 1"));
+            }
+            //when
+            ResponseEntity<List<Integer>> response = underTest.getQuestionsForQuiz("Java", 5);
+            //then
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(Set.of(2, 4), Set.copyOf(response.getBody()));
+            verify(questionRepository, never()).findRandomQuestionsByCategory(any(), any());
+        }
+
+        @Test
+        void getQuestionsForQuizDrawsTheDifficultyMixFromTheDatabaseUntilTheIndexesAreReady() {
+            //given
+            when(questionRepository.findIdsByCategoryInAndDifficultyLevel(List.of("Java", "Python"), "Easy")).thenReturn(List.of(1, 2, 3, 4, 5, 6));
+            when(questionRepository.findIdsByCategoryInAndDifficultyLevel(List.of("Java", "Python"), "Hard")).thenReturn(List.of(7));
+            //when
+            ResponseEntity<List<Integer>> response = underTest.getQuestionsForQuiz(List.of("Java", "Python", "Java"), 5, List.of("Easy:60", "Hard:40"), 42L, ShortfallPolicy.PARTIAL);
+            //then
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(4, response.getBody().size());
+            assertTrue(response.getBody().contains(7));
+            assertEquals("42", response.getHeaders().getFirst(QuestionService.SAMPLE_SEED_HEADER));
+            assertEquals("1", response.getHeaders().getFirst(QuestionService.SHORTFALL_HEADER));
+            assertEquals(response.getBody(), underTest.getQuestionsForQuiz(List.of("Java", "Python"), 5, List.of("Easy:60", "Hard:40"), 42L, ShortfallPolicy.PARTIAL).getBody());
+            verify(questionRepository, never()).findRandomQuestionsByCategory(any(), any());
+        }
+
+        @Test
+        void getQuestionsForQuizRejectsAMalformedDifficultyMix() {
+            //when
+            ResponseEntity<List<Integer>> response = underTest.getQuestionsForQuiz(List.of("Java"), 5, List.of("Easy:-1"), null, null);
+            //then
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            verifyNoInteractions(questionRepository);
         }
 
         @Test
         void getQuestionsFromId() {
+            //given
+            List<Integer> ids = List.of(3, 1, 3, 2);
+            when(questionRepository.findQuestionWrappersByIdIn(anyCollection())).thenAnswer(invocation -> wrappersFor(invocation.getArgument(0)));
+            //when
+            ResponseEntity<List<QuestionWrapper>> response = underTest.getQuestionsFromId(ids);
+            //then
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(List.of(3, 1, 3, 2), response.getBody().stream().map(QuestionWrapper::id).toList());
+            assertEquals(wrapper(3), response.getBody().get(0));
+            verify(questionRepository, times(1)).findQuestionWrappersByIdIn(List.of(3, 1, 2));
+            verify(questionRepository, never()).findAllById(any());
+            verify(questionRepository, never()).findById(any());
+        }
+
+        @Test
+        void getQuestionsFromIdWhenIdIsMissing() {
+            //given
+            when(questionRepository.findQuestionWrappersByIdIn(anyCollection())).thenReturn(wrappersFor(List.of(1)));
+            //when
+            ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                    () -> underTest.getQuestionsFromId(List.of(1, 7, 8)));
+            //then
+            assertEquals("Questions not found with IDs: [7, 8]", exception.getMessage());
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {1, 50, 1000})
+        void getQuestionsFromIdIssuesOneQueryRegardlessOfSize(int size) {
+            //given
+            List<Integer> ids = IntStream.rangeClosed(1, size).boxed().toList();
+            when(questionRepository.findQuestionWrappersByIdIn(anyCollection())).thenAnswer(invocation -> wrappersFor(invocation.getArgument(0)));
+            //when
+            ResponseEntity<List<QuestionWrapper>> response = underTest.getQuestionsFromId(ids);
+            //then
+            assertEquals(size, response.getBody().size());
+            verify(questionRepository, times(1)).findQuestionWrappersByIdIn(anyCollection());
+            verifyNoMoreInteractions(questionRepository);
+        }
+
+        @Test
+        void getQuestionsFromIdServesRepeatedReadsFromTheCache() {
+            //given
+            when(questionRepository.findQuestionWrappersByIdIn(anyCollection())).thenAnswer(invocation -> wrappersFor(invocation.getArgument(0)));
+            underTest.getQuestionsFromId(List.of(1, 2));
+            //when
+            ResponseEntity<List<QuestionWrapper>> response = underTest.getQuestionsFromId(List.of(2, 1, 3));
+            //then
+            assertEquals(List.of(2, 1, 3), response.getBody().stream().map(QuestionWrapper::id).toList());
+            verify(questionRepository, times(1)).findQuestionWrappersByIdIn(List.of(1, 2));
+            verify(questionRepository, times(1)).findQuestionWrappersByIdIn(List.of(3));
+        }
+
+        @Test
+        void getQuestionsFromIdWrapsQuestionsCachedWithTheirAnswers() {
+            //given
+            when(questionRepository.findAllById(anyIterable())).thenAnswer(invocation -> questionsFor(invocation.getArgument(0)));
+            underTest.getAnswerKey(List.of(1, 2));
+            //when
+            ResponseEntity<List<QuestionWrapper>> response = underTest.getQuestionsFromId(List.of(2, 1));
+            //then
+            assertEquals(List.of(wrapper(2), wrapper(1)), response.getBody());
+            verify(questionRepository, never()).findQuestionWrappersByIdIn(any());
+        }
+
+        @Test
+        void updateQuestionInvalidatesTheCachedQuestion() throws Exception {
+            //given
+            when(questionRepository.findQuestionWrappersByIdIn(anyCollection())).thenReturn(List.of(wrapper(1)));
+            underTest.getQuestionsFromId(List.of(1));
+            QuestionUpdate questionUpdate = new QuestionUpdate(null, null, null, null, null, null, "Category 2", null);
+            when(questionJdbcRepository.updateChangedFields(1, questionUpdate)).thenReturn(question(1));
+            //when
+            underTest.updateQuestion(1, questionUpdate);
+            //then
+            verify(questionCache).invalidate(1);
+            assertEquals(Map.of(), questionCache.getAllWrappers(List.of(1), ids -> List.of()));
+        }
+
+        private static List<QuestionWrapper> wrappersFor(Iterable<Integer> ids) {
+            List<QuestionWrapper> wrappers = new ArrayList<>();
+            ids.forEach(id -> wrappers.add(wrapper(id)));
+            return wrappers;
+        }
+
+        private static List<Question> questionsFor(Iterable<Integer> ids) {
+            List<Question> questions = new ArrayList<>();
+            ids.forEach(id -> questions.add(question(id)));
+            return questions;
+        }
+
+        private static Question question(Integer id) {
+            return new Question(id, "Question " + id, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Category 1", "Option " + ((id - 1) % 4 + 1));
+        }
+
+        private static QuestionWrapper wrapper(Integer id) {
+            return new QuestionWrapper(id, "Question " + id, "Option 1", "Option 2", "Option 3", "Option 4");
+        }
+
+        @Test
+        void searchQuestionsFiltersAndReturnsTheNextCursor() {
+            //given
+            when(questionIndexes.isReady()).thenReturn(true);
+            for (int id = 1; id <= 4; id++) {
+                Question question = new Question(id, "Java question " + id, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", id == 3 ? "Python" : "Java", "Option 1");
+                facetIndex.index(question);
+                searchIndex.index(question);
+            }
+            when(questionRepository.findQuestionWrappersByIdIn(anyCollection())).thenAnswer(invocation -> wrappersFor(invocation.getArgument(0)));
+            //when
+            ResponseEntity<List<QuestionWrapper>> response = underTest.searchQuestions("java", "Java", null, null, 2);
+            //then
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(List.of(1, 2), response.getBody().stream().map(QuestionWrapper::id).toList());
+            String cursor = response.getHeaders().getFirst(QuestionService.NEXT_CURSOR_HEADER);
+            assertEquals(List.of(4), underTest.searchQuestions("java", "Java", null, cursor, 2).getBody().stream().map(QuestionWrapper::id).toList());
+        }
+
+        @Test
+        void searchQuestionsIsUnavailableUntilTheIndexIsBuilt() {
+            //given
+            when(questionIndexes.isReady()).thenReturn(false);
+            //when
+            ResponseEntity<List<QuestionWrapper>> response = underTest.searchQuestions("java", null, null, null, 20);
+            //then
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+            verifyNoInteractions(searchIndex);
         }
 
         @Test
         void getScore() {
+            //given
+            List<Response> responses = List.of(new Response(1, "Option 1"), new Response(2, "Option 1"), new Response(3, "Option 3"));
+            when(questionRepository.findAllById(anyIterable())).thenAnswer(invocation -> questionsFor(invocation.getArgument(0)));
+            //when
+            ResponseEntity<Integer> first = underTest.getScore(responses);
+            ResponseEntity<Integer> second = underTest.getScore(responses);
+            //then
+            assertEquals(HttpStatus.OK, first.getStatusCode());
+            assertEquals(2, first.getBody());
+            assertEquals(2, second.getBody());
+            verify(questionRepository, times(1)).findAllById(List.of(1, 2, 3));
+            verify(questionRepository, never()).findById(any());
+        }
+
+        @Test
+        void getScoreReportListsUnansweredAndUnknownQuestions() {
+            //given
+            answerKey.index(new Question(1, "Question 1", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Category 1", "Option 1"));
+            answerKey.index(new Question(2, "Question 2", "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Category 1", "Option 2"));
+            when(questionRepository.findAllById(List.of(9))).thenReturn(List.of());
+            //when
+            ScoreReport report = underTest.getScoreReport(List.of(new Response(1, "Option 1"), new Response(2, null), new Response(9, "Option 1"))).getBody();
+            //then
+            assertEquals(new ScoreReport(1, List.of(2), List.of(9)), report);
+        }
+
+        @Test
+        void getChangesPagesUpToTheHighWaterMark() {
+            //given
+            when(questionChangeLog.lastSequence()).thenReturn(12L);
+            when(questionChangeLog.highWaterMark()).thenReturn(12L);
+            when(questionChangeLog.retainsChangesAfter(anyLong(), eq(12L))).thenReturn(true);
+            when(questionChangeLog.findChanges(5, 12, 2)).thenReturn(List.of(new QuestionChange(6, 1, question(1)), new QuestionChange(8, 2, null)));
+            when(questionChangeLog.findChanges(8, 12, 2)).thenReturn(List.of(new QuestionChange(12, 3, question(3))));
+            //when
+            ChangeFeed first = underTest.getChanges(5L, 2, 0).getBody();
+            ChangeFeed second = underTest.getChanges(first.nextSequence(), 2, 0).getBody();
+            ChangeFeed caughtUp = underTest.getChanges(second.nextSequence(), 2, 0).getBody();
+            //then
+            assertEquals(8, first.nextSequence());
+            assertEquals(List.of(new QuestionChange(12, 3, question(3))), second.changes());
+            assertEquals(12, second.nextSequence());
+            assertEquals(new ChangeFeed(List.of(), 12, 12), caughtUp);
+            verify(questionChangeLog, times(2)).findChanges(anyLong(), anyLong(), anyInt());
+        }
+
+        @Test
+        void getChangesIsGoneWhenTheChangesWerePruned() {
+            //given
+            when(questionChangeLog.lastSequence()).thenReturn(40L);
+            when(questionChangeLog.highWaterMark()).thenReturn(40L);
+            when(questionChangeLog.retainsChangesAfter(3, 40)).thenReturn(false);
+            //when
+            ResponseEntity<ChangeFeed> response = underTest.getChanges(3L, 100, 0);
+            //then
+            assertEquals(HttpStatus.GONE, response.getStatusCode());
+            verify(questionChangeLog, never()).findChanges(anyLong(), anyLong(), anyInt());
+        }
+
+        @Test
+        void getAnswerKeyFollowsTheOrderOfTheIds() {
+            //given
+            when(questionRepository.findAllById(anyIterable())).thenAnswer(invocation -> questionsFor(invocation.getArgument(0)));
+            //when
+            ResponseEntity<List<AnswerKeyEntry>> response = underTest.getAnswerKey(List.of(3, 1, 6));
+            //then
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(List.of(new AnswerKeyEntry(3, "Option 3"), new AnswerKeyEntry(1, "Option 1"), new AnswerKeyEntry(6, "Option 2")), response.getBody());
+            when(questionRepository.findAllById(List.of(9))).thenReturn(List.of());
+            assertThrows(ResourceNotFoundException.class, () -> underTest.getAnswerKey(List.of(9)));
         }
-}
\ No newline at end of file
+}
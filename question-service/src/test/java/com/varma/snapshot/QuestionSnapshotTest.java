@@ -0,0 +1,104 @@
+package com.varma.snapshot;
+
+import com.varma.model.Question;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuestionSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotRoundTripsQuestions() throws IOException {
+        Path path = directory.resolve("questions.snapshot");
+        Question withNulls = new Question(7, "Qu'est-ce que la « JVM » ?", "Une machine", null, "Un café ☕", null, "Easy", "Java", "Une machine");
+        try (QuestionSnapshotWriter writer = new QuestionSnapshotWriter(path)) {
+            writer.add(question(3));
+            writer.add(withNulls);
+            writer.add(question(12));
+            writer.commit(42);
+        }
+
+        QuestionSnapshot snapshot = QuestionSnapshot.open(path);
+
+        assertEquals(42, snapshot.highWaterMark());
+        assertEquals(3, snapshot.size());
+        assertEquals(withNulls, snapshot.find(7));
+        assertEquals(question(12), snapshot.find(12));
+        assertNull(snapshot.find(8));
+        List<Integer> ids = new ArrayList<>();
+        snapshot.forEach(question -> ids.add(question.getId()));
+        assertEquals(List.of(3, 7, 12), ids);
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(path), files.toList());
+        }
+    }
+
+    @Test
+    void corruptOrTruncatedSnapshotIsRejected() throws IOException {
+        Path path = directory.resolve("questions.snapshot");
+        try (QuestionSnapshotWriter writer = new QuestionSnapshotWriter(path)) {
+            writer.add(question(1));
+            writer.add(question(2));
+            writer.commit(5);
+        }
+        byte[] original = Files.readAllBytes(path);
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(QuestionSnapshot.HEADER_SIZE + 3);
+            file.write(original[QuestionSnapshot.HEADER_SIZE + 3] ^ 1);
+        }
+        assertThrows(InvalidSnapshotException.class, () -> QuestionSnapshot.open(path));
+
+        Files.write(path, Arrays.copyOf(original, original.length - 1));
+        assertThrows(InvalidSnapshotException.class, () -> QuestionSnapshot.open(path));
+    }
+
+    @Test
+    void readsSkipQuestionsChangedAfterTheSnapshot() throws IOException {
+        Path path = directory.resolve("questions.snapshot");
+        try (QuestionSnapshotWriter writer = new QuestionSnapshotWriter(path)) {
+            writer.add(question(1));
+            writer.add(question(2));
+            writer.add(question(3));
+            writer.commit(5);
+        }
+        QuestionSnapshots snapshots = new QuestionSnapshots(true, path, Duration.ofDays(1), Duration.ofDays(7));
+        List<Integer> fromDatabase = new ArrayList<>();
+
+        snapshots.serve(QuestionSnapshot.open(path), List.of(2));
+        snapshots.invalidate(3);
+        snapshots.findAllById(List.of(1, 2, 3, 4), ids -> {
+            fromDatabase.addAll(ids);
+            return List.of();
+        });
+        snapshots.stopServing();
+        snapshots.findAllById(List.of(1), ids -> {
+            fromDatabase.addAll(ids);
+            return List.of();
+        });
+
+        assertEquals(List.of(2, 3, 4, 1), fromDatabase);
+    }
+
+    private static Question question(int id) {
+        Question question = new Question(id, "Question " + id, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "Java", "Option 1");
+        question.setContentHash("hash" + id);
+        question.setVersion((long) id);
+        return question;
+    }
+}
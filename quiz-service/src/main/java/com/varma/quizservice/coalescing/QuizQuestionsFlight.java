@@ -0,0 +1,50 @@
+package com.varma.quizservice.coalescing;
+
+import com.varma.quizservice.model.QuestionWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The QuizQuestionsFlight class coalesces the concurrent loads of the questions of the same quiz, so that a class
+ * opening a quiz at once costs one load. How long callers wait is set with {@code quiz.questions.load-timeout}, and
+ * how long and how many loaded question lists are kept with {@code quiz.questions.cache-ttl} and
+ * {@code quiz.questions.cache-size}. Its metrics are published under {@code quiz.questions}.
+ */
+@Component
+public class QuizQuestionsFlight extends SingleFlight<Integer, List<QuestionWrapper>> {
+
+    /**
+     * Constructs the single-flight group of quiz questions.
+     *
+     * @param timeout    how long a caller waits for the questions of a quiz
+     * @param resultTtl  how long loaded questions are kept, zero to keep none
+     * @param maxResults the largest number of quizzes whose questions are kept
+     */
+    public QuizQuestionsFlight(Duration timeout, Duration resultTtl, long maxResults) {
+        this(timeout, resultTtl, maxResults, false, DEFAULT_MAX_LOADS);
+    }
+
+    /**
+     * Constructs the single-flight group of quiz questions, loading them on virtual threads when requests are served
+     * on virtual threads, and otherwise on at most as many platform threads as calls to question-service may be in
+     * flight.
+     *
+     * @param timeout        how long a caller waits for the questions of a quiz
+     * @param resultTtl      how long loaded questions are kept, zero to keep none
+     * @param maxResults     the largest number of quizzes whose questions are kept
+     * @param virtualThreads whether the loads run on virtual threads
+     * @param maxLoads       the largest number of loads running at once on platform threads
+     */
+    @Autowired
+    public QuizQuestionsFlight(@Value("${quiz.questions.load-timeout:5s}") Duration timeout,
+                               @Value("${quiz.questions.cache-ttl:2s}") Duration resultTtl,
+                               @Value("${quiz.questions.cache-size:1000}") long maxResults,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                               @Value("${question.client.max-concurrent-calls:64}") int maxLoads) {
+        super("quiz.questions", timeout, resultTtl, maxResults, virtualThreads, maxLoads);
+    }
+}
@@ -0,0 +1,279 @@
+package com.varma.quizservice.coalescing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.varma.quizservice.exception.ServiceUnavailableException;
+import com.varma.quizservice.threads.WorkerThreads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The SingleFlight class coalesces concurrent loads of the same key: the first caller starts the load and every caller
+ * arriving while it runs waits for the same load instead of starting its own. The result, or the failure, is handed
+ * to all of them. A result may then be kept for a short time, so that callers arriving just after a load completes
+ * are answered from it as well.
+ * <p>
+ * Loads run on their own threads and every caller, the one that started the load included, waits for at most the
+ * load timeout before it fails with a {@link ServiceUnavailableException}. A load that outlives its callers keeps
+ * running, and callers arriving meanwhile wait for it rather than starting another. Without virtual threads the loads
+ * running at once are bounded, and a caller that would start one more fails at once instead. The callers are counted in the
+ * {@code <name>.requests} metric by {@code source}: {@code originating} if they started a load, {@code coalesced} if
+ * they joined one and {@code cached} if they were answered from a kept result; the loads are timed as
+ * {@code <name>.load} and the callers that gave up counted as {@code <name>.timeouts}.
+ * <p>
+ * Non-blocking callers use {@link #getAsync} instead, whose loader starts the load and returns its completion rather
+ * than running on a load thread. Both kinds of callers share the loads in flight, the kept results and the metrics.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the loaded values
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    /**
+     * The largest number of loads running at once on platform threads, unless set otherwise.
+     */
+    public static final int DEFAULT_MAX_LOADS = 64;
+
+    private final String name;
+
+    private final Duration timeout;
+
+    private final Cache<K, V> results;
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+
+    private final LongAdder originating = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder cached = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * Constructs a single-flight group.
+     *
+     * @param name       the name of the group, which prefixes its metrics and names its threads
+     * @param timeout    how long a caller waits for a load
+     * @param resultTtl  how long a result is kept after its load completed, zero to keep none
+     * @param maxResults the largest number of results kept
+     */
+    public SingleFlight(String name, Duration timeout, Duration resultTtl, long maxResults) {
+        this(name, timeout, resultTtl, maxResults, false, DEFAULT_MAX_LOADS);
+    }
+
+    /**
+     * Constructs a single-flight group whose loads may run on virtual threads.
+     *
+     * @param name           the name of the group, which prefixes its metrics and names its threads
+     * @param timeout        how long a caller waits for a load
+     * @param resultTtl      how long a result is kept after its load completed, zero to keep none
+     * @param maxResults     the largest number of results kept
+     * @param virtualThreads whether the loads run on virtual threads
+     * @param maxLoads       the largest number of loads running at once on platform threads; callers starting a load
+     *                       above it fail at once with a {@link ServiceUnavailableException}
+     */
+    public SingleFlight(String name, Duration timeout, Duration resultTtl, long maxResults, boolean virtualThreads, int maxLoads) {
+        this.name = name;
+        this.timeout = timeout;
+        this.results = resultTtl.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(resultTtl)
+                .maximumSize(maxResults)
+                .build();
+        this.executor = WorkerThreads.newExecutor(name + "-load-", virtualThreads, maxLoads);
+    }
+
+    /**
+     * Returns the value of a key, from a kept result, from the load in flight for the key, or from a new load.
+     *
+     * @param key    the key
+     * @param loader loads the value of the key
+     * @return the value
+     * @throws ServiceUnavailableException if the load did not complete within the timeout
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        if (results != null) {
+            V result = results.getIfPresent(key);
+            if (result != null) {
+                cached.increment();
+                return result;
+            }
+        }
+        CompletableFuture<V> load = inFlight.get(key);
+        if (load == null) {
+            CompletableFuture<V> started = new CompletableFuture<>();
+            load = inFlight.putIfAbsent(key, started);
+            if (load == null) {
+                load = started;
+                originating.increment();
+                try {
+                    executor.execute(() -> run(key, loader, started));
+                } catch (RejectedExecutionException e) {
+                    ServiceUnavailableException refused = new ServiceUnavailableException("Too many loads of %s are running".formatted(name));
+                    inFlight.remove(key, started);
+                    started.completeExceptionally(refused);
+                    throw refused;
+                }
+                return await(key, load);
+            }
+        }
+        coalesced.increment();
+        return await(key, load);
+    }
+
+    /**
+     * Returns the value of a key without blocking, from a kept result, from the load in flight for the key, or from a
+     * new load started by the loader on the calling thread.
+     *
+     * @param key    the key
+     * @param loader starts loading the value of the key and returns its completion
+     * @return the completion of the value, which fails with a {@link ServiceUnavailableException} if the load did not
+     * complete within the timeout
+     */
+    public CompletableFuture<V> getAsync(K key, Function<? super K, ? extends CompletionStage<? extends V>> loader) {
+        if (results != null) {
+            V result = results.getIfPresent(key);
+            if (result != null) {
+                cached.increment();
+                return CompletableFuture.completedFuture(result);
+            }
+        }
+        CompletableFuture<V> load = inFlight.get(key);
+        if (load == null) {
+            CompletableFuture<V> started = new CompletableFuture<>();
+            load = inFlight.putIfAbsent(key, started);
+            if (load == null) {
+                originating.increment();
+                CompletableFuture<V> awaited = awaitAsync(key, started);
+                runAsync(key, loader, started);
+                return awaited;
+            }
+        }
+        coalesced.increment();
+        return awaitAsync(key, load);
+    }
+
+    /**
+     * Stops the load threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindRequests(registry, "originating", originating);
+        bindRequests(registry, "coalesced", coalesced);
+        bindRequests(registry, "cached", cached);
+        FunctionCounter.builder(name + ".timeouts", timeouts, LongAdder::sum)
+                .description("The number of callers that gave up waiting for a load")
+                .register(registry);
+        FunctionTimer.builder(name + ".load", this, flight -> flight.loads.sum(), flight -> flight.loadNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("The time taken by the loads, whether they succeeded or failed")
+                .register(registry);
+    }
+
+    private void bindRequests(MeterRegistry registry, String source, LongAdder counter) {
+        FunctionCounter.builder(name + ".requests", counter, LongAdder::sum)
+                .tag("source", source)
+                .description("The number of callers, by whether they started a load, joined one or were answered from a kept result")
+                .register(registry);
+    }
+
+    private void run(K key, Function<? super K, ? extends V> loader, CompletableFuture<V> load) {
+        long start = System.nanoTime();
+        try {
+            V value = loader.apply(key);
+            if (results != null && value != null) {
+                results.put(key, value);
+            }
+            load.complete(value);
+        } catch (Throwable e) {
+            load.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, load);
+            loads.increment();
+            loadNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void runAsync(K key, Function<? super K, ? extends CompletionStage<? extends V>> loader, CompletableFuture<V> load) {
+        long start = System.nanoTime();
+        CompletionStage<? extends V> stage;
+        try {
+            stage = loader.apply(key);
+        } catch (Throwable e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
+        stage.whenComplete((value, failure) -> {
+            if (failure == null) {
+                if (results != null && value != null) {
+                    results.put(key, value);
+                }
+                load.complete(value);
+            } else {
+                load.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+            }
+            inFlight.remove(key, load);
+            loads.increment();
+            loadNanos.add(System.nanoTime() - start);
+        });
+    }
+
+    private CompletableFuture<V> awaitAsync(K key, CompletableFuture<V> load) {
+        return load.copy()
+                .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS)
+                .exceptionallyCompose(failure -> {
+                    Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                    if (cause instanceof TimeoutException) {
+                        timeouts.increment();
+                        cause = new ServiceUnavailableException("Loading %s %s took longer than %d ms".formatted(name, key, timeout.toMillis()));
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                });
+    }
+
+    private V await(K key, CompletableFuture<V> load) {
+        try {
+            return load.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new ServiceUnavailableException("Loading %s %s took longer than %d ms".formatted(name, key, timeout.toMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while loading %s %s".formatted(name, key));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
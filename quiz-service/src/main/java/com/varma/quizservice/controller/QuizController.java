@@ -2,34 +2,47 @@ package com.varma.quizservice.controller;
 
 import com.varma.quizservice.model.QuestionWrapper;
 import com.varma.quizservice.model.QuizDto;
+import com.varma.quizservice.model.Ranking;
 import com.varma.quizservice.model.Response;
+import com.varma.quizservice.model.Submission;
+import com.varma.quizservice.model.SubmissionReceipt;
+import com.varma.quizservice.service.LeaderboardService;
 import com.varma.quizservice.service.QuizService;
+import com.varma.quizservice.service.SubmissionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.UUID;
 /**
- * The QuizController class handles the HTTP requests related to quizzes.
+ * The QuizController class handles the HTTP requests related to quizzes. It serves the servlet execution mode; the
+ * reactive mode is served by {@link ReactiveQuizController} instead.
  */
 @RestController
 @RequestMapping("quiz")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class QuizController {
 
     @Autowired
     private QuizService quizService;
 
+    @Autowired
+    private SubmissionService submissionService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     /**
-     * Creates a new quiz with the specified category, number of questions, and title.
+     * Creates a new quiz with the specified categories, number of questions, difficulty mix and title.
      *
-     * @param category       the category of the quiz
-     * @param noOfQuestions  the number of questions in the quiz
-     * @param title          the title of the quiz
+     * @param quizDto the categories, number of questions, difficulty mix, seed and title of the quiz
      * @return a ResponseEntity with a success message and HTTP status code 201 (Created)
      */
     @PostMapping("create")
     public ResponseEntity<String> createQuiz(@RequestBody QuizDto quizDto) {
-        return quizService.createQuiz(quizDto.getCategory(), quizDto.getNoOfQuestions(), quizDto.getTitle());
+        return quizService.createQuiz(quizDto);
     }
 
     /**
@@ -44,14 +57,71 @@ public class QuizController {
     }
 
     /**
-     * Submits a quiz with the specified ID and user's responses.
+     * Submits a quiz with the specified ID and user's responses. The attempt is kept with the user and its duration.
      *
-     * @param id         the ID of the quiz
-     * @param responses  the list of user's responses
+     * @param id             the ID of the quiz
+     * @param responses      the list of user's responses
+     * @param user           the user who made the attempt, or null if anonymous
+     * @param durationMillis how long the attempt took, or null if unknown
      * @return a ResponseEntity with the number of correct responses and HTTP status code 200 (OK)
      */
     @PostMapping("submit/{id}")
-    public ResponseEntity<Integer> submitQuiz(@PathVariable Integer id, @RequestBody List<Response> responses) {
-        return quizService.calculateResults(id, responses);
+    public ResponseEntity<Integer> submitQuiz(@PathVariable Integer id, @RequestBody List<Response> responses,
+                                              @RequestParam(required = false) String user,
+                                              @RequestParam(required = false) Long durationMillis) {
+        return submissionService.submit(id, responses, user, durationMillis);
+    }
+
+    /**
+     * Submits a quiz with the specified ID and user's responses to be scored in the background.
+     *
+     * @param id             the ID of the quiz
+     * @param responses      the list of user's responses
+     * @param user           the user who made the attempt, or null if anonymous
+     * @param durationMillis how long the attempt took, or null if unknown
+     * @return a ResponseEntity with the ID of the submission and HTTP status code 202 (Accepted), or HTTP status code
+     * 429 (Too Many Requests) if too many submissions are waiting to be scored
+     */
+    @PostMapping("submitAsync/{id}")
+    public ResponseEntity<SubmissionReceipt> submitQuizAsync(@PathVariable Integer id, @RequestBody List<Response> responses,
+                                                             @RequestParam(required = false) String user,
+                                                             @RequestParam(required = false) Long durationMillis) {
+        return submissionService.submitAsync(id, responses, user, durationMillis);
+    }
+
+    /**
+     * Retrieves the result of a submission made with {@link #submitQuizAsync}.
+     *
+     * @param submissionId the ID of the submission
+     * @return a ResponseEntity with the submission and HTTP status code 200 (OK) once it was scored or rejected, or
+     * HTTP status code 202 (Accepted) while it is pending
+     */
+    @GetMapping("result/{submissionId}")
+    public ResponseEntity<Submission> getSubmissionResult(@PathVariable UUID submissionId) {
+        return submissionService.getResult(submissionId);
+    }
+
+    /**
+     * Retrieves the top of the leaderboard of a quiz with the specified ID, ranking users by their best attempt.
+     *
+     * @param id    the ID of the quiz
+     * @param limit the number of rankings
+     * @return a ResponseEntity with the rankings of the best users, best first, and HTTP status code 200 (OK)
+     */
+    @GetMapping("leaderboard/{id}")
+    public ResponseEntity<List<Ranking>> getLeaderboard(@PathVariable Integer id, @RequestParam(defaultValue = "10") int limit) {
+        return leaderboardService.getTop(id, limit);
+    }
+
+    /**
+     * Retrieves the ranking of a user on the leaderboard of a quiz with the specified ID.
+     *
+     * @param id   the ID of the quiz
+     * @param user the user
+     * @return a ResponseEntity with the ranking and HTTP status code 200 (OK)
+     */
+    @GetMapping("leaderboard/{id}/rank/{user}")
+    public ResponseEntity<Ranking> getRank(@PathVariable Integer id, @PathVariable String user) {
+        return leaderboardService.getRank(id, user);
     }
-}
\ No newline at end of file
+}
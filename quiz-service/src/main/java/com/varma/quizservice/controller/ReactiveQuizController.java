@@ -0,0 +1,135 @@
+package com.varma.quizservice.controller;
+
+import com.varma.quizservice.model.QuestionWrapper;
+import com.varma.quizservice.model.QuizDto;
+import com.varma.quizservice.model.Ranking;
+import com.varma.quizservice.model.Response;
+import com.varma.quizservice.model.Submission;
+import com.varma.quizservice.model.SubmissionReceipt;
+import com.varma.quizservice.service.LeaderboardService;
+import com.varma.quizservice.service.ReactiveQuizService;
+import com.varma.quizservice.service.SubmissionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The ReactiveQuizController class handles the HTTP requests related to quizzes in the reactive execution mode, with
+ * the same paths, parameters and responses as {@link QuizController}. Creating a quiz, getting its questions and
+ * submitting it run without blocking through the {@link ReactiveQuizService}; the other endpoints call the services
+ * of the servlet mode, on a worker thread when they may read the database.
+ */
+@RestController
+@RequestMapping("quiz")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveQuizController {
+
+    @Autowired
+    private ReactiveQuizService reactiveQuizService;
+
+    @Autowired
+    private SubmissionService submissionService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    /**
+     * Creates a new quiz with the specified categories, number of questions, difficulty mix and title.
+     *
+     * @param quizDto the categories, number of questions, difficulty mix, seed and title of the quiz
+     * @return a ResponseEntity with a success message and HTTP status code 201 (Created)
+     */
+    @PostMapping("create")
+    public Mono<ResponseEntity<String>> createQuiz(@RequestBody QuizDto quizDto) {
+        return reactiveQuizService.createQuiz(quizDto);
+    }
+
+    /**
+     * Retrieves the questions for a quiz with the specified ID.
+     *
+     * @param id the ID of the quiz
+     * @return a ResponseEntity with a list of QuestionWrapper objects and HTTP status code 200 (OK)
+     */
+    @GetMapping("get/{id}")
+    public Mono<ResponseEntity<List<QuestionWrapper>>> getQuizQuestions(@PathVariable Integer id) {
+        return reactiveQuizService.getQuizQuestions(id);
+    }
+
+    /**
+     * Submits a quiz with the specified ID and user's responses. The attempt is kept with the user and its duration.
+     *
+     * @param id             the ID of the quiz
+     * @param responses      the list of user's responses
+     * @param user           the user who made the attempt, or null if anonymous
+     * @param durationMillis how long the attempt took, or null if unknown
+     * @return a ResponseEntity with the number of correct responses and HTTP status code 200 (OK)
+     */
+    @PostMapping("submit/{id}")
+    public Mono<ResponseEntity<Integer>> submitQuiz(@PathVariable Integer id, @RequestBody List<Response> responses,
+                                                    @RequestParam(required = false) String user,
+                                                    @RequestParam(required = false) Long durationMillis) {
+        return reactiveQuizService.submit(id, responses, user, durationMillis);
+    }
+
+    /**
+     * Submits a quiz with the specified ID and user's responses to be scored in the background.
+     *
+     * @param id             the ID of the quiz
+     * @param responses      the list of user's responses
+     * @param user           the user who made the attempt, or null if anonymous
+     * @param durationMillis how long the attempt took, or null if unknown
+     * @return a ResponseEntity with the ID of the submission and HTTP status code 202 (Accepted), or HTTP status code
+     * 429 (Too Many Requests) if too many submissions are waiting to be scored
+     */
+    @PostMapping("submitAsync/{id}")
+    public ResponseEntity<SubmissionReceipt> submitQuizAsync(@PathVariable Integer id, @RequestBody List<Response> responses,
+                                                             @RequestParam(required = false) String user,
+                                                             @RequestParam(required = false) Long durationMillis) {
+        return submissionService.submitAsync(id, responses, user, durationMillis);
+    }
+
+    /**
+     * Retrieves the result of a submission made with {@link #submitQuizAsync}.
+     *
+     * @param submissionId the ID of the submission
+     * @return a ResponseEntity with the submission and HTTP status code 200 (OK) once it was scored or rejected, or
+     * HTTP status code 202 (Accepted) while it is pending
+     */
+    @GetMapping("result/{submissionId}")
+    public Mono<ResponseEntity<Submission>> getSubmissionResult(@PathVariable UUID submissionId) {
+        return Mono.fromCallable(() -> submissionService.getResult(submissionId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Retrieves the top of the leaderboard of a quiz with the specified ID, ranking users by their best attempt.
+     *
+     * @param id    the ID of the quiz
+     * @param limit the number of rankings
+     * @return a ResponseEntity with the rankings of the best users, best first, and HTTP status code 200 (OK)
+     */
+    @GetMapping("leaderboard/{id}")
+    public Mono<ResponseEntity<List<Ranking>>> getLeaderboard(@PathVariable Integer id, @RequestParam(defaultValue = "10") int limit) {
+        return Mono.fromCallable(() -> leaderboardService.getTop(id, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Retrieves the ranking of a user on the leaderboard of a quiz with the specified ID.
+     *
+     * @param id   the ID of the quiz
+     * @param user the user
+     * @return a ResponseEntity with the ranking and HTTP status code 200 (OK)
+     */
+    @GetMapping("leaderboard/{id}/rank/{user}")
+    public Mono<ResponseEntity<Ranking>> getRank(@PathVariable Integer id, @PathVariable String user) {
+        return Mono.fromCallable(() -> leaderboardService.getRank(id, user))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,22 @@
+package com.varma.quizservice.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The InvalidSubmissionException class represents an exception that is thrown when submitted responses answer
+ * questions that are not part of the quiz, or answer a question more than once.
+ */
+@ResponseStatus(code = HttpStatus.BAD_REQUEST)
+public class InvalidSubmissionException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidSubmissionException with the specified error message.
+     *
+     * @param message the error message
+     */
+    public InvalidSubmissionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package com.varma.quizservice.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The ServiceUnavailableException class represents an exception that is thrown when a request cannot be answered in
+ * time, for instance because a load it depends on takes too long.
+ */
+@ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+
+    /**
+     * Constructs a new ServiceUnavailableException with the specified error message.
+     *
+     * @param message the error message
+     */
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,36 @@
+package com.varma.quizservice.feign;
+
+import com.varma.quizservice.resilience.QuestionClientProperties;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * The FeignTransportConfiguration class sets up the HTTP client of the {@link QuizInterface} Feign client. Calls run
+ * on OkHttp, enabled with {@code spring.cloud.openfeign.okhttp.enabled}, rather than on {@code HttpURLConnection}:
+ * connections are kept alive in a pool whose number of idle connections and idle time before eviction are set with
+ * {@code spring.cloud.openfeign.httpclient.max-connections} and {@code spring.cloud.openfeign.httpclient.time-to-live},
+ * and responses are asked for gzipped and unzipped transparently. With {@code question.client.http2} the calls are
+ * made over h2c instead, multiplexed over a single connection per instance.
+ */
+@Configuration
+public class FeignTransportConfiguration {
+
+    /**
+     * Returns the builder Spring Cloud OpenFeign creates the OkHttp client from, after adding the pool and the timeouts.
+     *
+     * @param properties the {@code question.client} settings
+     * @return the builder
+     */
+    @Bean
+    public OkHttpClient.Builder questionServiceOkHttpClientBuilder(QuestionClientProperties properties) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        if (properties.isHttp2()) {
+            builder.protocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE));
+        }
+        return builder;
+    }
+}
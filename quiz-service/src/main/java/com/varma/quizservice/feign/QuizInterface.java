@@ -1,8 +1,12 @@
 package com.varma.quizservice.feign;
 
 
+import com.varma.quizservice.model.AnswerKeyEntry;
+import com.varma.quizservice.model.ChangeFeed;
+import com.varma.quizservice.model.Question;
 import com.varma.quizservice.model.QuestionWrapper;
 import com.varma.quizservice.model.Response;
+import com.varma.quizservice.model.ShortfallPolicy;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,10 +20,29 @@ public interface QuizInterface {
     public ResponseEntity<List<Integer>> getQuestionsForQuiz(@RequestParam String category,
                                                              @RequestParam Integer noOfQuestions);
 
+    @GetMapping("api/v1/generate")
+    public ResponseEntity<List<Integer>> getQuestionsForQuiz(@RequestParam("category") List<String> categories,
+                                                             @RequestParam Integer noOfQuestions,
+                                                             @RequestParam(name = "difficulty", required = false) List<String> difficultyMix,
+                                                             @RequestParam(required = false) Long seed,
+                                                             @RequestParam(required = false) ShortfallPolicy shortfall);
+
     @PostMapping("api/v1/getQuestions")
     public ResponseEntity<List<QuestionWrapper>> getQuestionsFromId(@RequestBody List<Integer> questionsIds);
 
+    @PostMapping("api/v1/answerKey")
+    public ResponseEntity<List<AnswerKeyEntry>> getAnswerKey(@RequestBody List<Integer> questionsIds);
+
     @PostMapping("api/v1/getScore")
     public ResponseEntity<Integer> getScore(@RequestBody List<Response> responses);
 
+    @GetMapping("api/v1/allQuestions")
+    public ResponseEntity<List<Question>> getAllQuestions(@RequestParam(required = false) Integer after,
+                                                          @RequestParam Integer size);
+
+    @GetMapping("api/v1/changes")
+    public ResponseEntity<ChangeFeed> getChanges(@RequestParam(required = false) Long after,
+                                                 @RequestParam Integer limit,
+                                                 @RequestParam Long waitMillis);
+
 }
\ No newline at end of file
@@ -0,0 +1,197 @@
+package com.varma.quizservice.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The IndexableSkipList class is a sorted set kept in a skip list whose links record how many elements they span, so
+ * that the rank of an element and the element at a rank are found in O(log n) expected time, like insertions and
+ * removals. {@link java.util.concurrent.ConcurrentSkipListSet} keeps no such counts and takes O(n) to rank an element.
+ * The comparator must be consistent with equals. Instances are not thread-safe.
+ *
+ * @param <E> the type of the elements
+ */
+final class IndexableSkipList<E> {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final Comparator<? super E> comparator;
+
+    private final Node<E> head = new Node<>(null, MAX_LEVEL);
+
+    private int level = 1;
+
+    private int size;
+
+    /**
+     * Constructs an empty list.
+     *
+     * @param comparator the order of the elements
+     */
+    IndexableSkipList(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param element the element
+     * @return true if the element was added, false if the list already holds it
+     */
+    boolean add(E element) {
+        @SuppressWarnings("unchecked")
+        Node<E>[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node<E> node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (node.next[i] != null && comparator.compare(node.next[i].element, element) < 0) {
+                rank[i] += node.span[i];
+                node = node.next[i];
+            }
+            update[i] = node;
+        }
+        if (node.next[0] != null && comparator.compare(node.next[0].element, element) == 0) {
+            return false;
+        }
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+        Node<E> added = new Node<>(element, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            added.next[i] = update[i].next[i];
+            update[i].next[i] = added;
+            added.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes an element.
+     *
+     * @param element the element
+     * @return true if the element was removed, false if the list does not hold it
+     */
+    boolean remove(E element) {
+        @SuppressWarnings("unchecked")
+        Node<E>[] update = new Node[MAX_LEVEL];
+        Node<E> node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && comparator.compare(node.next[i].element, element) < 0) {
+                node = node.next[i];
+            }
+            update[i] = node;
+        }
+        Node<E> removed = node.next[0];
+        if (removed == null || comparator.compare(removed.element, element) != 0) {
+            return false;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == removed) {
+                update[i].span[i] += removed.span[i] - 1;
+                update[i].next[i] = removed.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the rank of an element.
+     *
+     * @param element the element
+     * @return the 1-based position of the element in the list, or 0 if the list does not hold it
+     */
+    int rank(E element) {
+        Node<E> node = head;
+        int rank = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && comparator.compare(node.next[i].element, element) <= 0) {
+                rank += node.span[i];
+                node = node.next[i];
+            }
+            if (node != head && comparator.compare(node.element, element) == 0) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the elements from a rank on.
+     *
+     * @param fromRank the 1-based rank of the first element
+     * @param count    the largest number of elements returned
+     * @return the elements in order, fewer than the count if the list ends before
+     */
+    List<E> range(int fromRank, int count) {
+        List<E> elements = new ArrayList<>(Math.max(0, Math.min(count, size - fromRank + 1)));
+        if (fromRank < 1 || fromRank > size) {
+            return elements;
+        }
+        Node<E> node = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0 && traversed < fromRank; i--) {
+            while (node.next[i] != null && traversed + node.span[i] <= fromRank) {
+                traversed += node.span[i];
+                node = node.next[i];
+            }
+        }
+        for (; node != null && elements.size() < count; node = node.next[0]) {
+            elements.add(node.element);
+        }
+        return elements;
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    int size() {
+        return size;
+    }
+
+    private static int randomLevel() {
+        int level = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (level < MAX_LEVEL && random.nextInt(4) == 0) {
+            level++;
+        }
+        return level;
+    }
+
+    private static final class Node<E> {
+
+        private final E element;
+
+        private final Node<E>[] next;
+
+        private final int[] span;
+
+        @SuppressWarnings("unchecked")
+        private Node(E element, int level) {
+            this.element = element;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.varma.quizservice.leaderboard;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.varma.quizservice.exception.ResourceNotFoundException;
+import com.varma.quizservice.model.LeaderboardEntry;
+import com.varma.quizservice.model.Ranking;
+import com.varma.quizservice.quizDAO.LeaderboardJdbcRepository;
+import com.varma.quizservice.quizDAO.QuizDAO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The Leaderboards class keeps a {@link QuizLeaderboard} in memory for recently attempted or looked up quizzes, so that
+ * the top of a leaderboard and the rank of a user are answered without reading the attempts. The leaderboard of a quiz
+ * is read from the leaderboard_entry table the first time it is needed, once the quiz is known to exist, and the
+ * leaderboards are held in a Caffeine cache of at most {@code quiz.leaderboard.maximum-size} quizzes.
+ * <p>
+ * Improved standings are kept apart from the leaderboards until they are written back in batches every
+ * {@code quiz.leaderboard.flush-interval} by a background thread, and once more on shutdown, so that evicting a
+ * leaderboard loses none of them: a leaderboard read again before they are written gets them on top of the stored
+ * standings. A standing is forgotten only once it is written, unless it was improved again meanwhile. Standings improved
+ * since the last flush are lost if the service dies, but the attempts themselves are kept in the submission table.
+ * <p>
+ * The leaderboards are held per instance: with several instances, each ranks the attempts it scored on top of the
+ * standings it read. The number of leaderboards held is published as the {@code quiz.leaderboard.quizzes} metric and
+ * the number of standings waiting to be written as {@code quiz.leaderboard.unflushed}.
+ */
+@Component
+public class Leaderboards implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(Leaderboards.class);
+
+    @Autowired
+    private LeaderboardJdbcRepository leaderboardJdbcRepository;
+
+    @Autowired
+    private QuizDAO quizDAO;
+
+    private final Cache<Integer, QuizLeaderboard> leaderboards;
+
+    private final Map<LeaderboardEntry.Key, Standing> unflushed = new ConcurrentHashMap<>();
+
+    private final Duration flushInterval;
+
+    private volatile Thread flusher;
+
+    /**
+     * Constructs the leaderboards.
+     *
+     * @param flushInterval the time between two flushes of the improved standings
+     * @param maximumSize   the maximum number of leaderboards held in memory
+     */
+    public Leaderboards(@Value("${quiz.leaderboard.flush-interval:1s}") Duration flushInterval,
+                        @Value("${quiz.leaderboard.maximum-size:10000}") long maximumSize) {
+        this.flushInterval = flushInterval;
+        // evicts on the calling thread, which is cheap, rather than on the common pool
+        this.leaderboards = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Records a scored attempt of a user at a quiz.
+     *
+     * @param quizId         the ID of the quiz
+     * @param user           the user
+     * @param score          the number of correct responses
+     * @param durationMillis how long the attempt took, or null if unknown
+     * @param achievedAt     when the attempt was scored
+     * @throws ResourceNotFoundException if the quiz does not exist
+     */
+    public void record(int quizId, String user, int score, Long durationMillis, Instant achievedAt) {
+        Standing attempt = new Standing(user, score, durationMillis, achievedAt);
+        QuizLeaderboard leaderboard = leaderboard(quizId);
+        if (leaderboard.offer(attempt)) {
+            unflushed.merge(new LeaderboardEntry.Key(quizId, user), attempt, Leaderboards::better);
+            // the leaderboard may have been evicted and read again before the standing was marked
+            QuizLeaderboard current = leaderboards.getIfPresent(quizId);
+            if (current != null && current != leaderboard) {
+                current.offer(attempt);
+            }
+        }
+    }
+
+    /**
+     * Returns the top of the leaderboard of a quiz.
+     *
+     * @param quizId the ID of the quiz
+     * @param limit  the largest number of rankings returned
+     * @return the rankings of the best users, best first
+     * @throws ResourceNotFoundException if the quiz does not exist
+     */
+    public List<Ranking> top(int quizId, int limit) {
+        return leaderboard(quizId).top(limit);
+    }
+
+    /**
+     * Returns the ranking of a user on the leaderboard of a quiz.
+     *
+     * @param quizId the ID of the quiz
+     * @param user   the user
+     * @return the ranking, or null if the user has no scored attempt at the quiz
+     * @throws ResourceNotFoundException if the quiz does not exist
+     */
+    public Ranking rank(int quizId, String user) {
+        return leaderboard(quizId).rank(user);
+    }
+
+    /**
+     * Writes the standings improved since the last flush.
+     */
+    public void flush() {
+        Map<LeaderboardEntry.Key, Standing> flushed = new HashMap<>(unflushed);
+        if (flushed.isEmpty()) {
+            return;
+        }
+        List<LeaderboardEntry> entries = new ArrayList<>(flushed.size());
+        flushed.forEach((key, standing) -> entries.add(new LeaderboardEntry(key.getQuizId(), key.getUserId(),
+                standing.score(), standing.durationMillis(), standing.achievedAt())));
+        leaderboardJdbcRepository.upsertAll(entries);
+        // a standing improved while it was written stays to be written by the next flush
+        flushed.forEach(unflushed::remove);
+    }
+
+    /**
+     * Starts the flush thread once the application is ready to serve requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void startOnReady() {
+        if (flusher != null) {
+            return;
+        }
+        flusher = new Thread(this::run, "leaderboard-flush");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Stops the flush thread and writes the standings it has not written.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (flusher != null) {
+            flusher.interrupt();
+            flusher.join();
+            flusher = null;
+        }
+        flush();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("quiz.leaderboard.quizzes", leaderboards, Cache::estimatedSize)
+                .description("The number of quiz leaderboards held in memory")
+                .register(registry);
+        Gauge.builder("quiz.leaderboard.unflushed", unflushed, Map::size)
+                .description("The number of improved standings not written to the database yet")
+                .register(registry);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(flushInterval.toMillis());
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Flushing {} leaderboard standings failed, retrying: {}", unflushed.size(), e.getMessage());
+            }
+        }
+    }
+
+    private QuizLeaderboard leaderboard(int quizId) {
+        QuizLeaderboard leaderboard = leaderboards.getIfPresent(quizId);
+        if (leaderboard != null) {
+            return leaderboard;
+        }
+        // loaded outside the locks of the cache, which would pin a virtual thread while the standings are read; a
+        // leaderboard loaded concurrently is discarded before anything is recorded on it. The unflushed standings are
+        // taken before the stored ones are read, since a standing is forgotten only after it is written.
+        List<Standing> improved = new ArrayList<>();
+        unflushed.forEach((key, standing) -> {
+            if (key.getQuizId() == quizId) {
+                improved.add(standing);
+            }
+        });
+        List<LeaderboardEntry> entries = leaderboardJdbcRepository.findByQuizId(quizId);
+        if (entries.isEmpty() && improved.isEmpty() && !quizDAO.existsQuizById(quizId)) {
+            throw new ResourceNotFoundException("Quiz with id %d not found".formatted(quizId));
+        }
+        QuizLeaderboard loaded = new QuizLeaderboard();
+        for (LeaderboardEntry entry : entries) {
+            loaded.offer(new Standing(entry.getUserId(), entry.getScore(), entry.getDurationMillis(), entry.getAchievedAt()));
+        }
+        improved.forEach(loaded::offer);
+        leaderboard = leaderboards.asMap().putIfAbsent(quizId, loaded);
+        return leaderboard == null ? loaded : leaderboard;
+    }
+
+    private static Standing better(Standing a, Standing b) {
+        return Standing.ORDER.compare(a, b) <= 0 ? a : b;
+    }
+}
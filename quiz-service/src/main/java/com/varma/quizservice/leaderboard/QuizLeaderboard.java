@@ -0,0 +1,104 @@
+package com.varma.quizservice.leaderboard;
+
+import com.varma.quizservice.model.Ranking;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The QuizLeaderboard class ranks the users of one quiz by their best attempt. The standings are kept in an
+ * {@link IndexableSkipList} in {@link Standing#ORDER}, so that the top of the board and the rank of a user are read in
+ * O(log n), and a user's standing is replaced in O(log n) when they improve on it. Reads share a lock and updates take
+ * it exclusively, so that quizzes never contend with each other.
+ */
+final class QuizLeaderboard {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IndexableSkipList<Standing> standings = new IndexableSkipList<>(Standing.ORDER);
+
+    private final Map<String, Standing> byUser = new HashMap<>();
+
+    /**
+     * Records an attempt, which replaces the standing of its user if it ranks higher.
+     *
+     * @param attempt the attempt
+     * @return true if the attempt is the new best of its user
+     */
+    boolean offer(Standing attempt) {
+        lock.writeLock().lock();
+        try {
+            Standing current = byUser.get(attempt.user());
+            if (current != null) {
+                if (Standing.ORDER.compare(current, attempt) <= 0) {
+                    return false;
+                }
+                standings.remove(current);
+            }
+            standings.add(attempt);
+            byUser.put(attempt.user(), attempt);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the top of the leaderboard.
+     *
+     * @param limit the largest number of rankings returned
+     * @return the rankings of the best users, best first
+     */
+    List<Ranking> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<Standing> top = standings.range(1, limit);
+            List<Ranking> rankings = new ArrayList<>(top.size());
+            for (Standing standing : top) {
+                rankings.add(ranking(rankings.size() + 1, standing));
+            }
+            return rankings;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ranking of a user.
+     *
+     * @param user the user
+     * @return the ranking of the user, or null if they have no attempt on the leaderboard
+     */
+    Ranking rank(String user) {
+        lock.readLock().lock();
+        try {
+            Standing standing = byUser.get(user);
+            return standing == null ? null : ranking(standings.rank(standing), standing);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the standing of a user.
+     *
+     * @param user the user
+     * @return the best attempt of the user, or null if they have none
+     */
+    Standing standing(String user) {
+        lock.readLock().lock();
+        try {
+            return byUser.get(user);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Ranking ranking(int rank, Standing standing) {
+        return new Ranking(rank, standing.user(), standing.score(), standing.durationMillis(), standing.achievedAt());
+    }
+}
@@ -0,0 +1,19 @@
+package com.varma.quizservice.leaderboard;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * The Standing record represents the best attempt of a user on the leaderboard of a quiz.
+ */
+record Standing(String user, int score, Long durationMillis, Instant achievedAt) {
+
+    /**
+     * The leaderboard order: the higher score first, then the shorter duration, with unknown durations last, then the
+     * earlier attempt, then the user so that no two standings compare equal.
+     */
+    static final Comparator<Standing> ORDER = Comparator.comparingInt(Standing::score).reversed()
+            .thenComparing(Standing::durationMillis, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Standing::achievedAt)
+            .thenComparing(Standing::user);
+}
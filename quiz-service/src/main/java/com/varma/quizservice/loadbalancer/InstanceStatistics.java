@@ -0,0 +1,214 @@
+package com.varma.quizservice.loadbalancer;
+
+import com.varma.quizservice.resilience.QuestionClientProperties;
+import com.varma.quizservice.resilience.QuestionClientProperties.LoadBalancerSettings;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The InstanceStatistics class keeps the {@link InstanceStats} of every instance the {@link LatencyAwareLoadBalancer}
+ * chooses from. As a {@link LoadBalancerLifecycle} it is told by Spring Cloud LoadBalancer when each call to an
+ * instance starts and completes: it counts the calls in flight, averages the response times, and ejects an instance
+ * after {@code question.client.load-balancer.consecutive-failures} failures in a row, unless that would eject more than
+ * {@code max-ejection-percent} of the instances. A failure is a call that did not get a response, a timeout included,
+ * or that got a server error.
+ * <p>
+ * Calls to the change feed of question-service are left out. They wait for changes for up to ten seconds, so counting
+ * them would make an instance look slow and keep a call in flight on it for as long as the replica follows it.
+ * <p>
+ * The instances a service has when it is first seen all start at full weight; instances registered later ramp up over
+ * the slow start. Instances that leave the discovery service are forgotten.
+ */
+@Component
+public class InstanceStatistics implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    /**
+     * The path of the change feed, whose calls are long polls.
+     */
+    static final String CHANGES_PATH = "/api/v1/changes";
+
+    private final LoadBalancerSettings settings;
+
+    private final Map<String, Map<String, InstanceStats>> services = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the statistics.
+     *
+     * @param properties the {@code question.client} settings
+     */
+    public InstanceStatistics(QuestionClientProperties properties) {
+        this.settings = properties.getLoadBalancer();
+    }
+
+    /**
+     * Returns the statistics of the current instances of a service, registering the instances that are new.
+     *
+     * @param serviceId the ID of the service
+     * @param instances the current instances of the service
+     * @param now       the current time
+     * @return the statistics of the instances, in the same order
+     */
+    List<InstanceStats> update(String serviceId, List<ServiceInstance> instances, long now) {
+        Map<String, InstanceStats> known = services.get(serviceId);
+        long registeredAt = now;
+        if (known == null) {
+            known = services.computeIfAbsent(serviceId, id -> new ConcurrentHashMap<>());
+            registeredAt = now - settings.getSlowStart().toNanos();
+        }
+        List<InstanceStats> stats = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            long since = registeredAt;
+            stats.add(known.computeIfAbsent(key(instance), key -> new InstanceStats(instance, since)));
+        }
+        if (known.size() > instances.size()) {
+            Set<String> current = new HashSet<>();
+            for (ServiceInstance instance : instances) {
+                current.add(key(instance));
+            }
+            known.keySet().retainAll(current);
+        }
+        return stats;
+    }
+
+    /**
+     * Returns what is known of the instances of every service, keyed by service ID and then by host and port.
+     *
+     * @return the status of every instance
+     */
+    public Map<String, List<InstanceStatus>> status() {
+        Map<String, List<InstanceStatus>> status = new TreeMap<>();
+        services.keySet().forEach(serviceId -> status.put(serviceId, status(serviceId)));
+        return status;
+    }
+
+    /**
+     * Returns what is known of the instances of a service.
+     *
+     * @param serviceId the ID of the service
+     * @return the status of every instance, sorted by host and port, or null if the service was never called
+     */
+    public List<InstanceStatus> status(String serviceId) {
+        Map<String, InstanceStats> known = services.get(serviceId);
+        if (known == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        List<InstanceStatus> status = new ArrayList<>();
+        new TreeMap<>(known).forEach((key, stats) -> status.add(stats.status(key, now, settings.getDecay().toNanos(),
+                settings.getSlowStart().toNanos(), settings.getSlowStartMinWeight())));
+        return status;
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        InstanceStats stats = find(lbResponse);
+        if (stats == null || isLongPoll(request)) {
+            return;
+        }
+        if (request.getContext() != null) {
+            request.getContext().setRequestStartTime(System.nanoTime());
+        }
+        stats.started();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        InstanceStats stats = find(completionContext.getLoadBalancerResponse());
+        Request<RequestDataContext> request = completionContext.getLoadBalancerRequest();
+        if (stats == null || completionContext.status() == CompletionContext.Status.DISCARD || isLongPoll(request)) {
+            return;
+        }
+        long now = System.nanoTime();
+        long elapsed = request != null && request.getContext() != null ? now - request.getContext().getRequestStartTime() : 0;
+        long decay = settings.getDecay().toNanos();
+        ResponseData response = completionContext.getClientResponse();
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || response != null && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError();
+        if (!failed) {
+            stats.succeeded(now, elapsed, decay);
+        } else if (stats.failed(now, elapsed, decay) >= settings.getConsecutiveFailures()) {
+            eject(completionContext.getLoadBalancerResponse().getServer(), stats, now);
+        }
+    }
+
+    private void eject(ServiceInstance instance, InstanceStats stats, long now) {
+        Map<String, InstanceStats> known = owner(instance);
+        if (known == null) {
+            return;
+        }
+        synchronized (known) {
+            if (stats.isEjected(now)) {
+                return;
+            }
+            int ejected = 1;
+            for (InstanceStats other : known.values()) {
+                if (other.isEjected(now)) {
+                    ejected++;
+                }
+            }
+            if (ejected * 100 <= known.size() * settings.getMaxEjectionPercent()) {
+                stats.eject(now, settings.getBaseEjectionTime().toNanos(), settings.getMaxEjectionTime().toNanos());
+            }
+        }
+    }
+
+    private InstanceStats find(Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return null;
+        }
+        Map<String, InstanceStats> known = owner(lbResponse.getServer());
+        return known == null ? null : known.get(key(lbResponse.getServer()));
+    }
+
+    /**
+     * Returns the statistics of the service an instance belongs to. The instance is looked up by host and port, since
+     * discovery services do not all spell service IDs like the clients naming them.
+     */
+    private Map<String, InstanceStats> owner(ServiceInstance instance) {
+        String key = key(instance);
+        for (Map<String, InstanceStats> known : services.values()) {
+            if (known.containsKey(key)) {
+                return known;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isLongPoll(Request<RequestDataContext> request) {
+        if (request == null || request.getContext() == null || request.getContext().getClientRequest() == null) {
+            return false;
+        }
+        URI url = request.getContext().getClientRequest().getUrl();
+        return url != null && CHANGES_PATH.equals(url.getPath());
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
@@ -0,0 +1,147 @@
+package com.varma.quizservice.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The InstanceStats class holds what the load balancer knows of one instance: its calls in flight, a peak-sensitive
+ * exponentially weighted moving average of its response times, when it was registered and whether it is ejected. The
+ * average jumps to any response slower than itself and decays towards faster ones, and it also decays towards zero
+ * while no response comes in, so that an instance that was slow gets tried again after a while. Times are in
+ * {@link System#nanoTime()} nanoseconds.
+ */
+class InstanceStats {
+
+    private final ServiceInstance instance;
+
+    private final long registeredAt;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private double latency;
+
+    private long sampledAt;
+
+    private boolean sampled;
+
+    private int consecutiveFailures;
+
+    private int ejections;
+
+    private long ejectedUntil;
+
+    private boolean ejected;
+
+    InstanceStats(ServiceInstance instance, long registeredAt) {
+        this.instance = instance;
+        this.registeredAt = registeredAt;
+    }
+
+    ServiceInstance instance() {
+        return instance;
+    }
+
+    int inFlight() {
+        // a call that started before the instance was last registered may complete after
+        return Math.max(0, inFlight.get());
+    }
+
+    void started() {
+        inFlight.incrementAndGet();
+        requests.increment();
+    }
+
+    /**
+     * Records the response time of a call that answered, and clears the failures in a row.
+     */
+    synchronized void succeeded(long now, long elapsed, long decay) {
+        inFlight.decrementAndGet();
+        observe(now, elapsed, decay);
+        consecutiveFailures = 0;
+        ejections = 0;
+    }
+
+    /**
+     * Records a call that failed. A failure never makes the instance look faster: an instance that answered before
+     * looks at least twice as slow after each failure, or as slow as the call that timed out, so that calls move away
+     * from it before it is ejected.
+     *
+     * @return the number of failures in a row
+     */
+    synchronized int failed(long now, long elapsed, long decay) {
+        inFlight.decrementAndGet();
+        failures.increment();
+        if (sampled) {
+            observe(now, (long) Math.max(elapsed, 2 * latency(now, decay)), decay);
+        }
+        return ++consecutiveFailures;
+    }
+
+    /**
+     * Returns the average response time, decayed for the time since the last response.
+     *
+     * @return the average response time, or -1 if the instance never answered
+     */
+    synchronized double latency(long now, long decay) {
+        if (!sampled) {
+            return -1;
+        }
+        return latency * Math.exp(-(double) Math.max(0, now - sampledAt) / decay);
+    }
+
+    /**
+     * Returns the weight of the instance, which grows linearly from the minimum weight to 1 over the slow start.
+     */
+    double weight(long now, long slowStart, double minWeight) {
+        long age = now - registeredAt;
+        if (slowStart <= 0 || age >= slowStart) {
+            return 1;
+        }
+        return Math.max(minWeight, (double) age / slowStart);
+    }
+
+    synchronized boolean isEjected(long now) {
+        if (ejected && now - ejectedUntil >= 0) {
+            ejected = false;
+        }
+        return ejected;
+    }
+
+    /**
+     * Ejects the instance for the base ejection time, doubled for every ejection since it last answered a call.
+     */
+    synchronized void eject(long now, long baseEjectionTime, long maxEjectionTime) {
+        long time = baseEjectionTime << Math.min(ejections, 20);
+        ejectedUntil = now + (time <= 0 ? maxEjectionTime : Math.min(time, maxEjectionTime));
+        ejected = true;
+        ejections++;
+        consecutiveFailures = 0;
+    }
+
+    synchronized InstanceStatus status(String key, long now, long decay, long slowStart, double minWeight) {
+        double current = latency(now, decay);
+        boolean out = isEjected(now);
+        return new InstanceStatus(key, instance.getUri().toString(), inFlight(),
+                current < 0 ? null : current / 1_000_000, weight(now, slowStart, minWeight), requests.sum(),
+                failures.sum(), consecutiveFailures, out,
+                out ? Instant.now().plusNanos(ejectedUntil - now) : null);
+    }
+
+    private void observe(long now, long elapsed, long decay) {
+        if (!sampled || elapsed > latency(now, decay)) {
+            latency = elapsed;
+        } else {
+            double weight = Math.exp(-(double) Math.max(0, now - sampledAt) / decay);
+            latency = latency * weight + elapsed * (1 - weight);
+        }
+        sampled = true;
+        sampledAt = now;
+    }
+}
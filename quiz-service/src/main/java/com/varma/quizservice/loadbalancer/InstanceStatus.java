@@ -0,0 +1,23 @@
+package com.varma.quizservice.loadbalancer;
+
+import java.time.Instant;
+
+/**
+ * The InstanceStatus record represents what the load balancer knows of an instance of a service, as shown by the
+ * {@code loadbalancer} actuator endpoint.
+ *
+ * @param instance            the host and port of the instance
+ * @param uri                 the URI of the instance
+ * @param inFlight            the number of calls to the instance that did not complete yet
+ * @param latencyMillis       the moving average of its response times in milliseconds, or null if it never answered
+ * @param weight              its slow start weight, from the minimum weight when it registers to 1
+ * @param requests            the number of calls made to the instance
+ * @param failures            the number of calls to the instance that failed or answered with a server error
+ * @param consecutiveFailures the number of failures since the instance last answered a call
+ * @param ejected             whether the instance is ejected
+ * @param ejectedUntil        when the instance is chosen again if it is ejected, or null
+ */
+public record InstanceStatus(String instance, String uri, int inFlight, Double latencyMillis, double weight,
+                             long requests, long failures, int consecutiveFailures, boolean ejected,
+                             Instant ejectedUntil) {
+}
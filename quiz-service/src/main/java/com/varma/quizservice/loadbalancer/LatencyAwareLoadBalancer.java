@@ -0,0 +1,109 @@
+package com.varma.quizservice.loadbalancer;
+
+import com.varma.quizservice.resilience.QuestionClientProperties.LoadBalancerSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The LatencyAwareLoadBalancer class chooses the instance of a service a call goes to by the power of two choices: it
+ * draws two instances at random and takes the one with the lower expected cost, the moving average of its response
+ * times multiplied by its calls in flight plus one, divided by its slow start weight. An instance that never answered
+ * is expected to be as fast as the average of the others. Ejected instances are left out, unless all are.
+ * <p>
+ * Unlike round robin, which keeps sending an instance its share of the calls however slow it gets, this sends calls
+ * away from an instance as soon as its calls pile up or slow down, while still trying it often enough to notice when it
+ * recovers. The statistics are kept by {@link InstanceStatistics}.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+
+    private final String serviceId;
+
+    private final InstanceStatistics statistics;
+
+    private final LoadBalancerSettings settings;
+
+    /**
+     * Constructs a load balancer.
+     *
+     * @param serviceInstanceListSupplierProvider provides the current instances of the service
+     * @param serviceId                           the ID of the service
+     * @param statistics                          the statistics of the instances
+     * @param settings                            the {@code question.client.load-balancer} settings
+     */
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId, InstanceStatistics statistics, LoadBalancerSettings settings) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.statistics = statistics;
+        this.settings = settings;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        long now = System.nanoTime();
+        List<InstanceStats> all = statistics.update(serviceId, instances, now);
+        List<InstanceStats> available = new ArrayList<>(all.size());
+        for (InstanceStats stats : all) {
+            if (!stats.isEjected(now)) {
+                available.add(stats);
+            }
+        }
+        if (available.isEmpty()) {
+            available = all;
+        }
+        if (available.size() == 1) {
+            return new DefaultResponse(available.get(0).instance());
+        }
+
+        long decay = settings.getDecay().toNanos();
+        double total = 0;
+        int sampled = 0;
+        for (InstanceStats stats : available) {
+            double latency = stats.latency(now, decay);
+            if (latency >= 0) {
+                total += latency;
+                sampled++;
+            }
+        }
+        double unknownLatency = sampled == 0 ? 1 : Math.max(1, total / sampled);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(available.size());
+        int second = random.nextInt(available.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        InstanceStats left = available.get(first);
+        InstanceStats right = available.get(second);
+        return new DefaultResponse(cost(left, now, decay, unknownLatency) <= cost(right, now, decay, unknownLatency)
+                ? left.instance() : right.instance());
+    }
+
+    private double cost(InstanceStats stats, long now, long decay, double unknownLatency) {
+        double latency = stats.latency(now, decay);
+        return (latency < 0 ? unknownLatency : latency) * (stats.inFlight() + 1)
+                / stats.weight(now, settings.getSlowStart().toNanos(), settings.getSlowStartMinWeight());
+    }
+}
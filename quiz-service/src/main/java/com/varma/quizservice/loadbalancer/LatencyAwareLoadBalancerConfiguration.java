@@ -0,0 +1,36 @@
+package com.varma.quizservice.loadbalancer;
+
+import com.varma.quizservice.resilience.QuestionClientProperties;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * The LatencyAwareLoadBalancerConfiguration class sets up the {@link LatencyAwareLoadBalancer} of a service in the
+ * context Spring Cloud LoadBalancer creates for it. It is named by {@link QuestionServiceLoadBalancing} and on purpose
+ * not a {@code @Configuration}, so that component scanning does not make it the load balancer of every service.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    /**
+     * Returns the load balancer of the service.
+     *
+     * @param environment         the environment of the context of the service, which holds its ID
+     * @param clientFactory       the factory of the contexts of the services
+     * @param instanceStatistics  the statistics of the instances
+     * @param properties          the {@code question.client} settings
+     * @return the load balancer
+     */
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory clientFactory,
+                                                                         InstanceStatistics instanceStatistics,
+                                                                         QuestionClientProperties properties) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, instanceStatistics, properties.getLoadBalancer());
+    }
+}
@@ -0,0 +1,45 @@
+package com.varma.quizservice.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The LoadBalancerEndpoint class is the {@code loadbalancer} actuator endpoint, which shows what the load balancer
+ * knows of the instances of every service it chose from: calls in flight, average response time, slow start weight,
+ * failures and ejection.
+ */
+@Component
+@Endpoint(id = "loadbalancer")
+public class LoadBalancerEndpoint {
+
+    @Autowired
+    private InstanceStatistics instanceStatistics;
+
+    /**
+     * Retrieves the status of the instances of every service.
+     *
+     * @return the status of the instances, keyed by service ID
+     */
+    @ReadOperation
+    public Map<String, List<InstanceStatus>> services() {
+        return instanceStatistics.status();
+    }
+
+    /**
+     * Retrieves the status of the instances of a service.
+     *
+     * @param serviceId the ID of the service
+     * @return the status of the instances, or null, answered with HTTP status code 404 (Not Found), if the service was
+     * never called
+     */
+    @ReadOperation
+    public List<InstanceStatus> service(@Selector String serviceId) {
+        return instanceStatistics.status(serviceId);
+    }
+}
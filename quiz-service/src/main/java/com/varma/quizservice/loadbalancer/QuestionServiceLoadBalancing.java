@@ -0,0 +1,11 @@
+package com.varma.quizservice.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+
+/**
+ * The QuestionServiceLoadBalancing class makes the calls to QUESTION-SERVICE choose their instance with the
+ * {@link LatencyAwareLoadBalancer} rather than round robin.
+ */
+@LoadBalancerClient(name = "QUESTION-SERVICE", configuration = LatencyAwareLoadBalancerConfiguration.class)
+public class QuestionServiceLoadBalancing {
+}
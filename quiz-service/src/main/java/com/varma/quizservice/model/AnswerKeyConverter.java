@@ -0,0 +1,63 @@
+package com.varma.quizservice.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The AnswerKeyConverter class stores the correct answers of a quiz as a bytea value holding, for every answer, its
+ * length in UTF-8 bytes as a 4-byte big-endian integer, or -1 for a missing answer, followed by the bytes themselves.
+ */
+@Converter
+public class AnswerKeyConverter implements AttributeConverter<String[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String[] answers) {
+        if (answers == null) {
+            return null;
+        }
+        byte[][] encoded = new byte[answers.length][];
+        int length = answers.length * Integer.BYTES;
+        for (int i = 0; i < answers.length; i++) {
+            if (answers[i] != null) {
+                encoded[i] = answers[i].getBytes(StandardCharsets.UTF_8);
+                length += encoded[i].length;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (byte[] answer : encoded) {
+            if (answer == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(answer.length).put(answer);
+            }
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public String[] convertToEntityAttribute(byte[] column) {
+        if (column == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(column);
+        int count = 0;
+        while (buffer.hasRemaining()) {
+            int length = buffer.getInt();
+            buffer.position(buffer.position() + Math.max(length, 0));
+            count++;
+        }
+        String[] answers = new String[count];
+        buffer.rewind();
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt();
+            if (length >= 0) {
+                answers[i] = new String(column, buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            }
+        }
+        return answers;
+    }
+}
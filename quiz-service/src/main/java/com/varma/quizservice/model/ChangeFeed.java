@@ -0,0 +1,10 @@
+package com.varma.quizservice.model;
+
+import java.util.List;
+
+/**
+ * The ChangeFeed record represents a page of the question change feed of question-service: the changes in sequence
+ * order, the sequence number to ask for the changes after next and the high-water mark of the change log.
+ */
+public record ChangeFeed(List<QuestionChange> changes, long nextSequence, long highWaterMark) {
+}
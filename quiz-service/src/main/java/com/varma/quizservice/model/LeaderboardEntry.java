@@ -0,0 +1,40 @@
+package com.varma.quizservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * The LeaderboardEntry class represents the best attempt of a user at a quiz, as flushed from the in-memory
+ * leaderboards by {@link com.varma.quizservice.leaderboard.Leaderboards} with
+ * {@link com.varma.quizservice.quizDAO.LeaderboardJdbcRepository}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(LeaderboardEntry.Key.class)
+public class LeaderboardEntry {
+    @Id
+    private Integer quizId;
+    @Id
+    private String userId;
+    private Integer score;
+    private Long durationMillis;
+    private Instant achievedAt;
+
+    /**
+     * The key of a leaderboard entry: a user has a single entry per quiz.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Integer quizId;
+        private String userId;
+    }
+}
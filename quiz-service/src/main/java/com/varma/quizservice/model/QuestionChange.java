@@ -0,0 +1,8 @@
+package com.varma.quizservice.model;
+
+/**
+ * The QuestionChange record represents an insert, update or delete of a question in the change feed of
+ * question-service, under its sequence number. The question is its current state, or null if it no longer exists.
+ */
+public record QuestionChange(long sequence, int id, Question question) {
+}
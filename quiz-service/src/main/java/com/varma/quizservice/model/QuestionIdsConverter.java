@@ -0,0 +1,37 @@
+package com.varma.quizservice.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The QuestionIdsConverter class stores an array of question IDs as a bytea value of 4 bytes per ID, big-endian, which
+ * is the encoding of Postgres' {@code int4send}, so that the column can be produced and unpacked in SQL as well.
+ */
+@Converter
+public class QuestionIdsConverter implements AttributeConverter<int[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(int[] ids) {
+        if (ids == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(ids.length * Integer.BYTES);
+        buffer.asIntBuffer().put(ids);
+        return buffer.array();
+    }
+
+    @Override
+    public int[] convertToEntityAttribute(byte[] column) {
+        if (column == null) {
+            return null;
+        }
+        if (column.length % Integer.BYTES != 0) {
+            throw new IllegalArgumentException("Packed question IDs must be a multiple of 4 bytes long, got " + column.length);
+        }
+        int[] ids = new int[column.length / Integer.BYTES];
+        ByteBuffer.wrap(column).asIntBuffer().get(ids);
+        return ids;
+    }
+}
@@ -3,7 +3,9 @@ package com.varma.quizservice.model;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * The Quiz class represents a quiz entity.
@@ -25,8 +27,57 @@ public class Quiz {
     private Integer id;
     private String title;
     /**
-     * @ManyToMany to indicate a many-to-many relationship with the Question entity.
+     * questions: The IDs of the questions of the quiz, in order, packed into the question_ids column of the quiz row by
+     * {@link QuestionIdsConverter}, so that they are written and read with the quiz itself without boxing. Quizzes
+     * stored in the former quiz_questions join table are moved into it by
+     * {@link com.varma.quizservice.quizDAO.QuizQuestionsMigration}.
      */
-    @ElementCollection
-    private List<Integer> questions;
+    @Convert(converter = QuestionIdsConverter.class)
+    @Column(name = "question_ids")
+    private int[] questions;
+    /**
+     * answerKey: The correct answer of every question, in the order of the questions, captured when the quiz is created
+     * so that submissions are scored without asking question-service, and packed by {@link AnswerKeyConverter}. Null
+     * for quizzes created before answer keys were captured, until their first submission fills it in.
+     */
+    @Convert(converter = AnswerKeyConverter.class)
+    @Column(name = "answer_key")
+    private String[] answerKey;
+
+    /**
+     * Returns the IDs of the questions of the quiz.
+     *
+     * @return a read-only view of the question IDs, empty if there are none
+     */
+    public List<Integer> getQuestions() {
+        return new QuestionIds(questions == null ? new int[0] : questions);
+    }
+
+    /**
+     * Sets the IDs of the questions of the quiz.
+     *
+     * @param questions the question IDs, or null for none
+     */
+    public void setQuestions(List<Integer> questions) {
+        this.questions = questions == null ? null : questions.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static final class QuestionIds extends AbstractList<Integer> implements RandomAccess {
+
+        private final int[] ids;
+
+        private QuestionIds(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return ids[index];
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
 }
\ No newline at end of file
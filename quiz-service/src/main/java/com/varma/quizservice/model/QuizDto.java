@@ -3,9 +3,29 @@ package com.varma.quizservice.model;
 
 import lombok.Data;
 
+import java.util.List;
+import java.util.Map;
+
 @Data
 public class QuizDto {
     String category;
+    /**
+     * Further categories to draw questions from, besides the category.
+     */
+    List<String> categories;
     Integer noOfQuestions;
     String title;
+    /**
+     * The weight of every difficulty level, such as {@code {"Easy": 50, "Medium": 30, "Hard": 20}}; null to ignore
+     * difficulty. Entries are applied in order, so use an ordered JSON object.
+     */
+    Map<String, Double> difficultyMix;
+    /**
+     * The seed that makes the choice of questions reproducible, or null for a random choice.
+     */
+    Long seed;
+    /**
+     * What to do when a difficulty level holds fewer questions than its share, or null to redistribute them.
+     */
+    ShortfallPolicy shortfall;
 }
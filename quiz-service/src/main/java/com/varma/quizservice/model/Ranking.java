@@ -0,0 +1,10 @@
+package com.varma.quizservice.model;
+
+import java.time.Instant;
+
+/**
+ * The Ranking record represents the place of a user on the leaderboard of a quiz: the 1-based rank of their best
+ * attempt, its score, how long it took in milliseconds (null if unknown), and when it was scored.
+ */
+public record Ranking(int rank, String user, int score, Long durationMillis, Instant achievedAt) {
+}
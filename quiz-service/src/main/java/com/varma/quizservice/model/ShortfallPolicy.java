@@ -0,0 +1,20 @@
+package com.varma.quizservice.model;
+
+/**
+ * The ShortfallPolicy enum represents what question-service does when a difficulty level holds fewer questions than
+ * its share of a quiz.
+ */
+public enum ShortfallPolicy {
+    /**
+     * The missing questions are drawn from the other requested difficulty levels.
+     */
+    REDISTRIBUTE,
+    /**
+     * The quiz is short by the missing questions.
+     */
+    PARTIAL,
+    /**
+     * The quiz is not created.
+     */
+    FAIL
+}
@@ -0,0 +1,54 @@
+package com.varma.quizservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The Submission class represents an attempt at a quiz and its result, whether it was scored on submission or
+ * asynchronously. Attempts are written in batches by {@link com.varma.quizservice.quizDAO.SubmissionJdbcRepository} and read with
+ * {@link com.varma.quizservice.quizDAO.SubmissionDAO}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Submission {
+
+    /**
+     * The longest error message kept with a submission.
+     */
+    public static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * id: The ID of the submission, assigned when it is queued so that the caller can look its result up.
+     */
+    @Id
+    private UUID id;
+    private Integer quizId;
+    /**
+     * userId: The user who made the attempt, or null if it was anonymous; only attempts of known users are ranked.
+     */
+    private String userId;
+    /**
+     * durationMillis: How long the user took over the attempt, as reported by the client, or null if unknown.
+     */
+    private Long durationMillis;
+    @Enumerated(EnumType.STRING)
+    private SubmissionStatus status;
+    /**
+     * score: The number of correct responses, or null if the submission was not scored.
+     */
+    private Integer score;
+    /**
+     * error: Why the submission was rejected or failed, or null if it was scored.
+     */
+    @Column(length = MAX_ERROR_LENGTH)
+    private String error;
+    private Instant submittedAt;
+    private Instant scoredAt;
+}
@@ -0,0 +1,10 @@
+package com.varma.quizservice.model;
+
+import java.util.UUID;
+
+/**
+ * The SubmissionReceipt record represents the acknowledgement of a queued submission, with the ID under which its
+ * result can be looked up.
+ */
+public record SubmissionReceipt(UUID submissionId) {
+}
@@ -0,0 +1,23 @@
+package com.varma.quizservice.model;
+
+/**
+ * The SubmissionStatus enum represents the state of an asynchronously scored submission.
+ */
+public enum SubmissionStatus {
+    /**
+     * The submission is queued and not scored yet.
+     */
+    PENDING,
+    /**
+     * The submission was scored.
+     */
+    SCORED,
+    /**
+     * The submission was not scored because the quiz does not exist or the responses are invalid.
+     */
+    REJECTED,
+    /**
+     * The submission could not be scored, for instance because the answer key of the quiz could not be read.
+     */
+    FAILED
+}
@@ -0,0 +1,73 @@
+package com.varma.quizservice.pool;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The QuizPoolProperties class holds the {@code quiz.pool} settings of the pools of pre-drawn question sets kept by
+ * {@link QuizPools}: which pools are kept and, unless a pool says otherwise, how large they are and when they are
+ * refilled.
+ */
+@Data
+@Component
+@ConfigurationProperties("quiz.pool")
+public class QuizPoolProperties {
+
+    /**
+     * The pools, one per category and number of questions.
+     */
+    private List<PoolSettings> pools = new ArrayList<>();
+
+    /**
+     * The number of question sets a pool holds once refilled.
+     */
+    private int capacity = 20;
+
+    /**
+     * The number of question sets at or under which a pool is refilled.
+     */
+    private int refillThreshold = 10;
+
+    /**
+     * How long a question set may wait in a pool before it is discarded, so that quizzes do not get questions drawn
+     * long before from a bank that changed since.
+     */
+    private Duration maxAge = Duration.ofMinutes(10);
+
+    /**
+     * The pause between two draws of a refill, which keeps refills from competing with the quizzes created meanwhile.
+     */
+    private Duration refillPause = Duration.ofMillis(100);
+
+    /**
+     * The settings of a pool.
+     */
+    @Data
+    public static class PoolSettings {
+
+        /**
+         * The category the questions are drawn from.
+         */
+        private String category;
+
+        /**
+         * The number of questions of every set.
+         */
+        private int size;
+
+        /**
+         * The number of question sets the pool holds once refilled, or null for the default.
+         */
+        private Integer capacity;
+
+        /**
+         * The number of question sets at or under which the pool is refilled, or null for the default.
+         */
+        private Integer refillThreshold;
+    }
+}
@@ -0,0 +1,267 @@
+package com.varma.quizservice.pool;
+
+import com.varma.quizservice.feign.QuizInterface;
+import com.varma.quizservice.replica.QuestionReplica;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The QuizPools class keeps, for every category and number of questions configured under {@code quiz.pool.pools}, a
+ * small pool of question sets drawn from question-service in advance, so that creating a quiz of a popular kind takes a
+ * prepared set instead of waiting for question-service to draw one. A pool is refilled up to its capacity once it holds
+ * no more than its refill threshold, on a single background thread of minimum priority that draws one set at a time and
+ * pauses between draws, so that refills stay out of the way of the requests served meanwhile.
+ * <p>
+ * A set older than {@code quiz.pool.max-age}, or holding a question the current replica no longer has, is discarded
+ * rather than served. When a pool is empty the caller draws the questions itself. Takes are published as the
+ * {@code quiz.pool.requests} metric, tagged by category, size and {@code result=hit|miss}, with the sets drawn as
+ * {@code quiz.pool.draws}, the sets discarded as {@code quiz.pool.discarded} and the size of every pool as
+ * {@code quiz.pool.size}.
+ */
+@Component
+public class QuizPools implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizPools.class);
+
+    private static final long MIN_BACKOFF_MILLIS = 500;
+
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    @Autowired
+    private QuizInterface quizInterface;
+
+    @Autowired
+    private QuestionReplica questionReplica;
+
+    private final Map<PoolKey, Pool> pools = new LinkedHashMap<>();
+
+    private final long maxAgeNanos;
+
+    private final long refillPauseMillis;
+
+    private final Semaphore refillNeeded = new Semaphore(0);
+
+    private volatile Thread refiller;
+
+    /**
+     * Constructs the pools, empty.
+     *
+     * @param properties the {@code quiz.pool} settings
+     */
+    public QuizPools(QuizPoolProperties properties) {
+        for (QuizPoolProperties.PoolSettings settings : properties.getPools()) {
+            int capacity = settings.getCapacity() == null ? properties.getCapacity() : settings.getCapacity();
+            int refillThreshold = settings.getRefillThreshold() == null ? properties.getRefillThreshold() : settings.getRefillThreshold();
+            if (settings.getCategory() == null || settings.getSize() <= 0 || capacity <= 0) {
+                throw new IllegalArgumentException("A quiz pool needs a category, a size and a capacity: " + settings);
+            }
+            pools.put(new PoolKey(settings.getCategory(), settings.getSize()),
+                    new Pool(settings.getCategory(), settings.getSize(), capacity, Math.min(refillThreshold, capacity - 1)));
+        }
+        this.maxAgeNanos = properties.getMaxAge().toNanos();
+        this.refillPauseMillis = properties.getRefillPause().toMillis();
+    }
+
+    /**
+     * Takes a question set from the pool of a category and number of questions.
+     *
+     * @param category      the category of the questions
+     * @param noOfQuestions the number of questions
+     * @return the IDs of the questions, or null if there is no such pool or it is empty
+     */
+    public List<Integer> take(String category, Integer noOfQuestions) {
+        Pool pool = noOfQuestions == null ? null : pools.get(new PoolKey(category, noOfQuestions));
+        if (pool == null) {
+            return null;
+        }
+        List<Integer> questions = null;
+        PooledSet set;
+        while (questions == null && (set = pool.sets.poll()) != null) {
+            if (isUsable(set, System.nanoTime())) {
+                questions = set.questions();
+            } else {
+                pool.discarded.increment();
+            }
+        }
+        (questions == null ? pool.misses : pool.hits).increment();
+        if (pool.sets.size() <= pool.refillThreshold) {
+            refillNeeded.release();
+        }
+        return questions;
+    }
+
+    /**
+     * Returns the number of question sets in the pool of a category and number of questions.
+     *
+     * @param category      the category of the questions
+     * @param noOfQuestions the number of questions
+     * @return the number of sets, or 0 if there is no such pool
+     */
+    public int size(String category, int noOfQuestions) {
+        Pool pool = pools.get(new PoolKey(category, noOfQuestions));
+        return pool == null ? 0 : pool.sets.size();
+    }
+
+    /**
+     * Starts the refill thread once the application is ready to serve requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (pools.isEmpty()) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "quiz-pool-refill");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        refiller = thread;
+        thread.start();
+    }
+
+    /**
+     * Stops the refill thread.
+     */
+    @PreDestroy
+    public void stop() {
+        Thread thread = refiller;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Refills every pool that needs it, up to its capacity, after discarding the sets that expired.
+     */
+    void refill() {
+        for (Pool pool : pools.values()) {
+            PooledSet oldest;
+            while ((oldest = pool.sets.peek()) != null && !isUsable(oldest, System.nanoTime())) {
+                if (pool.sets.remove(oldest)) {
+                    pool.discarded.increment();
+                }
+            }
+            if (pool.sets.size() > pool.refillThreshold) {
+                continue;
+            }
+            while (pool.sets.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+                List<Integer> questions = quizInterface.getQuestionsForQuiz(pool.category, pool.size).getBody();
+                pool.draws.increment();
+                if (questions == null || questions.isEmpty() || !pool.sets.offer(new PooledSet(questions, System.nanoTime()))) {
+                    break;
+                }
+                pause(refillPauseMillis);
+            }
+        }
+    }
+
+    private void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                refill();
+                backoff = MIN_BACKOFF_MILLIS;
+                // expired sets are also discarded while no quiz is created
+                refillNeeded.tryAcquire(Math.max(1, maxAgeNanos / 2), TimeUnit.NANOSECONDS);
+                refillNeeded.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.warn("Refilling the quiz pools failed, retrying in {} ms: {}", backoff, e.getMessage());
+                pause(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private boolean isUsable(PooledSet set, long now) {
+        if (now - set.drawnAt() > maxAgeNanos) {
+            return false;
+        }
+        return !questionReplica.isCurrent() || questionReplica.findAnswers(set.questions()) != null;
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Pool pool : pools.values()) {
+            String category = pool.category;
+            String size = String.valueOf(pool.size);
+            FunctionCounter.builder("quiz.pool.requests", pool.hits, LongAdder::sum)
+                    .description("The quizzes created from a pooled question set, or not for want of one")
+                    .tags("category", category, "size", size, "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("quiz.pool.requests", pool.misses, LongAdder::sum)
+                    .description("The quizzes created from a pooled question set, or not for want of one")
+                    .tags("category", category, "size", size, "result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("quiz.pool.draws", pool.draws, LongAdder::sum)
+                    .description("The question sets drawn from question-service to refill a quiz pool")
+                    .tags("category", category, "size", size)
+                    .register(registry);
+            FunctionCounter.builder("quiz.pool.discarded", pool.discarded, LongAdder::sum)
+                    .description("The pooled question sets discarded because they expired or hold a deleted question")
+                    .tags("category", category, "size", size)
+                    .register(registry);
+            Gauge.builder("quiz.pool.size", pool.sets, BlockingQueue::size)
+                    .description("The number of question sets in a quiz pool")
+                    .tags("category", category, "size", size)
+                    .register(registry);
+        }
+    }
+
+    private record PoolKey(String category, int size) {
+    }
+
+    private record PooledSet(List<Integer> questions, long drawnAt) {
+    }
+
+    private static final class Pool {
+
+        private final String category;
+
+        private final int size;
+
+        private final int refillThreshold;
+
+        private final BlockingQueue<PooledSet> sets;
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private final LongAdder draws = new LongAdder();
+
+        private final LongAdder discarded = new LongAdder();
+
+        private Pool(String category, int size, int capacity, int refillThreshold) {
+            this.category = category;
+            this.size = size;
+            this.refillThreshold = refillThreshold;
+            this.sets = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.varma.quizservice.quizDAO;
+
+import com.varma.quizservice.model.LeaderboardEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * The LeaderboardJdbcRepository class reads the leaderboard of a quiz in one query and writes the best attempts of
+ * users with batched upserts, bypassing the persistence context.
+ */
+@Repository
+public class LeaderboardJdbcRepository {
+
+    private static final String UPSERT_ENTRY = """
+            INSERT INTO leaderboard_entry (quiz_id, user_id, score, duration_millis, achieved_at) VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (quiz_id, user_id) DO UPDATE
+            SET score = EXCLUDED.score, duration_millis = EXCLUDED.duration_millis, achieved_at = EXCLUDED.achieved_at
+            WHERE EXCLUDED.score > leaderboard_entry.score
+               OR EXCLUDED.score = leaderboard_entry.score
+              AND (EXCLUDED.duration_millis < leaderboard_entry.duration_millis
+                   OR EXCLUDED.duration_millis IS NOT NULL AND leaderboard_entry.duration_millis IS NULL
+                   OR EXCLUDED.duration_millis IS NOT DISTINCT FROM leaderboard_entry.duration_millis
+                  AND EXCLUDED.achieved_at < leaderboard_entry.achieved_at)""";
+
+    /**
+     * The number of rows sent to the database in one JDBC batch.
+     */
+    public static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the entries of the leaderboard of a quiz.
+     *
+     * @param quizId the ID of the quiz
+     * @return the best attempt of every user of the quiz, in no particular order
+     */
+    public List<LeaderboardEntry> findByQuizId(int quizId) {
+        return jdbcTemplate.query("SELECT quiz_id, user_id, score, duration_millis, achieved_at FROM leaderboard_entry WHERE quiz_id = ?",
+                (resultSet, rowNum) -> new LeaderboardEntry(resultSet.getInt("quiz_id"), resultSet.getString("user_id"),
+                        resultSet.getInt("score"), resultSet.getObject("duration_millis", Long.class),
+                        resultSet.getTimestamp("achieved_at").toInstant()), quizId);
+    }
+
+    /**
+     * Inserts the entries or replaces the entries of the same users that they beat, using JDBC batch statements. An
+     * entry replaces a stored one only if it ranks higher in the leaderboard order: a higher score, then a shorter
+     * duration with unknown durations last, then an earlier attempt. Another instance may have stored a better attempt
+     * since this one read the leaderboard, and that attempt is kept. No two entries may share their quiz and user.
+     *
+     * @param entries the entries to write
+     */
+    public void upsertAll(List<LeaderboardEntry> entries) {
+        jdbcTemplate.batchUpdate(UPSERT_ENTRY, entries, BATCH_SIZE, (statement, entry) -> {
+            statement.setInt(1, entry.getQuizId());
+            statement.setString(2, entry.getUserId());
+            statement.setInt(3, entry.getScore());
+            statement.setObject(4, entry.getDurationMillis(), Types.BIGINT);
+            statement.setTimestamp(5, Timestamp.from(entry.getAchievedAt()));
+        });
+    }
+}
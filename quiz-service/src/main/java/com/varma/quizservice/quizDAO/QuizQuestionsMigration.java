@@ -0,0 +1,59 @@
+package com.varma.quizservice.quizDAO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The QuizQuestionsMigration class moves the question IDs of quizzes stored in the quiz_questions join table, which
+ * held one row per question, into the packed question_ids column of the quiz row.
+ * It runs on startup once the schema has been updated and before requests are served, in a single transaction under
+ * an advisory lock so that instances starting together migrate once. The join table kept no element order, so the IDs
+ * are taken in their physical order, which is the order they were inserted in. The join table is then renamed to
+ * quiz_questions_migrated rather than dropped; it can be dropped once the migrated quizzes have been checked.
+ */
+@Component
+public class QuizQuestionsMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizQuestionsMigration.class);
+
+    private static final long LOCK_KEY = 0x5155495a51554553L;
+
+    private static final String MIGRATE = """
+            UPDATE quiz q SET question_ids = m.ids
+            FROM (SELECT quiz_id, string_agg(int4send(questions), ''::bytea ORDER BY ctid) AS ids FROM quiz_questions GROUP BY quiz_id) m
+            WHERE q.id = m.quiz_id AND q.question_ids IS NULL""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Depended on so that the migration runs after Hibernate has added the question_ids column.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Migrates the quizzes still stored in the join table, if there is one.
+     */
+    @PostConstruct
+    public void migrate() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            if (jdbcTemplate.queryForObject("SELECT to_regclass('quiz_questions') IS NOT NULL", Boolean.class)) {
+                int migrated = jdbcTemplate.update(MIGRATE);
+                jdbcTemplate.execute("ALTER TABLE quiz_questions RENAME TO quiz_questions_migrated");
+                log.info("Moved the question IDs of {} quizzes from quiz_questions into quiz.question_ids", migrated);
+            }
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package com.varma.quizservice.quizDAO;
+
+import com.varma.quizservice.model.AnswerKeyConverter;
+import com.varma.quizservice.model.QuestionIdsConverter;
+import com.varma.quizservice.model.Quiz;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The ReactiveQuizRepository class reads and writes quizzes without blocking for the reactive execution mode, with
+ * R2DBC statements against the same quiz table JPA maps, the question IDs and answer key packed by the same converters.
+ * It keeps a connection pool of its own rather than exposing an R2DBC connection factory, which would make Spring Boot
+ * back off from the JDBC data source the rest of the service uses. The pool is set with {@code quiz.r2dbc.url},
+ * {@code quiz.r2dbc.username}, {@code quiz.r2dbc.password} and {@code quiz.r2dbc.max-size}.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveQuizRepository {
+
+    private static final String INSERT_QUIZ = "INSERT INTO quiz (title, question_ids, answer_key) VALUES (:title, :questionIds, :answerKey)";
+
+    private static final String SELECT_QUIZ = "SELECT id, title, question_ids, answer_key FROM quiz WHERE id = :id";
+
+    private static final String UPDATE_ANSWER_KEY = "UPDATE quiz SET answer_key = :answerKey WHERE id = :id AND answer_key IS NULL";
+
+    private static final QuestionIdsConverter QUESTION_IDS = new QuestionIdsConverter();
+
+    private static final AnswerKeyConverter ANSWER_KEY = new AnswerKeyConverter();
+
+    private final ConnectionPool pool;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Constructs the repository and its connection pool, which opens connections as they are needed.
+     *
+     * @param url      the R2DBC URL of the database
+     * @param username the user to connect as
+     * @param password the password of the user
+     * @param maxSize  the largest number of connections
+     */
+    public ReactiveQuizRepository(@Value("${quiz.r2dbc.url}") String url,
+                                  @Value("${quiz.r2dbc.username}") String username,
+                                  @Value("${quiz.r2dbc.password}") String password,
+                                  @Value("${quiz.r2dbc.max-size:20}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("quiz-r2dbc")
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofMinutes(30))
+                .build());
+        this.databaseClient = DatabaseClient.create(pool);
+    }
+
+    /**
+     * Inserts a new quiz.
+     *
+     * @param quiz the quiz, without an ID
+     * @return the ID of the quiz
+     */
+    public Mono<Integer> insert(Quiz quiz) {
+        int[] questionIds = quiz.getQuestions().stream().mapToInt(Integer::intValue).toArray();
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT_QUIZ)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("questionIds", QUESTION_IDS.convertToDatabaseColumn(questionIds));
+        insert = quiz.getTitle() == null ? insert.bindNull("title", String.class) : insert.bind("title", quiz.getTitle());
+        insert = bindAnswerKey(insert, quiz.getAnswerKey());
+        return insert.map(row -> row.get("id", Integer.class)).one();
+    }
+
+    /**
+     * Reads a quiz by its ID.
+     *
+     * @param id the ID of the quiz
+     * @return the quiz, or empty if there is none
+     */
+    public Mono<Quiz> findById(Integer id) {
+        return databaseClient.sql(SELECT_QUIZ)
+                .bind("id", id)
+                .map(ReactiveQuizRepository::toQuiz)
+                .one();
+    }
+
+    /**
+     * Fills in the answer key of a quiz created before answer keys were captured, unless another request already did.
+     *
+     * @param id        the ID of the quiz
+     * @param answerKey the correct answer of every question, in the order of the questions
+     * @return the completion of the update
+     */
+    public Mono<Void> updateAnswerKey(Integer id, String[] answerKey) {
+        return bindAnswerKey(databaseClient.sql(UPDATE_ANSWER_KEY).bind("id", id), answerKey)
+                .then();
+    }
+
+    /**
+     * Closes the connection pool.
+     */
+    @PreDestroy
+    public void close() {
+        pool.dispose();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindAnswerKey(DatabaseClient.GenericExecuteSpec spec, String[] answerKey) {
+        return answerKey == null
+                ? spec.bindNull("answerKey", byte[].class)
+                : spec.bind("answerKey", ANSWER_KEY.convertToDatabaseColumn(answerKey));
+    }
+
+    private static Quiz toQuiz(Readable row) {
+        Quiz quiz = new Quiz();
+        quiz.setId(row.get("id", Integer.class));
+        quiz.setTitle(row.get("title", String.class));
+        int[] questionIds = QUESTION_IDS.convertToEntityAttribute(row.get("question_ids", byte[].class));
+        quiz.setQuestions(questionIds == null ? null : Arrays.stream(questionIds).boxed().toList());
+        quiz.setAnswerKey(ANSWER_KEY.convertToEntityAttribute(row.get("answer_key", byte[].class)));
+        return quiz;
+    }
+}
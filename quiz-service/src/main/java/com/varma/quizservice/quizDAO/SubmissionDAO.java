@@ -0,0 +1,12 @@
+package com.varma.quizservice.quizDAO;
+
+import com.varma.quizservice.model.Submission;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+/**
+ * The SubmissionDAO interface extends the JpaRepository interface to read the results of submissions.
+ */
+public interface SubmissionDAO extends JpaRepository<Submission, UUID> {
+}
@@ -0,0 +1,68 @@
+package com.varma.quizservice.quizDAO;
+
+import com.varma.quizservice.model.Submission;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * The SubmissionJdbcRepository class writes queued submissions and their results with JDBC statements, bypassing the
+ * persistence context: their IDs are assigned up front, so saving them through JPA would read every row before
+ * inserting it. Results are written in batches.
+ */
+@Repository
+public class SubmissionJdbcRepository {
+
+    private static final String INSERT_SUBMISSION = "INSERT INTO submission (id, quiz_id, user_id, duration_millis, status, score, error, submitted_at, scored_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_SUBMISSION = INSERT_SUBMISSION + " ON CONFLICT (id) DO UPDATE "
+            + "SET status = EXCLUDED.status, score = EXCLUDED.score, error = EXCLUDED.error, scored_at = EXCLUDED.scored_at "
+            + "WHERE submission.status = 'PENDING'";
+
+    private static final String INSERT_PENDING = INSERT_SUBMISSION + " ON CONFLICT (id) DO NOTHING";
+
+    /**
+     * The number of rows sent to the database in one JDBC batch.
+     */
+    public static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the results of the submissions using JDBC batch statements. A result replaces the pending row of its
+     * submission, but never a result that was already written.
+     *
+     * @param submissions the submissions to insert
+     */
+    public void insertAll(List<Submission> submissions) {
+        jdbcTemplate.batchUpdate(UPSERT_SUBMISSION, submissions, BATCH_SIZE, SubmissionJdbcRepository::setValues);
+    }
+
+    /**
+     * Inserts a pending submission, unless its result was already written.
+     *
+     * @param submission the pending submission
+     */
+    public void insertPending(Submission submission) {
+        jdbcTemplate.update(INSERT_PENDING, statement -> setValues(statement, submission));
+    }
+
+    private static void setValues(PreparedStatement statement, Submission submission) throws SQLException {
+        statement.setObject(1, submission.getId());
+        statement.setInt(2, submission.getQuizId());
+        statement.setString(3, submission.getUserId());
+        statement.setObject(4, submission.getDurationMillis(), Types.BIGINT);
+        statement.setString(5, submission.getStatus().name());
+        statement.setObject(6, submission.getScore(), Types.INTEGER);
+        statement.setString(7, submission.getError());
+        statement.setTimestamp(8, Timestamp.from(submission.getSubmittedAt()));
+        statement.setTimestamp(9, submission.getScoredAt() == null ? null : Timestamp.from(submission.getScoredAt()));
+    }
+}
@@ -0,0 +1,33 @@
+package com.varma.quizservice.reactive;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The ReactiveExecutionConfiguration class sets up the reactive execution mode, in which the quiz endpoints are served
+ * by WebFlux without blocking. A deployment selects it with {@code spring.main.web-application-type=reactive}, which
+ * the {@code reactive} profile sets; without it the service runs on the servlet stack as before. Both stacks are on
+ * the classpath, and Spring Boot would run WebFlux on Tomcat, so the reactive mode declares its Reactor Netty server
+ * here, whose event loops serve every connection.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExecutionConfiguration {
+
+    /**
+     * Returns the factory of the Reactor Netty server, which takes the {@code server.*} settings like any other.
+     *
+     * @param customizers the customizers of the Netty server
+     * @return the factory
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(ObjectProvider<NettyServerCustomizer> customizers) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+        factory.getServerCustomizers().addAll(customizers.orderedStream().toList());
+        return factory;
+    }
+}
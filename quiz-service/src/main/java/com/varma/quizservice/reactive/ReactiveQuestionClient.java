@@ -0,0 +1,167 @@
+package com.varma.quizservice.reactive;
+
+import com.varma.quizservice.exception.ServiceUnavailableException;
+import com.varma.quizservice.model.AnswerKeyEntry;
+import com.varma.quizservice.model.QuestionWrapper;
+import com.varma.quizservice.model.ShortfallPolicy;
+import com.varma.quizservice.resilience.QuestionClientProperties;
+import com.varma.quizservice.resilience.QuestionClientResilience;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The ReactiveQuestionClient class makes the calls of the reactive execution mode to question-service without
+ * blocking, on a load-balanced {@link WebClient} over Reactor Netty. It mirrors the methods of
+ * {@link com.varma.quizservice.feign.QuizInterface} the quiz endpoints use, and is guarded like the Feign client: every
+ * call gets the timeout budget of its method from the {@code question.client} settings, and goes through the circuit
+ * breaker and the bulkhead of {@link QuestionClientResilience}, which both clients share. Calls are not hedged.
+ * Instances are chosen by the same load balancer as the Feign calls, which sees every call through its lifecycle.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveQuestionClient {
+
+    private static final ParameterizedTypeReference<List<Integer>> QUESTION_IDS = new ParameterizedTypeReference<>() {
+    };
+
+    private static final ParameterizedTypeReference<List<QuestionWrapper>> QUESTION_WRAPPERS = new ParameterizedTypeReference<>() {
+    };
+
+    private static final ParameterizedTypeReference<List<AnswerKeyEntry>> ANSWER_KEY = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+
+    private final QuestionClientProperties properties;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Bulkhead bulkhead;
+
+    /**
+     * Constructs the client.
+     *
+     * @param builder            the web client builder set up by Spring Boot, with its codecs
+     * @param loadBalancerFilter the filter that resolves QUESTION-SERVICE to one of its instances
+     * @param properties         the {@code question.client} settings
+     * @param resilience         the guards shared with the Feign client
+     */
+    public ReactiveQuestionClient(WebClient.Builder builder, LoadBalancedExchangeFilterFunction loadBalancerFilter,
+                                  QuestionClientProperties properties, QuestionClientResilience resilience) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .compress(true);
+        if (properties.isHttp2()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C);
+        }
+        this.webClient = builder.clone()
+                .baseUrl("http://QUESTION-SERVICE")
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(loadBalancerFilter)
+                .build();
+        this.properties = properties;
+        this.circuitBreaker = resilience.getCircuitBreaker();
+        this.bulkhead = resilience.getBulkhead();
+    }
+
+    /**
+     * Draws the questions of a quiz, like {@code QuizInterface.getQuestionsForQuiz}.
+     *
+     * @param categories    the categories to draw from
+     * @param noOfQuestions the number of questions
+     * @param difficultyMix the weight of every difficulty level as {@code level:weight}, or null
+     * @param seed          the seed of the draw, or null
+     * @param shortfall     what to do when a level holds too few questions, or null
+     * @return the IDs of the questions
+     */
+    public Mono<List<Integer>> getQuestionsForQuiz(List<String> categories, Integer noOfQuestions, List<String> difficultyMix,
+                                                   Long seed, ShortfallPolicy shortfall) {
+        return guard("getQuestionsForQuiz", webClient.get()
+                .uri(uri -> {
+                    uri.path("/api/v1/generate")
+                            .queryParam("category", categories)
+                            .queryParam("noOfQuestions", noOfQuestions);
+                    if (difficultyMix != null) {
+                        uri.queryParam("difficulty", difficultyMix);
+                    }
+                    if (seed != null) {
+                        uri.queryParam("seed", seed);
+                    }
+                    if (shortfall != null) {
+                        uri.queryParam("shortfall", shortfall);
+                    }
+                    return uri.build();
+                })
+                .retrieve()
+                .bodyToMono(QUESTION_IDS));
+    }
+
+    /**
+     * Reads questions without their answers, like {@code QuizInterface.getQuestionsFromId}.
+     *
+     * @param questionIds the IDs of the questions
+     * @return the questions, in the order of the IDs
+     */
+    public Mono<List<QuestionWrapper>> getQuestionsFromId(List<Integer> questionIds) {
+        return guard("getQuestionsFromId", webClient.post()
+                .uri("/api/v1/getQuestions")
+                .bodyValue(questionIds)
+                .retrieve()
+                .bodyToMono(QUESTION_WRAPPERS));
+    }
+
+    /**
+     * Reads the correct answers of questions, like {@code QuizInterface.getAnswerKey}.
+     *
+     * @param questionIds the IDs of the questions
+     * @return the correct answer of every question, in the order of the IDs
+     */
+    public Mono<List<AnswerKeyEntry>> getAnswerKey(List<Integer> questionIds) {
+        return guard("getAnswerKey", webClient.post()
+                .uri("/api/v1/answerKey")
+                .bodyValue(questionIds)
+                .retrieve()
+                .bodyToMono(ANSWER_KEY));
+    }
+
+    private <T> Mono<T> guard(String method, Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Mono.error(new ServiceUnavailableException("The circuit breaker of question-service is open"));
+            }
+            if (!bulkhead.tryAcquirePermission()) {
+                circuitBreaker.releasePermission();
+                return Mono.error(new ServiceUnavailableException("Too many concurrent calls to question-service"));
+            }
+            long start = System.nanoTime();
+            return call.timeout(properties.timeout(method))
+                    .onErrorMap(TimeoutException.class, e -> new ServiceUnavailableException(
+                            "question-service did not answer %s within %d ms".formatted(method, properties.timeout(method).toMillis())))
+                    .doOnSuccess(value -> circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(e -> {
+                        if (e instanceof WebClientResponseException response && !response.getStatusCode().is5xxServerError()) {
+                            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        } else {
+                            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                        }
+                    })
+                    .doOnCancel(circuitBreaker::releasePermission)
+                    .doFinally(signal -> bulkhead.onComplete());
+        });
+    }
+}
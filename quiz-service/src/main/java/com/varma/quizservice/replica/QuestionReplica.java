@@ -0,0 +1,198 @@
+package com.varma.quizservice.replica;
+
+import com.varma.quizservice.model.ChangeFeed;
+import com.varma.quizservice.model.Question;
+import com.varma.quizservice.model.QuestionChange;
+import com.varma.quizservice.model.QuestionWrapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The QuestionReplica class keeps a local copy of the question bank of question-service: the wrapper of every question
+ * and its correct answer, enough to serve quizzes and capture their answer keys without a remote call. It is filled by
+ * {@link QuestionReplicaSync} with a copy of the questions and then with the changes of the question change feed.
+ * <p>
+ * Reads return null when the replica cannot answer them, because it was not loaded yet or misses one of the questions,
+ * so that the caller falls back to question-service. The replica is current while it has caught up with the feed within
+ * {@code question.replica.max-lag}; the time since it last caught up is published as the {@code question.replica.lag}
+ * metric, with the number of changes it is behind as {@code question.replica.behind} and its size as
+ * {@code question.replica.size}.
+ */
+@Component
+public class QuestionReplica implements MeterBinder {
+
+    private final long maxLagNanos;
+
+    private volatile Map<Integer, ReplicatedQuestion> questions = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    private volatile long sequence;
+
+    private volatile long highWaterMark;
+
+    private volatile long caughtUpAt;
+
+    private volatile boolean caughtUp;
+
+    /**
+     * Constructs an empty replica.
+     *
+     * @param maxLag the time since the replica last caught up with the change feed after which it is not current
+     */
+    public QuestionReplica(@Value("${question.replica.max-lag:30s}") Duration maxLag) {
+        this.maxLagNanos = maxLag.toNanos();
+    }
+
+    /**
+     * Replaces the content of the replica with a copy of the question bank.
+     *
+     * @param copy          the questions
+     * @param highWaterMark the high-water mark of the change log read before the copy was started
+     */
+    public void load(List<Question> copy, long highWaterMark) {
+        Map<Integer, ReplicatedQuestion> loaded = new ConcurrentHashMap<>(Math.max(16, copy.size() * 4 / 3 + 1));
+        for (Question question : copy) {
+            loaded.put(question.getId(), replicate(question));
+        }
+        questions = loaded;
+        sequence = highWaterMark;
+        this.highWaterMark = highWaterMark;
+        ready = true;
+    }
+
+    /**
+     * Applies a page of the change feed.
+     *
+     * @param feed the changes after the sequence number of the replica
+     */
+    public void apply(ChangeFeed feed) {
+        Map<Integer, ReplicatedQuestion> current = questions;
+        for (QuestionChange change : feed.changes()) {
+            if (change.question() == null) {
+                current.remove(change.id());
+            } else {
+                current.put(change.id(), replicate(change.question()));
+            }
+        }
+        sequence = feed.nextSequence();
+        highWaterMark = feed.highWaterMark();
+        if (feed.nextSequence() >= feed.highWaterMark()) {
+            caughtUpAt = System.nanoTime();
+            caughtUp = true;
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last change applied.
+     *
+     * @return the sequence number
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Tells whether the replica holds a copy of the question bank.
+     *
+     * @return true once the replica was loaded
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Tells whether the replica caught up with the change feed recently enough to be served.
+     *
+     * @return true if the replica is loaded and not lagging more than the maximum lag
+     */
+    public boolean isCurrent() {
+        return ready && caughtUp && System.nanoTime() - caughtUpAt <= maxLagNanos;
+    }
+
+    /**
+     * Returns the number of questions in the replica.
+     *
+     * @return the number of questions
+     */
+    public int size() {
+        return questions.size();
+    }
+
+    /**
+     * Returns the wrappers of the questions with the given IDs, in the same order.
+     *
+     * @param ids the IDs of the questions
+     * @return the wrappers, or null if the replica is not loaded or misses one of the questions
+     */
+    public List<QuestionWrapper> findWrappers(List<Integer> ids) {
+        if (!ready) {
+            return null;
+        }
+        Map<Integer, ReplicatedQuestion> current = questions;
+        List<QuestionWrapper> wrappers = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ReplicatedQuestion question = id == null ? null : current.get(id);
+            if (question == null) {
+                return null;
+            }
+            wrappers.add(question.wrapper());
+        }
+        return wrappers;
+    }
+
+    /**
+     * Returns the correct answers of the questions with the given IDs, in the same order.
+     *
+     * @param ids the IDs of the questions
+     * @return the correct answers, or null if the replica is not loaded or misses one of the questions
+     */
+    public String[] findAnswers(List<Integer> ids) {
+        if (!ready) {
+            return null;
+        }
+        Map<Integer, ReplicatedQuestion> current = questions;
+        String[] answers = new String[ids.size()];
+        for (int i = 0; i < answers.length; i++) {
+            Integer id = ids.get(i);
+            ReplicatedQuestion question = id == null ? null : current.get(id);
+            if (question == null) {
+                return null;
+            }
+            answers[i] = question.correctAns();
+        }
+        return answers;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("question.replica.lag", this, TimeUnit.NANOSECONDS, replica -> replica.caughtUp ? System.nanoTime() - replica.caughtUpAt : Double.NaN)
+                .description("The time since the question replica last caught up with the change feed")
+                .register(registry);
+        Gauge.builder("question.replica.behind", this, replica -> replica.ready ? Math.max(0, replica.highWaterMark - replica.sequence) : Double.NaN)
+                .description("The number of logged question changes the replica has not applied")
+                .register(registry);
+        Gauge.builder("question.replica.size", this, QuestionReplica::size)
+                .description("The number of questions in the replica")
+                .register(registry);
+    }
+
+    private static ReplicatedQuestion replicate(Question question) {
+        return new ReplicatedQuestion(new QuestionWrapper(question.getId(), question.getQuestion(), question.getOption1(),
+                question.getOption2(), question.getOption3(), question.getOption4()), question.getCorrectAns());
+    }
+
+    private record ReplicatedQuestion(QuestionWrapper wrapper, String correctAns) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.varma.quizservice.replica;
+
+import com.varma.quizservice.feign.QuizInterface;
+import com.varma.quizservice.model.ChangeFeed;
+import com.varma.quizservice.model.Question;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The QuestionReplicaSync class keeps the {@link QuestionReplica} in step with question-service on a background thread.
+ * It reads the high-water mark of the question change log, copies the questions page by page and then long-polls the
+ * change feed from the mark, applying every page of changes as it arrives. Replaying the changes logged during the copy
+ * is harmless, since every change carries the current state of its question. When the changes the replica needs were
+ * pruned from the log, the questions are copied again; the old copy is served meanwhile.
+ * <p>
+ * Sync is turned off with {@code question.replica.enabled}; {@code question.replica.page-size} sets the size of the
+ * pages copied and read from the feed, and {@code question.replica.wait} how long a feed request waits for a change.
+ */
+@Component
+public class QuestionReplicaSync {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionReplicaSync.class);
+
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final long MIN_BACKOFF_MILLIS = 500;
+
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    @Autowired
+    private QuestionReplica questionReplica;
+
+    @Autowired
+    private QuizInterface quizInterface;
+
+    private final boolean enabled;
+
+    private final int pageSize;
+
+    private final Duration wait;
+
+    /**
+     * Constructs the sync.
+     *
+     * @param enabled  whether the replica is kept
+     * @param pageSize the number of questions or changes read per request
+     * @param wait     how long a change feed request waits for a change
+     */
+    public QuestionReplicaSync(@Value("${question.replica.enabled:true}") boolean enabled,
+                               @Value("${question.replica.page-size:1000}") int pageSize,
+                               @Value("${question.replica.wait:10s}") Duration wait) {
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.wait = wait;
+    }
+
+    /**
+     * Starts the sync thread once the application is ready to serve requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "question-replica-sync");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        boolean copyNeeded = true;
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (copyNeeded) {
+                    copy();
+                    copyNeeded = false;
+                }
+                follow();
+                backoff = MIN_BACKOFF_MILLIS;
+            } catch (FeignException.Gone e) {
+                log.warn("The question changes after sequence {} were pruned, copying the questions again", questionReplica.sequence());
+                copyNeeded = true;
+            } catch (RuntimeException e) {
+                log.warn("Syncing the question replica failed, retrying in {} ms: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Copies the question bank into the replica.
+     */
+    private void copy() {
+        long started = System.nanoTime();
+        long highWaterMark = quizInterface.getChanges(null, 1, 0L).getBody().highWaterMark();
+        List<Question> questions = new ArrayList<>();
+        Integer after = null;
+        do {
+            ResponseEntity<List<Question>> page = quizInterface.getAllQuestions(after, pageSize);
+            questions.addAll(page.getBody());
+            String cursor = page.getHeaders().getFirst(NEXT_CURSOR_HEADER);
+            after = cursor == null ? null : Integer.valueOf(cursor);
+        } while (after != null);
+        questionReplica.load(questions, highWaterMark);
+        log.info("Copied {} questions into the replica at sequence {} in {} ms", questions.size(), highWaterMark, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Applies the next page of the change feed, waiting for a change if there is none.
+     */
+    private void follow() {
+        ChangeFeed feed = quizInterface.getChanges(questionReplica.sequence(), pageSize, wait.toMillis()).getBody();
+        questionReplica.apply(feed);
+    }
+}
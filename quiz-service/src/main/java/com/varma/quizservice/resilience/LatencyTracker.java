@@ -0,0 +1,46 @@
+package com.varma.quizservice.resilience;
+
+import java.util.Arrays;
+
+/**
+ * The LatencyTracker class keeps the latencies of the recent calls of a method in a ring buffer and estimates their
+ * 95th percentile, which is recomputed every few calls rather than on every read.
+ */
+final class LatencyTracker {
+
+    private static final int SAMPLES = 256;
+
+    private static final int MIN_SAMPLES = 20;
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples = new long[SAMPLES];
+
+    private long recorded;
+
+    private volatile long p95 = -1;
+
+    /**
+     * Records the latency of a call.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    synchronized void record(long nanos) {
+        samples[(int) (recorded % SAMPLES)] = nanos;
+        recorded++;
+        if (recorded >= MIN_SAMPLES && (recorded < SAMPLES || recorded % RECOMPUTE_EVERY == 0)) {
+            long[] sorted = Arrays.copyOf(samples, (int) Math.min(recorded, SAMPLES));
+            Arrays.sort(sorted);
+            p95 = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+        }
+    }
+
+    /**
+     * Returns the 95th percentile of the recent latencies.
+     *
+     * @return the percentile in nanoseconds, or -1 if too few calls were recorded
+     */
+    long p95() {
+        return p95;
+    }
+}
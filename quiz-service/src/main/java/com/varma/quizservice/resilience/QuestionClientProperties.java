@@ -0,0 +1,163 @@
+package com.varma.quizservice.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The QuestionClientProperties class holds the {@code question.client} settings of the calls to question-service:
+ * their protocol, their timeout budgets, the bulkhead, the circuit breaker, request hedging and the choice of instance.
+ * Methods of {@link com.varma.quizservice.feign.QuizInterface} are referred to by name.
+ */
+@Data
+@Component
+@ConfigurationProperties("question.client")
+public class QuestionClientProperties {
+
+    /**
+     * Whether calls are made over cleartext HTTP/2 (h2c) with prior knowledge, multiplexed over one connection per
+     * instance, rather than over HTTP/1.1; every instance of question-service must then accept h2c.
+     */
+    private boolean http2;
+
+    /**
+     * How long a connection to question-service may take to open.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    /**
+     * How long a call may wait for its response, unless its method has a timeout of its own.
+     */
+    private Duration defaultTimeout = Duration.ofSeconds(2);
+
+    /**
+     * The timeout budget of every method that needs one other than the default.
+     */
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    /**
+     * The largest number of calls to question-service in flight at once, hedged requests included.
+     */
+    private int maxConcurrentCalls = 64;
+
+    private CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+
+    private HedgeSettings hedge = new HedgeSettings();
+
+    private LoadBalancerSettings loadBalancer = new LoadBalancerSettings();
+
+    /**
+     * Returns the timeout budget of a method.
+     *
+     * @param method the name of the method
+     * @return the timeout of the method, or the default timeout
+     */
+    public Duration timeout(String method) {
+        return timeouts.getOrDefault(method, defaultTimeout);
+    }
+
+    /**
+     * The settings of the circuit breaker, which stops calling question-service for a while once too many calls fail.
+     */
+    @Data
+    public static class CircuitBreakerSettings {
+
+        /**
+         * The percentage of failed calls at which the circuit opens.
+         */
+        private float failureRateThreshold = 50;
+
+        /**
+         * The number of recent calls the failure rate is computed over.
+         */
+        private int slidingWindowSize = 50;
+
+        /**
+         * The number of calls needed before the failure rate is computed.
+         */
+        private int minimumNumberOfCalls = 20;
+
+        /**
+         * How long the circuit stays open before letting trial calls through.
+         */
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+    }
+
+    /**
+     * The settings of request hedging, which sends a second request when the first is slower than usual.
+     */
+    @Data
+    public static class HedgeSettings {
+
+        /**
+         * The methods whose requests are hedged; only idempotent methods may be listed.
+         */
+        private Set<String> methods = new HashSet<>();
+
+        /**
+         * The delay before hedging while too few latencies of a method are known to compute its 95th percentile.
+         */
+        private Duration initialDelay = Duration.ofMillis(100);
+
+        /**
+         * The shortest delay before hedging, however fast the method usually is.
+         */
+        private Duration minDelay = Duration.ofMillis(10);
+
+        /**
+         * The largest share of hedged calls that may be sent a second request.
+         */
+        private double maxRatio = 0.1;
+    }
+
+    /**
+     * The settings of the load balancer, which sends each call to the instance of question-service expected to answer
+     * it first and sets aside instances that keep failing.
+     */
+    @Data
+    public static class LoadBalancerSettings {
+
+        /**
+         * How quickly the moving average of the response times of an instance forgets older responses: the weight of a
+         * response is divided by e every decay.
+         */
+        private Duration decay = Duration.ofSeconds(10);
+
+        /**
+         * How long a newly registered instance takes to be chosen as readily as the others.
+         */
+        private Duration slowStart = Duration.ofSeconds(30);
+
+        /**
+         * The weight a newly registered instance starts with, its expected cost being divided by its weight.
+         */
+        private double slowStartMinWeight = 0.1;
+
+        /**
+         * The number of failed calls in a row after which an instance is ejected.
+         */
+        private int consecutiveFailures = 5;
+
+        /**
+         * How long an instance is ejected the first time; the time doubles every time it is ejected again before
+         * answering a call.
+         */
+        private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+        /**
+         * The longest time an instance is ejected.
+         */
+        private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+        /**
+         * The largest percentage of the instances that may be ejected at once.
+         */
+        private int maxEjectionPercent = 50;
+    }
+}
@@ -0,0 +1,350 @@
+package com.varma.quizservice.resilience;
+
+import com.varma.quizservice.exception.ServiceUnavailableException;
+import com.varma.quizservice.threads.WorkerThreads;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The QuestionClientResilience class guards the calls of the {@link com.varma.quizservice.feign.QuizInterface} Feign
+ * client to question-service. As a Feign {@link Capability} it wraps the client, after load balancing, so that:
+ * <ul>
+ * <li>every call gets the timeout budget of its method rather than one timeout for all;</li>
+ * <li>a bulkhead bounds the calls in flight to question-service and refuses the ones above the bound at once;</li>
+ * <li>a circuit breaker counts failed calls, connection failures and 5xx answers, and while it is open fails calls at
+ * once with a {@link ServiceUnavailableException}, which callers with a fallback, such as the replica behind
+ * {@code getQuizQuestions}, turn into a fast answer;</li>
+ * <li>calls of the idempotent methods listed for hedging send a second request once the first is slower than the 95th
+ * percentile of the method, and take whichever answers first. The hedge is load balanced on its own, and the
+ * {@link com.varma.quizservice.loadbalancer.LatencyAwareLoadBalancer} counts the first request as in flight, so it
+ * usually goes to another instance, though it may go to the same one when that is still the cheapest.
+ * Hedges are limited to a share of the calls, so that a slow question-service is not sent twice the load.</li>
+ * </ul>
+ * All of it is set with the {@code question.client} properties. The circuit breaker and the bulkhead publish the
+ * {@code resilience4j.circuitbreaker.*} and {@code resilience4j.bulkhead.*} metrics of {@code question-service}; hedges
+ * are counted in {@code question.client.hedges} by {@code result} and the delay before hedging published as
+ * {@code question.client.hedge.delay} by {@code method}. The latency and outcome of every call are observed by Feign
+ * as {@code http.client.requests}.
+ */
+@Component
+public class QuestionClientResilience implements Capability, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionClientResilience.class);
+
+    /**
+     * The name of the circuit breaker and the bulkhead.
+     */
+    public static final String NAME = "question-service";
+
+    private static final int HEDGE_COST = 100;
+
+    private static final int MAX_HEDGE_TOKENS = 10 * HEDGE_COST;
+
+    private static final long AWAIT_MARGIN_MILLIS = 1_000;
+
+    private final QuestionClientProperties properties;
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Bulkhead bulkhead;
+
+    private final Map<String, LatencyTracker> latencies = new ConcurrentHashMap<>();
+
+    private final ExecutorService hedgeExecutor;
+
+    private final AtomicInteger hedgeTokens = new AtomicInteger();
+
+    private final int hedgeDeposit;
+
+    private final LongAdder hedgesSent = new LongAdder();
+
+    private final LongAdder hedgesWon = new LongAdder();
+
+    private final LongAdder hedgesSkipped = new LongAdder();
+
+    /**
+     * Constructs the guards from their settings.
+     *
+     * @param properties the {@code question.client} settings
+     */
+    public QuestionClientResilience(QuestionClientProperties properties) {
+        this(properties, false);
+    }
+
+    /**
+     * Constructs the guards from their settings, running hedged requests on virtual threads when requests are served
+     * on virtual threads.
+     *
+     * @param properties     the {@code question.client} settings
+     * @param virtualThreads whether hedged requests run on virtual threads
+     */
+    @Autowired
+    public QuestionClientResilience(QuestionClientProperties properties,
+                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.properties = properties;
+        QuestionClientProperties.CircuitBreakerSettings breaker = properties.getCircuitBreaker();
+        this.circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(breaker.getFailureRateThreshold())
+                .slidingWindowSize(breaker.getSlidingWindowSize())
+                .minimumNumberOfCalls(breaker.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(breaker.getWaitDurationInOpenState())
+                .build());
+        this.bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NAME);
+        this.bulkhead = bulkheadRegistry.bulkhead(NAME);
+        this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuit breaker of question-service: {}", event.getStateTransition()));
+        this.hedgeDeposit = (int) Math.round(properties.getHedge().getMaxRatio() * HEDGE_COST);
+        this.hedgeExecutor = WorkerThreads.newExecutor("question-client-hedge-", virtualThreads, properties.getMaxConcurrentCalls());
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> execute(client, request, options);
+    }
+
+    /**
+     * Returns the circuit breaker of question-service, shared with the calls that do not go through Feign.
+     *
+     * @return the circuit breaker
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Returns the bulkhead of question-service, shared with the calls that do not go through Feign.
+     *
+     * @return the bulkhead
+     */
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * Stops the threads that run hedged requests.
+     */
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(registry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(registry);
+        bindHedges(registry, "sent", hedgesSent);
+        bindHedges(registry, "won", hedgesWon);
+        bindHedges(registry, "skipped", hedgesSkipped);
+        for (String method : properties.getHedge().getMethods()) {
+            TimeGauge.builder("question.client.hedge.delay", this, TimeUnit.NANOSECONDS, resilience -> resilience.hedgeDelayNanos(method))
+                    .tag("method", method)
+                    .description("The delay after which a call to question-service is hedged")
+                    .register(registry);
+        }
+    }
+
+    private void bindHedges(MeterRegistry registry, String result, LongAdder counter) {
+        FunctionCounter.builder("question.client.hedges", counter, LongAdder::sum)
+                .tag("result", result)
+                .description("The number of hedged requests sent to question-service, of hedges that answered first, and of hedges skipped for lack of budget")
+                .register(registry);
+    }
+
+    private Response execute(Client client, Request request, Request.Options options) throws IOException {
+        String method = request.requestTemplate() == null || request.requestTemplate().methodMetadata() == null
+                ? "" : request.requestTemplate().methodMetadata().method().getName();
+        Request.Options budget = new Request.Options(properties.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                properties.timeout(method).toMillis(), TimeUnit.MILLISECONDS, options.isFollowRedirects());
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new ServiceUnavailableException("The circuit breaker of question-service is open");
+        }
+        long start = System.nanoTime();
+        try {
+            Response response = properties.getHedge().getMethods().contains(method)
+                    ? executeHedged(client, request, budget, method)
+                    : attempt(client, request, budget, method);
+            if (response.status() >= 500) {
+                circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS,
+                        new IOException("question-service answered %d to %s".formatted(response.status(), method)));
+            } else {
+                circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            return response;
+        } catch (ServiceUnavailableException e) {
+            circuitBreaker.releasePermission();
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw e;
+        }
+    }
+
+    private Response attempt(Client client, Request request, Request.Options options, String method) throws IOException {
+        if (!bulkhead.tryAcquirePermission()) {
+            throw new ServiceUnavailableException("Too many concurrent calls to question-service");
+        }
+        try {
+            long start = System.nanoTime();
+            Response response = client.execute(request, options);
+            if (response.status() < 500) {
+                latencies.computeIfAbsent(method, name -> new LatencyTracker()).record(System.nanoTime() - start);
+            }
+            return response;
+        } finally {
+            bulkhead.onComplete();
+        }
+    }
+
+    private Response executeHedged(Client client, Request request, Request.Options options, String method) throws IOException {
+        hedgeTokens.updateAndGet(tokens -> Math.min(MAX_HEDGE_TOKENS, tokens + hedgeDeposit));
+        CompletableFuture<Response> primary;
+        try {
+            primary = submit(client, request, options, method);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many hedged calls to question-service are running");
+        }
+        try {
+            return primary.get(Math.min(hedgeDelayNanos(method), options.readTimeoutUnit().toNanos(options.readTimeout())), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // the primary is slower than usual, hedge it below
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            primary.thenAccept(Response::close);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling question-service");
+        }
+        if (!takeHedgeToken()) {
+            hedgesSkipped.increment();
+            return await(primary, options);
+        }
+        CompletableFuture<Response> hedge;
+        try {
+            hedge = submit(client, request, options, method);
+        } catch (RejectedExecutionException e) {
+            hedgesSkipped.increment();
+            return await(primary, options);
+        }
+        hedgesSent.increment();
+        CompletableFuture<Response> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((response, failure) -> settle(first, response, failure, failures, false));
+        hedge.whenComplete((response, failure) -> settle(first, response, failure, failures, true));
+        return await(first, options);
+    }
+
+    private CompletableFuture<Response> submit(Client client, Request request, Request.Options options, String method) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        hedgeExecutor.execute(() -> {
+            try {
+                future.complete(attempt(client, request, options, method));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private void settle(CompletableFuture<Response> first, Response response, Throwable failure, AtomicInteger failures, boolean hedge) {
+        if (failure == null) {
+            if (first.complete(response)) {
+                if (hedge) {
+                    hedgesWon.increment();
+                }
+            } else {
+                response.close();
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            first.completeExceptionally(failure);
+        }
+    }
+
+    private Response await(CompletableFuture<Response> future, Request.Options options) throws IOException {
+        long timeoutMillis = options.connectTimeoutMillis() + options.readTimeoutMillis() + AWAIT_MARGIN_MILLIS;
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.thenAccept(Response::close);
+            throw new IOException("question-service did not answer within %d ms".formatted(timeoutMillis));
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            future.thenAccept(Response::close);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calling question-service");
+        }
+    }
+
+    private boolean takeHedgeToken() {
+        int tokens;
+        do {
+            tokens = hedgeTokens.get();
+            if (tokens < HEDGE_COST) {
+                return false;
+            }
+        } while (!hedgeTokens.compareAndSet(tokens, tokens - HEDGE_COST));
+        return true;
+    }
+
+    private long hedgeDelayNanos(String method) {
+        LatencyTracker tracker = latencies.get(method);
+        long p95 = tracker == null ? -1 : tracker.p95();
+        return p95 < 0 ? properties.getHedge().getInitialDelay().toNanos() : Math.max(properties.getHedge().getMinDelay().toNanos(), p95);
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException ioException) {
+            return ioException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IOException(cause);
+    }
+}
@@ -0,0 +1,83 @@
+package com.varma.quizservice.scoring;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * The AnswerKeyCache class keeps the {@link QuizAnswerKey} of recently submitted quizzes in a bounded Caffeine cache,
+ * so that the submissions of a running quiz are scored without reading the quiz. An answer key never changes once the
+ * quiz is created, so entries need no invalidation. Its size is set with {@code quiz.answer-key-cache.maximum-size};
+ * hit, miss and eviction counts are published as the {@code cache.*} metrics of the {@code quiz-answer-keys} cache.
+ */
+@Component
+public class AnswerKeyCache implements MeterBinder {
+
+    /**
+     * The name under which the cache metrics are published.
+     */
+    public static final String CACHE_NAME = "quiz-answer-keys";
+
+    private final Cache<Integer, QuizAnswerKey> cache;
+
+    /**
+     * Constructs a cache.
+     *
+     * @param maximumSize the maximum number of cached answer keys
+     */
+    public AnswerKeyCache(@Value("${quiz.answer-key-cache.maximum-size:1000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the answer key of a quiz, loading it if it is not cached. The loader runs outside the locks of the cache,
+     * since blocking on the database inside them would pin a virtual thread to its carrier; concurrent first
+     * submissions of a quiz may therefore each load its answer key, which is the same every time.
+     *
+     * @param quizId the ID of the quiz
+     * @param loader loads the answer key of the quiz from the database
+     * @return the answer key
+     */
+    public QuizAnswerKey get(int quizId, Function<Integer, QuizAnswerKey> loader) {
+        QuizAnswerKey answerKey = cache.getIfPresent(quizId);
+        if (answerKey == null) {
+            answerKey = loader.apply(quizId);
+            cache.put(quizId, answerKey);
+        }
+        return answerKey;
+    }
+
+    /**
+     * Returns the answer key of a quiz if it is cached, for callers that load it without blocking.
+     *
+     * @param quizId the ID of the quiz
+     * @return the answer key, or null if it is not cached
+     */
+    public QuizAnswerKey getIfPresent(int quizId) {
+        return cache.getIfPresent(quizId);
+    }
+
+    /**
+     * Caches the answer key of a quiz.
+     *
+     * @param quizId    the ID of the quiz
+     * @param answerKey the answer key
+     */
+    public void put(int quizId, QuizAnswerKey answerKey) {
+        cache.put(quizId, answerKey);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+}
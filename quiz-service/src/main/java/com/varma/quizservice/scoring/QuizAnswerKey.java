@@ -0,0 +1,101 @@
+package com.varma.quizservice.scoring;
+
+import com.varma.quizservice.exception.InvalidSubmissionException;
+import com.varma.quizservice.model.Response;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The QuizAnswerKey class holds the correct answer of every question of a quiz, sorted by question ID, and scores
+ * submissions against it in one pass. A submission may leave questions out, but every response must answer a question
+ * of the quiz and no question may be answered twice. Instances are immutable and shared between threads.
+ */
+public final class QuizAnswerKey {
+
+    private final int quizId;
+
+    private final int[] ids;
+
+    private final String[] answers;
+
+    private QuizAnswerKey(int quizId, int[] ids, String[] answers) {
+        this.quizId = quizId;
+        this.ids = ids;
+        this.answers = answers;
+    }
+
+    /**
+     * Creates the answer key of a quiz.
+     *
+     * @param quizId      the ID of the quiz
+     * @param questionIds the IDs of the questions of the quiz
+     * @param answers     the correct answer of every question, in the order of the IDs
+     * @return the answer key
+     */
+    public static QuizAnswerKey of(int quizId, List<Integer> questionIds, String[] answers) {
+        if (questionIds.size() != answers.length) {
+            throw new IllegalArgumentException("Quiz " + quizId + " has " + questionIds.size() + " questions but " + answers.length + " answers");
+        }
+        Integer[] order = new Integer[answers.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (left, right) -> Integer.compare(questionIds.get(left), questionIds.get(right)));
+        int[] ids = new int[order.length];
+        String[] sortedAnswers = new String[order.length];
+        int size = 0;
+        for (Integer position : order) {
+            int id = questionIds.get(position);
+            if (size == 0 || ids[size - 1] != id) {
+                ids[size] = id;
+                sortedAnswers[size++] = answers[position];
+            }
+        }
+        return new QuizAnswerKey(quizId, Arrays.copyOf(ids, size), Arrays.copyOf(sortedAnswers, size));
+    }
+
+    /**
+     * Counts the correct responses: a response counts when it equals the correct answer of its question, and
+     * unanswered responses do not count.
+     *
+     * @param responses the responses
+     * @return the number of correct responses
+     * @throws InvalidSubmissionException if a response answers a question that is not part of the quiz, or a question
+     *                                    that another response already answered
+     */
+    public int score(List<Response> responses) {
+        BitSet answered = new BitSet(ids.length);
+        int score = 0;
+        List<Integer> foreign = null;
+        List<Integer> duplicates = null;
+        for (Response response : responses) {
+            int index = response.id() == null ? -1 : Arrays.binarySearch(ids, response.id());
+            if (index < 0) {
+                foreign = add(foreign, response.id());
+            } else if (answered.get(index)) {
+                duplicates = add(duplicates, response.id());
+            } else {
+                answered.set(index);
+                if (response.responseStatus() != null && response.responseStatus().equals(answers[index])) {
+                    score++;
+                }
+            }
+        }
+        if (foreign != null) {
+            throw new InvalidSubmissionException("Quiz %d has no questions with IDs: %s".formatted(quizId, foreign));
+        }
+        if (duplicates != null) {
+            throw new InvalidSubmissionException("Questions answered more than once in quiz %d: %s".formatted(quizId, duplicates));
+        }
+        return score;
+    }
+
+    private static List<Integer> add(List<Integer> list, Integer element) {
+        List<Integer> target = list == null ? new ArrayList<>() : list;
+        target.add(element);
+        return target;
+    }
+}
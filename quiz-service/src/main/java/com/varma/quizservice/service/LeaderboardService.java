@@ -0,0 +1,55 @@
+package com.varma.quizservice.service;
+
+import com.varma.quizservice.exception.ResourceNotFoundException;
+import com.varma.quizservice.leaderboard.Leaderboards;
+import com.varma.quizservice.model.Ranking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * The LeaderboardService class answers leaderboard queries from the in-memory {@link Leaderboards}, ranking users by
+ * their best attempt at a quiz.
+ */
+@Service
+public class LeaderboardService {
+
+    /**
+     * The largest number of rankings returned at once.
+     */
+    static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private Leaderboards leaderboards;
+
+    /**
+     * Retrieves the top of the leaderboard of a quiz.
+     *
+     * @param id    the ID of the quiz
+     * @param limit the number of rankings, capped at {@value #MAX_LIMIT}
+     * @return a ResponseEntity with the rankings of the best users, best first, and HTTP status code 200 (OK)
+     * @throws ResourceNotFoundException if the quiz does not exist
+     */
+    public ResponseEntity<List<Ranking>> getTop(Integer id, int limit) {
+        return new ResponseEntity<>(leaderboards.top(id, Math.max(0, Math.min(limit, MAX_LIMIT))), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the ranking of a user on the leaderboard of a quiz.
+     *
+     * @param id   the ID of the quiz
+     * @param user the user
+     * @return a ResponseEntity with the ranking and HTTP status code 200 (OK)
+     * @throws ResourceNotFoundException if the quiz does not exist or the user has no scored attempt at it
+     */
+    public ResponseEntity<Ranking> getRank(Integer id, String user) {
+        Ranking ranking = leaderboards.rank(id, user);
+        if (ranking == null) {
+            throw new ResourceNotFoundException("User %s has no scored attempt at quiz %d".formatted(user, id));
+        }
+        return new ResponseEntity<>(ranking, HttpStatus.OK);
+    }
+}
@@ -1,19 +1,33 @@
 package com.varma.quizservice.service;
 
 
+import com.varma.quizservice.coalescing.QuizQuestionsFlight;
 import com.varma.quizservice.exception.ResourceNotFoundException;
+import com.varma.quizservice.exception.InvalidSubmissionException;
+import com.varma.quizservice.exception.ServiceUnavailableException;
 import com.varma.quizservice.feign.QuizInterface;
+import com.varma.quizservice.model.AnswerKeyEntry;
 import com.varma.quizservice.model.QuestionWrapper;
 import com.varma.quizservice.model.Quiz;
+import com.varma.quizservice.model.QuizDto;
 import com.varma.quizservice.model.Response;
+import com.varma.quizservice.pool.QuizPools;
 import com.varma.quizservice.quizDAO.QuizDAO;
+import com.varma.quizservice.replica.QuestionReplica;
+import com.varma.quizservice.scoring.AnswerKeyCache;
+import com.varma.quizservice.scoring.QuizAnswerKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 
 /**
@@ -22,12 +36,26 @@ import java.util.Optional;
 @Service
 public class QuizService {
 
+    private static final Logger log = LoggerFactory.getLogger(QuizService.class);
+
     @Autowired
     private QuizDAO quizDAO;
 
     @Autowired
     private QuizInterface quizInterface;
 
+    @Autowired
+    private QuestionReplica questionReplica;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private QuizQuestionsFlight quizQuestionsFlight;
+
+    @Autowired
+    private QuizPools quizPools;
+
     /**
      * Creates a new quiz with the specified category, number of questions, and title.8888888888888888888888888888888888888888888888888888888888888888888888
      * @param category       the category of the quiz
@@ -37,50 +65,175 @@ public class QuizService {
      */
     public ResponseEntity<String> createQuiz(String category, Integer noOfQuestions, String title) {
 
-        List<Integer> questions= quizInterface.getQuestionsForQuiz(category,noOfQuestions).getBody();
+        List<Integer> questions= quizPools.take(category,noOfQuestions);
+        if (questions == null) {
+            questions = quizInterface.getQuestionsForQuiz(category,noOfQuestions).getBody();
+        }
 
         Quiz quiz= new Quiz();
         quiz.setTitle(title);
         quiz.setQuestions(questions);
+        quiz.setAnswerKey(findAnswers(questions));
         quizDAO.save(quiz);
         return new ResponseEntity<>("success", HttpStatus.CREATED);
     }
 
+    /**
+     * Creates a new quiz whose questions are drawn from one or more categories in the given difficulty mix.
+     * question-service draws all the questions in one call; with a seed the same request yields the same questions.
+     * Quizzes of a single category with no difficulty mix and no seed take a set drawn in advance from the
+     * {@link QuizPools} when there is one. The correct answers are captured with the quiz, so that submissions are
+     * scored without asking question-service.
+     *
+     * @param quizDto the categories, number of questions, difficulty mix, seed and title of the quiz
+     * @return a ResponseEntity with a success message and HTTP status code 201 (Created)
+     */
+    public ResponseEntity<String> createQuiz(QuizDto quizDto) {
+        Set<String> categories = categoriesOf(quizDto);
+        List<String> difficultyMix = difficultyMixOf(quizDto);
+
+        List<Integer> questions = isPoolable(categories, difficultyMix, quizDto)
+                ? quizPools.take(categories.iterator().next(), quizDto.getNoOfQuestions()) : null;
+        if (questions == null) {
+            questions = quizInterface.getQuestionsForQuiz(new ArrayList<>(categories), quizDto.getNoOfQuestions(),
+                    difficultyMix, quizDto.getSeed(), quizDto.getShortfall()).getBody();
+        }
+
+        Quiz quiz = new Quiz();
+        quiz.setTitle(quizDto.getTitle());
+        quiz.setQuestions(questions);
+        quiz.setAnswerKey(findAnswers(questions));
+        quizDAO.save(quiz);
+        return new ResponseEntity<>("success", HttpStatus.CREATED);
+    }
+
+    /**
+     * Returns the categories a quiz draws its questions from, the category first.
+     *
+     * @param quizDto the quiz to create
+     * @return the distinct categories, in order
+     */
+    static Set<String> categoriesOf(QuizDto quizDto) {
+        Set<String> categories = new LinkedHashSet<>();
+        if (quizDto.getCategory() != null) {
+            categories.add(quizDto.getCategory());
+        }
+        if (quizDto.getCategories() != null) {
+            categories.addAll(quizDto.getCategories());
+        }
+        return categories;
+    }
+
+    /**
+     * Returns the difficulty mix of a quiz as the {@code level:weight} parameters of question-service.
+     *
+     * @param quizDto the quiz to create
+     * @return the weight of every difficulty level, or null to ignore difficulty
+     */
+    static List<String> difficultyMixOf(QuizDto quizDto) {
+        return quizDto.getDifficultyMix() == null ? null : quizDto.getDifficultyMix().entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + entry.getValue())
+                .toList();
+    }
+
+    /**
+     * Tells whether the questions of a quiz may be taken from the {@link QuizPools}: it must be a plain quiz of a
+     * single category, with no difficulty mix and no seed.
+     *
+     * @param categories    the categories of the quiz
+     * @param difficultyMix the difficulty mix of the quiz, or null
+     * @param quizDto       the quiz to create
+     * @return true if the questions may be pooled
+     */
+    static boolean isPoolable(Set<String> categories, List<String> difficultyMix, QuizDto quizDto) {
+        return categories.size() == 1 && difficultyMix == null && quizDto.getSeed() == null;
+    }
+
     /**
      * Retrieves the questions for a quiz with the specified ID.
+     * Concurrent requests for the same quiz share a single load through the {@link QuizQuestionsFlight}, and the loaded
+     * questions are kept for a short time. The questions are read from the local {@link QuestionReplica} while it is
+     * current and holds all of them; otherwise they are fetched from question-service, and the replica is only used if
+     * that call fails.
      *
      * @param id the ID of the quiz
      * @return a ResponseEntity with a list of QuestionWrapper objects and HTTP status code 200 (OK)
      * @throws ResourceNotFoundException if the quiz with the specified ID is not found
+     * @throws ServiceUnavailableException if the questions could not be loaded within the load timeout
      */
     public ResponseEntity<List<QuestionWrapper>> getQuizQuestions(Integer id) {
+        return new ResponseEntity<>(quizQuestionsFlight.get(id, this::loadQuizQuestions), HttpStatus.OK);
+    }
+
+    private List<QuestionWrapper> loadQuizQuestions(Integer id) {
         if (!quizDAO.existsQuizById(id)) {
             throw new ResourceNotFoundException("Quiz with id %d not found".formatted(id));
         }
         Quiz quiz = quizDAO.findById(id).get();
         List<Integer> questionIds=quiz.getQuestions();
 
-        ResponseEntity<List<QuestionWrapper>> questionsFromId= quizInterface.getQuestionsFromId(questionIds);
-        return questionsFromId;
+        List<QuestionWrapper> replicated = questionReplica.findWrappers(questionIds);
+        if (replicated != null && questionReplica.isCurrent()) {
+            return replicated;
+        }
+        try {
+            return quizInterface.getQuestionsFromId(questionIds).getBody();
+        } catch (RuntimeException e) {
+            if (replicated == null) {
+                throw e;
+            }
+            log.warn("Fetching the questions of quiz {} failed, serving them from the lagging replica: {}", id, e.getMessage());
+            return replicated;
+        }
     }
 
     /**
      * Calculates the results for a quiz with the specified ID based on the user's responses.
+     * The responses are scored in one pass against the answer key captured with the quiz, which is read with the quiz
+     * on the first submission and cached after it, so scoring takes no call to question-service. Quizzes created before
+     * answer keys were captured get theirs on their first submission.
      *
      * @param id         the ID of the quiz
      * @param responses  the list of user's responses
      * @return a ResponseEntity with the number of correct responses and HTTP status code 200 (OK)
      * @throws ResourceNotFoundException if the quiz with the specified ID is not found
+     * @throws InvalidSubmissionException if a response answers a question that is not part of the quiz, or answers a
+     * question twice
      */
     public ResponseEntity<Integer> calculateResults(Integer id, List<Response> responses) {
+        QuizAnswerKey answerKey = getAnswerKey(id);
+        return new ResponseEntity<>(answerKey.score(responses == null ? List.of() : responses), HttpStatus.OK);
+    }
 
-        if (!quizDAO.existsQuizById(id)) {
-            throw new ResourceNotFoundException("Quiz with id %d not found".formatted(id));
-        }
+    /**
+     * Returns the answer key of a quiz, from the cache or else read with the quiz.
+     *
+     * @param id the ID of the quiz
+     * @return the answer key
+     * @throws ResourceNotFoundException if the quiz with the specified ID is not found
+     */
+    public QuizAnswerKey getAnswerKey(Integer id) {
+        return answerKeyCache.get(id, this::loadAnswerKey);
+    }
 
-       ResponseEntity<Integer> result= quizInterface.getScore(responses);
+    private QuizAnswerKey loadAnswerKey(Integer id) {
+        Quiz quiz = quizDAO.findById(id).orElseThrow(() -> new ResourceNotFoundException("Quiz with id %d not found".formatted(id)));
+        if (quiz.getAnswerKey() == null) {
+            quiz.setAnswerKey(findAnswers(quiz.getQuestions()));
+            quizDAO.save(quiz);
+        }
+        return QuizAnswerKey.of(id, quiz.getQuestions(), quiz.getAnswerKey());
+    }
 
-        return result;
+    private String[] findAnswers(List<Integer> questionIds) {
+        if (questionIds == null) {
+            return null;
+        }
+        String[] replicated = questionReplica.isCurrent() ? questionReplica.findAnswers(questionIds) : null;
+        if (replicated != null) {
+            return replicated;
+        }
+        List<AnswerKeyEntry> entries = quizInterface.getAnswerKey(questionIds).getBody();
+        return entries.stream().map(AnswerKeyEntry::correctAns).toArray(String[]::new);
     }
 }
-
@@ -0,0 +1,192 @@
+package com.varma.quizservice.service;
+
+import com.varma.quizservice.coalescing.QuizQuestionsFlight;
+import com.varma.quizservice.exception.InvalidSubmissionException;
+import com.varma.quizservice.exception.ResourceNotFoundException;
+import com.varma.quizservice.exception.ServiceUnavailableException;
+import com.varma.quizservice.model.AnswerKeyEntry;
+import com.varma.quizservice.model.QuestionWrapper;
+import com.varma.quizservice.model.Quiz;
+import com.varma.quizservice.model.QuizDto;
+import com.varma.quizservice.model.Response;
+import com.varma.quizservice.model.Submission;
+import com.varma.quizservice.model.SubmissionStatus;
+import com.varma.quizservice.pool.QuizPools;
+import com.varma.quizservice.quizDAO.ReactiveQuizRepository;
+import com.varma.quizservice.reactive.ReactiveQuestionClient;
+import com.varma.quizservice.replica.QuestionReplica;
+import com.varma.quizservice.scoring.AnswerKeyCache;
+import com.varma.quizservice.scoring.QuizAnswerKey;
+import com.varma.quizservice.submission.SubmissionQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The ReactiveQuizService class is the non-blocking counterpart of {@link QuizService} and
+ * {@link SubmissionService#submit} in the reactive execution mode: it creates quizzes, retrieves their questions and
+ * scores submissions with the same rules and results, but reads and writes quizzes with the
+ * {@link ReactiveQuizRepository} and calls question-service with the {@link ReactiveQuestionClient}, so that no
+ * request holds a thread while it waits. The question pools, the replica, the coalescing of question loads, the answer
+ * key cache and the submission queue are shared with the servlet mode.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveQuizService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveQuizService.class);
+
+    @Autowired
+    private ReactiveQuizRepository reactiveQuizRepository;
+
+    @Autowired
+    private ReactiveQuestionClient reactiveQuestionClient;
+
+    @Autowired
+    private QuestionReplica questionReplica;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private QuizQuestionsFlight quizQuestionsFlight;
+
+    @Autowired
+    private QuizPools quizPools;
+
+    @Autowired
+    private SubmissionQueue submissionQueue;
+
+    /**
+     * Creates a new quiz like {@link QuizService#createQuiz(QuizDto)}.
+     *
+     * @param quizDto the categories, number of questions, difficulty mix, seed and title of the quiz
+     * @return a ResponseEntity with a success message and HTTP status code 201 (Created)
+     */
+    public Mono<ResponseEntity<String>> createQuiz(QuizDto quizDto) {
+        Set<String> categories = QuizService.categoriesOf(quizDto);
+        List<String> difficultyMix = QuizService.difficultyMixOf(quizDto);
+
+        List<Integer> pooled = QuizService.isPoolable(categories, difficultyMix, quizDto)
+                ? quizPools.take(categories.iterator().next(), quizDto.getNoOfQuestions()) : null;
+        Mono<List<Integer>> questions = pooled != null ? Mono.just(pooled)
+                : reactiveQuestionClient.getQuestionsForQuiz(new ArrayList<>(categories), quizDto.getNoOfQuestions(),
+                difficultyMix, quizDto.getSeed(), quizDto.getShortfall());
+
+        return questions.flatMap(questionIds -> findAnswers(questionIds).flatMap(answers -> {
+                    Quiz quiz = new Quiz();
+                    quiz.setTitle(quizDto.getTitle());
+                    quiz.setQuestions(questionIds);
+                    quiz.setAnswerKey(answers);
+                    return reactiveQuizRepository.insert(quiz);
+                }))
+                .thenReturn(new ResponseEntity<>("success", HttpStatus.CREATED));
+    }
+
+    /**
+     * Retrieves the questions for a quiz with the specified ID like {@link QuizService#getQuizQuestions}, sharing the
+     * loads in flight and the kept results of the {@link QuizQuestionsFlight} with it.
+     *
+     * @param id the ID of the quiz
+     * @return a ResponseEntity with a list of QuestionWrapper objects and HTTP status code 200 (OK)
+     * @throws ResourceNotFoundException if the quiz with the specified ID is not found
+     * @throws ServiceUnavailableException if the questions could not be loaded within the load timeout
+     */
+    public Mono<ResponseEntity<List<QuestionWrapper>>> getQuizQuestions(Integer id) {
+        return Mono.fromFuture(() -> quizQuestionsFlight.getAsync(id, key -> loadQuizQuestions(key).toFuture()))
+                .map(questions -> new ResponseEntity<>(questions, HttpStatus.OK));
+    }
+
+    private Mono<List<QuestionWrapper>> loadQuizQuestions(Integer id) {
+        return findQuiz(id).flatMap(quiz -> {
+            List<Integer> questionIds = quiz.getQuestions();
+            List<QuestionWrapper> replicated = questionReplica.findWrappers(questionIds);
+            if (replicated != null && questionReplica.isCurrent()) {
+                return Mono.just(replicated);
+            }
+            Mono<List<QuestionWrapper>> fetched = reactiveQuestionClient.getQuestionsFromId(questionIds);
+            if (replicated == null) {
+                return fetched;
+            }
+            return fetched.onErrorResume(RuntimeException.class, e -> {
+                log.warn("Fetching the questions of quiz {} failed, serving them from the lagging replica: {}", id, e.getMessage());
+                return Mono.just(replicated);
+            });
+        });
+    }
+
+    /**
+     * Scores a submission of the responses to a quiz and records the attempt like {@link SubmissionService#submit}.
+     * An attempt that does not fit in the {@link SubmissionQueue} is written on a worker thread, off the event loop.
+     *
+     * @param id             the ID of the quiz
+     * @param responses      the list of user's responses
+     * @param user           the user who made the attempt, or null if anonymous
+     * @param durationMillis how long the attempt took, or null if unknown
+     * @return a ResponseEntity with the number of correct responses and HTTP status code 200 (OK)
+     * @throws ResourceNotFoundException  if the quiz with the specified ID is not found
+     * @throws InvalidSubmissionException if the responses are invalid, or the user or duration is
+     */
+    public Mono<ResponseEntity<Integer>> submit(Integer id, List<Response> responses, String user, Long durationMillis) {
+        return Mono.defer(() -> {
+            SubmissionService.validateAttempt(user, durationMillis);
+            Instant submittedAt = Instant.now();
+            return getAnswerKey(id).flatMap(answerKey -> {
+                int score = answerKey.score(responses == null ? List.of() : responses);
+                Submission attempt = new Submission(UUID.randomUUID(), id, user, durationMillis, SubmissionStatus.SCORED,
+                        score, null, submittedAt, Instant.now());
+                Mono<Void> recorded = submissionQueue.tryRecord(attempt) ? Mono.empty()
+                        : Mono.fromRunnable(() -> submissionQueue.record(attempt)).subscribeOn(Schedulers.boundedElastic()).then();
+                return recorded.thenReturn(new ResponseEntity<>(score, HttpStatus.OK));
+            });
+        });
+    }
+
+    /**
+     * Returns the answer key of a quiz, from the cache or else read with the quiz, like
+     * {@link QuizService#getAnswerKey}.
+     *
+     * @param id the ID of the quiz
+     * @return the answer key
+     * @throws ResourceNotFoundException if the quiz with the specified ID is not found
+     */
+    public Mono<QuizAnswerKey> getAnswerKey(Integer id) {
+        QuizAnswerKey cached = answerKeyCache.getIfPresent(id);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return findQuiz(id).flatMap(quiz -> {
+                    Mono<String[]> answers = quiz.getAnswerKey() != null ? Mono.just(quiz.getAnswerKey())
+                            : findAnswers(quiz.getQuestions()).flatMap(found ->
+                            reactiveQuizRepository.updateAnswerKey(id, found).thenReturn(found));
+                    return answers.map(found -> QuizAnswerKey.of(id, quiz.getQuestions(), found));
+                })
+                .doOnNext(answerKey -> answerKeyCache.put(id, answerKey));
+    }
+
+    private Mono<Quiz> findQuiz(Integer id) {
+        return reactiveQuizRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Quiz with id %d not found".formatted(id))));
+    }
+
+    private Mono<String[]> findAnswers(List<Integer> questionIds) {
+        String[] replicated = questionReplica.isCurrent() ? questionReplica.findAnswers(questionIds) : null;
+        if (replicated != null) {
+            return Mono.just(replicated);
+        }
+        return reactiveQuestionClient.getAnswerKey(questionIds)
+                .map(entries -> entries.stream().map(AnswerKeyEntry::correctAns).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,145 @@
+package com.varma.quizservice.service;
+
+import com.varma.quizservice.exception.InvalidSubmissionException;
+import com.varma.quizservice.exception.ResourceNotFoundException;
+import com.varma.quizservice.model.Response;
+import com.varma.quizservice.model.Submission;
+import com.varma.quizservice.model.SubmissionReceipt;
+import com.varma.quizservice.model.SubmissionStatus;
+import com.varma.quizservice.quizDAO.SubmissionDAO;
+import com.varma.quizservice.submission.SubmissionQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The SubmissionService class scores quiz submissions, at once or in the background by the {@link SubmissionQueue},
+ * and looks the results of the latter up. Every attempt is kept with the user who made it and how long it took.
+ * <p>
+ * A submission that is still stored as pending {@code quiz.submission.pending-timeout} after it was made is reported
+ * as failed: the instance that queued it stopped or could not write its result.
+ */
+@Service
+public class SubmissionService {
+
+    /**
+     * The number of seconds a client is asked to wait before submitting again when the queue is full.
+     */
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    /**
+     * The longest user name accepted.
+     */
+    static final int MAX_USER_LENGTH = 255;
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private SubmissionQueue submissionQueue;
+
+    @Autowired
+    private SubmissionDAO submissionDAO;
+
+    private final Duration pendingTimeout;
+
+    /**
+     * Constructs the service.
+     *
+     * @param pendingTimeout how long a stored submission may stay pending before it is reported as failed
+     */
+    public SubmissionService(@Value("${quiz.submission.pending-timeout:10m}") Duration pendingTimeout) {
+        this.pendingTimeout = pendingTimeout;
+    }
+
+    /**
+     * Scores a submission of the responses to a quiz with {@link QuizService#calculateResults} and records the attempt,
+     * which is written with the next batch of the {@link SubmissionQueue}.
+     *
+     * @param id             the ID of the quiz
+     * @param responses      the list of user's responses
+     * @param user           the user who made the attempt, or null if anonymous
+     * @param durationMillis how long the attempt took, or null if unknown
+     * @return a ResponseEntity with the number of correct responses and HTTP status code 200 (OK)
+     * @throws ResourceNotFoundException  if the quiz with the specified ID is not found
+     * @throws InvalidSubmissionException if the responses are invalid, or the user or duration is
+     */
+    public ResponseEntity<Integer> submit(Integer id, List<Response> responses, String user, Long durationMillis) {
+        validateAttempt(user, durationMillis);
+        Instant submittedAt = Instant.now();
+        ResponseEntity<Integer> result = quizService.calculateResults(id, responses);
+        submissionQueue.record(new Submission(UUID.randomUUID(), id, user, durationMillis, SubmissionStatus.SCORED,
+                result.getBody(), null, submittedAt, Instant.now()));
+        return result;
+    }
+
+    /**
+     * Queues a submission of the responses to a quiz for scoring. The quiz and the responses are checked when the
+     * submission is scored, and a submission that fails the checks gets a rejected result.
+     *
+     * @param id             the ID of the quiz
+     * @param responses      the list of user's responses
+     * @param user           the user who made the attempt, or null if anonymous
+     * @param durationMillis how long the attempt took, or null if unknown
+     * @return a ResponseEntity with the ID of the submission and HTTP status code 202 (Accepted), or HTTP status code
+     * 429 (Too Many Requests) if the queue is full
+     * @throws InvalidSubmissionException if the user or duration is invalid
+     */
+    public ResponseEntity<SubmissionReceipt> submitAsync(Integer id, List<Response> responses, String user, Long durationMillis) {
+        validateAttempt(user, durationMillis);
+        Submission submission = new Submission(UUID.randomUUID(), id, user, durationMillis, SubmissionStatus.PENDING, null, null, Instant.now(), null);
+        if (!submissionQueue.offer(submission, responses == null ? List.of() : responses)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/quiz/result/" + submission.getId()))
+                .body(new SubmissionReceipt(submission.getId()));
+    }
+
+    /**
+     * Retrieves the result of a submission.
+     *
+     * @param submissionId the ID of the submission
+     * @return a ResponseEntity with the submission and HTTP status code 200 (OK) once it was scored, rejected or failed,
+     * or HTTP status code 202 (Accepted) while it is pending
+     * @throws ResourceNotFoundException if there is no submission with the specified ID
+     */
+    public ResponseEntity<Submission> getResult(UUID submissionId) {
+        Submission pending = submissionQueue.findPending(submissionId);
+        if (pending != null) {
+            return new ResponseEntity<>(pending, pending.getStatus() == SubmissionStatus.PENDING ? HttpStatus.ACCEPTED : HttpStatus.OK);
+        }
+        return submissionDAO.findById(submissionId)
+                .map(this::expireIfStale)
+                .map(submission -> new ResponseEntity<>(submission, submission.getStatus() == SubmissionStatus.PENDING ? HttpStatus.ACCEPTED : HttpStatus.OK))
+                .orElseThrow(() -> new ResourceNotFoundException("Submission %s not found".formatted(submissionId)));
+    }
+
+    private Submission expireIfStale(Submission submission) {
+        if (submission.getStatus() != SubmissionStatus.PENDING || submission.getSubmittedAt().plus(pendingTimeout).isAfter(Instant.now())) {
+            return submission;
+        }
+        return new Submission(submission.getId(), submission.getQuizId(), submission.getUserId(), submission.getDurationMillis(),
+                SubmissionStatus.FAILED, null, "The submission was not scored in time", submission.getSubmittedAt(), null);
+    }
+
+    static void validateAttempt(String user, Long durationMillis) {
+        if (user != null && (user.isBlank() || user.length() > MAX_USER_LENGTH)) {
+            throw new InvalidSubmissionException("User must be between 1 and %d characters".formatted(MAX_USER_LENGTH));
+        }
+        if (durationMillis != null && durationMillis < 0) {
+            throw new InvalidSubmissionException("Duration must not be negative: %d".formatted(durationMillis));
+        }
+    }
+}
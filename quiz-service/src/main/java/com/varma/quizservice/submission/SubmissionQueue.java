@@ -0,0 +1,385 @@
+package com.varma.quizservice.submission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.varma.quizservice.exception.InvalidSubmissionException;
+import com.varma.quizservice.exception.ResourceNotFoundException;
+import com.varma.quizservice.leaderboard.Leaderboards;
+import com.varma.quizservice.model.Response;
+import com.varma.quizservice.model.Submission;
+import com.varma.quizservice.model.SubmissionStatus;
+import com.varma.quizservice.quizDAO.SubmissionJdbcRepository;
+import com.varma.quizservice.scoring.QuizAnswerKey;
+import com.varma.quizservice.service.QuizService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SubmissionQueue class scores quiz submissions in the background. Submissions are offered to a bounded queue,
+ * which refuses them when it is full rather than letting a burst of submissions pile up in memory. Attempts scored on
+ * submission are bounded separately, so that synchronous traffic cannot use up the room of asynchronous submissions,
+ * nor the other way round. A pool of worker
+ * threads drains the queue in micro-batches: a worker takes what has queued up, up to the batch size, without waiting
+ * for a batch to fill, so batches grow with the load and a lone submission is scored at once. The submissions of a
+ * batch are grouped by quiz, so that the answer key of every quiz is resolved once per batch, and their results are
+ * written with one batched insert. The attempts of known users that were scored are then recorded on the
+ * {@link Leaderboards}. Attempts scored on submission are queued only to be written in the same batches.
+ * <p>
+ * A queued submission is also written as a PENDING row, so that every instance can look it up, not only the one
+ * holding it in its queue; its result replaces the row. Until its result is written, a submission can be looked up
+ * here as pending. A batch whose results could not be written,
+ * after {@value #MAX_STORE_ATTEMPTS} attempts or because scoring it failed, is kept as FAILED for an hour instead, so
+ * that its submitters learn that their attempts were lost rather than finding no trace of them. The number of queued
+ * submissions and of queued attempts, the number of workers and the batch size are set with
+ * {@code quiz.submission.queue-capacity}, {@code quiz.submission.record-capacity}, {@code quiz.submission.workers} and
+ * {@code quiz.submission.batch-size}. The number of queued submissions is published as the
+ * {@code quiz.submission.queue.depth} metric, the time from queueing a submission to writing its result as
+ * {@code quiz.submission.latency}, the size of the batches as {@code quiz.submission.batch.size} and the number of
+ * submissions refused as {@code quiz.submission.rejected}.
+ */
+@Component
+public class SubmissionQueue implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionQueue.class);
+
+    private static final long POLL_MILLIS = 100;
+
+    private static final int MAX_STORE_ATTEMPTS = 3;
+
+    private static final long STORE_RETRY_MILLIS = 1_000;
+
+    private static final long SHUTDOWN_MILLIS = 10_000;
+
+    private static final Duration FAILED_RETENTION = Duration.ofHours(1);
+
+    @Autowired
+    private QuizService quizService;
+
+    @Autowired
+    private SubmissionJdbcRepository submissionJdbcRepository;
+
+    @Autowired
+    private Leaderboards leaderboards;
+
+    private final BlockingQueue<QueuedSubmission> queue = new LinkedBlockingQueue<>();
+
+    private final Semaphore submissionPermits;
+
+    private final Semaphore recordPermits;
+
+    private final Map<UUID, Submission> pending = new ConcurrentHashMap<>();
+
+    private final Cache<UUID, Submission> failed;
+
+    private final int batchSize;
+
+    private final int workers;
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile boolean accepting = true;
+
+    private volatile boolean running;
+
+    private volatile Timer latency;
+
+    private volatile DistributionSummary batchSizes;
+
+    private volatile Counter rejected;
+
+    /**
+     * Constructs an empty queue.
+     *
+     * @param capacity       the number of submissions the queue holds before it refuses them
+     * @param recordCapacity the number of attempts scored on submission the queue holds before it refuses them
+     * @param batchSize      the largest number of submissions scored and written together
+     * @param workers        the number of worker threads
+     */
+    public SubmissionQueue(@Value("${quiz.submission.queue-capacity:10000}") int capacity,
+                           @Value("${quiz.submission.record-capacity:10000}") int recordCapacity,
+                           @Value("${quiz.submission.batch-size:200}") int batchSize,
+                           @Value("${quiz.submission.workers:2}") int workers) {
+        this.submissionPermits = new Semaphore(capacity);
+        this.recordPermits = new Semaphore(recordCapacity);
+        this.failed = Caffeine.newBuilder()
+                .maximumSize(capacity)
+                .expireAfterWrite(FAILED_RETENTION)
+                .build();
+        this.batchSize = batchSize;
+        this.workers = workers;
+    }
+
+    /**
+     * Queues a submission for scoring and writes it as pending. If the pending row cannot be written, the submission
+     * stays queued and only this instance knows it until its result is written.
+     *
+     * @param submission the pending submission, with its ID, quiz and submission time
+     * @param responses  the responses of the submission
+     * @return true if the submission was queued, false if the queue is full or shutting down
+     */
+    public boolean offer(Submission submission, List<Response> responses) {
+        pending.put(submission.getId(), submission);
+        if (!accepting || !submissionPermits.tryAcquire()) {
+            pending.remove(submission.getId());
+            if (rejected != null) {
+                rejected.increment();
+            }
+            return false;
+        }
+        queue.add(new QueuedSubmission(submission, responses, System.nanoTime()));
+        try {
+            submissionJdbcRepository.insertPending(submission);
+        } catch (RuntimeException e) {
+            log.warn("Writing pending submission {} failed: {}", submission.getId(), e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Queues an attempt that was scored on submission to be written with the next batch. If the queue holds as many
+     * attempts as it may, the attempt is written at once instead, which slows the caller down until the workers catch up.
+     *
+     * @param attempt the scored attempt
+     */
+    public void record(Submission attempt) {
+        if (tryRecord(attempt)) {
+            return;
+        }
+        submissionJdbcRepository.insertAll(List.of(attempt));
+        rank(List.of(attempt));
+    }
+
+    /**
+     * Queues an attempt that was scored on submission to be written with the next batch, unless the queue holds as
+     * many attempts as it may, for callers that must not block and write the attempt with {@link #record} elsewhere instead.
+     *
+     * @param attempt the scored attempt
+     * @return true if the attempt was queued, false if the queue is full or shutting down
+     */
+    public boolean tryRecord(Submission attempt) {
+        if (!accepting || !recordPermits.tryAcquire()) {
+            return false;
+        }
+        queue.add(new QueuedSubmission(attempt, null, System.nanoTime()));
+        return true;
+    }
+
+    /**
+     * Returns a submission whose result has not been written yet, or could not be written.
+     *
+     * @param id the ID of the submission
+     * @return the pending submission, the failed one, or null if it is neither
+     */
+    public Submission findPending(UUID id) {
+        Submission submission = pending.get(id);
+        return submission != null ? submission : failed.getIfPresent(id);
+    }
+
+    /**
+     * Returns the number of queued submissions.
+     *
+     * @return the number of submissions waiting for a worker
+     */
+    public int depth() {
+        return queue.size();
+    }
+
+    /**
+     * Starts the workers once the application is ready to serve requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void startOnReady() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::run, "submission-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    /**
+     * Stops accepting submissions and lets the workers score the queued ones before they exit.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        accepting = false;
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_MILLIS);
+        for (Thread thread : threads) {
+            thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} queued submissions were not scored before shutdown", queue.size());
+        }
+        threads.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("quiz.submission.queue.depth", this, SubmissionQueue::depth)
+                .description("The number of submissions waiting to be scored")
+                .register(registry);
+        latency = Timer.builder("quiz.submission.latency")
+                .description("The time from queueing a submission to writing its result")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        batchSizes = DistributionSummary.builder("quiz.submission.batch.size")
+                .description("The number of submissions scored and written together")
+                .register(registry);
+        rejected = Counter.builder("quiz.submission.rejected")
+                .description("The number of submissions refused because the queue was full")
+                .register(registry);
+    }
+
+    private void run() {
+        List<QueuedSubmission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedSubmission first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batch.forEach(queued -> (queued.responses() == null ? recordPermits : submissionPermits).release());
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Scoring a batch of {} submissions failed", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Scores a batch of submissions and writes their results. Whatever happens, no submission of the batch is left
+     * pending: those whose result was not written are kept as FAILED.
+     *
+     * @param batch the submissions
+     */
+    void process(List<QueuedSubmission> batch) throws InterruptedException {
+        boolean stored = false;
+        try {
+            List<Submission> results = score(batch);
+            stored = store(results);
+            if (stored) {
+                rank(results);
+            }
+        } finally {
+            long now = System.nanoTime();
+            for (QueuedSubmission queued : batch) {
+                if (!stored) {
+                    failed.put(queued.submission().getId(), result(queued, SubmissionStatus.FAILED, null, "The result could not be written"));
+                }
+                pending.remove(queued.submission().getId());
+                if (latency != null) {
+                    latency.record(now - queued.queuedAt(), TimeUnit.NANOSECONDS);
+                }
+            }
+            if (batchSizes != null) {
+                batchSizes.record(batch.size());
+            }
+        }
+    }
+
+    private List<Submission> score(List<QueuedSubmission> batch) {
+        Map<Integer, List<QueuedSubmission>> byQuiz = new LinkedHashMap<>();
+        List<Submission> results = new ArrayList<>(batch.size());
+        for (QueuedSubmission queued : batch) {
+            if (queued.responses() == null) {
+                results.add(queued.submission());
+            } else {
+                byQuiz.computeIfAbsent(queued.submission().getQuizId(), quizId -> new ArrayList<>()).add(queued);
+            }
+        }
+        for (Map.Entry<Integer, List<QueuedSubmission>> quiz : byQuiz.entrySet()) {
+            QuizAnswerKey answerKey;
+            try {
+                answerKey = quizService.getAnswerKey(quiz.getKey());
+            } catch (ResourceNotFoundException e) {
+                quiz.getValue().forEach(queued -> results.add(result(queued, SubmissionStatus.REJECTED, null, e.getMessage())));
+                continue;
+            } catch (RuntimeException e) {
+                log.warn("Reading the answer key of quiz {} failed: {}", quiz.getKey(), e.getMessage());
+                quiz.getValue().forEach(queued -> results.add(result(queued, SubmissionStatus.FAILED, null, "The answer key could not be read: " + e.getMessage())));
+                continue;
+            }
+            for (QueuedSubmission queued : quiz.getValue()) {
+                try {
+                    results.add(result(queued, SubmissionStatus.SCORED, answerKey.score(queued.responses()), null));
+                } catch (InvalidSubmissionException e) {
+                    results.add(result(queued, SubmissionStatus.REJECTED, null, e.getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    private boolean store(List<Submission> results) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                submissionJdbcRepository.insertAll(results);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt == MAX_STORE_ATTEMPTS) {
+                    log.error("Writing the results of {} submissions failed, keeping them as failed", results.size(), e);
+                    return false;
+                }
+                log.warn("Writing the results of {} submissions failed, retrying: {}", results.size(), e.getMessage());
+                Thread.sleep(STORE_RETRY_MILLIS * attempt);
+            }
+        }
+    }
+
+    private void rank(List<Submission> attempts) {
+        for (Submission attempt : attempts) {
+            if (attempt.getStatus() == SubmissionStatus.SCORED && attempt.getUserId() != null) {
+                leaderboards.record(attempt.getQuizId(), attempt.getUserId(), attempt.getScore(), attempt.getDurationMillis(), attempt.getScoredAt());
+            }
+        }
+    }
+
+    private static Submission result(QueuedSubmission queued, SubmissionStatus status, Integer score, String error) {
+        Submission submission = queued.submission();
+        String truncated = error == null || error.length() <= Submission.MAX_ERROR_LENGTH ? error : error.substring(0, Submission.MAX_ERROR_LENGTH);
+        return new Submission(submission.getId(), submission.getQuizId(), submission.getUserId(), submission.getDurationMillis(), status, score, truncated, submission.getSubmittedAt(), Instant.now());
+    }
+
+    /**
+     * A submission waiting in the queue, with the time it was queued at.
+     */
+    record QueuedSubmission(Submission submission, List<Response> responses, long queuedAt) {
+    }
+}
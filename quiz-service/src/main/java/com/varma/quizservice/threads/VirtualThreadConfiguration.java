@@ -0,0 +1,36 @@
+package com.varma.quizservice.threads;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * The VirtualThreadConfiguration class serves requests on virtual threads, one per request, rather than on the pool of
+ * Tomcat platform threads, when {@code spring.threads.virtual.enabled} is set; it is the property Spring Boot reads
+ * from 3.2 on. The JDBC and Feign calls of a request then block its virtual thread only, which unmounts from its
+ * carrier while it waits, so the number of requests in flight is bounded by the connection pools rather than by
+ * threads. Coalesced loads and hedged calls run on virtual threads as well, see {@link WorkerThreads}.
+ * <p>
+ * A virtual thread that blocks inside a {@code synchronized} block, or in a loader of
+ * {@code ConcurrentHashMap.computeIfAbsent} or a Caffeine cache, pins its carrier. The request paths therefore load
+ * answer keys and leaderboards outside such locks. OkHttp writes HTTP/2 frames while holding a monitor, so
+ * {@code question.client.http2} is best left off in this mode.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    /**
+     * Returns the customizer that makes Tomcat run every request on a virtual thread of its own.
+     *
+     * @return the customizer
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tomcat-handler-", 0).factory()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.varma.quizservice.threads;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The WorkerThreads class creates the executors that run blocking calls on behalf of requests, such as coalesced
+ * loads and hedged calls to question-service. With virtual threads, every task gets a virtual thread of its own, as
+ * virtual threads are not meant to be pooled. Otherwise tasks run on a pool of daemon platform threads that grows on
+ * demand up to a bound and refuses tasks above it with a {@link RejectedExecutionException}, so that tasks outliving
+ * the callers that gave up on them cannot pile up threads while question-service is slow.
+ */
+public final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    /**
+     * Creates an executor of blocking tasks.
+     *
+     * @param prefix     the prefix of the names of the threads, followed by a sequence number
+     * @param virtual    whether the tasks run on virtual threads
+     * @param maxThreads the largest number of platform threads, and so of tasks running at once without virtual threads
+     * @return the executor
+     */
+    public static ExecutorService newExecutor(String prefix, boolean virtual, int maxThreads) {
+        if (virtual) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 1).factory());
+        }
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, prefix + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
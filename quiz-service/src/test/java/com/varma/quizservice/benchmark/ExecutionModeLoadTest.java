@@ -0,0 +1,202 @@
+package com.varma.quizservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.quizservice.model.QuizDto;
+import com.varma.quizservice.model.Response;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares the servlet and the reactive execution modes of quiz-service under many concurrent connections. It keeps
+ * {@code benchmark.connections} clients (1000 by default) busy against a running quiz-service for
+ * {@code benchmark.duration} after a {@code benchmark.warmup}, each sending its next request as soon as the previous
+ * one is answered: 70% {@code get/{id}}, 25% {@code submit/{id}} and 5% {@code create}. The clients share one
+ * non-blocking {@link HttpClient}, so the load generator itself holds no thread per connection.
+ * <p>
+ * It reports the throughput, the median and 99th percentile latency and the errors, and reads from the actuator of
+ * the service its heap and non-heap use and its live threads, idle before the load and sampled every second under it.
+ * The growth under load is reported per 1000 connections, which is what the two modes are compared by. Run it once
+ * against quiz-service started as usual and once started with {@code --spring.profiles.active=reactive}, with the
+ * same heap settings and question-service behind it, naming the run with {@code -Dbenchmark.mode=servlet|reactive}:
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.varma.quizservice.benchmark.ExecutionModeLoadTest -Dexec.classpathScope=test -Dbenchmark.mode=reactive}.
+ * {@code -Dbenchmark.quiz-service.url} (default {@code http://localhost:8089}) and {@code -Dbenchmark.quiz-id} name the
+ * service and an existing quiz; {@code -Dbenchmark.category} names a category with enough questions for the creates.
+ * The summary is printed as one CSV line, after a header, so that runs can be collected into one table.
+ */
+public class ExecutionModeLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String mode = System.getProperty("benchmark.mode", "unnamed");
+    private final URI baseUri = URI.create(System.getProperty("benchmark.quiz-service.url", "http://localhost:8089"));
+    private final int connections = Integer.getInteger("benchmark.connections", 1000);
+    private final Duration warmup = Duration.parse("PT" + System.getProperty("benchmark.warmup", "10s"));
+    private final Duration duration = Duration.parse("PT" + System.getProperty("benchmark.duration", "60s"));
+    private final int quizId = Integer.getInteger("benchmark.quiz-id", 1);
+    private final String category = System.getProperty("benchmark.category", "Java");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Timer latency = Timer.builder("load.latency")
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private byte[] submission;
+    private byte[] creation;
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    public static void main(String[] args) throws Exception {
+        new ExecutionModeLoadTest().run();
+    }
+
+    private void run() throws Exception {
+        prepareBodies();
+        ServiceMemory idle = ServiceMemory.read(this);
+
+        List<CompletableFuture<Void>> clients = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            clients.add(loop());
+        }
+        Thread.sleep(warmup.toMillis());
+        measuring = true;
+        long start = System.nanoTime();
+        List<ServiceMemory> samples = new ArrayList<>();
+        while (System.nanoTime() - start < duration.toNanos()) {
+            Thread.sleep(1_000);
+            samples.add(ServiceMemory.read(this));
+        }
+        measuring = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running = false;
+        CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        ServiceMemory loaded = ServiceMemory.average(samples);
+        double perThousand = 1000.0 / connections;
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+        System.out.println("mode,connections,throughput_per_s,p50_ms,p99_ms,errors,idle_heap_mb,loaded_heap_mb,heap_mb_per_1k,nonheap_mb_per_1k,idle_threads,loaded_threads,threads_per_1k");
+        System.out.printf("%s,%d,%.1f,%.2f,%.2f,%d,%.1f,%.1f,%.1f,%.1f,%.0f,%.0f,%.0f%n", mode, connections,
+                completed.sum() / seconds, percentile(snapshot, 0.5), percentile(snapshot, 0.99), errors.sum(),
+                idle.heapMb(), loaded.heapMb(), (loaded.heapMb() - idle.heapMb()) * perThousand,
+                (loaded.nonHeapMb() - idle.nonHeapMb()) * perThousand,
+                idle.threads(), loaded.threads(), (loaded.threads() - idle.threads()) * perThousand);
+    }
+
+    private void prepareBodies() throws Exception {
+        HttpResponse<byte[]> questions = client.send(HttpRequest.newBuilder(baseUri.resolve("/quiz/get/" + quizId)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (questions.statusCode() != 200) {
+            throw new IllegalStateException("Quiz %d could not be read: HTTP %d".formatted(quizId, questions.statusCode()));
+        }
+        List<Response> responses = new ArrayList<>();
+        for (JsonNode question : MAPPER.readTree(questions.body())) {
+            responses.add(new Response(question.get("id").asInt(), question.get("option1").asText()));
+        }
+        submission = MAPPER.writeValueAsBytes(responses);
+        QuizDto quizDto = new QuizDto();
+        quizDto.setCategory(category);
+        quizDto.setNoOfQuestions(Math.max(1, responses.size()));
+        quizDto.setTitle("Load test quiz");
+        creation = MAPPER.writeValueAsBytes(quizDto);
+    }
+
+    private CompletableFuture<Void> loop() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        send(done);
+        return done;
+    }
+
+    private void send(CompletableFuture<Void> done) {
+        if (!running) {
+            done.complete(null);
+            return;
+        }
+        long start = System.nanoTime();
+        client.sendAsync(nextRequest(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (measuring) {
+                        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (failure != null || response.statusCode() >= 300) {
+                            errors.increment();
+                        } else {
+                            completed.increment();
+                        }
+                    }
+                    send(done);
+                });
+    }
+
+    private HttpRequest nextRequest() {
+        int draw = ThreadLocalRandom.current().nextInt(100);
+        if (draw < 70) {
+            return HttpRequest.newBuilder(baseUri.resolve("/quiz/get/" + quizId)).GET().build();
+        }
+        if (draw < 95) {
+            return json(baseUri.resolve("/quiz/submit/" + quizId + "?user=load-" + ThreadLocalRandom.current().nextInt(10_000)), submission);
+        }
+        return json(baseUri.resolve("/quiz/create"), creation);
+    }
+
+    private static HttpRequest json(URI uri, byte[] body) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private double metric(String name, String tag) throws Exception {
+        URI uri = baseUri.resolve("/actuator/metrics/" + name + (tag == null ? "" : "?tag=" + tag));
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        for (JsonNode measurement : MAPPER.readTree(response.body()).get("measurements")) {
+            if (measurement.get("statistic").asText().equals("VALUE")) {
+                return measurement.get("value").asDouble();
+            }
+        }
+        throw new IllegalStateException("The actuator reported no value of " + name);
+    }
+
+    private record ServiceMemory(double heapMb, double nonHeapMb, double threads) {
+
+        static ServiceMemory read(ExecutionModeLoadTest test) throws Exception {
+            return new ServiceMemory(test.metric("jvm.memory.used", "area:heap") / (1 << 20),
+                    test.metric("jvm.memory.used", "area:nonheap") / (1 << 20),
+                    test.metric("jvm.threads.live", null));
+        }
+
+        static ServiceMemory average(List<ServiceMemory> samples) {
+            int count = Math.max(1, samples.size());
+            return new ServiceMemory(samples.stream().mapToDouble(ServiceMemory::heapMb).sum() / count,
+                    samples.stream().mapToDouble(ServiceMemory::nonHeapMb).sum() / count,
+                    samples.stream().mapToDouble(ServiceMemory::threads).sum() / count);
+        }
+    }
+}
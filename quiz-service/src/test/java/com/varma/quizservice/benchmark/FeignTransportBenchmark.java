@@ -0,0 +1,202 @@
+package com.varma.quizservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.quizservice.feign.QuizInterface;
+import com.varma.quizservice.model.QuestionWrapper;
+import com.varma.quizservice.model.Response;
+import feign.Client;
+import feign.Feign;
+import feign.Retryer;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.loader.WebappClassLoaderBase;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.coyote.http2.Http2Protocol;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Compares the transports of {@link QuizInterface} on its three hot methods: {@code getQuestionsForQuiz},
+ * {@code getQuestionsFromId} and {@code getScore}. The {@code default} transport is the {@link Client.Default} that
+ * Spring Cloud OpenFeign used before, on {@code HttpURLConnection} with its small keep-alive cache and no compression;
+ * {@code okhttp} is the pooled OkHttp client with transparent gzip, and {@code okhttp-h2c} the same client multiplexing
+ * every call on one HTTP/2 connection with prior knowledge. The clients are built like the Spring Cloud ones, with the
+ * Spring MVC contract and the Jackson encoder and decoder.
+ * <p>
+ * By default the calls go to an embedded Tomcat answering canned question-service payloads with HTTP/2 and the
+ * compression settings of question-service, so that only the transport is measured. Set
+ * {@code -Dbenchmark.question-service.url=http://localhost:8081} to call a running question-service instead, with
+ * {@code -Dbenchmark.category=...} naming a category with enough questions.
+ * Throughput and the latency distribution are both reported.
+ * Run with {@code mvn test-compile exec:java -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.classpathScope=test -Dexec.args="FeignTransportBenchmark -f 0"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class FeignTransportBenchmark {
+
+    private static final int QUESTIONS = 50;
+
+    // the stub has no web application, so Tomcat fails to look for leaked JDBC drivers when it stops and logs it
+    private static final Logger LOADER_LOGGER = Logger.getLogger(WebappClassLoaderBase.class.getName());
+
+    @Param({"default", "okhttp", "okhttp-h2c"})
+    String transport;
+
+    private Tomcat tomcat;
+    private OkHttpClient okHttpClient;
+    private QuizInterface client;
+    private String category;
+    private List<Integer> questionIds;
+    private List<Response> responses;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = System.getProperty("benchmark.question-service.url");
+        if (url == null) {
+            url = "http://localhost:" + startStub();
+        }
+        category = System.getProperty("benchmark.category", "Java");
+        questionIds = new ArrayList<>();
+        responses = new ArrayList<>();
+        for (int id = 1; id <= QUESTIONS; id++) {
+            questionIds.add(id);
+            responses.add(new Response(id, "Option " + id % 4));
+        }
+
+        ObjectFactory<HttpMessageConverters> converters = () -> new HttpMessageConverters(new MappingJackson2HttpMessageConverter());
+        client = Feign.builder()
+                .client(transport())
+                .contract(new SpringMvcContract())
+                .encoder(new SpringEncoder(converters))
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(converters, new StaticListableBeanFactory().getBeanProvider(HttpMessageConverterCustomizer.class))))
+                .retryer(Retryer.NEVER_RETRY)
+                .target(QuizInterface.class, url);
+        if (tomcat == null) {
+            // a running question-service hands out random questions, so ask for IDs it actually has
+            List<Integer> generated = client.getQuestionsForQuiz(category, QUESTIONS).getBody();
+            if (generated != null && !generated.isEmpty()) {
+                questionIds = generated;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (okHttpClient != null) {
+            okHttpClient.connectionPool().evictAll();
+            okHttpClient.dispatcher().executorService().shutdown();
+        }
+        if (tomcat != null) {
+            tomcat.stop();
+            tomcat.destroy();
+        }
+    }
+
+    @Benchmark
+    public List<Integer> getQuestionsForQuiz() {
+        return client.getQuestionsForQuiz(category, QUESTIONS).getBody();
+    }
+
+    @Benchmark
+    public List<QuestionWrapper> getQuestionsFromId() {
+        return client.getQuestionsFromId(questionIds).getBody();
+    }
+
+    @Benchmark
+    public Integer getScore() {
+        return client.getScore(responses).getBody();
+    }
+
+    private Client transport() {
+        if (transport.equals("default")) {
+            return new Client.Default(null, null);
+        }
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(64, 300, TimeUnit.SECONDS));
+        if (transport.equals("okhttp-h2c")) {
+            builder.protocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE));
+        }
+        okHttpClient = builder.build();
+        return new feign.okhttp.OkHttpClient(okHttpClient);
+    }
+
+    private int startStub() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Integer> ids = new ArrayList<>();
+        List<QuestionWrapper> wrappers = new ArrayList<>();
+        for (int id = 1; id <= QUESTIONS; id++) {
+            ids.add(id);
+            wrappers.add(new QuestionWrapper(id, "Which of the following statements about question " + id
+                    + " of the benchmark quiz is true, assuming the default configuration?",
+                    "The first option of question " + id, "The second option of question " + id,
+                    "The third option of question " + id, "The fourth option of question " + id));
+        }
+        Map<String, byte[]> bodies = Map.of(
+                "/api/v1/generate", mapper.writeValueAsBytes(ids),
+                "/api/v1/getQuestions", mapper.writeValueAsBytes(wrappers),
+                "/api/v1/getScore", mapper.writeValueAsBytes(QUESTIONS / 4));
+
+        LOADER_LOGGER.setLevel(java.util.logging.Level.OFF);
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("feign-transport-benchmark").toString());
+        Connector connector = new Connector();
+        connector.setPort(0);
+        connector.addUpgradeProtocol(new Http2Protocol());
+        connector.setProperty("compression", "on");
+        connector.setProperty("compressibleMimeType", "application/json");
+        connector.setProperty("compressionMinSize", "2048");
+        tomcat.setConnector(connector);
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "question-service", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.getInputStream().readAllBytes();
+                byte[] body = bodies.get(request.getRequestURI());
+                if (body == null) {
+                    response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                    return;
+                }
+                response.setContentType("application/json");
+                response.setContentLength(body.length);
+                response.getOutputStream().write(body);
+            }
+        });
+        context.addServletMappingDecoded("/*", "question-service");
+        tomcat.start();
+        return connector.getLocalPort();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FeignTransportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
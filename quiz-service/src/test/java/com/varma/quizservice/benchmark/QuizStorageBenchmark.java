@@ -0,0 +1,113 @@
+package com.varma.quizservice.benchmark;
+
+import com.varma.quizservice.model.QuestionIdsConverter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating and reading a quiz whose question IDs are kept in the former quiz_questions join table with the
+ * packed question_ids column. The join table variant issues the statements Hibernate issued for the
+ * {@code @ElementCollection} (the quiz insert and one insert per question, then the quiz select and the collection
+ * select), the packed variant a single insert or select of the quiz row, with the IDs converted by
+ * {@link QuestionIdsConverter}. Both run against a real Postgres, since the saving is in round trips and rows:
+ * {@code -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/quizs -Dbenchmark.jdbc.username=postgres -Dbenchmark.jdbc.password=...}.
+ * The benchmark creates and drops its own benchmark_quiz* tables.
+ * Run with {@code mvn test-compile exec:java -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.classpathScope=test -Dexec.args="QuizStorageBenchmark -f 0"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuizStorageBenchmark {
+
+    private static final QuestionIdsConverter CONVERTER = new QuestionIdsConverter();
+
+    @Param({"10", "100", "1000"})
+    int questions;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private int[] questionIds;
+    private int joinedQuizId;
+    private int packedQuizId;
+
+    @Setup(Level.Trial)
+    public void setUpDatabase() {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/quizs"),
+                System.getProperty("benchmark.jdbc.username", "postgres"),
+                System.getProperty("benchmark.jdbc.password", ""), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        dropTables();
+        jdbcTemplate.execute("CREATE TABLE benchmark_quiz (id serial PRIMARY KEY, title varchar(255))");
+        jdbcTemplate.execute("CREATE TABLE benchmark_quiz_questions (quiz_id integer NOT NULL REFERENCES benchmark_quiz, questions integer)");
+        jdbcTemplate.execute("CREATE TABLE benchmark_quiz_packed (id serial PRIMARY KEY, title varchar(255), question_ids bytea)");
+        questionIds = new int[questions];
+        for (int i = 0; i < questions; i++) {
+            questionIds[i] = 1 + i * 7;
+        }
+        joinedQuizId = createWithJoinTable();
+        packedQuizId = createPacked();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownDatabase() {
+        dropTables();
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public int createWithJoinTable() {
+        return transactionTemplate.execute(status -> {
+            Integer id = jdbcTemplate.queryForObject("INSERT INTO benchmark_quiz (title) VALUES (?) RETURNING id", Integer.class, "Benchmark quiz");
+            for (int questionId : questionIds) {
+                jdbcTemplate.update("INSERT INTO benchmark_quiz_questions (quiz_id, questions) VALUES (?, ?)", id, questionId);
+            }
+            return id;
+        });
+    }
+
+    @Benchmark
+    public int createPacked() {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(
+                "INSERT INTO benchmark_quiz_packed (title, question_ids) VALUES (?, ?) RETURNING id", Integer.class,
+                "Benchmark quiz", CONVERTER.convertToDatabaseColumn(questionIds)));
+    }
+
+    @Benchmark
+    public int readWithJoinTable() {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForMap("SELECT id, title FROM benchmark_quiz WHERE id = ?", joinedQuizId);
+            List<Integer> ids = jdbcTemplate.queryForList("SELECT questions FROM benchmark_quiz_questions WHERE quiz_id = ?", Integer.class, joinedQuizId);
+            return ids.size();
+        });
+    }
+
+    @Benchmark
+    public int readPacked() {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(
+                "SELECT id, title, question_ids FROM benchmark_quiz_packed WHERE id = ?",
+                (resultSet, rowNum) -> CONVERTER.convertToEntityAttribute(resultSet.getBytes("question_ids")).length, packedQuizId));
+    }
+
+    private void dropTables() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS benchmark_quiz_questions, benchmark_quiz, benchmark_quiz_packed");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(QuizStorageBenchmark.class.getSimpleName()).build()).run();
+    }
+}
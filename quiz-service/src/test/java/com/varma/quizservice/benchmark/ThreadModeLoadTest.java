@@ -0,0 +1,220 @@
+package com.varma.quizservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varma.quizservice.model.Response;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares serving requests on virtual threads with serving them on the Tomcat platform-thread pool, for
+ * quiz-service or question-service. It ramps the number of concurrent clients through {@code benchmark.steps}
+ * (50 to 3200 by default). At every step each client sends its next request as soon as the previous one is answered,
+ * for a {@code benchmark.warmup} and then a measured {@code benchmark.step-duration}. A step is sustained while at
+ * most {@code benchmark.max-error-rate} of its requests fail (1% by default) and its 99th percentile latency stays
+ * within {@code benchmark.p99-slo} (1s by default). The ramp stops at the first step that is not sustained, and the
+ * last sustained step is reported as the maximum sustained concurrency.
+ * <p>
+ * {@code -Dbenchmark.target=quiz} (the default) drives quiz-service: 70% {@code quiz/get/{id}} and 30%
+ * {@code quiz/submit/{id}} of {@code -Dbenchmark.quiz-id}. Run it with the replica disabled, so that every get calls
+ * question-service. {@code -Dbenchmark.target=question} drives question-service: 40% {@code getQuestions}, 30%
+ * {@code generate}, 20% {@code category/{category}} and 10% {@code getScore} for {@code -Dbenchmark.category}.
+ * {@code -Dbenchmark.url} overrides the address of the service.
+ * <p>
+ * Run it once against the service started as usual and once with {@code --spring.threads.virtual.enabled=true}, both
+ * with the same {@code -Xmx}, naming the runs with {@code -Dbenchmark.mode=platform|virtual}:
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.varma.quizservice.benchmark.ThreadModeLoadTest -Dexec.classpathScope=test -Dbenchmark.mode=virtual}.
+ * Every step is printed as a CSV line with the maximum heap and the live threads of the service read from its
+ * actuator, so that runs at unequal heaps stand out, followed by the maximum sustained concurrency.
+ */
+public class ThreadModeLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String mode = System.getProperty("benchmark.mode", "unnamed");
+    private final boolean quizTarget = !System.getProperty("benchmark.target", "quiz").equals("question");
+    private final URI baseUri = URI.create(System.getProperty("benchmark.url", quizTarget ? "http://localhost:8089" : "http://localhost:8081"));
+    private final int[] steps = Arrays.stream(System.getProperty("benchmark.steps", "50,100,200,400,800,1600,3200").split(","))
+            .mapToInt(step -> Integer.parseInt(step.trim()))
+            .toArray();
+    private final Duration warmup = Duration.parse("PT" + System.getProperty("benchmark.warmup", "5s"));
+    private final Duration stepDuration = Duration.parse("PT" + System.getProperty("benchmark.step-duration", "20s"));
+    private final Duration p99Slo = Duration.parse("PT" + System.getProperty("benchmark.p99-slo", "1s"));
+    private final double maxErrorRate = Double.parseDouble(System.getProperty("benchmark.max-error-rate", "0.01"));
+    private final int quizId = Integer.getInteger("benchmark.quiz-id", 1);
+    private final String category = System.getProperty("benchmark.category", "Java");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private byte[] questionIds;
+    private byte[] responses;
+
+    public static void main(String[] args) throws Exception {
+        new ThreadModeLoadTest().run();
+    }
+
+    private void run() throws Exception {
+        prepareBodies();
+        System.out.println("mode,target,clients,throughput_per_s,p50_ms,p99_ms,error_rate,sustained,max_heap_mb,live_threads");
+        int maxSustained = 0;
+        for (int clients : steps) {
+            Step step = runStep(clients);
+            HistogramSnapshot snapshot = step.latency.takeSnapshot();
+            long requests = step.completed.sum() + step.errors.sum();
+            double errorRate = requests == 0 ? 1 : (double) step.errors.sum() / requests;
+            double p99 = percentile(snapshot, 0.99);
+            boolean sustained = errorRate <= maxErrorRate && p99 <= p99Slo.toMillis();
+            System.out.printf("%s,%s,%d,%.1f,%.2f,%.2f,%.4f,%s,%.0f,%.0f%n", mode, quizTarget ? "quiz" : "question", clients,
+                    step.completed.sum() / step.seconds, percentile(snapshot, 0.5), p99, errorRate, sustained,
+                    metric("jvm.memory.max", "area:heap") / (1 << 20), step.threads);
+            if (!sustained) {
+                break;
+            }
+            maxSustained = clients;
+        }
+        System.out.printf("max_sustained_clients,%s,%d%n", mode, maxSustained);
+    }
+
+    private Step runStep(int clients) throws Exception {
+        Step step = new Step();
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            send(step, done);
+            running.add(done);
+        }
+        Thread.sleep(warmup.toMillis());
+        step.measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(stepDuration.toMillis() / 2);
+        step.threads = metric("jvm.threads.live", null);
+        Thread.sleep(stepDuration.toMillis() - stepDuration.toMillis() / 2);
+        step.measuring = false;
+        step.seconds = (System.nanoTime() - start) / 1e9;
+        step.running = false;
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        return step;
+    }
+
+    private void send(Step step, CompletableFuture<Void> done) {
+        if (!step.running) {
+            done.complete(null);
+            return;
+        }
+        long start = System.nanoTime();
+        client.sendAsync(nextRequest(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (step.measuring) {
+                        step.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (failure != null || response.statusCode() >= 300) {
+                            step.errors.increment();
+                        } else {
+                            step.completed.increment();
+                        }
+                    }
+                    send(step, done);
+                });
+    }
+
+    private void prepareBodies() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        List<Response> answers = new ArrayList<>();
+        if (quizTarget) {
+            for (JsonNode question : get("/quiz/get/" + quizId)) {
+                ids.add(question.get("id").asInt());
+                answers.add(new Response(question.get("id").asInt(), question.get("option1").asText()));
+            }
+        } else {
+            for (JsonNode id : get("/api/v1/generate?category=" + category + "&noOfQuestions=10")) {
+                ids.add(id.asInt());
+                answers.add(new Response(id.asInt(), "Option 1"));
+            }
+        }
+        questionIds = MAPPER.writeValueAsBytes(ids);
+        responses = MAPPER.writeValueAsBytes(answers);
+    }
+
+    private HttpRequest nextRequest() {
+        int draw = ThreadLocalRandom.current().nextInt(100);
+        if (quizTarget) {
+            return draw < 70
+                    ? HttpRequest.newBuilder(baseUri.resolve("/quiz/get/" + quizId)).GET().build()
+                    : json("/quiz/submit/" + quizId + "?user=load-" + ThreadLocalRandom.current().nextInt(10_000), responses);
+        }
+        if (draw < 40) {
+            return json("/api/v1/getQuestions", questionIds);
+        }
+        if (draw < 70) {
+            return HttpRequest.newBuilder(baseUri.resolve("/api/v1/generate?category=" + category + "&noOfQuestions=10")).GET().build();
+        }
+        if (draw < 90) {
+            return HttpRequest.newBuilder(baseUri.resolve("/api/v1/category/" + category)).GET().build();
+        }
+        return json("/api/v1/getScore", responses);
+    }
+
+    private HttpRequest json(String path, byte[] body) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    private JsonNode get(String path) throws Exception {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(baseUri.resolve(path)).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("%s answered HTTP %d".formatted(path, response.statusCode()));
+        }
+        return MAPPER.readTree(response.body());
+    }
+
+    private double metric(String name, String tag) throws Exception {
+        JsonNode metric = get("/actuator/metrics/" + name + (tag == null ? "" : "?tag=" + tag));
+        for (JsonNode measurement : metric.get("measurements")) {
+            if (measurement.get("statistic").asText().equals("VALUE")) {
+                return measurement.get("value").asDouble();
+            }
+        }
+        throw new IllegalStateException("The actuator reported no value of " + name);
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static final class Step {
+
+        final Timer latency = Timer.builder("load.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(new SimpleMeterRegistry());
+        final LongAdder completed = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        volatile boolean measuring;
+        volatile boolean running = true;
+        double seconds;
+        double threads;
+    }
+}
@@ -0,0 +1,223 @@
+package com.varma.quizservice.coalescing;
+
+import com.varma.quizservice.exception.ResourceNotFoundException;
+import com.varma.quizservice.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    private SingleFlight<Integer, String> underTest;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        underTest.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should share one load between concurrent callers of the same key")
+    void concurrentCallersShareOneLoad() throws Exception {
+        underTest = flight(Duration.ofSeconds(5), Duration.ZERO);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> underTest.get(1, key -> {
+                loads.incrementAndGet();
+                await(release);
+                return "quiz " + key;
+            })));
+        }
+        while (requests("originating") + requests("coalesced") < 8) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("quiz 1");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(requests("originating")).isEqualTo(1);
+        assertThat(requests("coalesced")).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should hand a failed load to every waiting caller and start a new load afterwards")
+    void failureIsPropagatedToAllCallers() throws Exception {
+        underTest = flight(Duration.ofSeconds(5), Duration.ofMinutes(1));
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(callers.submit(() -> underTest.get(1, key -> {
+                await(release);
+                throw new ResourceNotFoundException("Quiz with id 1 not found");
+            })));
+        }
+        while (requests("originating") + requests("coalesced") < 4) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(ResourceNotFoundException.class);
+        }
+        assertThat(underTest.get(1, key -> "quiz " + key)).isEqualTo("quiz 1");
+        assertThat(underTest.get(1, key -> "not loaded again")).isEqualTo("quiz 1");
+        assertThat(requests("originating")).isEqualTo(2);
+        assertThat(requests("cached")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should stop waiting after the timeout while the slow load keeps running for later callers")
+    void slowLoadDoesNotHoldCallersBeyondTheTimeout() throws Exception {
+        underTest = flight(Duration.ofMillis(50), Duration.ZERO);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class, () -> underTest.get(1, key -> {
+            loads.incrementAndGet();
+            await(release);
+            return "quiz " + key;
+        }));
+        assertThat(exception.getMessage()).isEqualTo("Loading test 1 took longer than 50 ms");
+        assertThrows(ServiceUnavailableException.class, () -> underTest.get(1, key -> "not loaded"));
+        release.countDown();
+
+        while (registry.get("test.load").functionTimer().count() < 1) {
+            Thread.sleep(5);
+        }
+        assertThat(underTest.get(1, key -> "loaded again")).isEqualTo("loaded again");
+        assertThat(loads).hasValue(1);
+        assertThat(registry.get("test.timeouts").functionCounter().count()).isEqualTo(2);
+        assertThat(requests("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should share one asynchronous load between callers and with blocking callers, and keep its result")
+    void asynchronousCallersShareOneLoad() throws Exception {
+        underTest = flight(Duration.ofSeconds(5), Duration.ofMinutes(1));
+        CompletableFuture<String> load = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(underTest.getAsync(1, key -> {
+                loads.incrementAndGet();
+                return load;
+            }));
+        }
+        Future<String> blocking = callers.submit(() -> underTest.get(1, key -> "not loaded"));
+        while (requests("coalesced") < 4) {
+            Thread.sleep(5);
+        }
+        load.complete("quiz 1");
+
+        for (CompletableFuture<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("quiz 1");
+        }
+        assertThat(blocking.get(5, TimeUnit.SECONDS)).isEqualTo("quiz 1");
+        assertThat(underTest.getAsync(1, key -> CompletableFuture.completedFuture("not loaded again")).get()).isEqualTo("quiz 1");
+        assertThat(loads).hasValue(1);
+        assertThat(requests("originating")).isEqualTo(1);
+        assertThat(requests("cached")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail an asynchronous caller after the timeout and hand it the failure of its load otherwise")
+    void asynchronousCallersTimeOutAndFail() {
+        underTest = flight(Duration.ofMillis(50), Duration.ZERO);
+
+        CompletableFuture<String> slow = underTest.getAsync(1, key -> new CompletableFuture<>());
+        assertThatThrownBy(() -> slow.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(ServiceUnavailableException.class)
+                .hasRootCauseMessage("Loading test 1 took longer than 50 ms");
+
+        CompletableFuture<String> failed = underTest.getAsync(2, key -> {
+            throw new ResourceNotFoundException("Quiz with id 2 not found");
+        });
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(ResourceNotFoundException.class);
+        assertThat(registry.get("test.timeouts").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should run the loads on virtual threads when asked to")
+    void loadsRunOnVirtualThreads() {
+        underTest = new SingleFlight<>("test", Duration.ofSeconds(5), Duration.ZERO, 100, true, 1);
+
+        String thread = underTest.get(1, key -> (Thread.currentThread().isVirtual() ? "virtual " : "platform ") + Thread.currentThread().getName());
+
+        assertThat(thread).isEqualTo("virtual test-load-1");
+    }
+
+    @Test
+    @DisplayName("Should refuse a load at once when the platform threads for loads are all busy")
+    void loadBeyondTheLimitFailsFast() throws Exception {
+        underTest = new SingleFlight<>("test", Duration.ofSeconds(5), Duration.ZERO, 100, false, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> first = callers.submit(() -> underTest.get(1, key -> {
+            started.countDown();
+            await(release);
+            return "quiz " + key;
+        }));
+        await(started);
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class, () -> underTest.get(2, key -> "quiz " + key));
+        assertThat(exception.getMessage()).isEqualTo("Too many loads of test are running");
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("quiz 1");
+        String second = null;
+        while (second == null) {
+            try {
+                second = underTest.get(2, key -> "quiz " + key);
+            } catch (ServiceUnavailableException e) {
+                Thread.sleep(5);
+            }
+        }
+        assertThat(second).isEqualTo("quiz 2");
+    }
+
+    private SingleFlight<Integer, String> flight(Duration timeout, Duration resultTtl) {
+        SingleFlight<Integer, String> flight = new SingleFlight<>("test", timeout, resultTtl, 100);
+        flight.bindTo(registry);
+        return flight;
+    }
+
+    private double requests(String source) {
+        return registry.get("test.requests").tag("source", source).functionCounter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
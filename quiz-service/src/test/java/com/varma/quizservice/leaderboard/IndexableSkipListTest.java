@@ -0,0 +1,57 @@
+package com.varma.quizservice.leaderboard;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexableSkipListTest {
+
+    @Test
+    @DisplayName("Should rank and range like a sorted set through random additions and removals")
+    void ranksLikeASortedSet() {
+        Random random = new Random(42);
+        IndexableSkipList<Integer> list = new IndexableSkipList<>(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int element = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(list.remove(element)).isEqualTo(expected.remove(element));
+            } else {
+                assertThat(list.add(element)).isEqualTo(expected.add(element));
+            }
+        }
+
+        assertThat(list.size()).isEqualTo(expected.size());
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertThat(list.range(1, sorted.size() + 10)).isEqualTo(sorted);
+        for (int rank = 1; rank <= sorted.size(); rank += 97) {
+            assertThat(list.rank(sorted.get(rank - 1))).isEqualTo(rank);
+            assertThat(list.range(rank, 5)).isEqualTo(sorted.subList(rank - 1, Math.min(sorted.size(), rank + 4)));
+        }
+        for (int missing = 0; missing < 2_000; missing++) {
+            if (!expected.contains(missing)) {
+                assertThat(list.rank(missing)).isZero();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should return nothing for ranks outside the list")
+    void rangeOutsideTheList() {
+        IndexableSkipList<Integer> list = new IndexableSkipList<>(Comparator.naturalOrder());
+        assertThat(list.range(1, 10)).isEmpty();
+        list.add(7);
+
+        assertThat(list.range(0, 10)).isEmpty();
+        assertThat(list.range(2, 10)).isEmpty();
+        assertThat(list.range(1, 10)).containsExactly(7);
+    }
+}
@@ -0,0 +1,109 @@
+package com.varma.quizservice.leaderboard;
+
+import com.varma.quizservice.exception.ResourceNotFoundException;
+import com.varma.quizservice.model.LeaderboardEntry;
+import com.varma.quizservice.model.Ranking;
+import com.varma.quizservice.quizDAO.LeaderboardJdbcRepository;
+import com.varma.quizservice.quizDAO.QuizDAO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardsTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private LeaderboardJdbcRepository leaderboardJdbcRepository;
+
+    @Mock
+    private QuizDAO quizDAO;
+
+    @InjectMocks
+    private Leaderboards underTest = new Leaderboards(Duration.ofSeconds(1), 2);
+
+    @Test
+    @DisplayName("Should rank users by their best attempt, breaking ties by duration and then by time")
+    void rankUsersByTheirBestAttempt() {
+        when(leaderboardJdbcRepository.findByQuizId(1)).thenReturn(List.of(new LeaderboardEntry(1, "linus", 7, 9000L, T0)));
+
+        underTest.record(1, "ada", 8, 6000L, T0.plusSeconds(1));
+        underTest.record(1, "grace", 8, 5000L, T0.plusSeconds(2));
+        underTest.record(1, "alan", 8, 5000L, T0.plusSeconds(3));
+        underTest.record(1, "ada", 6, 1000L, T0.plusSeconds(4));
+        underTest.record(1, "linus", 9, null, T0.plusSeconds(5));
+
+        assertThat(underTest.top(1, 10)).extracting(Ranking::rank, Ranking::user).containsExactly(
+                tuple(1, "linus"), tuple(2, "grace"), tuple(3, "alan"), tuple(4, "ada"));
+        assertThat(underTest.top(1, 2)).hasSize(2);
+        assertThat(underTest.rank(1, "ada")).isEqualTo(new Ranking(4, "ada", 8, 6000L, T0.plusSeconds(1)));
+        assertThat(underTest.rank(1, "nobody")).isNull();
+        verify(leaderboardJdbcRepository, times(1)).findByQuizId(1);
+    }
+
+    @Test
+    @DisplayName("Should flush the current standing of every improved user once, and again after a failed flush")
+    @SuppressWarnings("unchecked")
+    void flushWritesImprovedStandings() {
+        when(leaderboardJdbcRepository.findByQuizId(anyInt())).thenReturn(List.of());
+        when(quizDAO.existsQuizById(anyInt())).thenReturn(true);
+        underTest.record(1, "ada", 5, 3000L, T0);
+        underTest.record(1, "ada", 7, 4000L, T0.plusSeconds(1));
+        underTest.record(1, "ada", 6, 1000L, T0.plusSeconds(2));
+        underTest.record(2, "grace", 3, null, T0);
+        doThrow(new IllegalStateException("database is down")).doNothing().when(leaderboardJdbcRepository).upsertAll(anyList());
+
+        assertThrows(IllegalStateException.class, () -> underTest.flush());
+        underTest.flush();
+        underTest.flush();
+
+        verify(leaderboardJdbcRepository, times(2)).upsertAll(argThat(entries -> entries.size() == 2
+                && entries.contains(new LeaderboardEntry(1, "ada", 7, 4000L, T0.plusSeconds(1)))
+                && entries.contains(new LeaderboardEntry(2, "grace", 3, null, T0))));
+    }
+
+    @Test
+    @DisplayName("Should answer not found for an unknown quiz without holding a leaderboard for it")
+    void rejectUnknownQuiz() {
+        when(leaderboardJdbcRepository.findByQuizId(99)).thenReturn(List.of());
+        when(quizDAO.existsQuizById(99)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> underTest.top(99, 10));
+        assertThrows(ResourceNotFoundException.class, () -> underTest.rank(99, "ada"));
+
+        verify(leaderboardJdbcRepository, times(2)).findByQuizId(99);
+    }
+
+    @Test
+    @DisplayName("Should keep the unflushed standings of an evicted leaderboard and rank them when it is read again")
+    void keepUnflushedStandingsOfEvictedLeaderboards() {
+        when(leaderboardJdbcRepository.findByQuizId(anyInt())).thenReturn(List.of());
+        when(leaderboardJdbcRepository.findByQuizId(1)).thenReturn(List.of(new LeaderboardEntry(1, "linus", 7, 9000L, T0)));
+        when(quizDAO.existsQuizById(anyInt())).thenReturn(true);
+
+        underTest.record(1, "ada", 8, 6000L, T0.plusSeconds(1));
+        for (int quizId = 2; quizId <= 50; quizId++) {
+            underTest.top(quizId, 10);
+        }
+
+        assertThat(underTest.top(1, 10)).extracting(Ranking::rank, Ranking::user).containsExactly(
+                tuple(1, "ada"), tuple(2, "linus"));
+        verify(leaderboardJdbcRepository, atLeast(2)).findByQuizId(1);
+
+        underTest.flush();
+        verify(leaderboardJdbcRepository).upsertAll(List.of(new LeaderboardEntry(1, "ada", 8, 6000L, T0.plusSeconds(1))));
+    }
+}
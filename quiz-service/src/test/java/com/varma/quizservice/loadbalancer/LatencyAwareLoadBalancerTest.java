@@ -0,0 +1,248 @@
+package com.varma.quizservice.loadbalancer;
+
+import com.sun.net.httpserver.HttpServer;
+import com.varma.quizservice.resilience.QuestionClientProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the load balancer against local question-service stubs answering with different delays and statuses. Each call
+ * is reported to the statistics the way the Feign load balancer client reports it.
+ */
+class LatencyAwareLoadBalancerTest {
+
+    private static final String SERVICE_ID = "QUESTION-SERVICE";
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    private final List<HttpServer> stubs = new ArrayList<>();
+
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+    private volatile List<ServiceInstance> instances = List.of();
+
+    private QuestionClientProperties properties;
+
+    private InstanceStatistics statistics;
+
+    private LatencyAwareLoadBalancer underTest;
+
+    @BeforeEach
+    void setUp() {
+        properties = new QuestionClientProperties();
+        properties.getLoadBalancer().setDecay(Duration.ofSeconds(1));
+        statistics = new InstanceStatistics(properties);
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return SERVICE_ID;
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(instances);
+            }
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("supplier", supplier));
+        underTest = new LatencyAwareLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class),
+                SERVICE_ID, statistics, properties.getLoadBalancer());
+    }
+
+    @AfterEach
+    void stopStubs() {
+        stubs.forEach(stub -> stub.stop(0));
+    }
+
+    @Test
+    @DisplayName("Should send most calls to the fast instances and few to the slow one")
+    void slowInstanceGetsFewCalls() throws Exception {
+        ServiceInstance fast1 = stub("fast-1", 2, 200);
+        ServiceInstance fast2 = stub("fast-2", 2, 200);
+        ServiceInstance slow = stub("slow", 200, 200);
+        instances = List.of(fast1, fast2, slow);
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        List<Future<?>> running = new ArrayList<>();
+        for (int caller = 0; caller < 4; caller++) {
+            running.add(callers.submit(() -> {
+                for (int i = 0; i < 75; i++) {
+                    call();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+        callers.shutdown();
+
+        assertThat(calls.get("slow").get()).isLessThan(30);
+        assertThat(calls.get("fast-1").get()).isGreaterThan(100);
+        assertThat(calls.get("fast-2").get()).isGreaterThan(100);
+        Map<String, InstanceStatus> status = status();
+        assertThat(status.get(key(slow)).latencyMillis()).isGreaterThan(status.get(key(fast1)).latencyMillis());
+        assertThat(status.values()).allSatisfy(instance -> assertThat(instance.inFlight()).isZero());
+    }
+
+    @Test
+    @DisplayName("Should eject an instance that keeps answering with server errors")
+    void failingInstanceIsEjected() throws Exception {
+        ServiceInstance healthy1 = stub("healthy-1", 0, 200);
+        ServiceInstance healthy2 = stub("healthy-2", 0, 200);
+        ServiceInstance failing = stub("failing", 0, 503);
+        instances = List.of(healthy1, healthy2, failing);
+
+        for (int i = 0; i < 100; i++) {
+            call();
+        }
+
+        assertThat(calls.get("failing").get()).isEqualTo(properties.getLoadBalancer().getConsecutiveFailures());
+        InstanceStatus status = status().get(key(failing));
+        assertThat(status.ejected()).isTrue();
+        assertThat(status.ejectedUntil()).isNotNull();
+        assertThat(status.failures()).isEqualTo(5);
+        assertThat(status().get(key(healthy1)).ejected()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not eject more instances than allowed, even if they all fail")
+    void ejectionsAreLimited() throws Exception {
+        instances = List.of(stub("failing-1", 0, 500), stub("failing-2", 0, 500));
+
+        for (int i = 0; i < 30; i++) {
+            call();
+        }
+
+        assertThat(status().values()).filteredOn(InstanceStatus::ejected).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should hold back a newly registered instance until its slow start is over")
+    void newInstanceIsRampedUp() throws Exception {
+        properties.getLoadBalancer().setSlowStart(Duration.ofMillis(1_500));
+        ServiceInstance first = stub("first", 1, 200);
+        ServiceInstance second = stub("second", 1, 200);
+        instances = List.of(first, second);
+        for (int i = 0; i < 20; i++) {
+            call();
+        }
+
+        ServiceInstance added = stub("added", 1, 200);
+        instances = List.of(first, second, added);
+        for (int i = 0; i < 20; i++) {
+            call();
+        }
+        assertThat(calls.get("added").get()).isZero();
+        assertThat(status().get(key(added)).weight()).isLessThan(1);
+
+        Thread.sleep(1_600);
+        for (int i = 0; i < 50; i++) {
+            call();
+        }
+        assertThat(calls.get("added").get()).isPositive();
+        assertThat(status().get(key(added)).weight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should leave long polls of the change feed out of the statistics")
+    void longPollsAreNotCounted() throws Exception {
+        ServiceInstance instance = stub("only", 0, 200);
+        instances = List.of(instance);
+        RequestData changes = new RequestData(HttpMethod.GET, URI.create("http://" + SERVICE_ID + InstanceStatistics.CHANGES_PATH + "?after=1&wait=10000"),
+                new HttpHeaders(), new LinkedMultiValueMap<>(), Map.of());
+        Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext(changes));
+        Response<ServiceInstance> chosen = underTest.choose(request).block();
+
+        statistics.onStartRequest(request, chosen);
+        assertThat(status().get(key(instance)).inFlight()).isZero();
+        Thread.sleep(50);
+        statistics.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, chosen,
+                new ResponseData(HttpStatusCode.valueOf(200), new HttpHeaders(), new LinkedMultiValueMap<>(), changes)));
+
+        InstanceStatus status = status().get(key(instance));
+        assertThat(status.requests()).isZero();
+        assertThat(status.latencyMillis()).isNull();
+        assertThat(status.inFlight()).isZero();
+    }
+
+    private ServiceInstance stub(String name, long delayMillis, int status) throws IOException {
+        HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.createContext("/", exchange -> {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        stub.start();
+        stubs.add(stub);
+        calls.put(name, new AtomicInteger());
+        return new DefaultServiceInstance(name, SERVICE_ID, "localhost", stub.getAddress().getPort(), false);
+    }
+
+    private void call() throws InterruptedException {
+        Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+        Response<ServiceInstance> chosen = underTest.choose(request).block();
+        ServiceInstance instance = chosen.getServer();
+        calls.get(instance.getInstanceId()).incrementAndGet();
+        statistics.onStartRequest(request, chosen);
+        try {
+            HttpResponse<Void> response = http.send(HttpRequest.newBuilder(instance.getUri()).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            ResponseData data = new ResponseData(HttpStatusCode.valueOf(response.statusCode()), new HttpHeaders(),
+                    new LinkedMultiValueMap<>(), null);
+            statistics.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, chosen, data));
+        } catch (IOException e) {
+            statistics.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED, e, request, chosen));
+        }
+    }
+
+    private Map<String, InstanceStatus> status() {
+        return statistics.status(SERVICE_ID).stream().collect(Collectors.toMap(InstanceStatus::instance, Function.identity()));
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
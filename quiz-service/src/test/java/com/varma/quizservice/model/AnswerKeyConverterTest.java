@@ -0,0 +1,24 @@
+package com.varma.quizservice.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnswerKeyConverterTest {
+
+    private final AnswerKeyConverter underTest = new AnswerKeyConverter();
+
+    @Test
+    @DisplayName("Should round-trip answers, including empty, missing and non-ASCII ones, in order")
+    void packAndUnpackAnswers() {
+        String[] answers = {"Option 1", "", null, "Une machine virtuelle ☕"};
+
+        byte[] packed = underTest.convertToDatabaseColumn(answers);
+
+        assertThat(packed).startsWith(0, 0, 0, 8, 'O', 'p');
+        assertThat(underTest.convertToEntityAttribute(packed)).containsExactly(answers);
+        assertThat(underTest.convertToEntityAttribute(underTest.convertToDatabaseColumn(new String[0]))).isEmpty();
+        assertThat(underTest.convertToEntityAttribute(null)).isNull();
+    }
+}
@@ -0,0 +1,26 @@
+package com.varma.quizservice.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuestionIdsConverterTest {
+
+    private final QuestionIdsConverter underTest = new QuestionIdsConverter();
+
+    @Test
+    @DisplayName("Should pack the question IDs 4 bytes each, big-endian, and unpack them in order")
+    void packAndUnpackQuestionIds() {
+        int[] ids = {50, 7, 1000, Integer.MAX_VALUE};
+
+        byte[] packed = underTest.convertToDatabaseColumn(ids);
+
+        assertThat(packed).hasSize(16).startsWith(0, 0, 0, 50, 0, 0, 0, 7, 0, 0, 3, (byte) 0xe8);
+        assertThat(underTest.convertToEntityAttribute(packed)).containsExactly(ids);
+        assertThat(underTest.convertToEntityAttribute(underTest.convertToDatabaseColumn(new int[0]))).isEmpty();
+        assertThat(underTest.convertToDatabaseColumn(null)).isNull();
+        assertThrows(IllegalArgumentException.class, () -> underTest.convertToEntityAttribute(new byte[5]));
+    }
+}
@@ -0,0 +1,114 @@
+package com.varma.quizservice.pool;
+
+import com.varma.quizservice.feign.QuizInterface;
+import com.varma.quizservice.model.ChangeFeed;
+import com.varma.quizservice.model.Question;
+import com.varma.quizservice.replica.QuestionReplica;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuizPoolsTest {
+
+    @Mock
+    private QuizInterface quizInterface;
+
+    @Spy
+    private QuestionReplica questionReplica = new QuestionReplica(Duration.ofSeconds(30));
+
+    @InjectMocks
+    private QuizPools underTest = new QuizPools(properties(Duration.ofMinutes(10)));
+
+    @Test
+    @DisplayName("Should refill a pool up to its capacity and serve its sets until it is empty")
+    void refillThenTakeUntilEmpty() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        underTest.bindTo(registry);
+        when(quizInterface.getQuestionsForQuiz("Java", 2)).thenReturn(ResponseEntity.ok(List.of(1, 2)))
+                .thenReturn(ResponseEntity.ok(List.of(3, 4)))
+                .thenReturn(ResponseEntity.ok(List.of(5, 6)));
+
+        underTest.refill();
+
+        assertThat(underTest.size("Java", 2)).isEqualTo(3);
+        assertThat(underTest.take("Java", 2)).containsExactly(1, 2);
+        assertThat(underTest.take("Java", 2)).containsExactly(3, 4);
+        assertThat(underTest.take("Java", 2)).containsExactly(5, 6);
+        assertThat(underTest.take("Java", 2)).isNull();
+        assertThat(underTest.take("Java", 5)).isNull();
+        assertThat(registry.get("quiz.pool.requests").tag("result", "hit").functionCounter().count()).isEqualTo(3);
+        assertThat(registry.get("quiz.pool.requests").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("quiz.pool.draws").functionCounter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should only refill a pool once it holds no more than its refill threshold")
+    void refillOnlyAtTheThreshold() {
+        when(quizInterface.getQuestionsForQuiz("Java", 2)).thenReturn(ResponseEntity.ok(List.of(1, 2)));
+        underTest.refill();
+        underTest.take("Java", 2);
+
+        underTest.refill();
+        assertThat(underTest.size("Java", 2)).isEqualTo(2);
+
+        underTest.take("Java", 2);
+        underTest.refill();
+        assertThat(underTest.size("Java", 2)).isEqualTo(3);
+        verify(quizInterface, times(5)).getQuestionsForQuiz("Java", 2);
+    }
+
+    @Test
+    @DisplayName("Should discard sets that expired or hold a question the replica no longer has")
+    void takeDiscardsStaleSets() throws InterruptedException {
+        questionReplica.load(List.of(question(1), question(2), question(3)), 5);
+        questionReplica.apply(new ChangeFeed(List.of(), 5, 5));
+        when(quizInterface.getQuestionsForQuiz("Java", 2)).thenReturn(ResponseEntity.ok(List.of(1, 9)))
+                .thenReturn(ResponseEntity.ok(List.of(2, 3)))
+                .thenReturn(ResponseEntity.ok(List.of(1, 3)));
+        underTest.refill();
+
+        assertThat(underTest.take("Java", 2)).containsExactly(2, 3);
+
+        QuizPools expiring = new QuizPools(properties(Duration.ofMillis(1)));
+        ReflectionTestUtils.setField(expiring, "quizInterface", quizInterface);
+        ReflectionTestUtils.setField(expiring, "questionReplica", questionReplica);
+        expiring.refill();
+        Thread.sleep(5);
+
+        assertThat(expiring.take("Java", 2)).isNull();
+    }
+
+    private static QuizPoolProperties properties(Duration maxAge) {
+        QuizPoolProperties.PoolSettings pool = new QuizPoolProperties.PoolSettings();
+        pool.setCategory("Java");
+        pool.setSize(2);
+        QuizPoolProperties properties = new QuizPoolProperties();
+        properties.setPools(List.of(pool));
+        properties.setCapacity(3);
+        properties.setRefillThreshold(1);
+        properties.setMaxAge(maxAge);
+        properties.setRefillPause(Duration.ZERO);
+        return properties;
+    }
+
+    private static Question question(Integer id) {
+        Question question = new Question();
+        question.setId(id);
+        question.setCorrectAns("Option " + id);
+        return question;
+    }
+}
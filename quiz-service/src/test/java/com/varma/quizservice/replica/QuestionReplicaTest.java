@@ -0,0 +1,60 @@
+package com.varma.quizservice.replica;
+
+import com.varma.quizservice.model.ChangeFeed;
+import com.varma.quizservice.model.Question;
+import com.varma.quizservice.model.QuestionChange;
+import com.varma.quizservice.model.QuestionWrapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuestionReplicaTest {
+
+    private final QuestionReplica underTest = new QuestionReplica(Duration.ofSeconds(30));
+
+    @Test
+    @DisplayName("Should apply inserts, updates and deletes in sequence order")
+    void applyChangesInSequenceOrder() {
+        underTest.load(List.of(question(1, "Question 1"), question(2, "Question 2")), 10);
+
+        underTest.apply(new ChangeFeed(List.of(
+                new QuestionChange(11, 2, question(2, "Question 2, reworded")),
+                new QuestionChange(12, 1, null),
+                new QuestionChange(14, 3, question(3, "Question 3"))), 14, 20));
+
+        assertThat(underTest.sequence()).isEqualTo(14);
+        assertThat(underTest.isCurrent()).isFalse();
+        assertThat(underTest.findWrappers(List.of(1, 2))).isNull();
+        assertThat(underTest.findWrappers(List.of(3, 2))).extracting(QuestionWrapper::question)
+                .containsExactly("Question 3", "Question 2, reworded");
+
+        underTest.apply(new ChangeFeed(List.of(), 20, 20));
+
+        assertThat(underTest.isCurrent()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should publish the lag, backlog and size of the replica")
+    void bindToPublishesReplicaMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        underTest.bindTo(registry);
+
+        assertThat(registry.get("question.replica.lag").timeGauge().value()).isNaN();
+
+        underTest.load(List.of(question(1, "Question 1")), 3);
+        underTest.apply(new ChangeFeed(List.of(new QuestionChange(4, 2, question(2, "Question 2"))), 4, 9));
+
+        assertThat(registry.get("question.replica.behind").gauge().value()).isEqualTo(5);
+        assertThat(registry.get("question.replica.size").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("question.replica.lag").timeGauge().value()).isNaN();
+    }
+
+    private static Question question(int id, String text) {
+        return new Question(id, text, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "History", "Option 1");
+    }
+}
@@ -0,0 +1,196 @@
+package com.varma.quizservice.resilience;
+
+import com.sun.net.httpserver.HttpServer;
+import com.varma.quizservice.exception.ServiceUnavailableException;
+import feign.Feign;
+import feign.FeignException;
+import feign.RequestLine;
+import feign.RetryableException;
+import feign.Retryer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the guarded client against a local question-service stub whose answers are delayed as each test requires. The
+ * client does not retry, like the Feign clients of Spring Cloud OpenFeign.
+ */
+class QuestionClientResilienceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private final Queue<Long> delays = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private volatile int status = 200;
+
+    private HttpServer stub;
+
+    private QuestionClientResilience resilience;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.createContext("/", exchange -> {
+            int request = requests.incrementAndGet();
+            Long delay = delays.poll();
+            try {
+                Thread.sleep(delay == null ? 0 : delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("answer " + request).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop(0);
+        callers.shutdownNow();
+        resilience.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should give up on a call once the timeout budget of its method is spent")
+    void callTimesOutAfterTheBudgetOfItsMethod() {
+        QuestionClientProperties properties = new QuestionClientProperties();
+        properties.setTimeouts(Map.of("getAllQuestions", Duration.ofMillis(100)));
+        StubClient client = client(properties);
+        delays.add(2_000L);
+
+        long start = System.nanoTime();
+        assertThrows(RetryableException.class, client::getAllQuestions);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+    }
+
+    @Test
+    @DisplayName("Should hedge a slow call and answer with whichever request answers first")
+    void slowCallIsHedged() {
+        QuestionClientProperties properties = new QuestionClientProperties();
+        properties.getHedge().setMethods(Set.of("getQuestionsFromId"));
+        properties.getHedge().setInitialDelay(Duration.ofMillis(50));
+        properties.getHedge().setMaxRatio(1.0);
+        StubClient client = client(properties);
+        delays.add(1_500L);
+        delays.add(0L);
+
+        long start = System.nanoTime();
+        String answer = client.getQuestionsFromId("[1, 2]");
+
+        assertThat(answer).isEqualTo("answer 2");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+        assertThat(hedges("sent")).isEqualTo(1);
+        assertThat(hedges("won")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not hedge beyond the share of calls allowed")
+    void hedgesAreLimitedToTheirShare() {
+        QuestionClientProperties properties = new QuestionClientProperties();
+        properties.getHedge().setMethods(Set.of("getQuestionsFromId"));
+        properties.getHedge().setInitialDelay(Duration.ofMillis(20));
+        properties.getHedge().setMaxRatio(0.1);
+        StubClient client = client(properties);
+        delays.add(100L);
+
+        assertThat(client.getQuestionsFromId("[1]")).isEqualTo("answer 1");
+
+        assertThat(requests).hasValue(1);
+        assertThat(hedges("skipped")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should open the circuit after failed calls and then fail at once without calling question-service")
+    void circuitOpensAfterFailures() {
+        QuestionClientProperties properties = new QuestionClientProperties();
+        properties.getCircuitBreaker().setSlidingWindowSize(4);
+        properties.getCircuitBreaker().setMinimumNumberOfCalls(4);
+        StubClient client = client(properties);
+        status = 503;
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(FeignException.ServiceUnavailable.class, client::getAllQuestions);
+        }
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class, client::getAllQuestions);
+
+        assertThat(exception.getMessage()).isEqualTo("The circuit breaker of question-service is open");
+        assertThat(requests).hasValue(4);
+        assertThat(registry.get("resilience4j.circuitbreaker.state").tag("state", "open").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should refuse calls above the bulkhead bound while the others are in flight")
+    void bulkheadRefusesCallsAboveItsBound() throws Exception {
+        QuestionClientProperties properties = new QuestionClientProperties();
+        properties.setMaxConcurrentCalls(1);
+        StubClient client = client(properties);
+        delays.add(500L);
+        CountDownLatch started = new CountDownLatch(1);
+
+        Future<String> inFlight = callers.submit(() -> {
+            started.countDown();
+            return client.getAllQuestions();
+        });
+        started.await();
+        while (requests.get() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertThrows(ServiceUnavailableException.class, client::getAllQuestions);
+        assertThat(inFlight.get(5, TimeUnit.SECONDS)).isEqualTo("answer 1");
+        assertThat(client.getAllQuestions()).isEqualTo("answer 2");
+    }
+
+    private StubClient client(QuestionClientProperties properties) {
+        resilience = new QuestionClientResilience(properties);
+        resilience.bindTo(registry);
+        return Feign.builder()
+                .retryer(Retryer.NEVER_RETRY)
+                .addCapability(resilience)
+                .target(StubClient.class, "http://localhost:" + stub.getAddress().getPort());
+    }
+
+    private double hedges(String result) {
+        return registry.get("question.client.hedges").tag("result", result).functionCounter().count();
+    }
+
+    interface StubClient {
+
+        @RequestLine("POST /api/v1/getQuestions")
+        String getQuestionsFromId(String ids);
+
+        @RequestLine("GET /api/v1/question/allQuestions")
+        String getAllQuestions();
+    }
+}
@@ -1,21 +1,37 @@
 package com.varma.quizservice.service;
 
+import com.varma.quizservice.coalescing.QuizQuestionsFlight;
+import com.varma.quizservice.exception.InvalidSubmissionException;
 import com.varma.quizservice.exception.ResourceNotFoundException;
 import com.varma.quizservice.feign.QuizInterface;
+import com.varma.quizservice.model.AnswerKeyEntry;
+import com.varma.quizservice.model.ChangeFeed;
+import com.varma.quizservice.model.Question;
 import com.varma.quizservice.model.QuestionWrapper;
 import com.varma.quizservice.model.Quiz;
+import com.varma.quizservice.model.QuizDto;
+import com.varma.quizservice.model.Response;
+import com.varma.quizservice.pool.QuizPoolProperties;
+import com.varma.quizservice.pool.QuizPools;
 import com.varma.quizservice.quizDAO.QuizDAO;
+import com.varma.quizservice.replica.QuestionReplica;
+import com.varma.quizservice.scoring.AnswerKeyCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,6 +48,18 @@ class QuizServiceTest {
     @Mock
     private QuizInterface quizInterface;
 
+    @Spy
+    private QuestionReplica questionReplica = new QuestionReplica(Duration.ofSeconds(30));
+
+    @Spy
+    private AnswerKeyCache answerKeyCache = new AnswerKeyCache(100);
+
+    @Spy
+    private QuizQuestionsFlight quizQuestionsFlight = new QuizQuestionsFlight(Duration.ofSeconds(5), Duration.ZERO, 100);
+
+    @Spy
+    private QuizPools quizPools = new QuizPools(new QuizPoolProperties());
+
     @InjectMocks
     private QuizService underTest;
 
@@ -95,6 +123,8 @@ class QuizServiceTest {
 
         ResponseEntity<List<Integer>> questionsResponse = ResponseEntity.ok(questions);
         when(quizInterface.getQuestionsForQuiz(category, noOfQuestions)).thenReturn(questionsResponse);
+        when(quizInterface.getAnswerKey(questions)).thenReturn(ResponseEntity.ok(List.of(
+                new AnswerKeyEntry(1, "Option 1"), new AnswerKeyEntry(2, "Option 2"), new AnswerKeyEntry(3, "Option 3"))));
 
         Quiz quiz = new Quiz();
         quiz.setTitle(title);
@@ -109,7 +139,54 @@ class QuizServiceTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
         assertThat(response.getBody()).isEqualTo("success");
         verify(quizInterface, times(1)).getQuestionsForQuiz(category, noOfQuestions);
-        verify(quizDAO, times(1)).save(any(Quiz.class));
+        verify(quizDAO, times(1)).save(argThat(saved -> Arrays.equals(saved.getAnswerKey(), new String[]{"Option 1", "Option 2", "Option 3"})));
+    }
+
+    @Test
+    @DisplayName("Should create a quiz from a pooled question set without asking question-service to draw one")
+    void createQuizShouldTakeAPooledQuestionSet() {
+        QuizDto quizDto = new QuizDto();
+        quizDto.setCategory("History");
+        quizDto.setNoOfQuestions(3);
+        quizDto.setTitle("History Quiz");
+
+        List<Integer> questions = List.of(4, 8, 15);
+        doReturn(questions).when(quizPools).take("History", 3);
+        when(quizInterface.getAnswerKey(questions)).thenReturn(ResponseEntity.ok(List.of(
+                new AnswerKeyEntry(4, "Option 1"), new AnswerKeyEntry(8, "Option 2"), new AnswerKeyEntry(15, "Option 3"))));
+
+        ResponseEntity<String> response = underTest.createQuiz(quizDto);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        verify(quizDAO, times(1)).save(argThat(quiz -> quiz.getQuestions().equals(questions)));
+        verify(quizInterface, times(1)).getAnswerKey(questions);
+        verifyNoMoreInteractions(quizInterface);
+    }
+
+    @Test
+    @DisplayName("Should request the difficulty mix of every category in a single call")
+    void createQuizWithDifficultyMixShouldRequestAllCategoriesAtOnce() {
+        QuizDto quizDto = new QuizDto();
+        quizDto.setCategory("History");
+        quizDto.setCategories(List.of("Geography", "History"));
+        quizDto.setNoOfQuestions(10);
+        quizDto.setTitle("Mixed Quiz");
+        Map<String, Double> difficultyMix = new LinkedHashMap<>();
+        difficultyMix.put("Easy", 50.0);
+        difficultyMix.put("Hard", 50.0);
+        quizDto.setDifficultyMix(difficultyMix);
+        quizDto.setSeed(7L);
+
+        List<Integer> questions = List.of(4, 8, 15);
+        when(quizInterface.getQuestionsForQuiz(List.of("History", "Geography"), 10, List.of("Easy:50.0", "Hard:50.0"), 7L, null))
+                .thenReturn(ResponseEntity.ok(questions));
+        when(quizInterface.getAnswerKey(questions)).thenReturn(ResponseEntity.ok(List.of(
+                new AnswerKeyEntry(4, "Option 1"), new AnswerKeyEntry(8, "Option 2"), new AnswerKeyEntry(15, "Option 3"))));
+
+        ResponseEntity<String> response = underTest.createQuiz(quizDto);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        verify(quizDAO, times(1)).save(argThat(quiz -> quiz.getQuestions().equals(questions) && quiz.getTitle().equals("Mixed Quiz")));
     }
 
 //    @Test
@@ -131,6 +208,117 @@ class QuizServiceTest {
 //
 //    }
 
+    @Test
+    @DisplayName("Should serve the quiz questions from the current replica and capture the answer key without calling question-service")
+    void getQuizQuestionsAndCreateQuizFromCurrentReplica() {
+        Quiz quiz = new Quiz();
+        quiz.setId(1);
+        quiz.setQuestions(List.of(2, 1));
+        questionReplica.load(List.of(question(1), question(2)), 5);
+        questionReplica.apply(new ChangeFeed(List.of(), 5, 5));
+
+        when(quizDAO.existsQuizById(1)).thenReturn(true);
+        when(quizDAO.findById(1)).thenReturn(Optional.of(quiz));
+        when(quizInterface.getQuestionsForQuiz("History", 2)).thenReturn(ResponseEntity.ok(List.of(2, 1)));
+
+        ResponseEntity<List<QuestionWrapper>> questions = underTest.getQuizQuestions(1);
+        underTest.createQuiz("History", 2, "History Quiz");
+
+        assertThat(questions.getBody()).extracting(QuestionWrapper::id).containsExactly(2, 1);
+        verify(quizDAO, times(1)).save(argThat(saved -> Arrays.equals(saved.getAnswerKey(), new String[]{"Option 2", "Option 1"})));
+        verify(quizInterface, times(1)).getQuestionsForQuiz("History", 2);
+        verifyNoMoreInteractions(quizInterface);
+    }
+
+    @Test
+    @DisplayName("Should score submissions against the captured answer key with a single quiz read")
+    void calculateResultsScoresAgainstTheCapturedAnswerKey() {
+        Quiz quiz = new Quiz();
+        quiz.setId(1);
+        quiz.setQuestions(List.of(7, 3, 5));
+        quiz.setAnswerKey(new String[]{"Option 7", "Option 3", "Option 5"});
+
+        when(quizDAO.findById(1)).thenReturn(Optional.of(quiz));
+
+        ResponseEntity<Integer> first = underTest.calculateResults(1, List.of(new Response(3, "Option 3"), new Response(7, "Option 1"), new Response(5, null)));
+        ResponseEntity<Integer> second = underTest.calculateResults(1, List.of(new Response(5, "Option 5"), new Response(7, "Option 7")));
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody()).isEqualTo(1);
+        assertThat(second.getBody()).isEqualTo(2);
+        verify(quizDAO, times(1)).findById(1);
+        verifyNoMoreInteractions(quizDAO);
+        verifyNoInteractions(quizInterface);
+    }
+
+    @Test
+    @DisplayName("Should reject responses to questions outside the quiz and repeated responses")
+    void calculateResultsRejectsForeignAndRepeatedResponses() {
+        Quiz quiz = new Quiz();
+        quiz.setId(1);
+        quiz.setQuestions(List.of(1, 2));
+        quiz.setAnswerKey(new String[]{"Option 1", "Option 2"});
+
+        when(quizDAO.findById(1)).thenReturn(Optional.of(quiz));
+
+        InvalidSubmissionException foreign = assertThrows(InvalidSubmissionException.class,
+                () -> underTest.calculateResults(1, List.of(new Response(1, "Option 1"), new Response(9, "Option 1"))));
+        InvalidSubmissionException repeated = assertThrows(InvalidSubmissionException.class,
+                () -> underTest.calculateResults(1, List.of(new Response(2, "Option 1"), new Response(2, "Option 2"))));
+
+        assertThat(foreign.getMessage()).isEqualTo("Quiz 1 has no questions with IDs: [9]");
+        assertThat(repeated.getMessage()).isEqualTo("Questions answered more than once in quiz 1: [2]");
+    }
+
+    @Test
+    @DisplayName("Should capture the answer key of a quiz created without one on its first submission")
+    void calculateResultsCapturesTheMissingAnswerKey() {
+        Quiz quiz = new Quiz();
+        quiz.setId(1);
+        quiz.setQuestions(List.of(1, 2));
+
+        when(quizDAO.findById(1)).thenReturn(Optional.of(quiz));
+        when(quizInterface.getAnswerKey(List.of(1, 2))).thenReturn(ResponseEntity.ok(List.of(new AnswerKeyEntry(1, "Option 1"), new AnswerKeyEntry(2, "Option 2"))));
+
+        ResponseEntity<Integer> score = underTest.calculateResults(1, List.of(new Response(1, "Option 1"), new Response(2, "Option 2")));
+
+        assertThat(score.getBody()).isEqualTo(2);
+        verify(quizDAO, times(1)).save(argThat(saved -> Arrays.equals(saved.getAnswerKey(), new String[]{"Option 1", "Option 2"})));
+    }
+
+    @Test
+    @DisplayName("Should throw a ResourceNotFoundException when submitting to a quiz that does not exist")
+    void calculateResultsWhenQuizIdDoesNotExistThenThrowException() {
+        when(quizDAO.findById(1)).thenReturn(Optional.empty());
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> underTest.calculateResults(1, List.of(new Response(1, "Option 1"))));
+
+        assertThat(exception.getMessage()).isEqualTo("Quiz with id 1 not found");
+        verifyNoInteractions(quizInterface);
+    }
+
+    @Test
+    @DisplayName("Should serve the lagging replica when question-service cannot be reached")
+    void getQuizQuestionsServesLaggingReplicaWhenQuestionServiceFails() {
+        Quiz quiz = new Quiz();
+        quiz.setId(1);
+        quiz.setQuestions(List.of(1));
+        questionReplica.load(List.of(question(1)), 5);
+
+        when(quizDAO.existsQuizById(1)).thenReturn(true);
+        when(quizDAO.findById(1)).thenReturn(Optional.of(quiz));
+        when(quizInterface.getQuestionsFromId(List.of(1))).thenThrow(new IllegalStateException("QUESTION-SERVICE is down"));
+
+        ResponseEntity<List<QuestionWrapper>> questions = underTest.getQuizQuestions(1);
+
+        assertThat(questions.getBody()).containsExactly(new QuestionWrapper(1, "Question 1", "Option 1", "Option 2", "Option 3", "Option 4"));
+    }
+
+    private static Question question(Integer id) {
+        return new Question(id, "Question " + id, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "History", "Option " + id);
+    }
+
     @Test
     void calculateResults() {
     }
@@ -0,0 +1,165 @@
+package com.varma.quizservice.service;
+
+import com.varma.quizservice.coalescing.QuizQuestionsFlight;
+import com.varma.quizservice.exception.InvalidSubmissionException;
+import com.varma.quizservice.exception.ResourceNotFoundException;
+import com.varma.quizservice.model.AnswerKeyEntry;
+import com.varma.quizservice.model.Question;
+import com.varma.quizservice.model.QuestionWrapper;
+import com.varma.quizservice.model.Quiz;
+import com.varma.quizservice.model.QuizDto;
+import com.varma.quizservice.model.Response;
+import com.varma.quizservice.model.SubmissionStatus;
+import com.varma.quizservice.pool.QuizPoolProperties;
+import com.varma.quizservice.pool.QuizPools;
+import com.varma.quizservice.quizDAO.ReactiveQuizRepository;
+import com.varma.quizservice.reactive.ReactiveQuestionClient;
+import com.varma.quizservice.replica.QuestionReplica;
+import com.varma.quizservice.scoring.AnswerKeyCache;
+import com.varma.quizservice.submission.SubmissionQueue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveQuizServiceTest {
+
+    @Mock
+    private ReactiveQuizRepository reactiveQuizRepository;
+
+    @Mock
+    private ReactiveQuestionClient reactiveQuestionClient;
+
+    @Mock
+    private SubmissionQueue submissionQueue;
+
+    @Spy
+    private QuestionReplica questionReplica = new QuestionReplica(Duration.ofSeconds(30));
+
+    @Spy
+    private AnswerKeyCache answerKeyCache = new AnswerKeyCache(100);
+
+    @Spy
+    private QuizQuestionsFlight quizQuestionsFlight = new QuizQuestionsFlight(Duration.ofSeconds(5), Duration.ZERO, 100);
+
+    @Spy
+    private QuizPools quizPools = new QuizPools(new QuizPoolProperties());
+
+    @InjectMocks
+    private ReactiveQuizService underTest;
+
+    @Test
+    @DisplayName("Should insert the created quiz with the questions drawn by question-service and their answers")
+    void createQuizShouldInsertTheQuizWithItsAnswerKey() {
+        QuizDto quizDto = new QuizDto();
+        quizDto.setCategory("History");
+        quizDto.setNoOfQuestions(2);
+        quizDto.setTitle("History Quiz");
+
+        when(reactiveQuestionClient.getQuestionsForQuiz(List.of("History"), 2, null, null, null)).thenReturn(Mono.just(List.of(4, 8)));
+        when(reactiveQuestionClient.getAnswerKey(List.of(4, 8))).thenReturn(Mono.just(List.of(
+                new AnswerKeyEntry(4, "Option 1"), new AnswerKeyEntry(8, "Option 2"))));
+        when(reactiveQuizRepository.insert(any(Quiz.class))).thenReturn(Mono.just(1));
+
+        ResponseEntity<String> response = underTest.createQuiz(quizDto).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).isEqualTo("success");
+        verify(reactiveQuizRepository, times(1)).insert(argThat(quiz -> quiz.getQuestions().equals(List.of(4, 8))
+                && quiz.getTitle().equals("History Quiz")
+                && Arrays.equals(quiz.getAnswerKey(), new String[]{"Option 1", "Option 2"})));
+    }
+
+    @Test
+    @DisplayName("Should fail with a ResourceNotFoundException when the quiz id does not exist")
+    void getQuizQuestionsWhenQuizIdDoesNotExistThenFail() {
+        when(reactiveQuizRepository.findById(1)).thenReturn(Mono.empty());
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> underTest.getQuizQuestions(1).block());
+
+        assertThat(exception.getMessage()).isEqualTo("Quiz with id 1 not found");
+        verifyNoInteractions(reactiveQuestionClient);
+    }
+
+    @Test
+    @DisplayName("Should serve the lagging replica when question-service cannot be reached")
+    void getQuizQuestionsServesLaggingReplicaWhenQuestionServiceFails() {
+        questionReplica.load(List.of(question(1)), 5);
+        when(reactiveQuizRepository.findById(1)).thenReturn(Mono.just(quiz(1, List.of(1), null)));
+        when(reactiveQuestionClient.getQuestionsFromId(List.of(1))).thenReturn(Mono.error(new IllegalStateException("QUESTION-SERVICE is down")));
+
+        ResponseEntity<List<QuestionWrapper>> questions = underTest.getQuizQuestions(1).block();
+
+        assertThat(questions.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(questions.getBody()).containsExactly(new QuestionWrapper(1, "Question 1", "Option 1", "Option 2", "Option 3", "Option 4"));
+    }
+
+    @Test
+    @DisplayName("Should score submissions against the captured answer key with a single quiz read and record them")
+    void submitScoresAgainstTheCapturedAnswerKey() {
+        when(reactiveQuizRepository.findById(1)).thenReturn(Mono.just(quiz(1, List.of(7, 3), new String[]{"Option 7", "Option 3"})));
+        when(submissionQueue.tryRecord(any())).thenReturn(true);
+
+        ResponseEntity<Integer> first = underTest.submit(1, List.of(new Response(3, "Option 3"), new Response(7, "Option 1")), "ada", 1000L).block();
+        ResponseEntity<Integer> second = underTest.submit(1, List.of(new Response(3, "Option 3"), new Response(7, "Option 7")), null, null).block();
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody()).isEqualTo(1);
+        assertThat(second.getBody()).isEqualTo(2);
+        verify(reactiveQuizRepository, times(1)).findById(1);
+        verify(submissionQueue, times(1)).tryRecord(argThat(attempt -> attempt.getStatus() == SubmissionStatus.SCORED
+                && attempt.getScore() == 1 && "ada".equals(attempt.getUserId())));
+        verify(submissionQueue, never()).record(any());
+    }
+
+    @Test
+    @DisplayName("Should capture the answer key of a quiz created without one on its first submission")
+    void submitCapturesTheMissingAnswerKey() {
+        when(reactiveQuizRepository.findById(1)).thenReturn(Mono.just(quiz(1, List.of(1, 2), null)));
+        when(reactiveQuestionClient.getAnswerKey(List.of(1, 2))).thenReturn(Mono.just(List.of(
+                new AnswerKeyEntry(1, "Option 1"), new AnswerKeyEntry(2, "Option 2"))));
+        when(reactiveQuizRepository.updateAnswerKey(any(), any())).thenReturn(Mono.empty());
+        when(submissionQueue.tryRecord(any())).thenReturn(true);
+
+        ResponseEntity<Integer> score = underTest.submit(1, List.of(new Response(1, "Option 1"), new Response(2, "Option 2")), null, null).block();
+
+        assertThat(score.getBody()).isEqualTo(2);
+        verify(reactiveQuizRepository, times(1)).updateAnswerKey(eq(1), argThat(answers -> Arrays.equals(answers, new String[]{"Option 1", "Option 2"})));
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid user before reading the quiz")
+    void submitRejectsAnInvalidUser() {
+        assertThrows(InvalidSubmissionException.class, () -> underTest.submit(1, List.of(), " ", null).block());
+
+        verifyNoInteractions(reactiveQuizRepository, submissionQueue);
+    }
+
+    private static Quiz quiz(Integer id, List<Integer> questions, String[] answerKey) {
+        Quiz quiz = new Quiz();
+        quiz.setId(id);
+        quiz.setQuestions(questions);
+        quiz.setAnswerKey(answerKey);
+        return quiz;
+    }
+
+    private static Question question(Integer id) {
+        return new Question(id, "Question " + id, "Option 1", "Option 2", "Option 3", "Option 4", "Easy", "History", "Option " + id);
+    }
+}
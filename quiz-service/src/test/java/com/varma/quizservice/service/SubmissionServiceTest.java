@@ -0,0 +1,89 @@
+package com.varma.quizservice.service;
+
+import com.varma.quizservice.exception.ResourceNotFoundException;
+import com.varma.quizservice.model.Submission;
+import com.varma.quizservice.model.SubmissionStatus;
+import com.varma.quizservice.quizDAO.SubmissionDAO;
+import com.varma.quizservice.submission.SubmissionQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SubmissionServiceTest {
+
+    private final SubmissionQueue submissionQueue = mock(SubmissionQueue.class);
+
+    private final SubmissionDAO submissionDAO = mock(SubmissionDAO.class);
+
+    private final SubmissionService underTest = new SubmissionService(Duration.ofMinutes(10));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(underTest, "submissionQueue", submissionQueue);
+        ReflectionTestUtils.setField(underTest, "submissionDAO", submissionDAO);
+    }
+
+    @Test
+    @DisplayName("Should report a submission queued by another instance as pending")
+    void getResultWhenStoredAsPendingThenAccepted() {
+        Submission stored = submission(SubmissionStatus.PENDING, Instant.now().minusSeconds(5));
+        when(submissionDAO.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        ResponseEntity<Submission> result = underTest.getResult(stored.getId());
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(result.getBody()).isSameAs(stored);
+    }
+
+    @Test
+    @DisplayName("Should report a submission pending for longer than the timeout as failed")
+    void getResultWhenPendingForTooLongThenFailed() {
+        Submission stored = submission(SubmissionStatus.PENDING, Instant.now().minus(Duration.ofMinutes(11)));
+        when(submissionDAO.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        ResponseEntity<Submission> result = underTest.getResult(stored.getId());
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody().getStatus()).isEqualTo(SubmissionStatus.FAILED);
+        assertThat(result.getBody().getError()).isEqualTo("The submission was not scored in time");
+    }
+
+    @Test
+    @DisplayName("Should report a stored result")
+    void getResultWhenScoredThenOk() {
+        Submission stored = submission(SubmissionStatus.SCORED, Instant.now().minus(Duration.ofHours(1)));
+        when(submissionDAO.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        ResponseEntity<Submission> result = underTest.getResult(stored.getId());
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isSameAs(stored);
+    }
+
+    @Test
+    @DisplayName("Should throw ResourceNotFoundException for an unknown submission")
+    void getResultWhenUnknownThenThrow() {
+        UUID id = UUID.randomUUID();
+        when(submissionDAO.findById(id)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> underTest.getResult(id));
+    }
+
+    private static Submission submission(SubmissionStatus status, Instant submittedAt) {
+        return new Submission(UUID.randomUUID(), 1, "ada", null, status, status == SubmissionStatus.SCORED ? 3 : null, null, submittedAt,
+                status == SubmissionStatus.PENDING ? null : submittedAt);
+    }
+}
@@ -0,0 +1,195 @@
+package com.varma.quizservice.submission;
+
+import com.varma.quizservice.exception.ResourceNotFoundException;
+import com.varma.quizservice.leaderboard.Leaderboards;
+import com.varma.quizservice.model.Response;
+import com.varma.quizservice.model.Submission;
+import com.varma.quizservice.model.SubmissionStatus;
+import com.varma.quizservice.quizDAO.SubmissionJdbcRepository;
+import com.varma.quizservice.scoring.QuizAnswerKey;
+import com.varma.quizservice.service.QuizService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SubmissionQueueTest {
+
+    @Mock
+    private QuizService quizService;
+
+    @Mock
+    private SubmissionJdbcRepository submissionJdbcRepository;
+
+    @Mock
+    private Leaderboards leaderboards;
+
+    @InjectMocks
+    private SubmissionQueue underTest = new SubmissionQueue(4, 2, 10, 1);
+
+    @Test
+    @DisplayName("Should refuse a submission when the queue is full")
+    void offerWhenQueueIsFullThenRefuse() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        underTest.bindTo(registry);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(underTest.offer(pending(1), List.of())).isTrue();
+        }
+        Submission refused = pending(1);
+
+        assertThat(underTest.offer(refused, List.of())).isFalse();
+        assertThat(underTest.findPending(refused.getId())).isNull();
+        verify(submissionJdbcRepository, times(4)).insertPending(any(Submission.class));
+        verify(submissionJdbcRepository, never()).insertPending(refused);
+        assertThat(underTest.depth()).isEqualTo(4);
+        assertThat(registry.get("quiz.submission.rejected").counter().count()).isEqualTo(1);
+        assertThat(registry.get("quiz.submission.queue.depth").gauge().value()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should keep a submission queued when its pending row cannot be written")
+    void offerWhenThePendingRowCannotBeWrittenThenKeepTheSubmission() {
+        Submission submission = pending(1);
+        doThrow(new IllegalStateException("database is down")).when(submissionJdbcRepository).insertPending(submission);
+
+        assertThat(underTest.offer(submission, List.of())).isTrue();
+
+        assertThat(underTest.findPending(submission.getId())).isSameAs(submission);
+        assertThat(underTest.depth()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should bound attempts scored on submission apart from the submissions to score")
+    void recordedAttemptsDoNotTakeTheRoomOfSubmissions() {
+        assertThat(underTest.tryRecord(scored(3))).isTrue();
+        assertThat(underTest.tryRecord(scored(3))).isTrue();
+        assertThat(underTest.tryRecord(scored(3))).isFalse();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(underTest.offer(pending(1), List.of())).isTrue();
+        }
+        assertThat(underTest.offer(pending(1), List.of())).isFalse();
+        assertThat(underTest.depth()).isEqualTo(6);
+
+        Submission attempt = scored(3);
+        underTest.record(attempt);
+        verify(submissionJdbcRepository, times(1)).insertAll(List.of(attempt));
+    }
+
+    @Test
+    @DisplayName("Should resolve the answer key once per quiz and write the results of a batch together")
+    @SuppressWarnings("unchecked")
+    void processScoresABatchGroupedByQuiz() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        underTest.bindTo(registry);
+        when(quizService.getAnswerKey(1)).thenReturn(QuizAnswerKey.of(1, List.of(10, 11), new String[]{"a", "b"}));
+        when(quizService.getAnswerKey(2)).thenThrow(new ResourceNotFoundException("Quiz with id 2 not found"));
+        SubmissionQueue.QueuedSubmission scored = queued(1, List.of(new Response(10, "a"), new Response(11, "c")));
+        scored.submission().setUserId("ada");
+        scored.submission().setDurationMillis(4000L);
+        SubmissionQueue.QueuedSubmission invalid = queued(1, List.of(new Response(12, "a")));
+        SubmissionQueue.QueuedSubmission missingQuiz = queued(2, List.of(new Response(10, "a")));
+        SubmissionQueue.QueuedSubmission alsoScored = queued(1, List.of(new Response(10, "a"), new Response(11, "b")));
+        List<SubmissionQueue.QueuedSubmission> batch = List.of(scored, invalid, missingQuiz, alsoScored);
+        batch.forEach(queued -> assertThat(underTest.offer(queued.submission(), queued.responses())).isTrue());
+
+        underTest.process(batch);
+
+        verify(quizService, times(1)).getAnswerKey(1);
+        verify(quizService, times(1)).getAnswerKey(2);
+        ArgumentCaptor<List<Submission>> stored = ArgumentCaptor.forClass(List.class);
+        verify(submissionJdbcRepository, times(1)).insertAll(stored.capture());
+        assertThat(stored.getValue()).extracting(Submission::getId).containsExactlyInAnyOrder(
+                scored.submission().getId(), invalid.submission().getId(), missingQuiz.submission().getId(), alsoScored.submission().getId());
+        assertThat(stored.getValue()).extracting(Submission::getStatus, Submission::getScore, Submission::getError).containsExactly(
+                tuple(SubmissionStatus.SCORED, 1, null),
+                tuple(SubmissionStatus.REJECTED, null, "Quiz 1 has no questions with IDs: [12]"),
+                tuple(SubmissionStatus.SCORED, 2, null),
+                tuple(SubmissionStatus.REJECTED, null, "Quiz with id 2 not found"));
+        assertThat(stored.getValue()).allSatisfy(submission -> assertThat(submission.getScoredAt()).isNotNull());
+        verify(leaderboards, times(1)).record(1, "ada", 1, 4000L, stored.getValue().get(0).getScoredAt());
+        verifyNoMoreInteractions(leaderboards);
+        batch.forEach(queued -> assertThat(underTest.findPending(queued.submission().getId())).isNull());
+        assertThat(registry.get("quiz.submission.latency").timer().count()).isEqualTo(4);
+        assertThat(registry.get("quiz.submission.batch.size").summary().totalAmount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should write an attempt scored on submission with the next batch and rank it")
+    void processWritesAnAttemptScoredOnSubmission() throws InterruptedException {
+        Submission attempt = new Submission(UUID.randomUUID(), 3, "grace", null, SubmissionStatus.SCORED, 5, null, Instant.now(), Instant.now());
+        underTest.record(attempt);
+        assertThat(underTest.depth()).isEqualTo(1);
+
+        underTest.process(List.of(new SubmissionQueue.QueuedSubmission(attempt, null, System.nanoTime())));
+
+        verify(submissionJdbcRepository, times(1)).insertAll(List.of(attempt));
+        verify(leaderboards, times(1)).record(3, "grace", 5, null, attempt.getScoredAt());
+        verifyNoInteractions(quizService);
+    }
+
+    @Test
+    @DisplayName("Should keep the submissions of a batch as failed when their results cannot be written")
+    void processKeepsUnwrittenResultsAsFailed() throws InterruptedException {
+        when(quizService.getAnswerKey(1)).thenReturn(QuizAnswerKey.of(1, List.of(10), new String[]{"a"}));
+        doThrow(new IllegalStateException("database is down")).when(submissionJdbcRepository).insertAll(anyList());
+        SubmissionQueue.QueuedSubmission queued = queued(1, List.of(new Response(10, "a")));
+        queued.submission().setUserId("ada");
+        assertThat(underTest.offer(queued.submission(), queued.responses())).isTrue();
+
+        underTest.process(List.of(queued));
+
+        verify(submissionJdbcRepository, times(3)).insertAll(anyList());
+        verifyNoInteractions(leaderboards);
+        assertThat(underTest.findPending(queued.submission().getId()))
+                .extracting(Submission::getStatus, Submission::getError)
+                .containsExactly(SubmissionStatus.FAILED, "The result could not be written");
+    }
+
+    @Test
+    @DisplayName("Should not leave the submissions of a batch pending when processing it is interrupted")
+    void processWhenInterruptedThenNothingIsLeftPending() {
+        when(quizService.getAnswerKey(1)).thenReturn(QuizAnswerKey.of(1, List.of(10), new String[]{"a"}));
+        doAnswer(invocation -> {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("database is down");
+        }).when(submissionJdbcRepository).insertAll(anyList());
+        SubmissionQueue.QueuedSubmission queued = queued(1, List.of(new Response(10, "a")));
+        assertThat(underTest.offer(queued.submission(), queued.responses())).isTrue();
+
+        try {
+            assertThrows(InterruptedException.class, () -> underTest.process(List.of(queued)));
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertThat(underTest.findPending(queued.submission().getId()).getStatus()).isEqualTo(SubmissionStatus.FAILED);
+    }
+
+    private static SubmissionQueue.QueuedSubmission queued(int quizId, List<Response> responses) {
+        return new SubmissionQueue.QueuedSubmission(pending(quizId), responses, System.nanoTime());
+    }
+
+    private static Submission scored(int quizId) {
+        return new Submission(UUID.randomUUID(), quizId, null, null, SubmissionStatus.SCORED, 1, null, Instant.now(), Instant.now());
+    }
+
+    private static Submission pending(int quizId) {
+        return new Submission(UUID.randomUUID(), quizId, null, null, SubmissionStatus.PENDING, null, null, Instant.now(), null);
+    }
+}